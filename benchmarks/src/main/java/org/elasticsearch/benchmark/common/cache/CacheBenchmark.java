@@ -0,0 +1,98 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.common.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of concurrent reads and writes on {@link Cache}, with keys that follow a skewed distribution.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class CacheBenchmark {
+
+    private static final int NUMBER_OF_KEYS = 1 << 16;
+
+    @Param({ "4096" })
+    private int maximumWeight;
+
+    @Param({ "false", "true" })
+    private boolean frequencyAdmission;
+
+    private Cache<Integer, Integer> cache;
+    private int[] keys;
+
+    @Setup
+    public void setUp() {
+        CacheBuilder<Integer, Integer> builder = CacheBuilder.<Integer, Integer>builder().setMaximumWeight(maximumWeight);
+        if (frequencyAdmission) {
+            builder.setFrequencyAdmission(maximumWeight);
+        }
+        cache = builder.build();
+        // a few hot keys are accessed much more often than the long tail of keys
+        Random random = new Random(42);
+        keys = new int[NUMBER_OF_KEYS];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (int) Math.pow(NUMBER_OF_KEYS, random.nextDouble());
+        }
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(keys[i], keys[i]);
+        }
+    }
+
+    @Benchmark
+    public Integer get() {
+        int key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+        return cache.get(key);
+    }
+
+    @Benchmark
+    public Integer getOrPut() {
+        int key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+        Integer value = cache.get(key);
+        if (value == null) {
+            cache.put(key, key);
+            return key;
+        }
+        return value;
+    }
+}
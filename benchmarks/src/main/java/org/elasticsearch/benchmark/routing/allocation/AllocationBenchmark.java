@@ -113,6 +113,7 @@ public class AllocationBenchmark {
 
     private AllocationService strategy;
     private ClusterState initialClusterState;
+    private ClusterState balancedClusterState;
 
     @Setup
     public void setUp() throws Exception {
@@ -151,6 +152,15 @@ public class AllocationBenchmark {
             .routingTable(routingTable)
             .nodes(nb)
             .build();
+
+        balancedClusterState = initialClusterState;
+        do {
+            balancedClusterState = strategy.applyStartedShards(
+                balancedClusterState,
+                balancedClusterState.getRoutingNodes().shardsWithState(ShardRoutingState.INITIALIZING)
+            );
+            balancedClusterState = strategy.reroute(balancedClusterState, "reroute");
+        } while (balancedClusterState.getRoutingNodes().shardsWithState(ShardRoutingState.INITIALIZING).isEmpty() == false);
     }
 
     private int toInt(String v) {
@@ -169,4 +179,12 @@ public class AllocationBenchmark {
         }
         return clusterState;
     }
+
+    /**
+     * Measures a reroute of a cluster whose shards are all started and balanced, which is what most reroutes of a stable cluster do.
+     */
+    @Benchmark
+    public ClusterState measureRerouteOfBalancedCluster() {
+        return strategy.reroute(balancedClusterState, "reroute");
+    }
 }
@@ -43,6 +43,10 @@ public final class GrokProcessor extends AbstractProcessor {
     private final String matchField;
     private final List<String> matchPatterns;
     private final Grok grok;
+    // the patterns compiled on their own, if they are all anchored and can be tried in turn instead of through the combined expression
+    private final Grok[] anchoredGroks;
+    // the literal text that a field value needs to start with for the anchored pattern at the same position to possibly match it
+    private final String[] literalPrefixes;
     private final boolean traceMatch;
     private final boolean ignoreMissing;
 
@@ -52,6 +56,16 @@ public final class GrokProcessor extends AbstractProcessor {
         this.matchField = matchField;
         this.matchPatterns = matchPatterns;
         this.grok = new Grok(patternBank, combinePatterns(matchPatterns, traceMatch), matcherWatchdog, logger::debug);
+        String[] literalPrefixes = literalPrefixes(matchPatterns);
+        if (literalPrefixes != null) {
+            this.anchoredGroks = new Grok[matchPatterns.size()];
+            for (int i = 0; i < anchoredGroks.length; i++) {
+                anchoredGroks[i] = new Grok(patternBank, matchPatterns.get(i), matcherWatchdog, logger::debug);
+            }
+        } else {
+            this.anchoredGroks = null;
+        }
+        this.literalPrefixes = literalPrefixes;
         this.traceMatch = traceMatch;
         this.ignoreMissing = ignoreMissing;
         // Joni warnings are only emitted on an attempt to match, and the warning emitted for every call to match which is too verbose
@@ -69,6 +83,25 @@ public final class GrokProcessor extends AbstractProcessor {
             throw new IllegalArgumentException("field [" + matchField + "] is null, cannot process it.");
         }
 
+        // a field value that spans multiple lines could be matched by an anchored pattern at the start of any of its lines, in which
+        // case the combined expression decides which pattern matches at the earliest line
+        if (anchoredGroks != null && fieldValue.indexOf('\n') < 0) {
+            for (int i = 0; i < anchoredGroks.length; i++) {
+                if (fieldValue.startsWith(literalPrefixes[i]) == false) {
+                    continue;
+                }
+                Map<String, Object> matches = anchoredGroks[i].captures(fieldValue);
+                if (matches != null) {
+                    matches.forEach(ingestDocument::setFieldValue);
+                    if (traceMatch) {
+                        ingestDocument.setFieldValue(PATTERN_MATCH_KEY, Integer.toString(i));
+                    }
+                    return ingestDocument;
+                }
+            }
+            throw new IllegalArgumentException("Provided Grok expressions do not match field value: [" + fieldValue + "]");
+        }
+
         Map<String, Object> matches = grok.captures(fieldValue);
         if (matches == null) {
             throw new IllegalArgumentException("Provided Grok expressions do not match field value: [" + fieldValue + "]");
@@ -111,6 +144,86 @@ public final class GrokProcessor extends AbstractProcessor {
         return matchPatterns;
     }
 
+    /**
+     * Returns the literal text that each of the given patterns requires a field value to start with, or {@code null} if the patterns
+     * cannot be told apart by the start of field values, because there is only one, or because not all of them are anchored with a
+     * leading {@code ^}, or because none of them starts with literal text after their anchor.
+     */
+    static String[] literalPrefixes(List<String> patterns) {
+        if (patterns.size() < 2) {
+            return null;
+        }
+        String[] literalPrefixes = new String[patterns.size()];
+        boolean hasLiteralPrefix = false;
+        for (int i = 0; i < literalPrefixes.length; i++) {
+            literalPrefixes[i] = anchoredLiteralPrefix(patterns.get(i));
+            if (literalPrefixes[i] == null) {
+                return null;
+            }
+            hasLiteralPrefix |= literalPrefixes[i].isEmpty() == false;
+        }
+        return hasLiteralPrefix ? literalPrefixes : null;
+    }
+
+    /**
+     * Returns the literal text that follows the leading {@code ^} of the given pattern, which may be empty, or {@code null} if the
+     * pattern is not anchored as a whole.
+     */
+    static String anchoredLiteralPrefix(String pattern) {
+        if (pattern.startsWith("^") == false || hasTopLevelAlternation(pattern)) {
+            return null;
+        }
+        StringBuilder prefix = new StringBuilder();
+        int i = 1;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            int next = i + 1;
+            if (c == '\\') {
+                if (next == pattern.length() || Character.isLetterOrDigit(pattern.charAt(next))) {
+                    // character classes like \d and back references are not literal
+                    break;
+                }
+                c = pattern.charAt(next++);
+            } else if (c == '%' && next < pattern.length() && pattern.charAt(next) == '{') {
+                break;
+            } else if (".[]()|^$?*+{}".indexOf(c) >= 0) {
+                break;
+            }
+            if (next < pattern.length() && "?*{".indexOf(pattern.charAt(next)) >= 0) {
+                // the character is optional or repeated any number of times
+                break;
+            }
+            prefix.append(c);
+            if (next < pattern.length() && pattern.charAt(next) == '+') {
+                break;
+            }
+            i = next;
+        }
+        return prefix.toString();
+    }
+
+    private static boolean hasTopLevelAlternation(String pattern) {
+        int depth = 0;
+        boolean inCharacterClass = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (inCharacterClass) {
+                inCharacterClass = c != ']';
+            } else if (c == '[') {
+                inCharacterClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     static String combinePatterns(List<String> patterns, boolean traceMatch) {
         String combinedPattern;
         if (patterns.size() > 1) {
@@ -250,4 +250,48 @@ public class GrokProcessorTests extends ESTestCase {
         assertFalse(doc.hasField("first"));
         assertThat(doc.getFieldValue("second", String.class), equalTo("3"));
     }
+
+    public void testAnchoredPatternsWithLiteralPrefixes() throws Exception {
+        Map<String, String> patternBank = new HashMap<>();
+        patternBank.put("NUM", "[0-9]+");
+        patternBank.put("WORD", "[a-z]+");
+        GrokProcessor processor = new GrokProcessor(randomAlphaOfLength(10), null, patternBank,
+            Arrays.asList("^GET %{WORD:path}", "^POST %{WORD:path} %{NUM:size}", "^%{WORD:method}"), "message", true, false,
+            MatcherWatchdog.noop());
+
+        IngestDocument doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>(Map.of("message", "POST index 42")));
+        processor.execute(doc);
+        assertThat(doc.getFieldValue("path", String.class), equalTo("index"));
+        assertThat(doc.getFieldValue("size", String.class), equalTo("42"));
+        assertThat(doc.getFieldValue("_ingest._grok_match_index", String.class), equalTo("1"));
+
+        doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>(Map.of("message", "delete index")));
+        processor.execute(doc);
+        assertThat(doc.getFieldValue("method", String.class), equalTo("delete"));
+        assertThat(doc.getFieldValue("_ingest._grok_match_index", String.class), equalTo("2"));
+
+        // the anchor of a pattern also matches at the start of any line, which the combined expression takes care of
+        doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>(Map.of("message", "1\nGET index")));
+        processor.execute(doc);
+        assertThat(doc.getFieldValue("path", String.class), equalTo("index"));
+        assertThat(doc.getFieldValue("_ingest._grok_match_index", String.class), equalTo("0"));
+
+        IngestDocument noMatch = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>(Map.of("message", "GET 1")));
+        Exception e = expectThrows(Exception.class, () -> processor.execute(noMatch));
+        assertThat(e.getMessage(), equalTo("Provided Grok expressions do not match field value: [GET 1]"));
+    }
+
+    public void testLiteralPrefixes() {
+        assertThat(GrokProcessor.anchoredLiteralPrefix("^GET %{WORD:path}"), equalTo("GET "));
+        assertThat(GrokProcessor.anchoredLiteralPrefix("^\\[INFO\\] %{GREEDYDATA:message}"), equalTo("[INFO] "));
+        assertThat(GrokProcessor.anchoredLiteralPrefix("^abc?d"), equalTo("ab"));
+        assertThat(GrokProcessor.anchoredLiteralPrefix("^ab+c"), equalTo("ab"));
+        assertThat(GrokProcessor.anchoredLiteralPrefix("^\\d+"), equalTo(""));
+        assertThat(GrokProcessor.anchoredLiteralPrefix("^a(b|c)"), equalTo("a"));
+        assertThat(GrokProcessor.anchoredLiteralPrefix("^a|b"), equalTo(null));
+        assertThat(GrokProcessor.anchoredLiteralPrefix("a"), equalTo(null));
+        assertThat(GrokProcessor.literalPrefixes(Arrays.asList("^a", "b")), equalTo(null));
+        assertThat(GrokProcessor.literalPrefixes(Arrays.asList("^a", "^%{WORD:b}")), equalTo(new String[] {"a", ""}));
+        assertThat(GrokProcessor.literalPrefixes(Arrays.asList("^%{WORD:a}", "^%{WORD:b}")), equalTo(null));
+    }
 }
@@ -19,16 +19,20 @@
 
 package org.elasticsearch.ingest.geoip;
 
+import com.maxmind.db.Network;
 import com.maxmind.db.NoCache;
 import com.maxmind.db.NodeCache;
 import com.maxmind.db.Reader;
 import com.maxmind.geoip2.DatabaseReader;
+import com.maxmind.geoip2.model.AbstractCountryResponse;
 import com.maxmind.geoip2.model.AbstractResponse;
+import com.maxmind.geoip2.model.AsnResponse;
 import org.elasticsearch.common.Booleans;
 import org.elasticsearch.common.SuppressForbidden;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
 import org.elasticsearch.common.io.PathUtils;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.ingest.Processor;
@@ -37,7 +41,9 @@ import org.elasticsearch.plugins.Plugin;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.net.Inet4Address;
 import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
@@ -169,9 +175,22 @@ public class IngestGeoIpPlugin extends Plugin implements IngestPlugin, Closeable
      * This cache differs from the maxmind's {@link NodeCache} such that this cache stores the deserialized Json objects to avoid the
      * cost of deserialization for each lookup (cached or not). This comes at slight expense of higher memory usage, but significant
      * reduction of CPU usage.
+     * Responses are cached for the network that the database returned them for, so that a single entry serves all the addresses of
+     * that network. To find the entry of an address, the address is truncated to the prefix lengths of the networks that were cached
+     * for its bucket, the /16 of an IPv4 or the /32 of an IPv6 address. The networks of a database do not overlap, so at most one of
+     * these truncated addresses has an entry. A bucket remembers at most {@link #MAX_PREFIX_LENGTHS_PER_BUCKET} prefix lengths, which
+     * bounds the number of probes of a lookup.
      */
     static class GeoIpCache {
+        static final int IPV4_BUCKET_PREFIX_LENGTH = 16;
+        static final int IPV6_BUCKET_PREFIX_LENGTH = 32;
+        static final int MAX_PREFIX_LENGTHS_PER_BUCKET = 4;
+
         private final Cache<CacheKey<?>, AbstractResponse> cache;
+        // the prefix lengths of the networks that have been cached per bucket, most recently cached first
+        private final Cache<CacheKey<?>, int[]> prefixLengthsByBucket;
+        private final CounterMetric hits = new CounterMetric();
+        private final CounterMetric misses = new CounterMetric();
 
         //package private for testing
         GeoIpCache(long maxSize) {
@@ -179,26 +198,94 @@ public class IngestGeoIpPlugin extends Plugin implements IngestPlugin, Closeable
                 throw new IllegalArgumentException("geoip max cache size must be 0 or greater");
             }
             this.cache = CacheBuilder.<CacheKey<?>, AbstractResponse>builder().setMaximumWeight(maxSize).build();
+            this.prefixLengthsByBucket = CacheBuilder.<CacheKey<?>, int[]>builder().setMaximumWeight(maxSize).build();
         }
 
         <T extends AbstractResponse> T putIfAbsent(InetAddress ip, Class<T> responseType,
                                                    Function<InetAddress, AbstractResponse> retrieveFunction) {
 
             //can't use cache.computeIfAbsent due to the elevated permissions for the jackson (run via the cache loader)
-            CacheKey<T> cacheKey = new CacheKey<>(ip, responseType);
             //intentionally non-locking for simplicity...it's OK if we re-put the same key/value in the cache during a race condition.
-            AbstractResponse response = cache.get(cacheKey);
+            AbstractResponse response = get(ip, responseType);
             if (response == null) {
                 response = retrieveFunction.apply(ip);
-                cache.put(cacheKey, response);
+                final int addressLength = ip.getAddress().length * Byte.SIZE;
+                Network network = network(response);
+                int prefixLength = network != null ? Math.min(network.getPrefixLength(), addressLength) : addressLength;
+                cache.put(new CacheKey<>(truncate(ip, prefixLength), prefixLength, responseType), response);
+                addPrefixLength(bucketKey(ip, responseType), prefixLength);
             }
             return responseType.cast(response);
         }
 
-        //only useful for testing
         <T extends AbstractResponse> T get(InetAddress ip, Class<T> responseType) {
-            CacheKey<T> cacheKey = new CacheKey<>(ip, responseType);
-            return responseType.cast(cache.get(cacheKey));
+            final int[] prefixLengths = prefixLengthsByBucket.get(bucketKey(ip, responseType));
+            if (prefixLengths != null) {
+                for (int prefixLength : prefixLengths) {
+                    AbstractResponse response = cache.get(new CacheKey<>(truncate(ip, prefixLength), prefixLength, responseType));
+                    if (response != null) {
+                        hits.inc();
+                        return responseType.cast(response);
+                    }
+                }
+            }
+            misses.inc();
+            return null;
+        }
+
+        /**
+         * Returns the hits and misses of the lookups of this cache, and the number of responses that were evicted from it.
+         */
+        Cache.CacheStats getStats() {
+            return new Cache.CacheStats(hits.count(), misses.count(), cache.stats().getEvictions());
+        }
+
+        //package private for testing
+        Cache.CacheStats getNetworkCacheStats() {
+            return cache.stats();
+        }
+
+        // a lost update during a race condition only costs a cache miss, see putIfAbsent
+        private void addPrefixLength(CacheKey<?> bucketKey, int prefixLength) {
+            final int[] prefixLengths = prefixLengthsByBucket.get(bucketKey);
+            if (prefixLengths == null) {
+                prefixLengthsByBucket.put(bucketKey, new int[] { prefixLength });
+            } else if (Arrays.stream(prefixLengths).noneMatch(length -> length == prefixLength)) {
+                int[] newPrefixLengths = new int[Math.min(prefixLengths.length + 1, MAX_PREFIX_LENGTHS_PER_BUCKET)];
+                newPrefixLengths[0] = prefixLength;
+                System.arraycopy(prefixLengths, 0, newPrefixLengths, 1, newPrefixLengths.length - 1);
+                prefixLengthsByBucket.put(bucketKey, newPrefixLengths);
+            }
+        }
+
+        private static CacheKey<?> bucketKey(InetAddress ip, Class<? extends AbstractResponse> responseType) {
+            final int bucketPrefixLength = ip instanceof Inet4Address ? IPV4_BUCKET_PREFIX_LENGTH : IPV6_BUCKET_PREFIX_LENGTH;
+            return new CacheKey<>(truncate(ip, bucketPrefixLength), bucketPrefixLength, responseType);
+        }
+
+        private static Network network(AbstractResponse response) {
+            if (response instanceof AbstractCountryResponse) {
+                return ((AbstractCountryResponse) response).getTraits().getNetwork();
+            } else if (response instanceof AsnResponse) {
+                return ((AsnResponse) response).getNetwork();
+            }
+            return null;
+        }
+
+        private static InetAddress truncate(InetAddress ip, int prefixLength) {
+            byte[] address = ip.getAddress();
+            if (prefixLength == address.length * Byte.SIZE) {
+                return ip;
+            }
+            for (int i = 0; i < address.length; i++) {
+                int bits = Math.max(0, Math.min(Byte.SIZE, prefixLength - i * Byte.SIZE));
+                address[i] &= (byte) (0xFF << (Byte.SIZE - bits));
+            }
+            try {
+                return InetAddress.getByAddress(address);
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
         }
 
          /**
@@ -206,15 +293,18 @@ public class IngestGeoIpPlugin extends Plugin implements IngestPlugin, Closeable
          * type is needed to be included in the cache key. For example, if we only used the IP address as the key the City and ASN the same
          * IP may be in both with different values and we need to cache both. The response type scopes the IP to the correct database
          * provides a means to safely cast the return objects.
+         * The IP is the address of the network of the response, with the prefix length of the network.
          * @param <T> The AbstractResponse type used to scope the key and cast the result.
          */
         private static class CacheKey<T extends AbstractResponse> {
 
             private final InetAddress ip;
+            private final int prefixLength;
             private final Class<T> responseType;
 
-            private CacheKey(InetAddress ip, Class<T> responseType) {
+            private CacheKey(InetAddress ip, int prefixLength, Class<T> responseType) {
                 this.ip = ip;
+                this.prefixLength = prefixLength;
                 this.responseType = responseType;
             }
 
@@ -224,14 +314,15 @@ public class IngestGeoIpPlugin extends Plugin implements IngestPlugin, Closeable
                 if (this == o) return true;
                 if (o == null || getClass() != o.getClass()) return false;
                 CacheKey<?> cacheKey = (CacheKey<?>) o;
-                return Objects.equals(ip, cacheKey.ip) &&
+                return prefixLength == cacheKey.prefixLength &&
+                    Objects.equals(ip, cacheKey.ip) &&
                     Objects.equals(responseType, cacheKey.responseType);
             }
 
             //generated
             @Override
             public int hashCode() {
-                return Objects.hash(ip, responseType);
+                return Objects.hash(ip, prefixLength, responseType);
             }
         }
     }
@@ -19,12 +19,17 @@
 
 package org.elasticsearch.ingest.geoip;
 
+import com.maxmind.db.Network;
 import com.maxmind.geoip2.model.AbstractResponse;
+import com.maxmind.geoip2.model.AsnResponse;
+import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.network.InetAddresses;
 import org.elasticsearch.ingest.geoip.IngestGeoIpPlugin.GeoIpCache;
 import org.elasticsearch.test.ESTestCase;
 
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class IngestGeoIpPluginTests extends ESTestCase {
 
@@ -49,6 +54,73 @@ public class IngestGeoIpPluginTests extends ESTestCase {
         assertNotSame(response1, cache.get(InetAddresses.forString("127.0.0.1"), AbstractResponse.class));
     }
 
+    public void testCachesResultsForNetwork() {
+        GeoIpCache cache = new GeoIpCache(10);
+        AsnResponse response1 = mock(AsnResponse.class);
+        when(response1.getNetwork()).thenReturn(new Network(InetAddresses.forString("10.1.0.0"), 16));
+        AsnResponse response2 = mock(AsnResponse.class);
+        when(response2.getNetwork()).thenReturn(new Network(InetAddresses.forString("10.2.3.0"), 24));
+
+        assertSame(response1, cache.putIfAbsent(InetAddresses.forString("10.1.2.3"), AsnResponse.class, ip -> response1));
+        // any address of the network is served from the cache
+        assertSame(response1, cache.putIfAbsent(InetAddresses.forString("10.1.255.1"), AsnResponse.class, ip -> {
+            throw new AssertionError("expected a cached response");
+        }));
+        assertSame(response1, cache.get(InetAddresses.forString("10.1.0.0"), AsnResponse.class));
+        assertNull(cache.get(InetAddresses.forString("10.2.3.4"), AsnResponse.class));
+        assertNull(cache.get(InetAddresses.forString("10.1.2.3"), AbstractResponse.class));
+
+        assertSame(response2, cache.putIfAbsent(InetAddresses.forString("10.2.3.4"), AsnResponse.class, ip -> response2));
+        assertSame(response2, cache.get(InetAddresses.forString("10.2.3.200"), AsnResponse.class));
+        assertSame(response1, cache.get(InetAddresses.forString("10.1.3.200"), AsnResponse.class));
+        assertNull(cache.get(InetAddresses.forString("10.2.4.1"), AsnResponse.class));
+        assertNull(cache.get(InetAddresses.forString("::1"), AsnResponse.class));
+    }
+
+    public void testMissProbesAreBounded() {
+        GeoIpCache cache = new GeoIpCache(100);
+        // disjoint networks with distinct prefix lengths in the bucket 10.1.0.0/16
+        for (int prefixLength = 17; prefixLength <= 24; prefixLength++) {
+            String network = "10.1." + (256 >> (prefixLength - 16)) + ".0";
+            AsnResponse response = mock(AsnResponse.class);
+            when(response.getNetwork()).thenReturn(new Network(InetAddresses.forString(network), prefixLength));
+            assertSame(response, cache.putIfAbsent(InetAddresses.forString(network), AsnResponse.class, ip -> response));
+        }
+        // a network in another bucket with yet another prefix length
+        AsnResponse otherResponse = mock(AsnResponse.class);
+        when(otherResponse.getNetwork()).thenReturn(new Network(InetAddresses.forString("11.0.0.0"), 8));
+        assertSame(otherResponse, cache.putIfAbsent(InetAddresses.forString("11.2.3.4"), AsnResponse.class, ip -> otherResponse));
+
+        long probes = cache.getNetworkCacheStats().getMisses();
+        assertNull(cache.get(InetAddresses.forString("10.1.0.1"), AsnResponse.class));
+        assertThat(cache.getNetworkCacheStats().getMisses() - probes, lessThanOrEqualTo((long) GeoIpCache.MAX_PREFIX_LENGTHS_PER_BUCKET));
+
+        // a miss in a bucket without cached networks does not probe for networks at all
+        probes = cache.getNetworkCacheStats().getMisses();
+        assertNull(cache.get(InetAddresses.forString("10.2.0.1"), AsnResponse.class));
+        assertEquals(probes, cache.getNetworkCacheStats().getMisses());
+
+        // the most recently cached networks of a bucket are still found
+        assertNotNull(cache.get(InetAddresses.forString("10.1.1.5"), AsnResponse.class));
+        assertSame(otherResponse, cache.get(InetAddresses.forString("11.200.0.1"), AsnResponse.class));
+    }
+
+    public void testStats() {
+        GeoIpCache cache = new GeoIpCache(10);
+        AsnResponse response = mock(AsnResponse.class);
+        when(response.getNetwork()).thenReturn(new Network(InetAddresses.forString("10.1.0.0"), 16));
+
+        cache.putIfAbsent(InetAddresses.forString("10.1.2.3"), AsnResponse.class, ip -> response);
+        cache.putIfAbsent(InetAddresses.forString("10.1.4.5"), AsnResponse.class, ip -> response);
+        cache.get(InetAddresses.forString("10.1.6.7"), AsnResponse.class);
+        cache.get(InetAddresses.forString("10.2.6.7"), AsnResponse.class);
+
+        Cache.CacheStats stats = cache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(0, stats.getEvictions());
+    }
+
     public void testThrowsFunctionsException() {
         GeoIpCache cache = new GeoIpCache(1);
         IllegalArgumentException ex = expectThrows(IllegalArgumentException.class,
@@ -207,6 +207,7 @@ public class CommonStats implements Writeable, ToXContentFragment {
                         break;
                     case QueryCache:
                         queryCache = indicesQueryCache.getStats(indexShard.shardId());
+                        queryCache.add(indexShard.queryCachingPolicyStats());
                         break;
                     case FieldData:
                         fieldData = indexShard.fieldDataStats(flags.fieldDataFields());
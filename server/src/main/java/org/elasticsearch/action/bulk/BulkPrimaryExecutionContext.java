@@ -29,7 +29,9 @@ import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.translog.Translog;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * This is a utility class that holds the per request state needed to perform bulk operations on the primary.
@@ -75,6 +77,7 @@ class BulkPrimaryExecutionContext {
     private DocWriteRequest requestToExecute;
     private BulkItemResponse executionResult;
     private int retryCounter;
+    private boolean pendingMappingUpdatesMerged;
 
 
     BulkPrimaryExecutionContext(BulkShardRequest request, IndexShard primary) {
@@ -167,6 +170,30 @@ class BulkPrimaryExecutionContext {
     }
 
 
+    /** returns the item requests after the current one that are still to be executed */
+    public List<DocWriteRequest<?>> getPendingRequests() {
+        final List<DocWriteRequest<?>> pendingRequests = new ArrayList<>();
+        for (int i = findNextNonAborted(currentIndex + 1); i < request.items().length; i = findNextNonAborted(i + 1)) {
+            pendingRequests.add(request.items()[i].request());
+        }
+        return pendingRequests;
+    }
+
+    /**
+     * returns true if the mapping updates of the pending requests have not been merged into a mapping update of this request before,
+     * and marks them as merged
+     */
+    public boolean markPendingMappingUpdatesAsMerged() {
+        final boolean merged = pendingMappingUpdatesMerged;
+        pendingMappingUpdatesMerged = true;
+        return merged == false;
+    }
+
+    /** allows the mapping updates of the pending requests to be merged again, once a mapping update was applied */
+    public void resetPendingMappingUpdatesMerged() {
+        pendingMappingUpdatesMerged = false;
+    }
+
     /** returns the name of the index the current request used */
     public String getConcreteIndex() {
         return getCurrentItem().index();
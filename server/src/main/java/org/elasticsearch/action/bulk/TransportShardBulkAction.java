@@ -60,8 +60,11 @@ import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.mapper.DocumentMapperForType;
 import org.elasticsearch.index.mapper.MapperException;
 import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.Mapping;
+import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.SourceToParse;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShard;
@@ -87,6 +90,9 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
 
     private static final Logger logger = LogManager.getLogger(TransportShardBulkAction.class);
 
+    /** The maximum number of pending index requests that get parsed to merge their mapping updates into the one of the current request */
+    static final int MAX_PENDING_MAPPING_UPDATES_LOOK_AHEAD = 128;
+
     private final UpdateHelper updateHelper;
     private final MappingUpdatedAction mappingUpdatedAction;
 
@@ -292,35 +298,64 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                 return true;
             }
 
-            mappingUpdater.updateMappings(result.getRequiredMappingUpdate(), primary.shardId(),
-                new ActionListener<>() {
-                    @Override
-                    public void onResponse(Void v) {
-                        context.markAsRequiringMappingUpdate();
-                        waitForMappingUpdate.accept(
-                            ActionListener.runAfter(new ActionListener<>() {
-                                @Override
-                                public void onResponse(Void v) {
-                                    assert context.requiresWaitingForMappingUpdate();
-                                    context.resetForExecutionForRetry();
-                                }
-
-                                @Override
-                                public void onFailure(Exception e) {
-                                    context.failOnMappingUpdate(e);
-                                }
-                            }, () -> itemDoneListener.onResponse(null))
-                        );
+            final Mapping requiredMappingUpdate = result.getRequiredMappingUpdate();
+            Mapping mappingUpdate = requiredMappingUpdate;
+            if (context.markPendingMappingUpdatesAsMerged()) {
+                final Mapping mergedMappingUpdate = mergePendingMappingUpdates(mappingUpdate, context);
+                if (mergedMappingUpdate != mappingUpdate) {
+                    try {
+                        primary.mapperService().merge(MapperService.SINGLE_MAPPING_NAME,
+                            new CompressedXContent(mergedMappingUpdate, XContentType.JSON, ToXContent.EMPTY_PARAMS),
+                            MapperService.MergeReason.MAPPING_UPDATE_PREFLIGHT);
+                        mappingUpdate = mergedMappingUpdate;
+                    } catch (Exception e) {
+                        // the pending requests request their own mapping updates once they get executed
+                        logger.debug(() -> new ParameterizedMessage("{} merged mapping update rejected by primary", primary.shardId()), e);
                     }
+                }
+            }
 
-                    @Override
-                    public void onFailure(Exception e) {
-                        onComplete(exceptionToResult(e, primary, isDelete, version), context, updateResult);
-                        // Requesting mapping update failed, so we don't have to wait for a cluster state update
-                        assert context.isInitial();
-                        itemDoneListener.onResponse(null);
-                    }
-                });
+            final ActionListener<Void> mappingUpdateListener = new ActionListener<>() {
+                @Override
+                public void onResponse(Void v) {
+                    context.markAsRequiringMappingUpdate();
+                    waitForMappingUpdate.accept(
+                        ActionListener.runAfter(new ActionListener<>() {
+                            @Override
+                            public void onResponse(Void v) {
+                                assert context.requiresWaitingForMappingUpdate();
+                                context.resetForExecutionForRetry();
+                                // pending requests beyond the look-ahead or that were left out may need a merged update again
+                                context.resetPendingMappingUpdatesMerged();
+                            }
+
+                            @Override
+                            public void onFailure(Exception e) {
+                                context.failOnMappingUpdate(e);
+                            }
+                        }, () -> itemDoneListener.onResponse(null))
+                    );
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    onComplete(exceptionToResult(e, primary, isDelete, version), context, updateResult);
+                    // Requesting mapping update failed, so we don't have to wait for a cluster state update
+                    assert context.isInitial();
+                    itemDoneListener.onResponse(null);
+                }
+            };
+            if (mappingUpdate != requiredMappingUpdate) {
+                mappingUpdater.updateMappings(mappingUpdate, primary.shardId(),
+                    ActionListener.delegateResponse(mappingUpdateListener, (listener, e) -> {
+                        // the master rejected the merged mapping update, which the current request does not need all of, so it
+                        // requests its own mapping update instead and the pending requests request theirs once they get executed
+                        logger.debug(() -> new ParameterizedMessage("{} merged mapping update rejected by master", primary.shardId()), e);
+                        mappingUpdater.updateMappings(requiredMappingUpdate, primary.shardId(), listener);
+                    }));
+            } else {
+                mappingUpdater.updateMappings(mappingUpdate, primary.shardId(), mappingUpdateListener);
+            }
             return false;
         } else {
             onComplete(result, context, updateResult);
@@ -328,6 +363,44 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         return true;
     }
 
+    /**
+     * Merges the dynamic mapping updates that the pending index requests of the shard request require into the given mapping update, so
+     * that a shard request with many documents that add fields waits for a single mapping update from the master rather than one per
+     * document. Requests that fail to parse or whose mapping updates conflict are left to request their own mapping updates, and
+     * requests that need no mapping update are skipped. The look-ahead stops after {@link #MAX_PENDING_MAPPING_UPDATES_LOOK_AHEAD}
+     * documents so that a large shard request is not parsed twice.
+     */
+    static Mapping mergePendingMappingUpdates(Mapping mappingUpdate, BulkPrimaryExecutionContext context) {
+        final IndexShard primary = context.getPrimary();
+        DocumentMapperForType docMapper = null;
+        Mapping mergedMappingUpdate = mappingUpdate;
+        int parsedRequests = 0;
+        for (DocWriteRequest<?> pendingRequest : context.getPendingRequests()) {
+            if (pendingRequest instanceof IndexRequest == false) {
+                continue;
+            }
+            if (parsedRequests++ == MAX_PENDING_MAPPING_UPDATES_LOOK_AHEAD) {
+                break;
+            }
+            final IndexRequest request = (IndexRequest) pendingRequest;
+            try {
+                if (docMapper == null) {
+                    docMapper = primary.mapperService().documentMapperWithAutoCreate();
+                }
+                final ParsedDocument doc = docMapper.getDocumentMapper().parse(new SourceToParse(
+                    request.index(), request.id(), request.source(), request.getContentType(), request.routing()));
+                if (doc.dynamicMappingsUpdate() == null) {
+                    continue;
+                }
+                mergedMappingUpdate = mergedMappingUpdate.merge(doc.dynamicMappingsUpdate(), MapperService.MergeReason.MAPPING_UPDATE);
+            } catch (Exception e) {
+                logger.trace(() -> new ParameterizedMessage("{} failed to merge the mapping update of [{}]", primary.shardId(),
+                    request.id()), e);
+            }
+        }
+        return mergedMappingUpdate;
+    }
+
     private static Engine.Result exceptionToResult(Exception e, IndexShard primary, boolean isDelete, long version) {
         return isDelete ? primary.getFailedDeleteResult(e, version) : primary.getFailedIndexResult(e, version);
     }
@@ -24,14 +24,18 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.SearchService.CanMatchResponse;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.MinAndMax;
+import org.elasticsearch.search.sort.SortMode;
 import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.transport.Transport;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +57,8 @@ import java.util.stream.Stream;
  * When the query primary sort is perform on a field, this phase extracts the min/max value in each shard and
  * sort them according to the provided order. This can be useful for instance to ensure that shards that contain recent
  * data are executed first when sorting by descending timestamp.
+ * When the total hits are not tracked and shards also report the number of documents that match the query, shards
+ * that cannot contain any of the top documents according to their min/max values are skipped.
  */
 final class CanMatchPreFilterSearchPhase extends AbstractSearchAsyncAction<CanMatchResponse> {
 
@@ -100,6 +106,13 @@ final class CanMatchPreFilterSearchPhase extends AbstractSearchAsyncAction<CanMa
             possibleMatches.set(0);
         }
         SearchSourceBuilder source = getRequest().source();
+        boolean shouldSortShards = shouldSortShards(results.minAndMaxes);
+        if (shouldSortShards && canSkipNonCompetitiveShards(getRequest())) {
+            FieldSortBuilder fieldSort = FieldSortBuilder.getPrimaryFieldSortOrNull(source);
+            int topN = (source.from() == -1 ? SearchService.DEFAULT_FROM : source.from())
+                + (source.size() == -1 ? SearchService.DEFAULT_SIZE : source.size());
+            skipNonCompetitiveShards(possibleMatches, results.minAndMaxes, results.docCounts, fieldSort.order(), topN);
+        }
         int i = 0;
         for (SearchShardIterator iter : shardsIts) {
             if (possibleMatches.get(i++)) {
@@ -108,13 +121,87 @@ final class CanMatchPreFilterSearchPhase extends AbstractSearchAsyncAction<CanMa
                 iter.resetAndSkip();
             }
         }
-        if (shouldSortShards(results.minAndMaxes) == false) {
+        if (shouldSortShards == false) {
             return shardsIts;
         }
         FieldSortBuilder fieldSort = FieldSortBuilder.getPrimaryFieldSortOrNull(source);
         return new GroupShardsIterator<>(sortShards(shardsIts, results.minAndMaxes, fieldSort.order()));
     }
 
+    /**
+     * Returns true if the top documents of the provided request only depend on the primary sort values,
+     * in which case shards that cannot contain any of the top documents don't need to be queried.
+     */
+    private static boolean canSkipNonCompetitiveShards(SearchRequest request) {
+        SearchSourceBuilder source = request.source();
+        FieldSortBuilder fieldSort = FieldSortBuilder.getPrimaryFieldSortOrNull(source);
+        if (fieldSort == null
+                || fieldSort.getNestedSort() != null
+                || fieldSort.sortMode() == SortMode.SUM
+                || (fieldSort.missing() != null && "_last".equals(fieldSort.missing()) == false)) {
+            return false;
+        }
+        return request.scroll() == null
+            && SearchRequest.resolveTrackTotalHitsUpTo(request.scroll(), source) == SearchContext.TRACK_TOTAL_HITS_DISABLED
+            && source.size() != 0
+            && source.aggregations() == null
+            && source.suggest() == null
+            && source.postFilter() == null
+            && source.minScore() == null
+            && source.collapse() == null
+            && source.searchAfter() == null
+            && source.terminateAfter() == SearchContext.DEFAULT_TERMINATE_AFTER
+            && (source.rescores() == null || source.rescores().isEmpty());
+    }
+
+    /**
+     * Clears the shards of <code>possibleMatches</code> that cannot contain any of the <code>topN</code> documents.
+     * The shards are first ranked by their worst primary sort value, the first shards that contain at least
+     * <code>topN</code> matching documents give an upper bound of the worst top document. Shards that only
+     * contain values that sort after this bound are not competitive.
+     */
+    static void skipNonCompetitiveShards(FixedBitSet possibleMatches, MinAndMax<?>[] minAndMaxes, long[] docCounts,
+                                         SortOrder order, int topN) {
+        List<Integer> countedShards = IntStream.range(0, minAndMaxes.length)
+            .filter(i -> possibleMatches.get(i) && minAndMaxes[i] != null && docCounts[i] >= 0)
+            .boxed()
+            .sorted((a, b) -> compareSortValues(worstValue(minAndMaxes[a], order), worstValue(minAndMaxes[b], order), order))
+            .collect(Collectors.toList());
+        long count = 0;
+        Comparable<?> bound = null;
+        for (int shardIndex : countedShards) {
+            count += docCounts[shardIndex];
+            if (count >= topN) {
+                bound = worstValue(minAndMaxes[shardIndex], order);
+                break;
+            }
+        }
+        if (bound == null) {
+            return;
+        }
+        for (int i = 0; i < minAndMaxes.length; i++) {
+            // shards without min and max are kept since we don't know their content
+            if (possibleMatches.get(i) && minAndMaxes[i] != null
+                    && compareSortValues(bestValue(minAndMaxes[i], order), bound, order) > 0) {
+                possibleMatches.clear(i);
+            }
+        }
+    }
+
+    private static Comparable<?> bestValue(MinAndMax<?> minAndMax, SortOrder order) {
+        return order == SortOrder.ASC ? minAndMax.getMin() : minAndMax.getMax();
+    }
+
+    private static Comparable<?> worstValue(MinAndMax<?> minAndMax, SortOrder order) {
+        return order == SortOrder.ASC ? minAndMax.getMax() : minAndMax.getMin();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareSortValues(Comparable first, Comparable second, SortOrder order) {
+        int cmp = first.compareTo(second);
+        return order == SortOrder.ASC ? cmp : -cmp;
+    }
+
     private static List<SearchShardIterator> sortShards(GroupShardsIterator<SearchShardIterator> shardsIts,
                                                         MinAndMax<?>[] minAndMaxes,
                                                         SortOrder order) {
@@ -150,17 +237,20 @@ final class CanMatchPreFilterSearchPhase extends AbstractSearchAsyncAction<CanMa
     private static final class CanMatchSearchPhaseResults extends SearchPhaseResults<CanMatchResponse> {
         private final FixedBitSet possibleMatches;
         private final MinAndMax<?>[] minAndMaxes;
+        private final long[] docCounts;
         private int numPossibleMatches;
 
         CanMatchSearchPhaseResults(int size) {
             super(size);
             possibleMatches = new FixedBitSet(size);
             minAndMaxes = new MinAndMax[size];
+            docCounts = new long[size];
+            Arrays.fill(docCounts, -1);
         }
 
         @Override
         void consumeResult(CanMatchResponse result) {
-            consumeResult(result.getShardIndex(), result.canMatch(), result.estimatedMinAndMax());
+            consumeResult(result.getShardIndex(), result.canMatch(), result.estimatedMinAndMax(), result.docCount());
         }
 
         @Override
@@ -171,15 +261,16 @@ final class CanMatchPreFilterSearchPhase extends AbstractSearchAsyncAction<CanMa
         @Override
         void consumeShardFailure(int shardIndex) {
             // we have to carry over shard failures in order to account for them in the response.
-            consumeResult(shardIndex, true, null);
+            consumeResult(shardIndex, true, null, -1);
         }
 
-        synchronized void consumeResult(int shardIndex, boolean canMatch, MinAndMax<?> minAndMax) {
+        synchronized void consumeResult(int shardIndex, boolean canMatch, MinAndMax<?> minAndMax, long docCount) {
             if (canMatch) {
                 possibleMatches.set(shardIndex);
                 numPossibleMatches++;
             }
             minAndMaxes[shardIndex] = minAndMax;
+            docCounts[shardIndex] = docCount;
         }
 
         synchronized int getNumPossibleMatches() {
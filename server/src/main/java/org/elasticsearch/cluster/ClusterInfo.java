@@ -23,6 +23,7 @@ import com.carrotsearch.hppc.ObjectHashSet;
 import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -51,6 +52,12 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
     public static final ClusterInfo EMPTY = new ClusterInfo();
     final ImmutableOpenMap<ShardRouting, String> routingToDataPath;
     final ImmutableOpenMap<NodeAndPath, ReservedSpace> reservedSpace;
+    final ImmutableOpenMap<ShardId, Double> shardWriteLoads;
+
+    /**
+     * The version from which on the write loads of the shards are serialized.
+     */
+    public static final Version WRITE_LOAD_VERSION = Version.V_8_0_0;
 
     protected ClusterInfo() {
        this(ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of());
@@ -70,11 +77,31 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
                        ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsage, ImmutableOpenMap<String, Long> shardSizes,
                        ImmutableOpenMap<ShardRouting, String> routingToDataPath,
                        ImmutableOpenMap<NodeAndPath, ReservedSpace> reservedSpace) {
+        this(leastAvailableSpaceUsage, mostAvailableSpaceUsage, shardSizes, routingToDataPath, reservedSpace, ImmutableOpenMap.of());
+    }
+
+    /**
+     * Creates a new ClusterInfo instance.
+     *
+     * @param leastAvailableSpaceUsage a node id to disk usage mapping for the path that has the least available space on the node.
+     * @param mostAvailableSpaceUsage  a node id to disk usage mapping for the path that has the most available space on the node.
+     * @param shardSizes a shardkey to size in bytes mapping per shard.
+     * @param routingToDataPath the shard routing to datapath mapping
+     * @param reservedSpace reserved space per shard broken down by node and data path
+     * @param shardWriteLoads the write load per shard, i.e. the average number of threads that were busy indexing into a copy of it
+     * @see #shardIdentifierFromRouting
+     */
+    public ClusterInfo(ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsage,
+                       ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsage, ImmutableOpenMap<String, Long> shardSizes,
+                       ImmutableOpenMap<ShardRouting, String> routingToDataPath,
+                       ImmutableOpenMap<NodeAndPath, ReservedSpace> reservedSpace,
+                       ImmutableOpenMap<ShardId, Double> shardWriteLoads) {
         this.leastAvailableSpaceUsage = leastAvailableSpaceUsage;
         this.shardSizes = shardSizes;
         this.mostAvailableSpaceUsage = mostAvailableSpaceUsage;
         this.routingToDataPath = routingToDataPath;
         this.reservedSpace = reservedSpace;
+        this.shardWriteLoads = shardWriteLoads;
     }
 
     public ClusterInfo(StreamInput in) throws IOException {
@@ -88,6 +115,12 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         } else {
             reservedSpaceMap = Map.of();
         }
+        Map<ShardId, Double> writeLoadMap;
+        if (in.getVersion().onOrAfter(WRITE_LOAD_VERSION)) {
+            writeLoadMap = in.readMap(ShardId::new, StreamInput::readDouble);
+        } else {
+            writeLoadMap = Map.of();
+        }
 
         ImmutableOpenMap.Builder<String, DiskUsage> leastBuilder = ImmutableOpenMap.builder();
         this.leastAvailableSpaceUsage = leastBuilder.putAll(leastMap).build();
@@ -99,6 +132,8 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         this.routingToDataPath = routingBuilder.putAll(routingMap).build();
         ImmutableOpenMap.Builder<NodeAndPath, ReservedSpace> reservedSpaceBuilder = ImmutableOpenMap.builder();
         this.reservedSpace = reservedSpaceBuilder.putAll(reservedSpaceMap).build();
+        ImmutableOpenMap.Builder<ShardId, Double> writeLoadBuilder = ImmutableOpenMap.builder();
+        this.shardWriteLoads = writeLoadBuilder.putAll(writeLoadMap).build();
     }
 
     @Override
@@ -135,6 +170,14 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
                 c.value.writeTo(out);
             }
         }
+
+        if (out.getVersion().onOrAfter(WRITE_LOAD_VERSION)) {
+            out.writeVInt(this.shardWriteLoads.size());
+            for (ObjectObjectCursor<ShardId, Double> c : this.shardWriteLoads) {
+                c.key.writeTo(out);
+                out.writeDouble(c.value);
+            }
+        }
     }
 
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
@@ -164,6 +207,12 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
             }
         }
         builder.endObject(); // end "shard_sizes"
+        builder.startObject("shard_write_loads"); {
+            for (ObjectObjectCursor<ShardId, Double> c : this.shardWriteLoads) {
+                builder.field(c.key.toString(), c.value);
+            }
+        }
+        builder.endObject(); // end "shard_write_loads"
         builder.startObject("shard_paths"); {
             for (ObjectObjectCursor<ShardRouting, String> c : this.routingToDataPath) {
                 builder.field(c.key.toString(), c.value);
@@ -222,6 +271,22 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         return shardSize == null ? defaultValue : shardSize;
     }
 
+    /**
+     * Returns the write load of the given shard, i.e. the average number of threads that were recently busy indexing into a copy of
+     * it, or {@code 0} if that metric is not available.
+     */
+    public double getShardWriteLoad(ShardId shardId) {
+        final Double writeLoad = shardWriteLoads.get(shardId);
+        return writeLoad == null ? 0.0d : writeLoad;
+    }
+
+    /**
+     * Returns a shard id to write load mapping, see {@link #getShardWriteLoad(ShardId)}.
+     */
+    public ImmutableOpenMap<ShardId, Double> getShardWriteLoads() {
+        return this.shardWriteLoads;
+    }
+
     /**
      * Returns the reserved space for each shard on the given node/path pair
      */
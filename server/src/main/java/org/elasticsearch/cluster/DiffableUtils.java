@@ -179,6 +179,9 @@ public final class DiffableUtils {
                           KeySerializer<K> keySerializer, ValueSerializer<K, T> valueSerializer) {
             super(keySerializer, valueSerializer);
             assert after != null && before != null;
+            if (before == after) {
+                return; // the map is shared between both states, so nothing changed
+            }
 
             for (K key : before.keySet()) {
                 if (!after.containsKey(key)) {
@@ -190,7 +193,7 @@ public final class DiffableUtils {
                 T beforePart = before.get(partIter.getKey());
                 if (beforePart == null) {
                     upserts.put(partIter.getKey(), partIter.getValue());
-                } else if (partIter.getValue().equals(beforePart) == false) {
+                } else if (partIter.getValue() != beforePart && partIter.getValue().equals(beforePart) == false) {
                     if (valueSerializer.supportsDiffableValues()) {
                         diffs.put(partIter.getKey(), valueSerializer.diff(partIter.getValue(), beforePart));
                     } else {
@@ -240,6 +243,9 @@ public final class DiffableUtils {
                                     KeySerializer<K> keySerializer, ValueSerializer<K, T> valueSerializer) {
             super(keySerializer, valueSerializer);
             assert after != null && before != null;
+            if (before == after) {
+                return; // the map is shared between both states, so nothing changed
+            }
 
             for (ObjectCursor<K> key : before.keys()) {
                 if (!after.containsKey(key.value)) {
@@ -251,7 +257,7 @@ public final class DiffableUtils {
                 T beforePart = before.get(partIter.key);
                 if (beforePart == null) {
                     upserts.put(partIter.key, partIter.value);
-                } else if (partIter.value.equals(beforePart) == false) {
+                } else if (partIter.value != beforePart && partIter.value.equals(beforePart) == false) {
                     if (valueSerializer.supportsDiffableValues()) {
                         diffs.put(partIter.key, valueSerializer.diff(partIter.value, beforePart));
                     } else {
@@ -278,8 +284,8 @@ public final class DiffableUtils {
 
         @Override
         public ImmutableOpenMap<K, T> apply(ImmutableOpenMap<K, T> map) {
-            ImmutableOpenMap.Builder<K, T> builder = ImmutableOpenMap.builder();
-            builder.putAll(map);
+            // the builder shares the entries of the given map until the first change, so an empty diff returns the same map
+            ImmutableOpenMap.Builder<K, T> builder = ImmutableOpenMap.builder(map);
 
             for (K part : deletes) {
                 builder.remove(part);
@@ -312,6 +318,9 @@ public final class DiffableUtils {
                                        KeySerializer<Integer> keySerializer, ValueSerializer<Integer, T> valueSerializer) {
             super(keySerializer, valueSerializer);
             assert after != null && before != null;
+            if (before == after) {
+                return; // the map is shared between both states, so nothing changed
+            }
 
             for (IntCursor key : before.keys()) {
                 if (!after.containsKey(key.value)) {
@@ -323,7 +332,7 @@ public final class DiffableUtils {
                 T beforePart = before.get(partIter.key);
                 if (beforePart == null) {
                     upserts.put(partIter.key, partIter.value);
-                } else if (partIter.value.equals(beforePart) == false) {
+                } else if (partIter.value != beforePart && partIter.value.equals(beforePart) == false) {
                     if (valueSerializer.supportsDiffableValues()) {
                         diffs.put(partIter.key, valueSerializer.diff(partIter.value, beforePart));
                     } else {
@@ -44,6 +44,8 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.shard.IndexingStats;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.monitor.fs.FsInfo;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -203,7 +205,8 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
     public ClusterInfo getClusterInfo() {
         final IndicesStatsSummary indicesStatsSummary = this.indicesStatsSummary; // single volatile read
         return new ClusterInfo(leastAvailableSpaceUsages, mostAvailableSpaceUsages,
-            indicesStatsSummary.shardSizes, indicesStatsSummary.shardRoutingToDataPath, indicesStatsSummary.reservedSpace);
+            indicesStatsSummary.shardSizes, indicesStatsSummary.shardRoutingToDataPath, indicesStatsSummary.reservedSpace,
+            indicesStatsSummary.shardWriteLoads);
     }
 
     /**
@@ -262,6 +265,7 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
         final IndicesStatsRequest indicesStatsRequest = new IndicesStatsRequest();
         indicesStatsRequest.clear();
         indicesStatsRequest.store(true);
+        indicesStatsRequest.indexing(true);
         indicesStatsRequest.indicesOptions(IndicesOptions.STRICT_EXPAND_OPEN_CLOSED);
 
         client.admin().indices().stats(indicesStatsRequest, new LatchedActionListener<>(listener, latch));
@@ -333,10 +337,21 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
                 final ImmutableOpenMap.Builder<ClusterInfo.NodeAndPath, ClusterInfo.ReservedSpace> rsrvdSpace = ImmutableOpenMap.builder();
                 reservedSpaceBuilders.forEach((nodeAndPath, builder) -> rsrvdSpace.put(nodeAndPath, builder.build()));
 
+                // the write loads are derived from how much the indexing time of each shard copy grew since the previous refresh
+                final IndicesStatsSummary previousSummary = indicesStatsSummary;
+                final long timestampMillis = threadPool.relativeTimeInMillis();
+                final Map<String, Long> indexTimesByAllocationId = new HashMap<>();
+                final ImmutableOpenMap.Builder<ShardId, Double> shardWriteLoadsBuilder = ImmutableOpenMap.builder();
+                buildShardWriteLoads(stats, previousSummary.indexTimesByAllocationId, timestampMillis - previousSummary.timestampMillis,
+                    indexTimesByAllocationId, shardWriteLoadsBuilder);
+
                 indicesStatsSummary = new IndicesStatsSummary(
                     shardSizeByIdentifierBuilder.build(),
                     dataPathByShardRoutingBuilder.build(),
-                    rsrvdSpace.build());
+                    rsrvdSpace.build(),
+                    shardWriteLoadsBuilder.build(),
+                    indexTimesByAllocationId,
+                    timestampMillis);
             }
 
             @Override
@@ -416,6 +431,35 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
         }
     }
 
+    /**
+     * Computes the write load of each shard as the indexing time that its busiest copy spent since the previous refresh, divided by the
+     * time that elapsed since then. Shard copies that were not known at the previous refresh have no write load yet.
+     */
+    static void buildShardWriteLoads(ShardStats[] stats, Map<String, Long> previousIndexTimesByAllocationId, long elapsedMillis,
+                                     Map<String, Long> indexTimesByAllocationId,
+                                     ImmutableOpenMap.Builder<ShardId, Double> shardWriteLoads) {
+        for (ShardStats s : stats) {
+            final IndexingStats indexingStats = s.getStats().getIndexing();
+            final ShardRouting shardRouting = s.getShardRouting();
+            if (indexingStats == null || shardRouting.allocationId() == null) {
+                continue;
+            }
+            final String allocationId = shardRouting.allocationId().getId();
+            final long indexTimeMillis = indexingStats.getTotal().getIndexTime().millis();
+            indexTimesByAllocationId.put(allocationId, indexTimeMillis);
+
+            final Long previousIndexTimeMillis = previousIndexTimesByAllocationId.get(allocationId);
+            if (previousIndexTimeMillis == null || indexTimeMillis < previousIndexTimeMillis || elapsedMillis <= 0L) {
+                continue;
+            }
+            final double writeLoad = (double) (indexTimeMillis - previousIndexTimeMillis) / elapsedMillis;
+            final Double otherCopyWriteLoad = shardWriteLoads.get(shardRouting.shardId());
+            if (otherCopyWriteLoad == null || otherCopyWriteLoad < writeLoad) {
+                shardWriteLoads.put(shardRouting.shardId(), writeLoad);
+            }
+        }
+    }
+
     static void fillDiskUsagePerNode(Logger logger, List<NodeStats> nodeStatsArray,
             ImmutableOpenMap.Builder<String, DiskUsage> newLeastAvaiableUsages,
             ImmutableOpenMap.Builder<String, DiskUsage> newMostAvaiableUsages) {
@@ -467,19 +511,28 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
     }
 
     private static class IndicesStatsSummary {
-        static final IndicesStatsSummary EMPTY
-            = new IndicesStatsSummary(ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of());
+        static final IndicesStatsSummary EMPTY = new IndicesStatsSummary(ImmutableOpenMap.of(), ImmutableOpenMap.of(),
+            ImmutableOpenMap.of(), ImmutableOpenMap.of(), Map.of(), 0L);
 
         final ImmutableOpenMap<String, Long> shardSizes;
         final ImmutableOpenMap<ShardRouting, String> shardRoutingToDataPath;
         final ImmutableOpenMap<ClusterInfo.NodeAndPath, ClusterInfo.ReservedSpace> reservedSpace;
+        final ImmutableOpenMap<ShardId, Double> shardWriteLoads;
+        final Map<String, Long> indexTimesByAllocationId;
+        final long timestampMillis;
 
         IndicesStatsSummary(ImmutableOpenMap<String, Long> shardSizes,
                             ImmutableOpenMap<ShardRouting, String> shardRoutingToDataPath,
-                            ImmutableOpenMap<ClusterInfo.NodeAndPath, ClusterInfo.ReservedSpace> reservedSpace) {
+                            ImmutableOpenMap<ClusterInfo.NodeAndPath, ClusterInfo.ReservedSpace> reservedSpace,
+                            ImmutableOpenMap<ShardId, Double> shardWriteLoads,
+                            Map<String, Long> indexTimesByAllocationId,
+                            long timestampMillis) {
             this.shardSizes = shardSizes;
             this.shardRoutingToDataPath = shardRoutingToDataPath;
             this.reservedSpace = reservedSpace;
+            this.shardWriteLoads = shardWriteLoads;
+            this.indexTimesByAllocationId = indexTimesByAllocationId;
+            this.timestampMillis = timestampMillis;
         }
     }
 
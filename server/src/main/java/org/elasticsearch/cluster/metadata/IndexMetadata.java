@@ -804,6 +804,14 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
     }
 
     public static IndexMetadata readFrom(StreamInput in) throws IOException {
+        return readFrom(in, null);
+    }
+
+    /**
+     * Reads an index metadata whose mappings were written by {@link #writeTo(StreamOutput, Map)}, i.e. as references to the given
+     * mappings if they are not {@code null}.
+     */
+    static IndexMetadata readFrom(StreamInput in, @Nullable MappingMetadata[] mappings) throws IOException {
         Builder builder = new Builder(in.readString());
         builder.version(in.readLong());
         builder.mappingVersion(in.readVLong());
@@ -817,7 +825,7 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
         builder.primaryTerms(in.readVLongArray());
         int mappingsSize = in.readVInt();
         for (int i = 0; i < mappingsSize; i++) {
-            MappingMetadata mappingMd = new MappingMetadata(in);
+            MappingMetadata mappingMd = mappings == null ? new MappingMetadata(in) : mappings[in.readVInt()];
             builder.putMapping(mappingMd);
         }
         int aliasesSize = in.readVInt();
@@ -846,6 +854,14 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
+        writeTo(out, null);
+    }
+
+    /**
+     * Writes this index metadata, with its mappings written as references to the given ids of mappings that are serialized separately
+     * if they are not {@code null}.
+     */
+    void writeTo(StreamOutput out, @Nullable Map<MappingMetadata, Integer> mappingIds) throws IOException {
         out.writeString(index.getName()); // uuid will come as part of settings
         out.writeLong(version);
         out.writeVLong(mappingVersion);
@@ -859,7 +875,11 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
         out.writeVLongArray(primaryTerms);
         out.writeVInt(mappings.size());
         for (ObjectCursor<MappingMetadata> cursor : mappings.values()) {
-            cursor.value.writeTo(out);
+            if (mappingIds == null) {
+                cursor.value.writeTo(out);
+            } else {
+                out.writeVInt(mappingIds.get(cursor.value));
+            }
         }
         out.writeVInt(aliases.size());
         for (ObjectCursor<AliasMetadata> cursor : aliases.values()) {
@@ -68,6 +68,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -90,6 +91,11 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
     public static final String ALL = "_all";
     public static final String UNKNOWN_CLUSTER_UUID = "_na_";
 
+    /**
+     * The version from which on the distinct mappings of the indices are serialized once, ahead of the indices that reference them.
+     */
+    public static final Version DEDUPLICATED_MAPPINGS_VERSION = Version.V_8_0_0;
+
     public enum XContentContext {
         /* Custom metadata should be returns as part of API call */
         API,
@@ -221,6 +227,36 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
         this.indicesLookup = indicesLookup;
     }
 
+    /**
+     * Creates a metadata that has the same indices and data streams as the given previous metadata, and that therefore shares the
+     * structures derived from them instead of computing them again.
+     */
+    private Metadata(String clusterUUID, boolean clusterUUIDCommitted, long version, CoordinationMetadata coordinationMetadata,
+                     Settings transientSettings, Settings persistentSettings, DiffableStringMap hashesOfConsistentSettings,
+                     ImmutableOpenMap<String, IndexTemplateMetadata> templates, ImmutableOpenMap<String, Custom> customs,
+                     Metadata previous) {
+        this.clusterUUID = clusterUUID;
+        this.clusterUUIDCommitted = clusterUUIDCommitted;
+        this.version = version;
+        this.coordinationMetadata = coordinationMetadata;
+        this.transientSettings = transientSettings;
+        this.persistentSettings = persistentSettings;
+        this.settings = Settings.builder().put(persistentSettings).put(transientSettings).build();
+        this.hashesOfConsistentSettings = hashesOfConsistentSettings;
+        this.indices = previous.indices;
+        this.customs = customs;
+        this.templates = templates;
+        this.totalNumberOfShards = previous.totalNumberOfShards;
+        this.totalOpenIndexShards = previous.totalOpenIndexShards;
+        this.allIndices = previous.allIndices;
+        this.visibleIndices = previous.visibleIndices;
+        this.allOpenIndices = previous.allOpenIndices;
+        this.visibleOpenIndices = previous.visibleOpenIndices;
+        this.allClosedIndices = previous.allClosedIndices;
+        this.visibleClosedIndices = previous.visibleClosedIndices;
+        this.indicesLookup = previous.indicesLookup;
+    }
+
     public long version() {
         return this.version;
     }
@@ -926,9 +962,18 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
         if (in.getVersion().onOrAfter(Version.V_7_3_0)) {
             builder.hashesOfConsistentSettings(new DiffableStringMap(in));
         }
+        final MappingMetadata[] mappings;
+        if (in.getVersion().onOrAfter(DEDUPLICATED_MAPPINGS_VERSION)) {
+            mappings = new MappingMetadata[in.readVInt()];
+            for (int i = 0; i < mappings.length; i++) {
+                mappings[i] = new MappingMetadata(in);
+            }
+        } else {
+            mappings = null;
+        }
         int size = in.readVInt();
         for (int i = 0; i < size; i++) {
-            builder.put(IndexMetadata.readFrom(in), false);
+            builder.put(IndexMetadata.readFrom(in, mappings), false);
         }
         size = in.readVInt();
         for (int i = 0; i < size; i++) {
@@ -953,9 +998,28 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
         if (out.getVersion().onOrAfter(Version.V_7_3_0)) {
             hashesOfConsistentSettings.writeTo(out);
         }
-        out.writeVInt(indices.size());
-        for (IndexMetadata indexMetadata : this) {
-            indexMetadata.writeTo(out);
+        if (out.getVersion().onOrAfter(DEDUPLICATED_MAPPINGS_VERSION)) {
+            // indices often share the same mapping, e.g. the backing indices of a data stream, so it is only written once
+            final Map<MappingMetadata, Integer> mappingIds = new LinkedHashMap<>();
+            for (IndexMetadata indexMetadata : this) {
+                final MappingMetadata mapping = indexMetadata.mapping();
+                if (mapping != null) {
+                    mappingIds.putIfAbsent(mapping, mappingIds.size());
+                }
+            }
+            out.writeVInt(mappingIds.size());
+            for (MappingMetadata mapping : mappingIds.keySet()) {
+                mapping.writeTo(out);
+            }
+            out.writeVInt(indices.size());
+            for (IndexMetadata indexMetadata : this) {
+                indexMetadata.writeTo(out, mappingIds);
+            }
+        } else {
+            out.writeVInt(indices.size());
+            for (IndexMetadata indexMetadata : this) {
+                indexMetadata.writeTo(out);
+            }
         }
         out.writeVInt(templates.size());
         for (ObjectCursor<IndexTemplateMetadata> cursor : templates.values()) {
@@ -999,11 +1063,15 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
         private final ImmutableOpenMap.Builder<String, IndexTemplateMetadata> templates;
         private final ImmutableOpenMap.Builder<String, Custom> customs;
 
+        @Nullable
+        private final Metadata previousMetadata;
+
         public Builder() {
             clusterUUID = UNKNOWN_CLUSTER_UUID;
             indices = ImmutableOpenMap.builder();
             templates = ImmutableOpenMap.builder();
             customs = ImmutableOpenMap.builder();
+            previousMetadata = null;
             indexGraveyard(IndexGraveyard.builder().build()); // create new empty index graveyard to initialize
         }
 
@@ -1018,6 +1086,7 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
             this.indices = ImmutableOpenMap.builder(metadata.indices);
             this.templates = ImmutableOpenMap.builder(metadata.templates);
             this.customs = ImmutableOpenMap.builder(metadata.customs);
+            this.previousMetadata = metadata;
         }
 
         public Builder put(IndexMetadata.Builder indexMetadataBuilder) {
@@ -1301,6 +1370,18 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
             //    while these datastructures aren't even used.
             // 2) The aliasAndIndexLookup can be updated instead of rebuilding it all the time.
 
+            // the builders share the entries of the maps they were created from until they are modified, so that unmodified maps are
+            // returned as is and the lookup structures that are derived from them can be reused
+            final ImmutableOpenMap<String, IndexMetadata> builtIndices = this.indices.build();
+            final ImmutableOpenMap<String, IndexTemplateMetadata> templates = this.templates.build();
+            final ImmutableOpenMap<String, Custom> customs = this.customs.build();
+            if (previousMetadata != null && previousMetadata.indices == builtIndices
+                && previousMetadata.customs.get(DataStreamMetadata.TYPE) == customs.get(DataStreamMetadata.TYPE)) {
+                return new Metadata(clusterUUID, clusterUUIDCommitted, version, coordinationMetadata, transientSettings,
+                    persistentSettings, hashesOfConsistentSettings, templates, customs, previousMetadata);
+            }
+            final ImmutableOpenMap<String, IndexMetadata> indices = deduplicateMappings(builtIndices);
+
             final Set<String> allIndices = new HashSet<>(indices.size());
             final List<String> visibleIndices = new ArrayList<>();
             final List<String> allOpenIndices = new ArrayList<>();
@@ -1332,7 +1413,7 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
             }
 
             final Set<String> allDataStreams = new HashSet<>();
-            DataStreamMetadata dataStreamMetadata = (DataStreamMetadata) this.customs.get(DataStreamMetadata.TYPE);
+            DataStreamMetadata dataStreamMetadata = (DataStreamMetadata) customs.get(DataStreamMetadata.TYPE);
             if (dataStreamMetadata != null) {
                 for (DataStream dataStream : dataStreamMetadata.dataStreams().values()) {
                     allDataStreams.add(dataStream.getName());
@@ -1379,7 +1460,7 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
                     "were found [" + Strings.collectionToCommaDelimitedString(duplicates) + "]");
             }
 
-            SortedMap<String, IndexAbstraction> indicesLookup = Collections.unmodifiableSortedMap(buildIndicesLookup());
+            SortedMap<String, IndexAbstraction> indicesLookup = Collections.unmodifiableSortedMap(buildIndicesLookup(indices, customs));
 
             validateDataStreams(indicesLookup, (DataStreamMetadata) customs.get(DataStreamMetadata.TYPE));
 
@@ -1395,14 +1476,38 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
             String[] visibleClosedIndicesArray = visibleClosedIndices.toArray(Strings.EMPTY_ARRAY);
 
             return new Metadata(clusterUUID, clusterUUIDCommitted, version, coordinationMetadata, transientSettings, persistentSettings,
-                hashesOfConsistentSettings, indices.build(), templates.build(), customs.build(), allIndicesArray, visibleIndicesArray,
+                hashesOfConsistentSettings, indices, templates, customs, allIndicesArray, visibleIndicesArray,
                 allOpenIndicesArray, visibleOpenIndicesArray, allClosedIndicesArray, visibleClosedIndicesArray, indicesLookup);
         }
 
-        private SortedMap<String, IndexAbstraction> buildIndicesLookup() {
+        /**
+         * Makes the indices that have identical mappings, e.g. because they were created from the same template, share a single
+         * instance of their mapping.
+         */
+        private static ImmutableOpenMap<String, IndexMetadata> deduplicateMappings(ImmutableOpenMap<String, IndexMetadata> indices) {
+            final Map<MappingMetadata, MappingMetadata> distinctMappings = new HashMap<>();
+            ImmutableOpenMap.Builder<String, IndexMetadata> builder = null;
+            for (ObjectObjectCursor<String, IndexMetadata> cursor : indices) {
+                final MappingMetadata mapping = cursor.value.mapping();
+                if (mapping == null) {
+                    continue;
+                }
+                final MappingMetadata existing = distinctMappings.putIfAbsent(mapping, mapping);
+                if (existing != null && existing != mapping) {
+                    if (builder == null) {
+                        builder = ImmutableOpenMap.builder(indices);
+                    }
+                    builder.put(cursor.key, IndexMetadata.builder(cursor.value).putMapping(existing).build());
+                }
+            }
+            return builder == null ? indices : builder.build();
+        }
+
+        private static SortedMap<String, IndexAbstraction> buildIndicesLookup(ImmutableOpenMap<String, IndexMetadata> indices,
+                                                                              ImmutableOpenMap<String, Custom> customs) {
             SortedMap<String, IndexAbstraction> indicesLookup = new TreeMap<>();
             Map<String, DataStream> indexToDataStreamLookup = new HashMap<>();
-            DataStreamMetadata dataStreamMetadata = (DataStreamMetadata) this.customs.get(DataStreamMetadata.TYPE);
+            DataStreamMetadata dataStreamMetadata = (DataStreamMetadata) customs.get(DataStreamMetadata.TYPE);
             // If there are no indices, then skip data streams. This happens only when metadata is read from disk
             if (dataStreamMetadata != null && indices.size() > 0) {
                 for (DataStream dataStream : dataStreamMetadata.dataStreams().values()) {
@@ -397,17 +397,16 @@ public class RoutingTable implements Iterable<IndexRoutingTable>, Diffable<Routi
     public static class Builder {
 
         private long version;
-        private ImmutableOpenMap.Builder<String, IndexRoutingTable> indicesRouting = ImmutableOpenMap.builder();
+        private ImmutableOpenMap.Builder<String, IndexRoutingTable> indicesRouting;
 
         public Builder() {
-
+            indicesRouting = ImmutableOpenMap.builder();
         }
 
         public Builder(RoutingTable routingTable) {
             version = routingTable.version;
-            for (IndexRoutingTable indexRoutingTable : routingTable) {
-                indicesRouting.put(indexRoutingTable.getIndex().getName(), indexRoutingTable);
-            }
+            // shares the routing tables of the indices with the given routing table until they are modified
+            indicesRouting = ImmutableOpenMap.builder(routingTable.indicesRouting);
         }
 
         @SuppressWarnings("unchecked")
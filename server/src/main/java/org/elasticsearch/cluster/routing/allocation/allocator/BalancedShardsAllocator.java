@@ -19,10 +19,12 @@
 
 package org.elasticsearch.cluster.routing.allocation.allocator;
 
+import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.IntroSorter;
+import org.elasticsearch.cluster.ClusterInfo;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.routing.RoutingNode;
@@ -49,6 +51,7 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.gateway.PriorityComparator;
+import org.elasticsearch.index.shard.ShardId;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -72,6 +75,8 @@ import static org.elasticsearch.cluster.routing.ShardRoutingState.RELOCATING;
  * for shards allocated on a {@link RoutingNode}</li>
  * <li><code>cluster.routing.allocation.balance.index</code> - The <b>index balance</b> defines a factor to the number
  * of {@link org.elasticsearch.cluster.routing.ShardRouting}s per index allocated on a specific node</li>
+ * <li><code>cluster.routing.allocation.balance.write_load</code> - The <b>write load balance</b> defines a factor to the
+ * indexing load of the shards allocated on a specific node</li>
  * <li><code>cluster.routing.allocation.balance.threshold</code> - A <b>threshold</b> to set the minimal optimization
  * value of operations that should be performed</li>
  * </ul>
@@ -87,6 +92,8 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         Setting.floatSetting("cluster.routing.allocation.balance.index", 0.55f, 0.0f, Property.Dynamic, Property.NodeScope);
     public static final Setting<Float> SHARD_BALANCE_FACTOR_SETTING =
         Setting.floatSetting("cluster.routing.allocation.balance.shard", 0.45f, 0.0f, Property.Dynamic, Property.NodeScope);
+    public static final Setting<Float> WRITE_LOAD_BALANCE_FACTOR_SETTING =
+        Setting.floatSetting("cluster.routing.allocation.balance.write_load", 0.0f, 0.0f, Property.Dynamic, Property.NodeScope);
     public static final Setting<Float> THRESHOLD_SETTING =
         Setting.floatSetting("cluster.routing.allocation.balance.threshold", 1.0f, 0.0f,
             Property.Dynamic, Property.NodeScope);
@@ -100,14 +107,20 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
     @Inject
     public BalancedShardsAllocator(Settings settings, ClusterSettings clusterSettings) {
-        setWeightFunction(INDEX_BALANCE_FACTOR_SETTING.get(settings), SHARD_BALANCE_FACTOR_SETTING.get(settings));
+        weightFunction = new WeightFunction(INDEX_BALANCE_FACTOR_SETTING.get(settings), SHARD_BALANCE_FACTOR_SETTING.get(settings),
+            WRITE_LOAD_BALANCE_FACTOR_SETTING.get(settings));
         setThreshold(THRESHOLD_SETTING.get(settings));
         clusterSettings.addSettingsUpdateConsumer(INDEX_BALANCE_FACTOR_SETTING, SHARD_BALANCE_FACTOR_SETTING, this::setWeightFunction);
+        clusterSettings.addSettingsUpdateConsumer(WRITE_LOAD_BALANCE_FACTOR_SETTING, this::setWriteLoadBalance);
         clusterSettings.addSettingsUpdateConsumer(THRESHOLD_SETTING, this::setThreshold);
     }
 
     private void setWeightFunction(float indexBalance, float shardBalanceFactor) {
-        weightFunction = new WeightFunction(indexBalance, shardBalanceFactor);
+        weightFunction = new WeightFunction(indexBalance, shardBalanceFactor, weightFunction.writeLoadBalance);
+    }
+
+    private void setWriteLoadBalance(float writeLoadBalance) {
+        weightFunction = new WeightFunction(weightFunction.indexBalance, weightFunction.shardBalance, writeLoadBalance);
     }
 
     private void setThreshold(float threshold) {
@@ -181,6 +194,13 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         return weightFunction.shardBalance;
     }
 
+    /**
+     * Returns the write load related weight factor.
+     */
+    public float getWriteLoadBalance() {
+        return weightFunction.writeLoadBalance;
+    }
+
 
     /**
      * This class is the primary weight function used to create balanced over nodes and shards in the cluster.
@@ -188,6 +208,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
      * <ul>
      * <li><code>index balance</code> - balance property over shards per index</li>
      * <li><code>shard balance</code> - balance property over shards per cluster</li>
+     * <li><code>write load balance</code> - balance property over the indexing load per node</li>
      * </ul>
      * <p>
      * Each of these properties are expressed as factor such that the properties factor defines the relative
@@ -203,8 +224,16 @@ public class BalancedShardsAllocator implements ShardsAllocator {
      * <li>
      * <code>weight<sub>node</sub>(node, index) = shardBalance * (node.numShards() - avgShardsPerNode)</code>
      * </li>
+     * <li>
+     * <code>weight<sub>load</sub>(node, index) = writeLoadBalance * (node.writeLoad() - avgWriteLoadPerNode)</code>
+     * </li>
      * </ul>
-     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index)</code>
+     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index)
+     * + weight<sub>load</sub>(node, index)</code>
+     * <p>
+     * The index and shard balance are normalized by their sum, whereas the write load balance is applied as is since the write load
+     * of a shard is measured in indexing threads that it keeps busy (see {@link ClusterInfo#getShardWriteLoad}) rather than in shards.
+     * It defaults to {@code 0.0} so that the write load is ignored unless configured.
      */
     private static class WeightFunction {
 
@@ -212,8 +241,9 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private final float shardBalance;
         private final float theta0;
         private final float theta1;
+        private final float writeLoadBalance;
 
-        WeightFunction(float indexBalance, float shardBalance) {
+        WeightFunction(float indexBalance, float shardBalance, float writeLoadBalance) {
             float sum = indexBalance + shardBalance;
             if (sum <= 0.0f) {
                 throw new IllegalArgumentException("Balance factors must sum to a value > 0 but was: " + sum);
@@ -222,12 +252,25 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             theta1 = indexBalance / sum;
             this.indexBalance = indexBalance;
             this.shardBalance = shardBalance;
+            this.writeLoadBalance = writeLoadBalance;
         }
 
         float weight(Balancer balancer, ModelNode node, String index) {
             final float weightShard = node.numShards() - balancer.avgShardsPerNode();
             final float weightIndex = node.numShards(index) - balancer.avgShardsPerNode(index);
-            return theta0 * weightShard + theta1 * weightIndex;
+            final float weight = theta0 * weightShard + theta1 * weightIndex;
+            if (writeLoadBalance == 0.0f) {
+                return weight;
+            }
+            final float weightWriteLoad = (float) (node.writeLoad() - balancer.avgWriteLoadPerNode());
+            return weight + writeLoadBalance * weightWriteLoad;
+        }
+
+        /**
+         * The amount by which the weight of a node changes when the given shard is added to it or removed from it.
+         */
+        float shardWeight(ClusterInfo clusterInfo, ShardRouting shard) {
+            return theta0 + theta1 + writeLoadBalance * (float) clusterInfo.getShardWriteLoad(shard.shardId());
         }
     }
 
@@ -244,6 +287,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private final float threshold;
         private final Metadata metadata;
         private final float avgShardsPerNode;
+        private final double avgWriteLoadPerNode;
         private final NodeSorter sorter;
 
         public Balancer(Logger logger, RoutingAllocation allocation, WeightFunction weight, float threshold) {
@@ -254,6 +298,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             this.routingNodes = allocation.routingNodes();
             this.metadata = allocation.metadata();
             avgShardsPerNode = ((float) metadata.getTotalNumberOfShards()) / routingNodes.size();
+            avgWriteLoadPerNode = totalWriteLoad(allocation.clusterInfo(), metadata) / routingNodes.size();
             nodes = Collections.unmodifiableMap(buildModelFromAssigned());
             sorter = newNodeSorter();
         }
@@ -279,6 +324,27 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return avgShardsPerNode;
         }
 
+        /**
+         * Returns the global average of the write load per node
+         */
+        public double avgWriteLoadPerNode() {
+            return avgWriteLoadPerNode;
+        }
+
+        /**
+         * The write load of all shard copies in the cluster, each copy of a shard being assumed to carry the write load of the shard.
+         */
+        private static double totalWriteLoad(ClusterInfo clusterInfo, Metadata metadata) {
+            double totalWriteLoad = 0.0d;
+            for (ObjectObjectCursor<ShardId, Double> cursor : clusterInfo.getShardWriteLoads()) {
+                final IndexMetadata indexMetadata = metadata.index(cursor.key.getIndex());
+                if (indexMetadata != null) {
+                    totalWriteLoad += cursor.value * (indexMetadata.getNumberOfReplicas() + 1);
+                }
+            }
+            return totalWriteLoad;
+        }
+
         /**
          * Returns a new {@link NodeSorter} that sorts the nodes based on their
          * current weight with respect to the index passed to the sorter. The
@@ -467,6 +533,13 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             final ModelNode[] modelNodes = sorter.modelNodes;
             final float[] weights = sorter.weights;
             for (String index : buildWeightOrderedIndices()) {
+                // the weights of the nodes that are relevant to the index cannot be further apart than the weights of all nodes, so an
+                // index whose weights are all within the threshold is balanced and neither needs to consult the deciders nor to sort the
+                // nodes. Relocations of other indices change the weights, so this is checked again for every index.
+                if (lessThan(sorter.delta(index), threshold)) {
+                    continue;
+                }
+
                 IndexMetadata indexMetadata = metadata.index(index);
 
                 // find nodes that have a shard of this index or where shards of this index are allowed to be allocated to,
@@ -534,7 +607,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                              */
                             logger.trace("Couldn't find shard to relocate from node [{}] to node [{}]",
                                 maxNode.getNodeId(), minNode.getNodeId());
-                        } else if (tryRelocateShard(minNode, maxNode, index)) {
+                        } else if (tryRelocateShard(minNode, maxNode, index, delta)) {
                             /*
                              * TODO we could be a bit smarter here, we don't need to fully sort necessarily
                              * we could just find the place to insert linearly but the win might be minor
@@ -585,8 +658,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             final String[] indices = allocation.routingTable().indicesRouting().keys().toArray(String.class);
             final float[] deltas = new float[indices.length];
             for (int i = 0; i < deltas.length; i++) {
-                sorter.reset(indices[i]);
-                deltas[i] = sorter.delta();
+                deltas[i] = sorter.delta(indices[i]);
             }
             new IntroSorter() {
 
@@ -733,7 +805,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private Map<String, ModelNode> buildModelFromAssigned() {
             Map<String, ModelNode> nodes = new HashMap<>();
             for (RoutingNode rn : routingNodes) {
-                ModelNode node = new ModelNode(rn);
+                ModelNode node = new ModelNode(rn, allocation.clusterInfo());
                 nodes.put(rn.nodeId(), node);
                 for (ShardRouting shard : rn) {
                     assert rn.nodeId().equals(shard.currentNodeId());
@@ -986,7 +1058,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
          * balance model. Iff this method returns a <code>true</code> the relocation has already been executed on the
          * simulation model as well as on the cluster.
          */
-        private boolean tryRelocateShard(ModelNode minNode, ModelNode maxNode, String idx) {
+        private boolean tryRelocateShard(ModelNode minNode, ModelNode maxNode, String idx, float delta) {
             final ModelIndex index = maxNode.getIndex(idx);
             if (index != null) {
                 logger.trace("Try relocating shard of [{}] from [{}] to [{}]", idx, maxNode.getNodeId(), minNode.getNodeId());
@@ -998,6 +1070,10 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
                 final AllocationDeciders deciders = allocation.deciders();
                 for (ShardRouting shard : shardRoutings) {
+                    if (weight.writeLoadBalance > 0.0f && lessThan(delta, weight.shardWeight(allocation.clusterInfo(), shard))) {
+                        // relocating a shard whose write load outweighs the delta would only swap the weights of the two nodes
+                        continue;
+                    }
                     final Decision rebalanceDecision = deciders.canRebalance(shard, allocation);
                     if (rebalanceDecision.type() == Type.NO) {
                         continue;
@@ -1035,10 +1111,13 @@ public class BalancedShardsAllocator implements ShardsAllocator {
     static class ModelNode implements Iterable<ModelIndex> {
         private final Map<String, ModelIndex> indices = new HashMap<>();
         private int numShards = 0;
+        private double writeLoad = 0.0d;
         private final RoutingNode routingNode;
+        private final ClusterInfo clusterInfo;
 
-        ModelNode(RoutingNode routingNode) {
+        ModelNode(RoutingNode routingNode, ClusterInfo clusterInfo) {
             this.routingNode = routingNode;
+            this.clusterInfo = clusterInfo;
         }
 
         public ModelIndex getIndex(String indexId) {
@@ -1062,6 +1141,10 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return index == null ? 0 : index.numShards();
         }
 
+        public double writeLoad() {
+            return writeLoad;
+        }
+
         public int highestPrimary(String index) {
             ModelIndex idx = indices.get(index);
             if (idx != null) {
@@ -1078,6 +1161,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             }
             index.addShard(shard);
             numShards++;
+            writeLoad += clusterInfo.getShardWriteLoad(shard.shardId());
         }
 
         public void removeShard(ShardRouting shard) {
@@ -1089,6 +1173,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                 }
             }
             numShards--;
+            writeLoad -= clusterInfo.getShardWriteLoad(shard.shardId());
         }
 
         @Override
@@ -1224,8 +1309,19 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return Float.compare(pivotWeight, weights[j]);
         }
 
-        public float delta() {
-            return weights[weights.length - 1] - weights[0];
+        /**
+         * Returns the difference between the highest and the lowest weight of the nodes with respect to the given index. Unlike
+         * {@link #reset(String)} this neither sorts the nodes nor changes their weights.
+         */
+        public float delta(String index) {
+            float minWeight = Float.POSITIVE_INFINITY;
+            float maxWeight = Float.NEGATIVE_INFINITY;
+            for (ModelNode modelNode : modelNodes) {
+                final float weight = function.weight(balancer, modelNode, index);
+                minWeight = Math.min(minWeight, weight);
+                maxWeight = Math.max(maxWeight, weight);
+            }
+            return maxWeight - minWeight;
         }
     }
 }
@@ -49,6 +49,23 @@ public abstract class AbstractBytesReference implements BytesReference {
         return -1;
     }
 
+    @Override
+    public boolean hasArray() {
+        return false;
+    }
+
+    @Override
+    public byte[] array() {
+        assert hasArray() == false : "references that have an array must return it";
+        return BytesReference.toBytes(this);
+    }
+
+    @Override
+    public int arrayOffset() {
+        assert hasArray() == false : "references that have an array must return its offset";
+        return 0;
+    }
+
     @Override
     public StreamInput streamInput() throws IOException {
         return new MarkSupportingStreamInputWrapper(this);
@@ -102,6 +102,21 @@ public class ByteBufferReference extends AbstractBytesReference {
         return new BytesRef(copy);
     }
 
+    @Override
+    public boolean hasArray() {
+        return buffer.hasArray();
+    }
+
+    @Override
+    public byte[] array() {
+        return buffer.hasArray() ? buffer.array() : super.array();
+    }
+
+    @Override
+    public int arrayOffset() {
+        return buffer.hasArray() ? buffer.arrayOffset() : super.arrayOffset();
+    }
+
     @Override
     public long ramBytesUsed() {
         return buffer.capacity();
@@ -73,10 +73,21 @@ public final class BytesArray extends AbstractBytesReference {
         return new BytesArray(bytes, offset + from, length);
     }
 
+    @Override
+    public boolean hasArray() {
+        return true;
+    }
+
+    @Override
     public byte[] array() {
         return bytes;
     }
 
+    @Override
+    public int arrayOffset() {
+        return offset;
+    }
+
     public int offset() {
         return offset;
     }
@@ -166,6 +166,24 @@ public interface BytesReference extends Comparable<BytesReference>, ToXContentFr
      */
     BytesRef toBytesRef();
 
+    /**
+     * Returns whether the referenced bytes are a contiguous region of a byte array, which can then be accessed through {@link #array()}
+     * and {@link #arrayOffset()} without copying them.
+     */
+    boolean hasArray();
+
+    /**
+     * Returns the byte array that backs this reference if {@link #hasArray()} returns {@code true}, otherwise a copy of the referenced
+     * bytes.
+     */
+    byte[] array();
+
+    /**
+     * Returns the offset of the first referenced byte in the byte array returned by {@link #array()}, which is {@code 0} if
+     * {@link #hasArray()} returns {@code false}.
+     */
+    int arrayOffset();
+
     /**
      * Returns a BytesRefIterator for this BytesReference. This method allows
      * access to the internal pages of this reference without copying them. Use with care!
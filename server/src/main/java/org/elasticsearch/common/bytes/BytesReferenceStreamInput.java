@@ -30,7 +30,7 @@ import java.io.IOException;
  * generic stream access to {@link BytesReference} instances without materializing the
  * underlying bytes reference.
  */
-final class BytesReferenceStreamInput extends StreamInput {
+class BytesReferenceStreamInput extends StreamInput {
     private final BytesRefIterator iterator;
     private int sliceIndex;
     private BytesRef slice;
@@ -73,6 +73,28 @@ public class PagedBytesReference extends AbstractBytesReference {
         return bref;
     }
 
+    @Override
+    public boolean hasArray() {
+        // the referenced bytes are backed by a single array as long as they do not cross a page boundary
+        return length > 0 && offset / PAGE_SIZE == (offset + length - 1) / PAGE_SIZE;
+    }
+
+    @Override
+    public byte[] array() {
+        if (hasArray()) {
+            return toBytesRef().bytes;
+        }
+        return super.array();
+    }
+
+    @Override
+    public int arrayOffset() {
+        if (hasArray()) {
+            return toBytesRef().offset;
+        }
+        return super.arrayOffset();
+    }
+
     @Override
     public final BytesRefIterator iterator() {
         final int offset = this.offset;
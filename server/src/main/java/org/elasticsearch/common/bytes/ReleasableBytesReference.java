@@ -24,6 +24,7 @@ import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+import org.elasticsearch.common.util.concurrent.RefCounted;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
@@ -33,7 +34,7 @@ import java.io.OutputStream;
  * An extension to {@link BytesReference} that requires releasing its content. This
  * class exists to make it explicit when a bytes reference needs to be released, and when not.
  */
-public final class ReleasableBytesReference implements Releasable, BytesReference {
+public final class ReleasableBytesReference implements RefCounted, Releasable, BytesReference {
 
     public static final Releasable NO_OP = () -> {};
     private final BytesReference delegate;
@@ -67,6 +68,21 @@ public final class ReleasableBytesReference implements Releasable, BytesReferenc
         return new ReleasableBytesReference(delegate.slice(from, length), refCounted);
     }
 
+    @Override
+    public void incRef() {
+        refCounted.incRef();
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return refCounted.tryIncRef();
+    }
+
+    @Override
+    public void decRef() {
+        refCounted.decRef();
+    }
+
     @Override
     public void close() {
         refCounted.decRef();
@@ -104,7 +120,19 @@ public final class ReleasableBytesReference implements Releasable, BytesReferenc
 
     @Override
     public StreamInput streamInput() throws IOException {
-        return delegate.streamInput();
+        return new BytesReferenceStreamInput(delegate.iterator(), delegate.length()) {
+            @Override
+            public ReleasableBytesReference readReleasableBytesReference(int length) throws IOException {
+                if (length == 0) {
+                    return ReleasableBytesReference.wrap(BytesArray.EMPTY);
+                }
+                ensureCanReadBytes(length);
+                // retain a slice of the underlying bytes instead of copying them, and move the stream past the slice manually
+                final ReleasableBytesReference slice = retainedSlice(getOffset(), length);
+                skip(length);
+                return slice;
+            }
+        };
     }
 
     @Override
@@ -122,6 +150,21 @@ public final class ReleasableBytesReference implements Releasable, BytesReferenc
         return delegate.toBytesRef();
     }
 
+    @Override
+    public boolean hasArray() {
+        return delegate.hasArray();
+    }
+
+    @Override
+    public byte[] array() {
+        return delegate.array();
+    }
+
+    @Override
+    public int arrayOffset() {
+        return delegate.arrayOffset();
+    }
+
     @Override
     public BytesRefIterator iterator() {
         return delegate.iterator();
@@ -22,20 +22,23 @@ package org.elasticsearch.common.cache;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
-import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.function.ToLongBiFunction;
 
 /**
@@ -46,23 +49,24 @@ import java.util.function.ToLongBiFunction;
  * accept reduced write performance in exchange for easy-to-understand code. Cache statistics for hits, misses and
  * evictions are exposed.
  * <p>
- * The design of the cache is relatively simple. The cache is segmented into 256 segments which are backed by HashMaps.
- * Each segment is protected by a re-entrant read/write lock. The read/write locks permit multiple concurrent readers
- * without contention, and the segments gives us write throughput without impacting readers (so readers are blocked only
- * if they are reading a segment that a writer is writing to).
+ * The design of the cache is relatively simple. The cache is segmented into 256 segments which are backed by
+ * ConcurrentHashMaps. Reads don't take any lock, and writes to a segment are serialized by a re-entrant lock so the
+ * segments give us write throughput without impacting readers.
  * <p>
  * The LRU functionality is backed by a single doubly-linked list chaining the entries in order of insertion. This
- * LRU list is protected by a lock that serializes all writes to it. There are opportunities for improvements
- * here if write throughput is a concern.
- * <ol>
- * <li>LRU list mutations could be inserted into a blocking queue that a single thread is reading from
- * and applying to the LRU list.</li>
- * <li>Promotions could be deferred for entries that were "recently" promoted.</li>
- * <li>Locks on the list could be taken per node being modified instead of globally.</li>
- * </ol>
+ * LRU list is protected by a lock that serializes all writes to it. Cache hits don't take this lock: the promotion of
+ * the entry that was read is recorded in one of several bounded read buffers, and the buffers are drained into the LRU
+ * list under the lock when a buffer is full, on writes, and before any eviction. A read only waits for the lock if its
+ * buffer is full, so that promotions are never dropped.
  * <p>
- * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
- * invalidation) or an explicit call to {@link #refresh()}.
+ * When frequency-based admission is enabled, the popularity of keys is tracked in a {@link FrequencySketch} and a new
+ * entry that would push the cache over its maximum weight is only admitted if it is at least as popular as the least
+ * recently used entry it would evict (TinyLFU). This protects popular entries from being flushed by one-off entries.
+ * The popularity is tracked by the hash code of the keys, or by a custom hash for keys whose identity changes while
+ * they stand for the same logical entry.
+ * <p>
+ * Evictions only occur after a mutation to the cache (meaning a cache insertion, a manual invalidation or the draining
+ * of the read buffers) or an explicit call to {@link #refresh()}.
  *
  * @param <K> The type of the keys
  * @param <V> The type of the values
@@ -97,6 +101,12 @@ public class Cache<K, V> {
     private RemovalListener<K, V> removalListener = notification -> {
     };
 
+    // the popularity of keys when frequency-based admission is enabled, protected by the LRU lock
+    private FrequencySketch frequencySketch;
+
+    // the hash of the keys whose popularity is tracked by the frequency sketch
+    private ToIntFunction<K> frequencyHash = Object::hashCode;
+
     // use CacheBuilder to construct
     Cache() {
     }
@@ -144,6 +154,12 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    void setFrequencyAdmission(int expectedSize, ToIntFunction<K> frequencyHash) {
+        Objects.requireNonNull(frequencyHash);
+        this.frequencySketch = new FrequencySketch(expectedSize);
+        this.frequencyHash = frequencyHash;
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -179,19 +195,18 @@ public class Cache<K, V> {
     /**
      * A cache segment.
      * <p>
-     * A CacheSegment is backed by a HashMap and is protected by a read/write lock.
+     * A CacheSegment is backed by a ConcurrentHashMap that can be read without locking, mutations are protected by a lock.
      *
      * @param <K> the type of the keys
      * @param <V> the type of the values
      */
     private static class CacheSegment<K, V> {
-        // read/write lock protecting mutations to the segment
-        ReadWriteLock segmentLock = new ReentrantReadWriteLock();
+        // lock protecting mutations to the segment
+        ReentrantLock segmentLock = new ReentrantLock();
 
-        ReleasableLock readLock = new ReleasableLock(segmentLock.readLock());
-        ReleasableLock writeLock = new ReleasableLock(segmentLock.writeLock());
+        ReleasableLock writeLock = new ReleasableLock(segmentLock);
 
-        Map<K, CompletableFuture<Entry<K, V>>> map = new HashMap<>();
+        volatile Map<K, CompletableFuture<Entry<K, V>>> map = new ConcurrentHashMap<>();
 
         SegmentStats segmentStats = new SegmentStats();
 
@@ -206,10 +221,7 @@ public class Cache<K, V> {
          * @return the entry if there was one, otherwise null
          */
         Entry<K, V> get(K key, long now, Predicate<Entry<K, V>> isExpired, Consumer<Entry<K, V>> onExpiration) {
-            CompletableFuture<Entry<K, V>> future;
-            try (ReleasableLock ignored = readLock.acquire()) {
-                future = map.get(key);
-            }
+            CompletableFuture<Entry<K, V>> future = map.get(key);
             if (future != null) {
                 Entry<K, V> entry;
                 try {
@@ -367,11 +379,141 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            recordRead(entry, now);
             return entry.value;
         }
     }
 
+    /**
+     * A bounded ring buffer of entries that were read and whose promotion in the LRU list is deferred. Readers append entries without
+     * locking, the buffer is only drained under the LRU lock.
+     */
+    private static class ReadBuffer<K, V> {
+        final AtomicReferenceArray<Entry<K, V>> entries = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        final AtomicLong writeCounter = new AtomicLong();
+        // only modified under the LRU lock
+        volatile long readCounter;
+
+        /**
+         * Records the read of an entry.
+         *
+         * @return false if the buffer is full and must be drained before the read can be recorded
+         */
+        boolean offer(Entry<K, V> entry) {
+            while (true) {
+                final long index = writeCounter.get();
+                if (index - readCounter >= READ_BUFFER_SIZE) {
+                    return false;
+                }
+                if (writeCounter.compareAndSet(index, index + 1)) {
+                    entries.lazySet((int) (index & (READ_BUFFER_SIZE - 1)), entry);
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return true if the buffer is full
+         */
+        boolean isFull() {
+            return writeCounter.get() - readCounter >= READ_BUFFER_SIZE;
+        }
+
+        /**
+         * Passes the recorded entries to the consumer in the order they were recorded and clears their slots, so that the buffer
+         * does not hold on to entries that got evicted meanwhile.
+         */
+        void drainTo(Consumer<Entry<K, V>> consumer) {
+            long index = readCounter;
+            final long writeIndex = writeCounter.get();
+            while (index < writeIndex) {
+                final int slot = (int) (index & (READ_BUFFER_SIZE - 1));
+                final Entry<K, V> entry = entries.get(slot);
+                if (entry == null) {
+                    // the slot was claimed by a reader that did not publish its entry yet, the next drain will pick it up
+                    break;
+                }
+                entries.lazySet(slot, null);
+                consumer.accept(entry);
+                index++;
+            }
+            readCounter = index;
+        }
+    }
+
+    private static final int NUMBER_OF_READ_BUFFERS = 16;
+    private static final int READ_BUFFER_SIZE = 16;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ReadBuffer<K, V>[] readBuffers = new ReadBuffer[NUMBER_OF_READ_BUFFERS];
+
+    {
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+    }
+
+    // the entries drained from the read buffers and their access times, reused across drains and protected by the LRU lock
+    private final List<Entry<K, V>> drainedEntries = new ArrayList<>(NUMBER_OF_READ_BUFFERS * READ_BUFFER_SIZE);
+    private final long[] drainedAccessTimes = new long[NUMBER_OF_READ_BUFFERS * READ_BUFFER_SIZE];
+
+    private void recordRead(Entry<K, V> entry, long now) {
+        final ReadBuffer<K, V> buffer = readBuffers[(int) Thread.currentThread().getId() & (NUMBER_OF_READ_BUFFERS - 1)];
+        while (buffer.offer(entry) == false) {
+            // reads are never dropped as the LRU order must follow the access times for expiration after access to be accurate
+            try (ReleasableLock ignored = lruLock.acquire()) {
+                evict(now);
+            }
+        }
+        if (buffer.isFull()) {
+            // don't wait for the LRU lock, another thread is already draining or mutating the LRU list
+            try (ReleasableLock locked = lruLock.tryAcquire()) {
+                if (locked != null) {
+                    evict(now);
+                }
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        assert lruLock.isHeldByCurrentThread();
+
+        for (ReadBuffer<K, V> buffer : readBuffers) {
+            buffer.drainTo(drainedEntries::add);
+        }
+        final int size = drainedEntries.size();
+        if (entriesExpireAfterAccess) {
+            // the buffers are drained one after the other, so the reads are ordered by their access times to promote the most
+            // recently accessed entry last; access times are read once as concurrent reads can update them
+            for (int i = 0; i < size; i++) {
+                drainedAccessTimes[i] = drainedEntries.get(i).accessTime;
+            }
+            for (int i = 1; i < size; i++) {
+                final Entry<K, V> entry = drainedEntries.get(i);
+                final long accessTime = drainedAccessTimes[i];
+                int j = i - 1;
+                while (j >= 0 && drainedAccessTimes[j] > accessTime) {
+                    drainedEntries.set(j + 1, drainedEntries.get(j));
+                    drainedAccessTimes[j + 1] = drainedAccessTimes[j];
+                    j--;
+                }
+                drainedEntries.set(j + 1, entry);
+                drainedAccessTimes[j + 1] = accessTime;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            final Entry<K, V> entry = drainedEntries.get(i);
+            // new entries are linked by the thread that added them, deleted ones must not be linked again
+            if (entry.state == State.EXISTING) {
+                relinkAtHead(entry);
+                if (frequencySketch != null) {
+                    frequencySketch.increment(frequencyHash.applyAsInt(entry.key));
+                }
+            }
+        }
+        drainedEntries.clear();
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -538,12 +680,13 @@ public class Cache<K, V> {
         boolean[] haveSegmentLock = new boolean[NUMBER_OF_SEGMENTS];
         try {
             for (int i = 0; i < NUMBER_OF_SEGMENTS; i++) {
-                segments[i].segmentLock.writeLock().lock();
+                segments[i].segmentLock.lock();
                 haveSegmentLock[i] = true;
             }
             try (ReleasableLock ignored = lruLock.acquire()) {
+                drainReadBuffers();
                 h = head;
-                Arrays.stream(segments).forEach(segment -> segment.map = new HashMap<>());
+                Arrays.stream(segments).forEach(segment -> segment.map = new ConcurrentHashMap<>());
                 Entry<K, V> current = head;
                 while (current != null) {
                     current.state = State.DELETED;
@@ -556,7 +699,7 @@ public class Cache<K, V> {
         } finally {
             for (int i = NUMBER_OF_SEGMENTS - 1; i >= 0; i--) {
                 if (haveSegmentLock[i]) {
-                    segments[i].segmentLock.writeLock().unlock();
+                    segments[i].segmentLock.unlock();
                 }
             }
         }
@@ -603,7 +746,7 @@ public class Cache<K, V> {
      */
     public Iterable<K> keys() {
         return () -> new Iterator<K>() {
-            private CacheIterator iterator = new CacheIterator(head);
+            private CacheIterator iterator = new CacheIterator(drainedHead());
 
             @Override
             public boolean hasNext() {
@@ -631,7 +774,7 @@ public class Cache<K, V> {
      */
     public Iterable<V> values() {
         return () -> new Iterator<V>() {
-            private CacheIterator iterator = new CacheIterator(head);
+            private CacheIterator iterator = new CacheIterator(drainedHead());
 
             @Override
             public boolean hasNext() {
@@ -650,6 +793,16 @@ public class Cache<K, V> {
         };
     }
 
+    /**
+     * Applies the pending promotions so that iterations see the LRU order, and returns the head of the LRU list.
+     */
+    private Entry<K, V> drainedHead() {
+        try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffers();
+            return head;
+        }
+    }
+
     private class CacheIterator implements Iterator<Entry<K, V>> {
         private Entry<K, V> current;
         private Entry<K, V> next;
@@ -730,6 +883,8 @@ public class Cache<K, V> {
     private boolean promote(Entry<K, V> entry, long now) {
         boolean promoted = true;
         try (ReleasableLock ignored = lruLock.acquire()) {
+            // apply the reads that happened before this write first to preserve the LRU order
+            drainReadBuffers();
             switch (entry.state) {
                 case DELETED:
                     promoted = false;
@@ -742,17 +897,39 @@ public class Cache<K, V> {
                     break;
             }
             if (promoted) {
-                evict(now);
+                if (frequencySketch != null) {
+                    frequencySketch.increment(frequencyHash.applyAsInt(entry.key));
+                }
+                evict(entry, now);
             }
         }
         return promoted;
     }
 
     private void evict(long now) {
+        evict(null, now);
+    }
+
+    /**
+     * Evicts expired entries and least recently used entries until the cache is within its maximum weight. With
+     * frequency-based admission, the <code>candidate</code> entry is evicted instead of the least recently used
+     * entry if it is less popular.
+     */
+    private void evict(Entry<K, V> candidate, long now) {
         assert lruLock.isHeldByCurrentThread();
 
+        drainReadBuffers();
         while (tail != null && shouldPrune(tail, now)) {
-            evictEntry(tail);
+            final Entry<K, V> victim = tail;
+            if (frequencySketch != null && candidate != null && candidate != victim && candidate.state == State.EXISTING
+                    && isExpired(victim, now) == false
+                    && frequencySketch.frequency(frequencyHash.applyAsInt(candidate.key))
+                        < frequencySketch.frequency(frequencyHash.applyAsInt(victim.key))) {
+                evictEntry(candidate);
+                candidate = null;
+            } else {
+                evictEntry(victim);
+            }
         }
     }
 
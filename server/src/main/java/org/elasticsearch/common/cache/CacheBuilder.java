@@ -22,6 +22,7 @@ package org.elasticsearch.common.cache;
 import org.elasticsearch.common.unit.TimeValue;
 
 import java.util.Objects;
+import java.util.function.ToIntFunction;
 import java.util.function.ToLongBiFunction;
 
 public class CacheBuilder<K, V> {
@@ -30,6 +31,8 @@ public class CacheBuilder<K, V> {
     private long expireAfterWriteNanos = -1;
     private ToLongBiFunction<K, V> weigher;
     private RemovalListener<K, V> removalListener;
+    private int frequencyAdmissionExpectedSize = -1;
+    private ToIntFunction<K> frequencyHash;
 
     public static <K, V> CacheBuilder<K, V> builder() {
         return new CacheBuilder<>();
@@ -90,6 +93,33 @@ public class CacheBuilder<K, V> {
         return this;
     }
 
+    /**
+     * Enables frequency-based admission: when the cache exceeds its maximum weight, a new entry is only admitted if its key
+     * was accessed at least as frequently as the key of the least recently used entry, otherwise the new entry is evicted.
+     *
+     * @param expectedSize The expected number of entries in the cache, used to size the frequency sketch. Must be greater than 0.
+     */
+    public CacheBuilder<K, V> setFrequencyAdmission(int expectedSize) {
+        return setFrequencyAdmission(expectedSize, Object::hashCode);
+    }
+
+    /**
+     * Enables frequency-based admission like {@link #setFrequencyAdmission(int)}, but tracks the popularity of keys by the given
+     * hash. Keys that stand for the same logical entry, like the keys of a cache that are renewed on every change of the data they
+     * are computed from, should share this hash so that a renewed key is as popular as the key it replaces.
+     *
+     * @param expectedSize  The expected number of entries in the cache, used to size the frequency sketch. Must be greater than 0.
+     * @param frequencyHash The hash of the keys whose popularity is tracked
+     */
+    public CacheBuilder<K, V> setFrequencyAdmission(int expectedSize, ToIntFunction<K> frequencyHash) {
+        if (expectedSize <= 0) {
+            throw new IllegalArgumentException("expectedSize <= 0");
+        }
+        this.frequencyAdmissionExpectedSize = expectedSize;
+        this.frequencyHash = Objects.requireNonNull(frequencyHash);
+        return this;
+    }
+
     public Cache<K, V> build() {
         Cache<K, V> cache = new Cache<>();
         if (maximumWeight != -1) {
@@ -107,6 +137,9 @@ public class CacheBuilder<K, V> {
         if (removalListener != null) {
             cache.setRemovalListener(removalListener);
         }
+        if (frequencyAdmissionExpectedSize != -1) {
+            cache.setFrequencyAdmission(frequencyAdmissionExpectedSize, frequencyHash);
+        }
         return cache;
     }
 }
@@ -224,6 +224,11 @@ public final class ImmutableOpenMap<KType, VType> implements Iterable<ObjectObje
 
     public static class Builder<KType, VType> implements ObjectObjectMap<KType, VType> {
         private ObjectObjectHashMap<KType, VType> map;
+        /**
+         * The map this builder was created from, as long as it has not been mutated. The entries of that map are shared and only copied
+         * on the first mutation, so that building an unchanged (or read-only) copy of a large map is cheap.
+         */
+        private ImmutableOpenMap<KType, VType> source;
 
         @SuppressWarnings("unchecked")
         public Builder() {
@@ -235,26 +240,38 @@ public final class ImmutableOpenMap<KType, VType> implements Iterable<ObjectObje
         }
 
         public Builder(ImmutableOpenMap<KType, VType> map) {
-            this.map = map.map.clone();
+            this.map = map.map;
+            this.source = map;
         }
 
         /**
-         * Builds a new instance of the
+         * Builds a new instance of the map, or returns the map this builder was created from if it was not modified.
          */
         public ImmutableOpenMap<KType, VType> build() {
             ObjectObjectHashMap<KType, VType> map = this.map;
+            ImmutableOpenMap<KType, VType> source = this.source;
             this.map = null; // nullify the map, so any operation post build will fail! (hackish, but safest)
-            return new ImmutableOpenMap<>(map);
+            this.source = null;
+            return source != null ? source : new ImmutableOpenMap<>(map);
         }
 
-
+        /**
+         * Returns the map to modify, copying the entries of the source map if they are still shared.
+         */
+        private ObjectObjectHashMap<KType, VType> mutableMap() {
+            if (source != null) {
+                map = map.clone();
+                source = null;
+            }
+            return map;
+        }
 
         /**
          * Puts all the entries in the map to the builder.
          */
         public Builder<KType, VType> putAll(Map<KType, VType> map) {
             for (Map.Entry<KType, VType> entry : map.entrySet()) {
-                this.map.put(entry.getKey(), entry.getValue());
+                put(entry.getKey(), entry.getValue());
             }
             return this;
         }
@@ -263,13 +280,16 @@ public final class ImmutableOpenMap<KType, VType> implements Iterable<ObjectObje
          * A put operation that can be used in the fluent pattern.
          */
         public Builder<KType, VType> fPut(KType key, VType value) {
-            map.put(key, value);
+            put(key, value);
             return this;
         }
 
         @Override
         public VType put(KType key, VType value) {
-            return map.put(key, value);
+            if (source != null && map.containsKey(key) && map.get(key) == value) {
+                return value; // putting the same instance again does not need to copy the shared entries
+            }
+            return mutableMap().put(key, value);
         }
 
         @Override
@@ -284,25 +304,28 @@ public final class ImmutableOpenMap<KType, VType> implements Iterable<ObjectObje
 
         @Override
         public int putAll(ObjectObjectAssociativeContainer<? extends KType, ? extends VType> container) {
-            return map.putAll(container);
+            return mutableMap().putAll(container);
         }
 
         @Override
         public int putAll(Iterable<? extends ObjectObjectCursor<? extends KType, ? extends VType>> iterable) {
-            return map.putAll(iterable);
+            return mutableMap().putAll(iterable);
         }
 
         /**
          * Remove that can be used in the fluent pattern.
          */
         public Builder<KType, VType> fRemove(KType key) {
-            map.remove(key);
+            remove(key);
             return this;
         }
 
         @Override
         public VType remove(KType key) {
-            return map.remove(key);
+            if (source != null && map.containsKey(key) == false) {
+                return null;
+            }
+            return mutableMap().remove(key);
         }
 
         @Override
@@ -327,12 +350,12 @@ public final class ImmutableOpenMap<KType, VType> implements Iterable<ObjectObje
 
         @Override
         public int removeAll(ObjectContainer<? super KType> container) {
-            return map.removeAll(container);
+            return mutableMap().removeAll(container);
         }
 
         @Override
         public int removeAll(ObjectPredicate<? super KType> predicate) {
-            return map.removeAll(predicate);
+            return mutableMap().removeAll(predicate);
         }
 
         @Override
@@ -342,17 +365,28 @@ public final class ImmutableOpenMap<KType, VType> implements Iterable<ObjectObje
 
         @Override
         public void clear() {
-            map.clear();
+            if (source != null) {
+                map = new ObjectObjectHashMap<>();
+                source = null;
+            } else {
+                map.clear();
+            }
         }
 
+        /**
+         * Returns a view of the keys, which copies the entries of the source map first since the view can remove entries.
+         */
         @Override
         public ObjectCollection<KType> keys() {
-            return map.keys();
+            return mutableMap().keys();
         }
 
+        /**
+         * Returns a view of the values, which copies the entries of the source map first since the underlying view can remove entries.
+         */
         @Override
         public ObjectContainer<VType> values() {
-            return map.values();
+            return mutableMap().values();
         }
 
         @SuppressWarnings("unchecked")
@@ -362,7 +396,7 @@ public final class ImmutableOpenMap<KType, VType> implements Iterable<ObjectObje
 
         @Override
         public int removeAll(ObjectObjectPredicate<? super KType, ? super VType> predicate) {
-            return map.removeAll(predicate);
+            return mutableMap().removeAll(predicate);
         }
 
         @Override
@@ -387,17 +421,22 @@ public final class ImmutableOpenMap<KType, VType> implements Iterable<ObjectObje
 
         @Override
         public VType indexReplace(int index, VType newValue) {
-            return map.indexReplace(index, newValue);
+            return mutableMap().indexReplace(index, newValue);
         }
 
         @Override
         public void indexInsert(int index, KType key, VType value) {
-            map.indexInsert(index, key, value);
+            mutableMap().indexInsert(index, key, value);
         }
 
         @Override
         public void release() {
-            map.release();
+            if (source != null) {
+                map = new ObjectObjectHashMap<>();
+                source = null;
+            } else {
+                map.release();
+            }
         }
 
         @Override
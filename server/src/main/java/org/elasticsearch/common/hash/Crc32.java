@@ -0,0 +1,93 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.hash;
+
+/**
+ * Helpers for CRC32 checksums, as computed by {@link java.util.zip.CRC32}.
+ */
+public final class Crc32 {
+
+    private static final int GF2_DIM = 32;
+
+    private Crc32() {}
+
+    /**
+     * Combines the CRC32 checksums of two consecutive sequences of bytes into the CRC32 checksum of their concatenation, without access
+     * to the bytes themselves. This is the {@code crc32_combine} algorithm of zlib.
+     *
+     * @param crc1    the checksum of the first sequence of bytes
+     * @param crc2    the checksum of the second sequence of bytes
+     * @param length2 the number of bytes of the second sequence
+     * @return the checksum of the first sequence of bytes followed by the second one
+     */
+    public static long combine(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        final long[] even = new long[GF2_DIM];
+        final long[] odd = new long[GF2_DIM];
+
+        // the operator for one zero bit in odd, the CRC32 polynomial and the shifts of the other bits
+        odd[0] = 0xedb88320L;
+        long row = 1;
+        for (int n = 1; n < GF2_DIM; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // the operators for two and four zero bits
+        gf2MatrixSquare(even, odd);
+        gf2MatrixSquare(odd, even);
+
+        // applies the operators for the zero bytes of length2 to crc1, the first square being the operator for one zero byte
+        long length = length2;
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            length >>= 1;
+            if (length == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((length & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            length >>= 1;
+        } while (length != 0);
+        return crc1 ^ crc2;
+    }
+
+    private static long gf2MatrixTimes(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] matrix) {
+        for (int n = 0; n < GF2_DIM; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+}
@@ -58,6 +58,19 @@ public class ReleasableLock implements Releasable {
         return this;
     }
 
+    /**
+     * Try acquiring lock, returning null if the lock is held by another thread.
+     */
+    public ReleasableLock tryAcquire() {
+        boolean locked = lock.tryLock();
+        if (locked) {
+            assert addCurrentThread();
+            return this;
+        } else {
+            return null;
+        }
+    }
+
     /**
      * Try acquiring lock, returning null if unable to acquire lock within timeout.
      */
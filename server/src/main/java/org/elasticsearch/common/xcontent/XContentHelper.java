@@ -75,6 +75,10 @@ public class XContentHelper {
                 compressedInput = new BufferedInputStream(compressedInput);
             }
             return XContentFactory.xContent(xContentType).createParser(xContentRegistry, deprecationHandler, compressedInput);
+        } else if (bytes.hasArray()) {
+            // parse the backing array in place rather than copying it through a stream into the parser's own buffer
+            return xContentType.xContent().createParser(xContentRegistry, deprecationHandler, bytes.array(), bytes.arrayOffset(),
+                bytes.length());
         } else {
             return xContentType.xContent().createParser(xContentRegistry, deprecationHandler, bytes.streamInput());
         }
@@ -100,6 +104,10 @@ public class XContentHelper {
             final XContentType contentType;
             InputStream input;
             Compressor compressor = CompressorFactory.compressor(bytes);
+            if (compressor == null && xContentType != null && bytes.hasArray()) {
+                return new Tuple<>(xContentType,
+                    convertToMap(xContentType.xContent(), bytes.array(), bytes.arrayOffset(), bytes.length(), ordered));
+            }
             if (compressor != null) {
                 InputStream compressedStreamInput = compressor.streamInput(bytes.streamInput());
                 if (compressedStreamInput.markSupported() == false) {
@@ -148,6 +156,21 @@ public class XContentHelper {
         }
     }
 
+    /**
+     * Convert a byte array in some {@link XContent} format to a {@link Map}. Throws an {@link ElasticsearchParseException} if there is
+     * any error. Note that unlike {@link #convertToMap(BytesReference, boolean)}, this doesn't automatically uncompress the input.
+     */
+    public static Map<String, Object> convertToMap(XContent xContent, byte[] bytes, int offset, int length, boolean ordered)
+            throws ElasticsearchParseException {
+        // It is safe to use EMPTY here because this never uses namedObject
+        try (XContentParser parser = xContent.createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, bytes, offset, length)) {
+            return ordered ? parser.mapOrdered() : parser.map();
+        } catch (IOException e) {
+            throw new ElasticsearchParseException("Failed to parse content to map", e);
+        }
+    }
+
     @Deprecated
     public static String convertToJson(BytesReference bytes, boolean reformatJson) throws IOException {
         return convertToJson(bytes, reformatJson, false);
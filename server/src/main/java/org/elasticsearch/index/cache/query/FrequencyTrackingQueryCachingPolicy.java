@@ -0,0 +1,134 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.query;
+
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.DocValuesFieldExistsQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
+import org.elasticsearch.common.cache.FrequencySketch;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.indices.IndicesQueryCache;
+
+/**
+ * A {@link QueryCachingPolicy} that admits queries in the cache based on their estimated frequency, tracked in a
+ * {@link FrequencySketch}. Unlike {@link UsageTrackingQueryCachingPolicy} that only remembers the last 256 uses,
+ * the sketch keeps an aging history of a much larger number of distinct queries in constant memory, so popular
+ * filters still get cached when many distinct filters (per-user filters, time ranges) go through the same shard.
+ * The minimum frequency to cache a query depends on its cost and follows {@link UsageTrackingQueryCachingPolicy}.
+ */
+public final class FrequencyTrackingQueryCachingPolicy implements QueryCachingPolicy {
+
+    /**
+     * The maximum number of distinct queries whose frequency is tracked per shard. The sketch is sized from the number of
+     * entries of the node query cache, but that limit is shared by all shards of the node, so this cap bounds the memory
+     * of each sketch to 32kB (4 bits per counter, 16 counters per long).
+     */
+    static final int MAX_SKETCH_SIZE = 4096;
+
+    private static final CostRules COST_RULES = new CostRules();
+
+    private final FrequencySketch sketch;
+    private final CounterMetric admittedCount = new CounterMetric();
+    private final CounterMetric rejectedCount = new CounterMetric();
+
+    /**
+     * Creates a policy that tracks the frequency of as many distinct queries as the node query cache can hold, up to
+     * {@link #MAX_SKETCH_SIZE}. The sketch halves its counters every ten times that many uses, so a query cache that
+     * holds more entries also remembers the queries over a longer history of uses.
+     */
+    public FrequencyTrackingQueryCachingPolicy(Settings nodeSettings) {
+        this(Math.min(IndicesQueryCache.INDICES_CACHE_QUERY_COUNT_SETTING.get(nodeSettings), MAX_SKETCH_SIZE));
+    }
+
+    FrequencyTrackingQueryCachingPolicy(int sketchSize) {
+        this.sketch = new FrequencySketch(sketchSize);
+    }
+
+    @Override
+    public void onUse(Query query) {
+        if (shouldNeverCache(query)) {
+            return;
+        }
+        final int hashCode = query.hashCode();
+        synchronized (sketch) {
+            sketch.increment(hashCode);
+        }
+    }
+
+    @Override
+    public boolean shouldCache(Query query) {
+        if (shouldNeverCache(query)) {
+            return false;
+        }
+        final int frequency;
+        synchronized (sketch) {
+            frequency = sketch.frequency(query.hashCode());
+        }
+        if (frequency >= COST_RULES.minFrequencyToCache(query)) {
+            admittedCount.inc();
+            return true;
+        }
+        rejectedCount.inc();
+        return false;
+    }
+
+    /**
+     * Returns the admission statistics of this policy.
+     */
+    public QueryCacheStats stats() {
+        return new QueryCacheStats(0, 0, 0, 0, 0, admittedCount.count(), rejectedCount.count());
+    }
+
+    private static boolean shouldNeverCache(Query query) {
+        if (query instanceof TermQuery
+                || query instanceof DocValuesFieldExistsQuery
+                || query instanceof MatchAllDocsQuery
+                || query instanceof MatchNoDocsQuery) {
+            // these queries are either cheap or already backed by an efficient data structure
+            return true;
+        }
+        if (query instanceof BooleanQuery) {
+            return ((BooleanQuery) query).clauses().isEmpty();
+        }
+        if (query instanceof DisjunctionMaxQuery) {
+            return ((DisjunctionMaxQuery) query).getDisjuncts().isEmpty();
+        }
+        return false;
+    }
+
+    /**
+     * Exposes the cost-based minimum frequencies of {@link UsageTrackingQueryCachingPolicy}, which are lower for
+     * costly queries like multi-term or point queries. These rules are stateless so a single instance is shared.
+     */
+    private static final class CostRules extends UsageTrackingQueryCachingPolicy {
+
+        @Override
+        protected int minFrequencyToCache(Query query) {
+            return super.minFrequencyToCache(query);
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package org.elasticsearch.index.cache.query;
 
 import org.apache.lucene.search.DocIdSet;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -37,6 +38,8 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
     private long missCount;
     private long cacheCount;
     private long cacheSize;
+    private long admittedCount;
+    private long rejectedCount;
 
     public QueryCacheStats() {
     }
@@ -47,14 +50,25 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         missCount = in.readLong();
         cacheCount = in.readLong();
         cacheSize = in.readLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            admittedCount = in.readVLong();
+            rejectedCount = in.readVLong();
+        }
     }
 
     public QueryCacheStats(long ramBytesUsed, long hitCount, long missCount, long cacheCount, long cacheSize) {
+        this(ramBytesUsed, hitCount, missCount, cacheCount, cacheSize, 0, 0);
+    }
+
+    public QueryCacheStats(long ramBytesUsed, long hitCount, long missCount, long cacheCount, long cacheSize,
+                           long admittedCount, long rejectedCount) {
         this.ramBytesUsed = ramBytesUsed;
         this.hitCount = hitCount;
         this.missCount = missCount;
         this.cacheCount = cacheCount;
         this.cacheSize = cacheSize;
+        this.admittedCount = admittedCount;
+        this.rejectedCount = rejectedCount;
     }
 
     public void add(QueryCacheStats stats) {
@@ -63,6 +77,8 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         missCount += stats.missCount;
         cacheCount += stats.cacheCount;
         cacheSize += stats.cacheSize;
+        admittedCount += stats.admittedCount;
+        rejectedCount += stats.rejectedCount;
     }
 
     public long getMemorySizeInBytes() {
@@ -115,6 +131,21 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         return cacheCount - cacheSize;
     }
 
+    /**
+     * The number of times the caching policy accepted to cache a query on a cache miss.
+     */
+    public long getAdmittedCount() {
+        return admittedCount;
+    }
+
+    /**
+     * The number of times the caching policy refused to cache a query on a cache miss
+     * because the query was not used frequently enough.
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeLong(ramBytesUsed);
@@ -122,6 +153,10 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         out.writeLong(missCount);
         out.writeLong(cacheCount);
         out.writeLong(cacheSize);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(admittedCount);
+            out.writeVLong(rejectedCount);
+        }
     }
 
     @Override
@@ -134,6 +169,8 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         builder.field(Fields.CACHE_SIZE, getCacheSize());
         builder.field(Fields.CACHE_COUNT, getCacheCount());
         builder.field(Fields.EVICTIONS, getEvictions());
+        builder.field(Fields.ADMITTED_COUNT, getAdmittedCount());
+        builder.field(Fields.REJECTED_COUNT, getRejectedCount());
         builder.endObject();
         return builder;
     }
@@ -148,6 +185,8 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         static final String CACHE_SIZE = "cache_size";
         static final String CACHE_COUNT = "cache_count";
         static final String EVICTIONS = "evictions";
+        static final String ADMITTED_COUNT = "admitted_count";
+        static final String REJECTED_COUNT = "rejected_count";
     }
 
 }
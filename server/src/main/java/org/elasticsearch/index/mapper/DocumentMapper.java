@@ -28,6 +28,7 @@ import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticsearchGenerationException;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.settings.Settings;
@@ -104,13 +105,20 @@ public class DocumentMapper implements ToXContentFragment {
         }
 
         public DocumentMapper build(MapperService mapperService) {
+            return build(mapperService, null);
+        }
+
+        /**
+         * Builds the mapper, reusing the given source if it is identical to the source of the built mapper.
+         */
+        public DocumentMapper build(MapperService mapperService, @Nullable CompressedXContent source) {
             Objects.requireNonNull(rootObjectMapper, "Mapper builder must have the root object mapper set");
             Mapping mapping = new Mapping(
                     mapperService.getIndexSettings().getIndexVersionCreated(),
                     rootObjectMapper,
                     metadataMappers.values().toArray(new MetadataFieldMapper[metadataMappers.values().size()]),
                     meta);
-            return new DocumentMapper(mapperService, mapping);
+            return new DocumentMapper(mapperService, mapping, source);
         }
     }
 
@@ -134,6 +142,15 @@ public class DocumentMapper implements ToXContentFragment {
     private final MetadataFieldMapper[] noopTombstoneMetadataFieldMappers;
 
     public DocumentMapper(MapperService mapperService, Mapping mapping) {
+        this(mapperService, mapping, null);
+    }
+
+    /**
+     * @param source the source that the mapping was parsed from or merged with, if any. It is used as the source of this mapper when it
+     *               is identical to it, so that indices with the same mapping share the instance held by the cluster state rather
+     *               than each keeping its own copy.
+     */
+    DocumentMapper(MapperService mapperService, Mapping mapping, @Nullable CompressedXContent source) {
         this.mapperService = mapperService;
         this.type = mapping.root().name();
         this.typeText = new Text(this.type);
@@ -175,11 +192,13 @@ public class DocumentMapper implements ToXContentFragment {
         }
         this.hasNestedObjects = hasNestedObjects;
 
+        final CompressedXContent serializedSource;
         try {
-            mappingSource = new CompressedXContent(this, XContentType.JSON, ToXContent.EMPTY_PARAMS);
+            serializedSource = new CompressedXContent(this, XContentType.JSON, ToXContent.EMPTY_PARAMS);
         } catch (Exception e) {
             throw new ElasticsearchGenerationException("failed to serialize source for type [" + type + "]", e);
         }
+        this.mappingSource = serializedSource.equals(source) ? source : serializedSource;
 
         final Collection<String> deleteTombstoneMetadataFields = Arrays.asList(VersionFieldMapper.NAME, IdFieldMapper.NAME,
             TypeFieldMapper.NAME, SeqNoFieldMapper.NAME, SeqNoFieldMapper.PRIMARY_TERM_NAME, SeqNoFieldMapper.TOMBSTONE_NAME);
@@ -302,8 +321,15 @@ public class DocumentMapper implements ToXContentFragment {
     }
 
     public DocumentMapper merge(Mapping mapping, MergeReason reason) {
+        return merge(mapping, reason, null);
+    }
+
+    /**
+     * Merges the given mapping into this one, reusing the given source if it is identical to the source of the merged mapper.
+     */
+    public DocumentMapper merge(Mapping mapping, MergeReason reason, @Nullable CompressedXContent source) {
         Mapping merged = this.mapping.merge(mapping, reason);
-        return new DocumentMapper(mapperService, merged);
+        return new DocumentMapper(mapperService, merged, source);
     }
 
     @Override
@@ -342,7 +342,8 @@ public class MapperService extends AbstractIndexComponent implements Closeable {
         DocumentMapper oldMapper = this.mapper;
         DocumentMapper newMapper;
         if (oldMapper != null) {
-            newMapper = oldMapper.merge(mapper.mapping(), reason);
+            // the incoming mapper holds the source it was parsed from if it is identical, which the merged mapper may reuse too
+            newMapper = oldMapper.merge(mapper.mapping(), reason, mapper.mappingSource());
         } else {
             newMapper = mapper;
         }
@@ -33,7 +33,6 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.search.Sort;
-import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.SetOnce;
 import org.apache.lucene.util.ThreadInterruptedException;
@@ -88,6 +87,8 @@ import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.cache.IndexCache;
 import org.elasticsearch.index.cache.bitset.ShardBitsetFilterCache;
+import org.elasticsearch.index.cache.query.FrequencyTrackingQueryCachingPolicy;
+import org.elasticsearch.index.cache.query.QueryCacheStats;
 import org.elasticsearch.index.cache.request.ShardRequestCache;
 import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.engine.CommitStats;
@@ -368,7 +369,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 }
             };
         } else {
-            cachingPolicy = new UsageTrackingQueryCachingPolicy();
+            cachingPolicy = new FrequencyTrackingQueryCachingPolicy(indexSettings.getNodeSettings());
         }
         indexShardOperationPermits = new IndexShardOperationPermits(shardId, threadPool);
         readerWrapper = indexReaderWrapper;
@@ -1030,6 +1031,17 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return shardWarmerService.stats();
     }
 
+    /**
+     * Returns the admission statistics of the query caching policy of this shard, the other query cache
+     * statistics are tracked by the node-level {@link org.elasticsearch.indices.IndicesQueryCache}.
+     */
+    public QueryCacheStats queryCachingPolicyStats() {
+        if (cachingPolicy instanceof FrequencyTrackingQueryCachingPolicy) {
+            return ((FrequencyTrackingQueryCachingPolicy) cachingPolicy).stats();
+        }
+        return new QueryCacheStats();
+    }
+
     public FieldDataStats fieldDataStats(String... fields) {
         return shardFieldData.stats(fields);
     }
@@ -81,6 +81,9 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
     public static final Setting<TimeValue> INDICES_CACHE_QUERY_EXPIRE =
         Setting.positiveTimeSetting("indices.requests.cache.expire", new TimeValue(0), Property.NodeScope);
 
+    // the number of entries whose frequency is tracked for admission in the cache
+    private static final int FREQUENCY_ADMISSION_EXPECTED_SIZE = 16 * 1024;
+
     private final ConcurrentMap<CleanupKey, Boolean> registeredClosedListeners = ConcurrentCollections.newConcurrentMap();
     private final Set<CleanupKey> keysToClean = ConcurrentCollections.newConcurrentSet();
     private final ByteSizeValue size;
@@ -92,7 +95,10 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         this.expire = INDICES_CACHE_QUERY_EXPIRE.exists(settings) ? INDICES_CACHE_QUERY_EXPIRE.get(settings) : null;
         long sizeInBytes = size.getBytes();
         CacheBuilder<Key, BytesReference> cacheBuilder = CacheBuilder.<Key, BytesReference>builder()
-            .setMaximumWeight(sizeInBytes).weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed()).removalListener(this);
+            .setMaximumWeight(sizeInBytes).weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed()).removalListener(this)
+            // one-off requests like time ranges ending at now should not flush the popular entries, keys are renewed on every
+            // refresh so the popularity of a request does not depend on the reader it ran against
+            .setFrequencyAdmission(FREQUENCY_ADMISSION_EXPECTED_SIZE, Key::requestHashCode);
         if (expire != null) {
             cacheBuilder.setExpireAfterAccess(expire);
         }
@@ -262,6 +268,13 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
             result = 31 * result + value.hashCode();
             return result;
         }
+
+        /**
+         * The hash of the request regardless of the reader, which is the same for the keys of a request before and after a refresh.
+         */
+        int requestHashCode() {
+            return 31 * entity.getCacheIdentity().hashCode() + value.hashCode();
+        }
     }
 
     private class CleanupKey implements IndexReader.ClosedListener {
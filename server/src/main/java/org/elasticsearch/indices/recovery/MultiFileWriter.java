@@ -29,6 +29,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.transport.Transports;
@@ -74,6 +75,21 @@ public class MultiFileWriter extends AbstractRefCounted implements Releasable {
         writer.writeChunk(new FileChunk(fileMetadata, content, position, lastChunk));
     }
 
+    /**
+     * Discards the data that was written so far for the given file, so that the file can be written again from its first chunk.
+     */
+    public void discardFile(String name) {
+        ensureOpen.run();
+        fileChunkWriters.remove(name);
+        final IndexOutput indexOutput = openIndexOutputs.remove(name);
+        IOUtils.closeWhileHandlingException(indexOutput);
+        final String tempFileName = getTempNameForFile(name);
+        if (tempFileNames.remove(tempFileName) != null) {
+            store.deleteQuiet(tempFileName);
+        }
+        indexState.resetRecoveredBytesOfFile(name);
+    }
+
     /** Get a temporary name for the provided file name. */
     String getTempNameForFile(String origFile) {
         return tempFilePrefix + origFile;
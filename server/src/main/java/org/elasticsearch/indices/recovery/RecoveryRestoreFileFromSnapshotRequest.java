@@ -0,0 +1,109 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.repositories.IndexId;
+
+import java.io.IOException;
+
+public final class RecoveryRestoreFileFromSnapshotRequest extends RecoveryTransportRequest {
+
+    private final long recoveryId;
+    private final ShardId shardId;
+    private final String repository;
+    private final IndexId indexId;
+    private final FileInfo fileInfo;
+    private final int totalTranslogOps;
+
+    public RecoveryRestoreFileFromSnapshotRequest(StreamInput in) throws IOException {
+        super(in);
+        recoveryId = in.readLong();
+        shardId = new ShardId(in);
+        repository = in.readString();
+        indexId = new IndexId(in);
+        final String blobName = in.readString();
+        final StoreFileMetadata metadata = new StoreFileMetadata(in);
+        final ByteSizeValue partSize = in.readOptionalWriteable(ByteSizeValue::new);
+        fileInfo = new FileInfo(blobName, metadata, partSize);
+        totalTranslogOps = in.readVInt();
+    }
+
+    RecoveryRestoreFileFromSnapshotRequest(long recoveryId, long requestSeqNo, ShardId shardId, String repository, IndexId indexId,
+                                           FileInfo fileInfo, int totalTranslogOps) {
+        super(requestSeqNo);
+        this.recoveryId = recoveryId;
+        this.shardId = shardId;
+        this.repository = repository;
+        this.indexId = indexId;
+        this.fileInfo = fileInfo;
+        this.totalTranslogOps = totalTranslogOps;
+    }
+
+    public long recoveryId() {
+        return recoveryId;
+    }
+
+    public ShardId shardId() {
+        return shardId;
+    }
+
+    public String repository() {
+        return repository;
+    }
+
+    public IndexId indexId() {
+        return indexId;
+    }
+
+    public FileInfo fileInfo() {
+        return fileInfo;
+    }
+
+    public int totalTranslogOps() {
+        return totalTranslogOps;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeLong(recoveryId);
+        shardId.writeTo(out);
+        out.writeString(repository);
+        indexId.writeTo(out);
+        out.writeString(fileInfo.name());
+        fileInfo.metadata().writeTo(out);
+        out.writeOptionalWriteable(fileInfo.partSize());
+        out.writeVInt(totalTranslogOps);
+    }
+
+    @Override
+    public String toString() {
+        return shardId + ": repository='" + repository + '\'' +
+            ", index=" + indexId +
+            ", name='" + fileInfo.physicalName() + '\'' +
+            ", length=" + fileInfo.length();
+    }
+}
@@ -35,12 +35,14 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.StepListener;
+import org.elasticsearch.action.support.GroupedActionListener;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.action.support.ThreadedActionListener;
 import org.elasticsearch.action.support.replication.ReplicationResponse;
 import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.CheckedRunnable;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
@@ -51,6 +53,7 @@ import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.CancellableThreads;
+import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.FutureUtils;
 import org.elasticsearch.common.util.concurrent.ListenableFuture;
@@ -66,6 +69,7 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardClosedException;
 import org.elasticsearch.index.shard.IndexShardRelocatedException;
 import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
@@ -80,15 +84,20 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.IntSupplier;
 import java.util.stream.StreamSupport;
@@ -117,13 +126,30 @@ public class RecoverySourceHandler {
     private final int maxConcurrentFileChunks;
     private final int maxConcurrentOperations;
     private final ThreadPool threadPool;
+    @Nullable
+    private final ShardSnapshotsService shardSnapshotsService;
     private final CancellableThreads cancellableThreads = new CancellableThreads();
     private final List<Closeable> resources = new CopyOnWriteArrayList<>();
     private final ListenableFuture<RecoveryResponse> future = new ListenableFuture<>();
 
+    /**
+     * The version from which the recovery targets know how to restore files from a snapshot
+     */
+    static final Version RESTORE_FILES_FROM_SNAPSHOT_VERSION = Version.V_8_0_0;
+
     public RecoverySourceHandler(IndexShard shard, RecoveryTargetHandler recoveryTarget, ThreadPool threadPool,
                                  StartRecoveryRequest request, int fileChunkSizeInBytes, int maxConcurrentFileChunks,
                                  int maxConcurrentOperations) {
+        this(shard, recoveryTarget, threadPool, request, fileChunkSizeInBytes, maxConcurrentFileChunks, maxConcurrentOperations, null);
+    }
+
+    /**
+     * @param shardSnapshotsService used to look up the snapshots of the shard from which the target can restore files instead of having
+     *                              them sent by this node, or {@code null} to send all the files from this node
+     */
+    public RecoverySourceHandler(IndexShard shard, RecoveryTargetHandler recoveryTarget, ThreadPool threadPool,
+                                 StartRecoveryRequest request, int fileChunkSizeInBytes, int maxConcurrentFileChunks,
+                                 int maxConcurrentOperations, @Nullable ShardSnapshotsService shardSnapshotsService) {
         this.shard = shard;
         this.recoveryTarget = recoveryTarget;
         this.threadPool = threadPool;
@@ -133,6 +159,7 @@ public class RecoverySourceHandler {
         this.chunkSizeInBytes = fileChunkSizeInBytes;
         this.maxConcurrentFileChunks = maxConcurrentFileChunks;
         this.maxConcurrentOperations = maxConcurrentOperations;
+        this.shardSnapshotsService = shardSnapshotsService;
     }
 
     public StartRecoveryRequest getRequest() {
@@ -524,6 +551,7 @@ public class RecoverySourceHandler {
                     phase1FileNames.size(), new ByteSizeValue(totalSizeInBytes),
                     phase1ExistingFileNames.size(), new ByteSizeValue(existingTotalSizeInBytes));
                 final StepListener<Void> sendFileInfoStep = new StepListener<>();
+                final StepListener<List<StoreFileMetadata>> restoreFilesFromSnapshotStep = new StepListener<>();
                 final StepListener<Void> sendFilesStep = new StepListener<>();
                 final StepListener<RetentionLease> createRetentionLeaseStep = new StepListener<>();
                 final StepListener<Void> cleanFilesStep = new StepListener<>();
@@ -532,7 +560,10 @@ public class RecoverySourceHandler {
                         phase1ExistingFileSizes, translogOps.getAsInt(), sendFileInfoStep);
 
                 sendFileInfoStep.whenComplete(r ->
-                    sendFiles(store, phase1Files.toArray(new StoreFileMetadata[0]), translogOps, sendFilesStep), listener::onFailure);
+                    restoreFilesFromSnapshot(phase1Files, translogOps, restoreFilesFromSnapshotStep), listener::onFailure);
+
+                restoreFilesFromSnapshotStep.whenComplete(filesToSend ->
+                    sendFiles(store, filesToSend.toArray(new StoreFileMetadata[0]), translogOps, sendFilesStep), listener::onFailure);
 
                 sendFilesStep.whenComplete(r -> createRetentionLease(startingSeqNo, createRetentionLeaseStep), listener::onFailure);
 
@@ -890,6 +921,129 @@ public class RecoverySourceHandler {
         }
     }
 
+    /**
+     * Has the target restore the given files from the snapshot of the shard that has the most bytes in common with them, if any, so that
+     * these files do not have to be sent by this node. Files that fail to be restored from the snapshot are sent by this node instead.
+     *
+     * @param listener notified with the files that still need to be sent by this node
+     */
+    void restoreFilesFromSnapshot(List<StoreFileMetadata> files, IntSupplier translogOps,
+                                  ActionListener<List<StoreFileMetadata>> listener) {
+        if (shardSnapshotsService == null || files.isEmpty()
+            || request.targetNode().getVersion().before(RESTORE_FILES_FROM_SNAPSHOT_VERSION)) {
+            listener.onResponse(files);
+            return;
+        }
+        cancellableThreads.checkForCancel();
+        shardSnapshotsService.fetchShardSnapshots(request.shardId(), ActionListener.wrap(shardSnapshots -> {
+            ShardSnapshotsService.ShardSnapshot bestSnapshot = null;
+            Map<String, BlobStoreIndexShardSnapshot.FileInfo> bestSnapshotFiles = Collections.emptyMap();
+            long bestSnapshotBytes = 0L;
+            for (ShardSnapshotsService.ShardSnapshot shardSnapshot : shardSnapshots) {
+                final Map<String, BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles = new HashMap<>();
+                for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : shardSnapshot.getFiles()) {
+                    snapshotFiles.put(fileInfo.physicalName(), fileInfo);
+                }
+                final Map<String, BlobStoreIndexShardSnapshot.FileInfo> commonFiles = new HashMap<>();
+                long commonBytes = 0L;
+                for (StoreFileMetadata md : files) {
+                    final BlobStoreIndexShardSnapshot.FileInfo fileInfo = snapshotFiles.get(md.name());
+                    // files whose content is held by their metadata are not stored as blobs, and are cheap to send anyway
+                    if (fileInfo != null && fileInfo.isSame(md) && md.hashEqualsContents() == false) {
+                        commonFiles.put(md.name(), fileInfo);
+                        commonBytes += md.length();
+                    }
+                }
+                // snapshots are listed most recent first, prefer the most recent one in case of equality
+                if (commonBytes > bestSnapshotBytes) {
+                    bestSnapshot = shardSnapshot;
+                    bestSnapshotFiles = commonFiles;
+                    bestSnapshotBytes = commonBytes;
+                }
+            }
+            if (bestSnapshot == null) {
+                listener.onResponse(files);
+                return;
+            }
+            logger.debug("recovery [phase1]: restoring [{}] files with total_size [{}] from snapshot {}",
+                bestSnapshotFiles.size(), new ByteSizeValue(bestSnapshotBytes), bestSnapshot);
+            final List<StoreFileMetadata> filesToSend = new CopyOnWriteArrayList<>();
+            final Queue<BlobStoreIndexShardSnapshot.FileInfo> filesToRestore = new ConcurrentLinkedQueue<>();
+            for (StoreFileMetadata md : files) {
+                final BlobStoreIndexShardSnapshot.FileInfo fileInfo = bestSnapshotFiles.get(md.name());
+                if (fileInfo != null) {
+                    filesToRestore.add(fileInfo);
+                } else {
+                    filesToSend.add(md);
+                }
+            }
+            final int workers = Math.min(maxConcurrentFileChunks, filesToRestore.size());
+            final GroupedActionListener<Void> workersListener = new GroupedActionListener<>(
+                ActionListener.map(listener, r -> new ArrayList<>(filesToSend)), workers);
+            for (int i = 0; i < workers; i++) {
+                restoreNextFileFromSnapshot(bestSnapshot, filesToRestore, filesToSend, translogOps, workersListener);
+            }
+        }, listener::onFailure));
+    }
+
+    private void restoreNextFileFromSnapshot(ShardSnapshotsService.ShardSnapshot shardSnapshot,
+                                             Queue<BlobStoreIndexShardSnapshot.FileInfo> filesToRestore,
+                                             List<StoreFileMetadata> filesToSend, IntSupplier translogOps, ActionListener<Void> listener) {
+        // loops rather than recursing from the listener, which may be completed on this thread
+        while (true) {
+            final BlobStoreIndexShardSnapshot.FileInfo fileInfo = filesToRestore.poll();
+            if (fileInfo == null) {
+                listener.onResponse(null);
+                return;
+            }
+            try {
+                cancellableThreads.checkForCancel();
+            } catch (Exception e) {
+                listener.onFailure(e);
+                return;
+            }
+            // counted down by the restore completing and by the call returning, whichever comes last moves on to the next file
+            final CountDown restored = new CountDown(2);
+            final AtomicReference<Exception> failure = new AtomicReference<>();
+            recoveryTarget.restoreFileFromSnapshot(shardSnapshot.getRepository(), shardSnapshot.getIndexId(), fileInfo,
+                translogOps.getAsInt(), new ActionListener<>() {
+                    @Override
+                    public void onResponse(Void aVoid) {
+                        onRestored();
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        if (cancellableThreads.isCancelled()) {
+                            failure.set(e);
+                        } else {
+                            logger.debug(() -> new ParameterizedMessage("recovery [phase1]: failed to restore [{}] from snapshot {}, "
+                                + "sending it instead", fileInfo.physicalName(), shardSnapshot), e);
+                            filesToSend.add(fileInfo.metadata());
+                        }
+                        onRestored();
+                    }
+
+                    private void onRestored() {
+                        if (restored.countDown()) {
+                            if (failure.get() != null) {
+                                listener.onFailure(failure.get());
+                            } else {
+                                restoreNextFileFromSnapshot(shardSnapshot, filesToRestore, filesToSend, translogOps, listener);
+                            }
+                        }
+                    }
+                });
+            if (restored.countDown() == false) {
+                return;
+            }
+            if (failure.get() != null) {
+                listener.onFailure(failure.get());
+                return;
+            }
+        }
+    }
+
     void sendFiles(Store store, StoreFileMetadata[] files, IntSupplier translogOps, ActionListener<Void> listener) {
         ArrayUtil.timSort(files, Comparator.comparingLong(StoreFileMetadata::length)); // send smallest first
 
@@ -20,6 +20,7 @@
 package org.elasticsearch.indices.recovery;
 
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexFormatTooNewException;
 import org.apache.lucene.index.IndexFormatTooOldException;
@@ -30,6 +31,8 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.flush.FlushRequest;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.lucene.Lucene;
@@ -44,11 +47,17 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardNotRecoveringException;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.snapshots.blobstore.SlicedInputStream;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.transport.Transports;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -67,6 +76,8 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
 
     private static final String RECOVERY_PREFIX = "recovery.";
 
+    private static final long RESTORE_BUFFER_SIZE = RecoverySettings.DEFAULT_CHUNK_SIZE.getBytes();
+
     private final ShardId shardId;
     private final long recoveryId;
     private final IndexShard indexShard;
@@ -479,6 +490,52 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
         }
     }
 
+    /**
+     * Restores a file from a snapshot of the shard in the given repository, see
+     * {@link RecoveryTargetHandler#restoreFileFromSnapshot(String, IndexId, FileInfo, int, ActionListener)}.
+     */
+    public void restoreFileFromSnapshot(BlobStoreRepository repository, IndexId indexId, FileInfo fileInfo, int totalTranslogOps,
+                                        ActionListener<Void> listener) {
+        assert Transports.assertNotTransportThread("restore file from snapshot");
+        final StoreFileMetadata metadata = fileInfo.metadata();
+        try {
+            state().getTranslog().totalOperations(totalTranslogOps);
+            final BlobContainer shardContainer = repository.shardContainer(indexId, shardId.id());
+            try (InputStream stream = repository.maybeRateLimitRestores(new SlicedInputStream(fileInfo.numberOfParts()) {
+                @Override
+                protected InputStream openSlice(long slice) throws IOException {
+                    return shardContainer.readBlob(fileInfo.partName(slice));
+                }
+            })) {
+                final byte[] buffer = new byte[Math.toIntExact(Math.max(1L, Math.min(RESTORE_BUFFER_SIZE, metadata.length())))];
+                long position = 0L;
+                long remaining = metadata.length();
+                do {
+                    cancellableThreads.checkForCancel();
+                    final int bytesRead = remaining > 0L ? stream.read(buffer, 0, Math.toIntExact(Math.min(buffer.length, remaining))) : 0;
+                    if (bytesRead < 0) {
+                        throw new CorruptIndexException("file truncated in snapshot; length=" + metadata.length()
+                            + " offset=" + position, metadata.name());
+                    }
+                    remaining -= bytesRead;
+                    multiFileWriter.writeFileChunk(metadata, position, new BytesArray(buffer, 0, bytesRead), remaining == 0L);
+                    position += bytesRead;
+                } while (remaining > 0L);
+            }
+        } catch (Exception e) {
+            logger.debug(() -> new ParameterizedMessage("failed to restore file [{}] from repository [{}]",
+                metadata.name(), repository.getMetadata().name()), e);
+            try {
+                multiFileWriter.discardFile(metadata.name());
+            } catch (Exception inner) {
+                e.addSuppressed(inner);
+            }
+            listener.onFailure(e);
+            return;
+        }
+        listener.onResponse(null);
+    }
+
     /** Get a temporary name for the provided file name. */
     public String getTempNameForFile(String origFile) {
         return multiFileWriter.getTempNameForFile(origFile);
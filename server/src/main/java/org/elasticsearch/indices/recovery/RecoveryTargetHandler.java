@@ -22,9 +22,11 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.seqno.RetentionLeases;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 
 import java.util.List;
 
@@ -106,5 +108,19 @@ public interface RecoveryTargetHandler {
     void writeFileChunk(StoreFileMetadata fileMetadata, long position, BytesReference content,
                         boolean lastChunk, int totalTranslogOps, ActionListener<Void> listener);
 
+    /**
+     * Restores a file on the target from a snapshot of the shard, instead of having the file sent by the source. The target is expected to
+     * discard any partially restored data of the file on failure, so that the source can still send it afterwards.
+     *
+     * @param repository       the name of the repository that contains the snapshot
+     * @param indexId          the id of the index in the repository
+     * @param fileInfo         the file to restore as it is stored in the repository
+     * @param totalTranslogOps an update number of translog operations that will be replayed later on
+     */
+    default void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                         int totalTranslogOps, ActionListener<Void> listener) {
+        listener.onFailure(new UnsupportedOperationException("restoring files from a snapshot is not supported by " + this));
+    }
+
     default void cancel() {}
 }
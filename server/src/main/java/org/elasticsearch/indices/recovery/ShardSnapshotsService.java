@@ -0,0 +1,169 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRunnable;
+import org.elasticsearch.action.support.GroupedActionListener;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshots;
+import org.elasticsearch.index.snapshots.blobstore.SnapshotFiles;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.RepositoryData;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up the snapshots of a shard in the repositories that have the {@link BlobStoreRepository#USE_FOR_PEER_RECOVERY_SETTING} enabled,
+ * so that a peer recovery can fetch the files that the snapshots have in common with the source shard from the repository.
+ */
+public class ShardSnapshotsService {
+
+    private static final Logger logger = LogManager.getLogger(ShardSnapshotsService.class);
+
+    private final RepositoriesService repositoriesService;
+    private final ThreadPool threadPool;
+
+    public ShardSnapshotsService(RepositoriesService repositoriesService, ThreadPool threadPool) {
+        this.repositoriesService = repositoriesService;
+        this.threadPool = threadPool;
+    }
+
+    /**
+     * Fetches the snapshots of the given shard that were taken from the same index, the most recent snapshot of each repository first.
+     * Repositories that fail to be read are skipped, so this never fails.
+     */
+    public void fetchShardSnapshots(ShardId shardId, ActionListener<List<ShardSnapshot>> listener) {
+        final List<BlobStoreRepository> repositories = repositoriesService.getRepositories().values().stream()
+            .filter(repository -> repository instanceof BlobStoreRepository)
+            .map(repository -> (BlobStoreRepository) repository)
+            .filter(repository -> BlobStoreRepository.USE_FOR_PEER_RECOVERY_SETTING.get(repository.getMetadata().settings()))
+            .collect(Collectors.toList());
+        if (repositories.isEmpty()) {
+            listener.onResponse(List.of());
+            return;
+        }
+        final GroupedActionListener<List<ShardSnapshot>> groupedListener = new GroupedActionListener<>(
+            ActionListener.map(listener, results -> results.stream().flatMap(List::stream).collect(Collectors.toList())),
+            repositories.size());
+        for (BlobStoreRepository repository : repositories) {
+            fetchShardSnapshots(repository, shardId, ActionListener.wrap(groupedListener::onResponse, e -> {
+                logger.debug(() -> new ParameterizedMessage("failed to fetch the snapshots of {} from repository [{}]",
+                    shardId, repository.getMetadata().name()), e);
+                groupedListener.onResponse(List.of());
+            }));
+        }
+    }
+
+    private void fetchShardSnapshots(BlobStoreRepository repository, ShardId shardId, ActionListener<List<ShardSnapshot>> listener) {
+        repository.getRepositoryData(ActionListener.wrap(repositoryData ->
+            // reading the shard level metadata blob is blocking, and the caller expects to be notified on the generic thread pool
+            threadPool.generic().execute(ActionRunnable.supply(listener, () -> {
+                final IndexId indexId = repositoryData.getIndices().get(shardId.getIndexName());
+                if (indexId == null) {
+                    return List.of();
+                }
+                final String shardGen = repositoryData.shardGenerations().getShardGen(indexId, shardId.id());
+                final BlobStoreIndexShardSnapshots shardSnapshots =
+                    repository.getBlobStoreIndexShardSnapshots(indexId, shardId.id(), shardGen);
+                final Map<String, SnapshotId> snapshotIds = repositoryData.getSnapshotIds().stream()
+                    .collect(Collectors.toMap(SnapshotId::getName, Function.identity()));
+                final List<ShardSnapshot> snapshots = new ArrayList<>(shardSnapshots.snapshots().size());
+                for (SnapshotFiles snapshotFiles : shardSnapshots) {
+                    // snapshots that are still in progress are not part of the repository data yet
+                    final SnapshotId snapshotId = snapshotIds.get(snapshotFiles.snapshot());
+                    if (snapshotId != null && isSnapshotOfIndex(repository, repositoryData, snapshotId, indexId, shardId.getIndex())) {
+                        snapshots.add(new ShardSnapshot(repository.getMetadata().name(), indexId, snapshotFiles.snapshot(),
+                            snapshotFiles.indexFiles()));
+                    }
+                }
+                return snapshots;
+            })), listener::onFailure));
+    }
+
+    /**
+     * Indices are tracked by name in a repository, so the snapshots of an index that was deleted and then re-created with the same name
+     * are listed together with the snapshots of the new index. Their files have the same names but not the same contents as the files
+     * of the shard, so only the snapshots of the index with the same uuid are used.
+     */
+    private static boolean isSnapshotOfIndex(BlobStoreRepository repository, RepositoryData repositoryData, SnapshotId snapshotId,
+                                             IndexId indexId, Index index) throws IOException {
+        final String identifier = repositoryData.indexMetaDataGenerations().indexMetaIdentifier(snapshotId, indexId);
+        if (identifier != null) {
+            // see IndexMetaDataGenerations#buildUniqueIdentifier
+            return identifier.startsWith(index.getUUID() + "-");
+        }
+        // the snapshot was created by an older version, read the index metadata instead
+        return index.getUUID().equals(repository.getSnapshotIndexMetaData(repositoryData, snapshotId, indexId).getIndexUUID());
+    }
+
+    /**
+     * The files of a snapshot of a shard
+     */
+    public static class ShardSnapshot {
+
+        private final String repository;
+        private final IndexId indexId;
+        private final String snapshot;
+        private final List<FileInfo> files;
+
+        public ShardSnapshot(String repository, IndexId indexId, String snapshot, List<FileInfo> files) {
+            this.repository = repository;
+            this.indexId = indexId;
+            this.snapshot = snapshot;
+            this.files = files;
+        }
+
+        public String getRepository() {
+            return repository;
+        }
+
+        public IndexId getIndexId() {
+            return indexId;
+        }
+
+        public String getSnapshot() {
+            return snapshot;
+        }
+
+        public List<FileInfo> getFiles() {
+            return files;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + repository + ":" + snapshot + "]";
+        }
+    }
+}
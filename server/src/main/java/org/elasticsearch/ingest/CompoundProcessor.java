@@ -20,6 +20,7 @@
 package org.elasticsearch.ingest;
 
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.TriConsumer;
 import org.elasticsearch.common.collect.Tuple;
 
 import java.util.ArrayList;
@@ -28,6 +29,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
@@ -167,6 +169,96 @@ public class CompoundProcessor implements Processor {
         });
     }
 
+    @Override
+    public void executeBatch(List<IngestDocument> ingestDocuments, TriConsumer<Integer, IngestDocument, Exception> handler) {
+        final int[] slots = new int[ingestDocuments.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = i;
+        }
+        innerExecuteBatch(0, slots, ingestDocuments, handler);
+    }
+
+    @Override
+    public boolean supportsBatchExecution() {
+        for (Processor processor : processors) {
+            if (processor.supportsBatchExecution()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Executes the current processor on all documents of the batch, and the next processor on the documents that neither failed nor
+     * got dropped once the current processor is done with all of them. The slots hold the position of each document in the batch that
+     * this compound processor was called with.
+     */
+    void innerExecuteBatch(int currentProcessor, int[] slots, List<IngestDocument> ingestDocuments,
+                           TriConsumer<Integer, IngestDocument, Exception> handler) {
+        if (currentProcessor == processorsWithMetrics.size()) {
+            for (int i = 0; i < slots.length; i++) {
+                handler.apply(slots[i], ingestDocuments.get(i), null);
+            }
+            return;
+        }
+        if (slots.length == 0) {
+            return;
+        }
+
+        Tuple<Processor, IngestMetric> processorWithMetric = processorsWithMetrics.get(currentProcessor);
+        final Processor processor = processorWithMetric.v1();
+        final IngestMetric metric = processorWithMetric.v2();
+        final IngestDocument[] results = new IngestDocument[slots.length];
+        final AtomicInteger pending = new AtomicInteger(slots.length);
+        final IngestMetric.BatchTimer timer = new IngestMetric.BatchTimer(relativeTimeProvider);
+        for (int i = 0; i < slots.length; i++) {
+            metric.preIngest();
+        }
+        processor.executeBatch(ingestDocuments, (i, result, e) -> {
+            metric.postIngest(timer.nextIngestTimeInMillis());
+
+            final int slot = slots[i];
+            final IngestDocument ingestDocument = ingestDocuments.get(i);
+            if (e != null) {
+                metric.ingestFailed();
+                if (ignoreFailure) {
+                    results[i] = ingestDocument;
+                } else {
+                    IngestProcessorException compoundProcessorException =
+                        newCompoundProcessorException(e, processor, ingestDocument);
+                    if (onFailureProcessors.isEmpty()) {
+                        handler.apply(slot, null, compoundProcessorException);
+                    } else {
+                        executeOnFailureAsync(0, ingestDocument, compoundProcessorException,
+                            (onFailureResult, onFailureException) -> handler.apply(slot, onFailureResult, onFailureException));
+                    }
+                }
+            } else if (result != null) {
+                results[i] = result;
+            } else {
+                handler.apply(slot, null, null);
+            }
+
+            if (pending.decrementAndGet() == 0) {
+                int remaining = 0;
+                for (IngestDocument document : results) {
+                    if (document != null) {
+                        remaining++;
+                    }
+                }
+                final int[] nextSlots = new int[remaining];
+                final List<IngestDocument> nextDocuments = new ArrayList<>(remaining);
+                for (int j = 0; j < results.length; j++) {
+                    if (results[j] != null) {
+                        nextSlots[nextDocuments.size()] = slots[j];
+                        nextDocuments.add(results[j]);
+                    }
+                }
+                innerExecuteBatch(currentProcessor + 1, nextSlots, nextDocuments, handler);
+            }
+        });
+    }
+
     void executeOnFailureAsync(int currentOnFailureProcessor, IngestDocument ingestDocument, ElasticsearchException exception,
                                BiConsumer<IngestDocument, Exception> handler) {
         if (currentOnFailureProcessor == 0) {
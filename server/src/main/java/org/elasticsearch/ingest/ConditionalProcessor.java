@@ -19,6 +19,7 @@
 
 package org.elasticsearch.ingest;
 
+import org.elasticsearch.common.TriConsumer;
 import org.elasticsearch.common.logging.DeprecationLogger;
 import org.elasticsearch.script.DynamicMap;
 import org.elasticsearch.script.IngestConditionalScript;
@@ -117,6 +118,49 @@ public class ConditionalProcessor extends AbstractProcessor implements WrappingP
         }
     }
 
+    @Override
+    public void executeBatch(List<IngestDocument> ingestDocuments, TriConsumer<Integer, IngestDocument, Exception> handler) {
+        final List<Integer> matchingSlots = new ArrayList<>(ingestDocuments.size());
+        final List<IngestDocument> matchingDocuments = new ArrayList<>(ingestDocuments.size());
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            final IngestDocument ingestDocument = ingestDocuments.get(i);
+            final boolean matches;
+            try {
+                matches = evaluate(ingestDocument);
+            } catch (Exception e) {
+                handler.apply(i, null, e);
+                continue;
+            }
+            if (matches) {
+                matchingSlots.add(i);
+                matchingDocuments.add(ingestDocument);
+            } else {
+                handler.apply(i, ingestDocument, null);
+            }
+        }
+
+        if (matchingDocuments.isEmpty() == false) {
+            final IngestMetric.BatchTimer timer = new IngestMetric.BatchTimer(relativeTimeProvider);
+            for (int i = 0; i < matchingDocuments.size(); i++) {
+                metric.preIngest();
+            }
+            processor.executeBatch(matchingDocuments, (i, result, e) -> {
+                metric.postIngest(timer.nextIngestTimeInMillis());
+                if (e != null) {
+                    metric.ingestFailed();
+                    handler.apply(matchingSlots.get(i), null, e);
+                } else {
+                    handler.apply(matchingSlots.get(i), result, null);
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean supportsBatchExecution() {
+        return processor.supportsBatchExecution();
+    }
+
     @Override
     public IngestDocument execute(IngestDocument ingestDocument) throws Exception {
         throw new UnsupportedOperationException("this method should not get executed");
@@ -366,18 +366,41 @@ public final class ConfigurationUtils {
                 Script script = new Script(ScriptType.INLINE, DEFAULT_TEMPLATE_LANG, propertyValue, Collections.emptyMap());
                 return scriptService.compile(script, TemplateScript.CONTEXT);
             } else {
-                return (params) -> new TemplateScript(params) {
-                    @Override
-                    public String execute() {
-                        return propertyValue;
-                    }
-                };
+                return new ConstantTemplateScriptFactory(propertyValue);
             }
         } catch (Exception e) {
             throw ConfigurationUtils.newConfigurationException(processorType, processorTag, propertyName, e);
         }
     }
 
+    /**
+     * A template that renders to the same value regardless of the document, so that documents can skip building a model for it.
+     */
+    static final class ConstantTemplateScriptFactory implements TemplateScript.Factory {
+
+        private final String value;
+        private final TemplateScript script;
+
+        ConstantTemplateScriptFactory(String value) {
+            this.value = value;
+            this.script = new TemplateScript(Map.of()) {
+                @Override
+                public String execute() {
+                    return value;
+                }
+            };
+        }
+
+        String getValue() {
+            return value;
+        }
+
+        @Override
+        public TemplateScript newInstance(Map<String, Object> params) {
+            return script;
+        }
+    }
+
     private static void addMetadataToException(ElasticsearchException exception, String processorType,
                                                String processorTag, String propertyName) {
         if (processorType != null) {
@@ -20,6 +20,8 @@
 package org.elasticsearch.ingest;
 
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.TriConsumer;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.IndexFieldMapper;
@@ -107,8 +109,8 @@ public final class IngestDocument {
      * or if the field that is found at the provided path is not of the expected type.
      */
     public <T> T getFieldValue(String path, Class<T> clazz) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
+        FieldPath fieldPath = FieldPath.of(path);
+        Object context = fieldPath.initialContext(this);
         for (String pathElement : fieldPath.pathElements) {
             context = resolve(pathElement, path, context);
         }
@@ -214,8 +216,8 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty or invalid.
      */
     public boolean hasField(String path, boolean failOutOfRange) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
+        FieldPath fieldPath = FieldPath.of(path);
+        Object context = fieldPath.initialContext(this);
         for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
             String pathElement = fieldPath.pathElements[i];
             if (context == null) {
@@ -291,8 +293,8 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty, invalid or if the field doesn't exist.
      */
     public void removeField(String path) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
+        FieldPath fieldPath = FieldPath.of(path);
+        Object context = fieldPath.initialContext(this);
         for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
             context = resolve(fieldPath.pathElements[i], path, context);
         }
@@ -393,7 +395,7 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty or invalid.
      */
     public void appendFieldValue(TemplateScript.Factory fieldPathTemplate, ValueSource valueSource) {
-        Map<String, Object> model = createTemplateModel();
+        Map<String, Object> model = createTemplateModel(fieldPathTemplate, valueSource);
         appendFieldValue(fieldPathTemplate.newInstance(model).execute(), valueSource.copyAndResolve(model));
     }
 
@@ -421,7 +423,7 @@ public final class IngestDocument {
      * item identified by the provided path.
      */
     public void setFieldValue(TemplateScript.Factory fieldPathTemplate, ValueSource valueSource) {
-        Map<String, Object> model = createTemplateModel();
+        Map<String, Object> model = createTemplateModel(fieldPathTemplate, valueSource);
         setFieldValue(fieldPathTemplate.newInstance(model).execute(), valueSource.copyAndResolve(model), false);
     }
 
@@ -436,7 +438,7 @@ public final class IngestDocument {
      * item identified by the provided path.
      */
     public void setFieldValue(TemplateScript.Factory fieldPathTemplate, ValueSource valueSource, boolean ignoreEmptyValue) {
-        Map<String, Object> model = createTemplateModel();
+        Map<String, Object> model = createTemplateModel(fieldPathTemplate, valueSource);
         Object value = valueSource.copyAndResolve(model);
         if (ignoreEmptyValue && valueSource instanceof ValueSource.TemplatedValue) {
             if (value == null) {
@@ -452,8 +454,8 @@ public final class IngestDocument {
     }
 
     private void setFieldValue(String path, Object value, boolean append) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
+        FieldPath fieldPath = FieldPath.of(path);
+        Object context = fieldPath.initialContext(this);
         for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
             String pathElement = fieldPath.pathElements[i];
             if (context == null) {
@@ -576,9 +578,23 @@ public final class IngestDocument {
     }
 
     public String renderTemplate(TemplateScript.Factory template) {
+        if (template instanceof ConfigurationUtils.ConstantTemplateScriptFactory) {
+            return ((ConfigurationUtils.ConstantTemplateScriptFactory) template).getValue();
+        }
         return template.newInstance(createTemplateModel()).execute();
     }
 
+    /**
+     * Creates the model to render the given field path template and to resolve the given value source with. Copying the document
+     * into the model is skipped if neither of them is templated, which is the case for most fields that processors are configured with.
+     */
+    private Map<String, Object> createTemplateModel(TemplateScript.Factory fieldPathTemplate, ValueSource valueSource) {
+        if (fieldPathTemplate instanceof ConfigurationUtils.ConstantTemplateScriptFactory && valueSource.isTemplated() == false) {
+            return Map.of();
+        }
+        return createTemplateModel();
+    }
+
     private Map<String, Object> createTemplateModel() {
         Map<String, Object> model = new HashMap<>(sourceAndMetadata);
         model.put(SourceFieldMapper.NAME, sourceAndMetadata);
@@ -687,6 +703,45 @@ public final class IngestDocument {
         }
     }
 
+    /**
+     * Executes the given pipeline for a batch of documents, see {@link Pipeline#executeBatch(List, TriConsumer)}. Documents for which the
+     * pipeline is already being executed fail with a cycle, the others are executed as a batch.
+     *
+     * @param pipeline the pipeline to execute
+     * @param ingestDocuments the documents to execute the pipeline for
+     * @param handler handles the result or failure of each document, along with its position in the batch
+     */
+    static void executePipeline(Pipeline pipeline, List<IngestDocument> ingestDocuments,
+                                TriConsumer<Integer, IngestDocument, Exception> handler) {
+        final List<Integer> slots = new ArrayList<>(ingestDocuments.size());
+        final List<IngestDocument> batch = new ArrayList<>(ingestDocuments.size());
+        final List<Object> previousPipelines = new ArrayList<>(ingestDocuments.size());
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            final IngestDocument ingestDocument = ingestDocuments.get(i);
+            if (ingestDocument.executedPipelines.add(pipeline.getId())) {
+                slots.add(i);
+                batch.add(ingestDocument);
+                previousPipelines.add(ingestDocument.ingestMetadata.put("pipeline", pipeline.getId()));
+            } else {
+                handler.apply(i, null, new IllegalStateException("Cycle detected for pipeline: " + pipeline.getId()));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        pipeline.executeBatch(batch, (slot, result, e) -> {
+            final IngestDocument ingestDocument = batch.get(slot);
+            ingestDocument.executedPipelines.remove(pipeline.getId());
+            final Object previousPipeline = previousPipelines.get(slot);
+            if (previousPipeline != null) {
+                ingestDocument.ingestMetadata.put("pipeline", previousPipeline);
+            } else {
+                ingestDocument.ingestMetadata.remove("pipeline");
+            }
+            handler.apply(slots.get(slot), result, e);
+        });
+    }
+
     /**
      * @return a pipeline stack; all pipelines that are in execution by this document in reverse order
      */
@@ -741,21 +796,44 @@ public final class IngestDocument {
         }
     }
 
-    private class FieldPath {
+    /**
+     * A path within a document, split into its elements. Field paths are immutable and independent of the document they are used on,
+     * so that the ones of the fields that the processors of a pipeline access over and over are only parsed once.
+     */
+    private static final class FieldPath {
+
+        /**
+         * The maximum number of cached field paths. Since the paths can be rendered from templates, there is no bound on the number of
+         * distinct paths, in which case the cache is cleared once it is full.
+         */
+        private static final int MAX_CACHE_SIZE = 512;
+        private static final Map<String, FieldPath> CACHE = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
         private final String[] pathElements;
-        private final Object initialContext;
+        private final boolean ingestMetadataPath;
 
-        private FieldPath(String path) {
+        static FieldPath of(String path) {
             if (Strings.isEmpty(path)) {
                 throw new IllegalArgumentException("path cannot be null nor empty");
             }
+            FieldPath fieldPath = CACHE.get(path);
+            if (fieldPath == null) {
+                fieldPath = new FieldPath(path);
+                if (CACHE.size() >= MAX_CACHE_SIZE) {
+                    CACHE.clear();
+                }
+                CACHE.put(path, fieldPath);
+            }
+            return fieldPath;
+        }
+
+        private FieldPath(String path) {
             String newPath;
             if (path.startsWith(INGEST_KEY_PREFIX)) {
-                initialContext = ingestMetadata;
+                ingestMetadataPath = true;
                 newPath = path.substring(INGEST_KEY_PREFIX.length(), path.length());
             } else {
-                initialContext = sourceAndMetadata;
+                ingestMetadataPath = false;
                 if (path.startsWith(SOURCE_PREFIX)) {
                     newPath = path.substring(SOURCE_PREFIX.length(), path.length());
                 } else {
@@ -768,5 +846,8 @@ public final class IngestDocument {
             }
         }
 
+        Object initialContext(IngestDocument document) {
+            return ingestMetadataPath ? document.ingestMetadata : document.sourceAndMetadata;
+        }
     }
 }
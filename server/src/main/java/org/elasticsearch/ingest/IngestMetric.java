@@ -22,7 +22,9 @@ package org.elasticsearch.ingest;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  * <p>Metrics to measure ingest actions.
@@ -94,4 +96,29 @@ class IngestMetric {
     IngestStats.Stats createStats() {
         return new IngestStats.Stats(ingestCount.count(), ingestTime.sum(), ingestCurrent.get(), ingestFailed.count());
     }
+
+    /**
+     * Measures the time of a batch of ingest actions that complete one at a time. Each completed action is charged the time that
+     * elapsed since the previous action of the batch completed, so that the time of the batch is only counted once in total.
+     */
+    static final class BatchTimer {
+
+        private final LongSupplier relativeTimeProvider;
+        private final long startTimeInNanos;
+        private final AtomicLong recordedTimeInMillis = new AtomicLong();
+
+        BatchTimer(LongSupplier relativeTimeProvider) {
+            this.relativeTimeProvider = relativeTimeProvider;
+            this.startTimeInNanos = relativeTimeProvider.getAsLong();
+        }
+
+        /**
+         * Returns the time to record for an action of the batch that just completed.
+         */
+        long nextIngestTimeInMillis() {
+            final long elapsedTimeInMillis = TimeUnit.NANOSECONDS.toMillis(relativeTimeProvider.getAsLong() - startTimeInNanos);
+            final long previousTimeInMillis = recordedTimeInMillis.getAndAccumulate(elapsedTimeInMillis, Math::max);
+            return Math.max(0L, elapsedTimeInMillis - previousTimeInMillis);
+        }
+    }
 }
@@ -45,9 +45,11 @@ import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.regex.Regex;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.gateway.GatewayService;
@@ -70,7 +72,9 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.IntConsumer;
@@ -82,6 +86,18 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
 
     public static final String NOOP_PIPELINE_NAME = "_none";
 
+    /**
+     * The maximum number of write threads that the documents of a single bulk request are spread across for ingest. Defaults to 1, so
+     * that all documents of a bulk request are ingested on the thread that received it.
+     */
+    public static final Setting<Integer> BULK_PARALLELISM_SETTING =
+        Setting.intSetting("ingest.bulk.parallelism", 1, 1, Setting.Property.Dynamic, Setting.Property.NodeScope);
+
+    /**
+     * The minimum number of documents that are worth ingesting on a thread of their own.
+     */
+    static final int MIN_DOCUMENTS_PER_PARTITION = 16;
+
     private static final Logger logger = LogManager.getLogger(IngestService.class);
 
     private final ClusterService clusterService;
@@ -96,6 +112,7 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
     private final IngestMetric totalMetrics = new IngestMetric();
     private final List<Consumer<ClusterState>> ingestClusterStateListeners = new CopyOnWriteArrayList<>();
     private volatile ClusterState state;
+    private volatile int bulkParallelism;
 
     public IngestService(ClusterService clusterService, ThreadPool threadPool,
                          Environment env, ScriptService scriptService, AnalysisRegistry analysisRegistry,
@@ -114,6 +131,12 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         );
 
         this.threadPool = threadPool;
+        this.bulkParallelism = BULK_PARALLELISM_SETTING.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(BULK_PARALLELISM_SETTING, this::setBulkParallelism);
+    }
+
+    void setBulkParallelism(int bulkParallelism) {
+        this.bulkParallelism = bulkParallelism;
     }
 
     private static Map<String, Processor.Factory> processorFactories(List<IngestPlugin> ingestPlugins,
@@ -450,23 +473,35 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                                    BiConsumer<Thread, Exception> onCompletion,
                                    IntConsumer onDropped) {
 
+        // the bulk request completes once all its documents went through their pipelines and all the partitions they were spread
+        // across returned, or as soon as all the partitions returned if one of them failed
+        final CountDown pendingCompletion = new CountDown(2);
+        final AtomicBoolean completed = new AtomicBoolean();
+        final BiConsumer<Thread, Exception> completion = (thread, e) -> {
+            if ((e != null || pendingCompletion.countDown()) && completed.compareAndSet(false, true)) {
+                onCompletion.accept(thread, e);
+            }
+        };
+
         threadPool.executor(ThreadPool.Names.WRITE).execute(new AbstractRunnable() {
 
             @Override
             public void onFailure(Exception e) {
-                onCompletion.accept(null, e);
+                completion.accept(null, e);
             }
 
             @Override
             protected void doRun() {
                 final Thread originalThread = Thread.currentThread();
                 final AtomicInteger counter = new AtomicInteger(numberOfActionRequests);
+                final List<Consumer<Thread>> tasks = new ArrayList<>();
+                final Map<Tuple<List<String>, Boolean>, List<Tuple<Integer, IndexRequest>>> batches = new HashMap<>();
                 int i = 0;
                 for (DocWriteRequest<?> actionRequest : actionRequests) {
                     IndexRequest indexRequest = TransportBulkAction.getIndexWriteRequest(actionRequest);
                     if (indexRequest == null) {
                         if (counter.decrementAndGet() == 0){
-                            onCompletion.accept(originalThread, null);
+                            completion.accept(originalThread, null);
                         }
                         assert counter.get() >= 0;
                         continue;
@@ -488,18 +523,167 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                         pipelines = List.of(finalPipelineId);
                     } else {
                         if (counter.decrementAndGet() == 0) {
-                            onCompletion.accept(originalThread, null);
+                            completion.accept(originalThread, null);
                         }
                         assert counter.get() >= 0;
                         continue;
                     }
 
-                    executePipelines(i, pipelines.iterator(), hasFinalPipeline, indexRequest, onDropped, onFailure, counter,
-                                     onCompletion, originalThread);
+                    if (supportsBatchExecution(pipelines.get(0))) {
+                        batches.computeIfAbsent(Tuple.tuple(pipelines, hasFinalPipeline), k -> new ArrayList<>())
+                            .add(Tuple.tuple(i, indexRequest));
+                    } else {
+                        final int slot = i;
+                        final boolean finalHasFinalPipeline = hasFinalPipeline;
+                        tasks.add(thread -> executePipelines(slot, pipelines.iterator(), finalHasFinalPipeline, indexRequest, onDropped,
+                            onFailure, counter, completion, thread));
+                    }
 
                     i++;
                 }
+
+                final int parallelism = partitions(tasks.size() + batches.values().stream().mapToInt(List::size).sum());
+                for (Map.Entry<Tuple<List<String>, Boolean>, List<Tuple<Integer, IndexRequest>>> batch : batches.entrySet()) {
+                    // split the batches so that they can be spread across threads too
+                    final List<Tuple<Integer, IndexRequest>> requests = batch.getValue();
+                    final int batchSize = (requests.size() + parallelism - 1) / parallelism;
+                    for (int from = 0; from < requests.size(); from += batchSize) {
+                        final List<Tuple<Integer, IndexRequest>> subBatch =
+                            requests.subList(from, Math.min(from + batchSize, requests.size()));
+                        tasks.add(thread -> executePipelinesInBatch(subBatch, batch.getKey().v1(), batch.getKey().v2(), onDropped,
+                            onFailure, counter, completion, thread));
+                    }
+                }
+                executeInPartitions(tasks, parallelism, completion);
+            }
+        });
+    }
+
+    private int partitions(int numDocuments) {
+        return Math.max(1, Math.min(bulkParallelism, numDocuments / MIN_DOCUMENTS_PER_PARTITION));
+    }
+
+    /**
+     * Spreads the given tasks across the given number of partitions, all but the first of which get forked to the write thread pool,
+     * while the first is executed on the current thread. Each task is told the thread it is executed on, which is the thread that the
+     * completion of the bulk request gets reported with if it completes synchronously. The completion is told once that all the
+     * partitions returned, with the thread of the last one and the failures of the partitions that threw, if any.
+     */
+    private void executeInPartitions(List<Consumer<Thread>> tasks, int partitions, BiConsumer<Thread, Exception> onCompletion) {
+        final int partitionSize = Math.max(1, (tasks.size() + partitions - 1) / partitions);
+        final int numberOfPartitions = (tasks.size() + partitionSize - 1) / partitionSize;
+        if (numberOfPartitions == 0) {
+            onCompletion.accept(Thread.currentThread(), null);
+            return;
+        }
+        final CountDown pendingPartitions = new CountDown(numberOfPartitions);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Consumer<Exception> onPartitionDone = e -> {
+            if (e != null && failure.compareAndSet(null, e) == false) {
+                failure.get().addSuppressed(e);
+            }
+            if (pendingPartitions.countDown()) {
+                onCompletion.accept(Thread.currentThread(), failure.get());
+            }
+        };
+        for (int from = partitionSize; from < tasks.size(); from += partitionSize) {
+            final List<Consumer<Thread>> partition = tasks.subList(from, Math.min(from + partitionSize, tasks.size()));
+            threadPool.executor(ThreadPool.Names.WRITE).execute(new AbstractRunnable() {
+
+                @Override
+                public void onFailure(Exception e) {
+                    onPartitionDone.accept(e);
+                }
+
+                @Override
+                public void onRejection(Exception e) {
+                    // the documents are already accounted for by the bulk request, ingest them on the current thread instead
+                    doRun();
+                }
+
+                @Override
+                protected void doRun() {
+                    executePartition(partition, onPartitionDone);
+                }
+            });
+        }
+        executePartition(tasks.subList(0, partitionSize), onPartitionDone);
+    }
+
+    private static void executePartition(List<Consumer<Thread>> partition, Consumer<Exception> onPartitionDone) {
+        final Thread thread = Thread.currentThread();
+        try {
+            partition.forEach(task -> task.accept(thread));
+        } catch (Exception e) {
+            onPartitionDone.accept(e);
+            return;
+        }
+        onPartitionDone.accept(null);
+    }
+
+    private boolean supportsBatchExecution(String pipelineId) {
+        PipelineHolder holder = pipelines.get(pipelineId);
+        return holder != null && holder.pipeline.supportsBatchExecution();
+    }
+
+    /**
+     * Executes the first of the given pipelines for all the given index requests at once, so that its processors can amortize their work
+     * across the documents. The remaining pipelines of each document, including the ones that apply after a change of the target index,
+     * are executed one document at a time.
+     */
+    private void executePipelinesInBatch(
+        final List<Tuple<Integer, IndexRequest>> requests,
+        final List<String> pipelineIds,
+        final boolean hasFinalPipeline,
+        final IntConsumer onDropped,
+        final BiConsumer<Integer, Exception> onFailure,
+        final AtomicInteger counter,
+        final BiConsumer<Thread, Exception> onCompletion,
+        final Thread originalThread
+    ) {
+        final String pipelineId = pipelineIds.get(0);
+        final PipelineHolder holder = pipelines.get(pipelineId);
+        if (holder == null) {
+            // the pipeline got removed in the meantime, fail the requests one at a time
+            for (Tuple<Integer, IndexRequest> request : requests) {
+                executePipelines(request.v1(), pipelineIds.iterator(), hasFinalPipeline, request.v2(), onDropped, onFailure, counter,
+                    onCompletion, originalThread);
+            }
+            return;
+        }
+
+        final List<Tuple<Integer, IndexRequest>> batch = new ArrayList<>(requests.size());
+        final List<IngestDocument> ingestDocuments = new ArrayList<>(requests.size());
+        final List<String> originalIndices = new ArrayList<>(requests.size());
+        for (Tuple<Integer, IndexRequest> request : requests) {
+            final IngestDocument ingestDocument;
+            try {
+                ingestDocument = newIngestDocument(request.v2());
+            } catch (Exception e) {
+                onFailure.accept(request.v1(), e);
+                if (counter.decrementAndGet() == 0) {
+                    onCompletion.accept(originalThread, null);
+                }
+                assert counter.get() >= 0;
+                continue;
             }
+            totalMetrics.preIngest();
+            batch.add(request);
+            ingestDocuments.add(ingestDocument);
+            originalIndices.add(request.v2().indices()[0]);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        final IngestMetric.BatchTimer timer = new IngestMetric.BatchTimer(System::nanoTime);
+        IngestDocument.executePipeline(holder.pipeline, ingestDocuments, (slot, result, e) -> {
+            final IndexRequest indexRequest = batch.get(slot).v2();
+            final Iterator<String> it = pipelineIds.iterator();
+            it.next();
+            postIngest(batch.get(slot).v1(), indexRequest, ingestDocuments.get(slot), timer.nextIngestTimeInMillis(), result, e, onDropped,
+                exception -> onPipelineExecuted(batch.get(slot).v1(), it, hasFinalPipeline, indexRequest, pipelineId,
+                    originalIndices.get(slot), exception, onDropped, onFailure, counter, onCompletion, originalThread));
         });
     }
 
@@ -523,46 +707,8 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                 }
                 Pipeline pipeline = holder.pipeline;
                 String originalIndex = indexRequest.indices()[0];
-                innerExecute(slot, indexRequest, pipeline, onDropped, e -> {
-                    if (e != null) {
-                        onFailure.accept(slot, e);
-                    }
-
-                    Iterator<String> newIt = it;
-                    boolean newHasFinalPipeline = hasFinalPipeline;
-                    String newIndex = indexRequest.indices()[0];
-
-                    if (Objects.equals(originalIndex, newIndex) == false) {
-                        if (hasFinalPipeline && it.hasNext() == false) {
-                            totalMetrics.ingestFailed();
-                            onFailure.accept(slot, new IllegalStateException("final pipeline [" + pipelineId +
-                                "] can't change the target index"));
-                        } else {
-
-                            //Drain old it so it's not looped over
-                            it.forEachRemaining($ -> {
-                            });
-                            indexRequest.isPipelineResolved(false);
-                            resolvePipelines(null, indexRequest, state.metadata());
-                            if (IngestService.NOOP_PIPELINE_NAME.equals(indexRequest.getFinalPipeline()) == false) {
-                                newIt = Collections.singleton(indexRequest.getFinalPipeline()).iterator();
-                                newHasFinalPipeline = true;
-                            } else {
-                                newIt = Collections.emptyIterator();
-                            }
-                        }
-                    }
-
-                    if (newIt.hasNext()) {
-                        executePipelines(slot, newIt, newHasFinalPipeline, indexRequest, onDropped, onFailure, counter, onCompletion,
-                            originalThread);
-                    } else {
-                        if (counter.decrementAndGet() == 0) {
-                            onCompletion.accept(originalThread, null);
-                        }
-                        assert counter.get() >= 0;
-                    }
-                });
+                innerExecute(slot, indexRequest, pipeline, onDropped, e -> onPipelineExecuted(slot, it, hasFinalPipeline, indexRequest,
+                    pipelineId, originalIndex, e, onDropped, onFailure, counter, onCompletion, originalThread));
             } catch (Exception e) {
                 onFailure.accept(slot, e);
                 if (counter.decrementAndGet() == 0) {
@@ -574,6 +720,60 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         }
     }
 
+    private void onPipelineExecuted(
+        final int slot,
+        final Iterator<String> it,
+        final boolean hasFinalPipeline,
+        final IndexRequest indexRequest,
+        final String pipelineId,
+        final String originalIndex,
+        final Exception e,
+        final IntConsumer onDropped,
+        final BiConsumer<Integer, Exception> onFailure,
+        final AtomicInteger counter,
+        final BiConsumer<Thread, Exception> onCompletion,
+        final Thread originalThread
+    ) {
+        if (e != null) {
+            onFailure.accept(slot, e);
+        }
+
+        Iterator<String> newIt = it;
+        boolean newHasFinalPipeline = hasFinalPipeline;
+        String newIndex = indexRequest.indices()[0];
+
+        if (Objects.equals(originalIndex, newIndex) == false) {
+            if (hasFinalPipeline && it.hasNext() == false) {
+                totalMetrics.ingestFailed();
+                onFailure.accept(slot, new IllegalStateException("final pipeline [" + pipelineId +
+                    "] can't change the target index"));
+            } else {
+
+                //Drain old it so it's not looped over
+                it.forEachRemaining($ -> {
+                });
+                indexRequest.isPipelineResolved(false);
+                resolvePipelines(null, indexRequest, state.metadata());
+                if (IngestService.NOOP_PIPELINE_NAME.equals(indexRequest.getFinalPipeline()) == false) {
+                    newIt = Collections.singleton(indexRequest.getFinalPipeline()).iterator();
+                    newHasFinalPipeline = true;
+                } else {
+                    newIt = Collections.emptyIterator();
+                }
+            }
+        }
+
+        if (newIt.hasNext()) {
+            executePipelines(slot, newIt, newHasFinalPipeline, indexRequest, onDropped, onFailure, counter, onCompletion,
+                originalThread);
+        } else {
+            if (counter.decrementAndGet() == 0) {
+                onCompletion.accept(originalThread, null);
+            }
+            assert counter.get() >= 0;
+        }
+    }
+
     public IngestStats stats() {
         IngestStats.Builder statsBuilder = new IngestStats.Builder();
         statsBuilder.addTotalMetrics(totalMetrics);
@@ -636,45 +836,54 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         // the pipeline specific stat holder may not exist and that is fine:
         // (e.g. the pipeline may have been removed while we're ingesting a document
         totalMetrics.preIngest();
+        IngestDocument ingestDocument = newIngestDocument(indexRequest);
+        ingestDocument.executePipeline(pipeline, (result, e) -> {
+            long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos);
+            postIngest(slot, indexRequest, ingestDocument, ingestTimeInMillis, result, e, itemDroppedHandler, handler);
+        });
+    }
+
+    private static IngestDocument newIngestDocument(IndexRequest indexRequest) {
         String index = indexRequest.index();
         String id = indexRequest.id();
         String routing = indexRequest.routing();
         Long version = indexRequest.version();
         VersionType versionType = indexRequest.versionType();
         Map<String, Object> sourceAsMap = indexRequest.sourceAsMap();
-        IngestDocument ingestDocument = new IngestDocument(index, id, routing, version, versionType, sourceAsMap);
-        ingestDocument.executePipeline(pipeline, (result, e) -> {
-            long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos);
-            totalMetrics.postIngest(ingestTimeInMillis);
-            if (e != null) {
-                totalMetrics.ingestFailed();
-                handler.accept(e);
-            } else if (result == null) {
-                itemDroppedHandler.accept(slot);
-                handler.accept(null);
-            } else {
-                Map<IngestDocument.Metadata, Object> metadataMap = ingestDocument.extractMetadata();
-
-                String newIndex = (String) metadataMap.get(IngestDocument.Metadata.INDEX);
-                //it's fine to set all metadata fields all the time, as ingest document holds their starting values
-                //before ingestion, which might also get modified during ingestion.
-                indexRequest.index(newIndex);
-                indexRequest.id((String) metadataMap.get(IngestDocument.Metadata.ID));
-                indexRequest.routing((String) metadataMap.get(IngestDocument.Metadata.ROUTING));
-                indexRequest.version(((Number) metadataMap.get(IngestDocument.Metadata.VERSION)).longValue());
-                if (metadataMap.get(IngestDocument.Metadata.VERSION_TYPE) != null) {
-                    indexRequest.versionType(VersionType.fromString((String) metadataMap.get(IngestDocument.Metadata.VERSION_TYPE)));
-                }
-                if (metadataMap.get(IngestDocument.Metadata.IF_SEQ_NO) != null) {
-                    indexRequest.setIfSeqNo(((Number) metadataMap.get(IngestDocument.Metadata.IF_SEQ_NO)).longValue());
-                }
-                if (metadataMap.get(IngestDocument.Metadata.IF_PRIMARY_TERM) != null) {
-                    indexRequest.setIfPrimaryTerm(((Number) metadataMap.get(IngestDocument.Metadata.IF_PRIMARY_TERM)).longValue());
-                }
-                indexRequest.source(ingestDocument.getSourceAndMetadata(), indexRequest.getContentType());
-                handler.accept(null);
+        return new IngestDocument(index, id, routing, version, versionType, sourceAsMap);
+    }
+
+    private void postIngest(int slot, IndexRequest indexRequest, IngestDocument ingestDocument, long ingestTimeInMillis,
+                            IngestDocument result, Exception e, IntConsumer itemDroppedHandler, Consumer<Exception> handler) {
+        totalMetrics.postIngest(ingestTimeInMillis);
+        if (e != null) {
+            totalMetrics.ingestFailed();
+            handler.accept(e);
+        } else if (result == null) {
+            itemDroppedHandler.accept(slot);
+            handler.accept(null);
+        } else {
+            Map<IngestDocument.Metadata, Object> metadataMap = ingestDocument.extractMetadata();
+
+            String newIndex = (String) metadataMap.get(IngestDocument.Metadata.INDEX);
+            //it's fine to set all metadata fields all the time, as ingest document holds their starting values
+            //before ingestion, which might also get modified during ingestion.
+            indexRequest.index(newIndex);
+            indexRequest.id((String) metadataMap.get(IngestDocument.Metadata.ID));
+            indexRequest.routing((String) metadataMap.get(IngestDocument.Metadata.ROUTING));
+            indexRequest.version(((Number) metadataMap.get(IngestDocument.Metadata.VERSION)).longValue());
+            if (metadataMap.get(IngestDocument.Metadata.VERSION_TYPE) != null) {
+                indexRequest.versionType(VersionType.fromString((String) metadataMap.get(IngestDocument.Metadata.VERSION_TYPE)));
             }
-        });
+            if (metadataMap.get(IngestDocument.Metadata.IF_SEQ_NO) != null) {
+                indexRequest.setIfSeqNo(((Number) metadataMap.get(IngestDocument.Metadata.IF_SEQ_NO)).longValue());
+            }
+            if (metadataMap.get(IngestDocument.Metadata.IF_PRIMARY_TERM) != null) {
+                indexRequest.setIfPrimaryTerm(((Number) metadataMap.get(IngestDocument.Metadata.IF_PRIMARY_TERM)).longValue());
+            }
+            indexRequest.source(ingestDocument.getSourceAndMetadata(), indexRequest.getContentType());
+            handler.accept(null);
+        }
     }
 
     @Override
@@ -21,6 +21,7 @@ package org.elasticsearch.ingest;
 
 import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.TriConsumer;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -107,6 +108,32 @@ public final class Pipeline {
         });
     }
 
+    /**
+     * Modifies the data of a batch of documents to be indexed based on the processor this pipeline holds, so that processors that
+     * support it can amortize their work across the documents. The handler is invoked once for each document with its position in the
+     * batch, and with a <code>null</code> result if the document is to be dropped.
+     */
+    public void executeBatch(List<IngestDocument> ingestDocuments, TriConsumer<Integer, IngestDocument, Exception> handler) {
+        final IngestMetric.BatchTimer timer = new IngestMetric.BatchTimer(relativeTimeProvider);
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            metrics.preIngest();
+        }
+        compoundProcessor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            metrics.postIngest(timer.nextIngestTimeInMillis());
+            if (e != null) {
+                metrics.ingestFailed();
+            }
+            handler.apply(slot, result, e);
+        });
+    }
+
+    /**
+     * Whether any of the processors of this pipeline benefits from executing documents in batches.
+     */
+    public boolean supportsBatchExecution() {
+        return compoundProcessor.supportsBatchExecution();
+    }
+
     /**
      * The unique id of this pipeline
      */
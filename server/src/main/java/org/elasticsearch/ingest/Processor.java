@@ -20,12 +20,14 @@
 package org.elasticsearch.ingest;
 
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.TriConsumer;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.threadpool.Scheduler;
 
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -57,6 +59,30 @@ public interface Processor {
         handler.accept(result, null);
     }
 
+    /**
+     * Introspect and potentially modify a batch of documents, such as the documents of a bulk request that share a pipeline.
+     *
+     * The handler must be invoked exactly once for each document, with the position of the document in the batch and either the
+     * result of the processor or its failure, so that a failure only affects the document that caused it.
+     *
+     * Expert method: only override this method if a processor implementation can amortize its work across documents, like lookups
+     * that several documents have in common, and return {@code true} from {@link #supportsBatchExecution()}. Otherwise the documents
+     * are executed one at a time.
+     */
+    default void executeBatch(List<IngestDocument> ingestDocuments, TriConsumer<Integer, IngestDocument, Exception> handler) {
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            final int slot = i;
+            execute(ingestDocuments.get(i), (result, e) -> handler.apply(slot, result, e));
+        }
+    }
+
+    /**
+     * Whether this processor benefits from executing documents in batches, see {@link #executeBatch(List, TriConsumer)}.
+     */
+    default boolean supportsBatchExecution() {
+        return false;
+    }
+
     /**
      * Introspect and potentially modify the incoming data.
      *
@@ -49,6 +49,13 @@ public interface ValueSource {
      */
     Object copyAndResolve(Map<String, Object> model);
 
+    /**
+     * Returns whether this ValueSource holds templates, which need a model to be resolved.
+     */
+    default boolean isTemplated() {
+        return true;
+    }
+
     static ValueSource wrap(Object value, ScriptService scriptService) {
 
         if (value instanceof Map) {
@@ -103,6 +110,16 @@ public interface ValueSource {
             return copy;
         }
 
+        @Override
+        public boolean isTemplated() {
+            for (Map.Entry<ValueSource, ValueSource> entry : map.entrySet()) {
+                if (entry.getKey().isTemplated() || entry.getValue().isTemplated()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -136,6 +153,16 @@ public interface ValueSource {
             return copy;
         }
 
+        @Override
+        public boolean isTemplated() {
+            for (ValueSource value : values) {
+                if (value.isTemplated()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -165,6 +192,11 @@ public interface ValueSource {
             return value;
         }
 
+        @Override
+        public boolean isTemplated() {
+            return false;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -193,6 +225,11 @@ public interface ValueSource {
             return value;
         }
 
+        @Override
+        public boolean isTemplated() {
+            return false;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -87,7 +87,7 @@ public final class IndexMetaDataGenerations {
      * @return blob id for the given index metadata
      */
     public String indexMetaBlobId(SnapshotId snapshotId, IndexId indexId) {
-        final String identifier = lookup.getOrDefault(snapshotId, Collections.emptyMap()).get(indexId);
+        final String identifier = indexMetaIdentifier(snapshotId, indexId);
         if (identifier == null) {
             return snapshotId.getUUID();
         } else {
@@ -95,6 +95,20 @@ public final class IndexMetaDataGenerations {
         }
     }
 
+    /**
+     * Gets the identifier of the {@link IndexMetadata} of the given index in the given snapshot, as computed via
+     * {@link #buildUniqueIdentifier}, or {@code null} if none is known because the snapshot was created by a version older than
+     * {@link org.elasticsearch.snapshots.SnapshotsService#SHARD_GEN_IN_REPO_DATA_VERSION}.
+     *
+     * @param snapshotId Snapshot Id
+     * @param indexId    Index Id
+     * @return identifier for the given index metadata or {@code null}
+     */
+    @Nullable
+    public String indexMetaIdentifier(SnapshotId snapshotId, IndexId indexId) {
+        return lookup.getOrDefault(snapshotId, Collections.emptyMap()).get(indexId);
+    }
+
     /**
      * Create a new instance with the given snapshot and index metadata uuids and identifiers added.
      *
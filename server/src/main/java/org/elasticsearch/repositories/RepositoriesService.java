@@ -397,6 +397,13 @@ public class RepositoriesService extends AbstractLifecycleComponent implements C
         throw new RepositoryMissingException(repositoryName);
     }
 
+    /**
+     * @return the repositories that are registered in the cluster state, by name
+     */
+    public Map<String, Repository> getRepositories() {
+        return Collections.unmodifiableMap(repositories);
+    }
+
     public void registerInternalRepository(String name, String type) {
         RepositoryMetadata metadata = new RepositoryMetadata(name, type, Settings.EMPTY);
         Repository repository = internalRepositories.computeIfAbsent(name, (n) -> {
@@ -22,6 +22,7 @@ package org.elasticsearch.repositories.blobstore;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexFormatTooNewException;
@@ -50,6 +51,7 @@ import org.elasticsearch.cluster.metadata.RepositoryMetadata;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.allocation.AllocationService;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.CheckedConsumer;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.Strings;
@@ -66,11 +68,13 @@ import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.compress.NotXContentException;
+import org.elasticsearch.common.hash.Crc32;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.store.ByteArrayIndexInput;
 import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.Setting;
@@ -125,6 +129,7 @@ import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -134,14 +139,17 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 import static org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo.canonicalName;
 
@@ -212,10 +220,28 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     public static final Setting<Boolean> CACHE_REPOSITORY_DATA =
         Setting.boolSetting("cache_repository_data", true, Setting.Property.Deprecated);
 
+    /**
+     * The maximum number of file parts of a shard that are uploaded concurrently when snapshotting the shard. Defaults to {@code 0}, which
+     * uses as many concurrent uploads as there are threads in the snapshot thread pool. Files are only split in several parts if the
+     * repository has a {@link #chunkSize() chunk size}, otherwise each file is a single part and only distinct files are uploaded
+     * concurrently.
+     */
+    public static final Setting<Integer> MAX_CONCURRENT_SNAPSHOT_UPLOADS_SETTING =
+        Setting.intSetting("max_concurrent_snapshot_uploads", 0, 0, Setting.Property.NodeScope);
+
+    /**
+     * Whether the snapshots of this repository can be used by peer recoveries to fetch the files of a shard instead of copying them from
+     * the source node.
+     */
+    public static final Setting<Boolean> USE_FOR_PEER_RECOVERY_SETTING =
+        Setting.boolSetting("use_for_peer_recovery", false, Setting.Property.NodeScope);
+
     private final boolean compress;
 
     private final boolean cacheRepositoryData;
 
+    private final int maxConcurrentSnapshotUploads;
+
     private final RateLimiter snapshotRateLimiter;
 
     private final RateLimiter restoreRateLimiter;
@@ -293,6 +319,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         restoreRateLimiter = getRateLimiter(metadata.settings(), "max_restore_bytes_per_sec", ByteSizeValue.ZERO);
         readOnly = metadata.settings().getAsBoolean("readonly", false);
         cacheRepositoryData = CACHE_REPOSITORY_DATA.get(metadata.settings());
+        maxConcurrentSnapshotUploads = MAX_CONCURRENT_SNAPSHOT_UPLOADS_SETTING.get(metadata.settings());
         this.basePath = basePath;
 
         indexShardSnapshotFormat = new ChecksumBlobStoreFormat<>(SNAPSHOT_CODEC, SNAPSHOT_NAME_FORMAT,
@@ -1796,7 +1823,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             int indexTotalNumberOfFiles = 0;
             long indexIncrementalSize = 0;
             long indexTotalFileSize = 0;
-            final BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> filesToSnapshot = new LinkedBlockingQueue<>();
+            final List<BlobStoreIndexShardSnapshot.FileInfo> filesToSnapshot = new ArrayList<>();
             // If we did not find a set of files that is equal to the current commit we determine the files to upload by comparing files
             // in the commit with files already in the repository
             if (filesFromSegmentInfos == null) {
@@ -1934,29 +1961,58 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 return;
             }
             final Executor executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
+            final BlockingQueue<FilePartToSnapshot> partsToSnapshot = filePartsToSnapshot(filesToSnapshot);
             // Start as many workers as fit into the snapshot pool at once at the most
-            final int workers = Math.min(threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(), indexIncrementalFileCount);
-            final ActionListener<Void> filesListener = fileQueueListener(filesToSnapshot, workers, allFilesUploadedListener);
+            int workers = Math.min(threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(), partsToSnapshot.size());
+            if (maxConcurrentSnapshotUploads > 0) {
+                workers = Math.min(workers, maxConcurrentSnapshotUploads);
+            }
+            final ActionListener<Void> filesListener =
+                fileQueueListener(partsToSnapshot, part -> {}, workers, allFilesUploadedListener);
             for (int i = 0; i < workers; ++i) {
-                executeOneFileSnapshot(store, snapshotId, indexId, snapshotStatus, filesToSnapshot, executor, filesListener);
+                executeOneFileSnapshot(store, snapshotId, indexId, snapshotStatus, partsToSnapshot, executor, filesListener);
             }
         } catch (Exception e) {
             listener.onFailure(e);
         }
     }
 
+    /**
+     * Splits the files to snapshot in the parts to upload, the parts of the largest files first so that they are uploaded concurrently
+     * from the start of the snapshot rather than in a long tail of serial uploads at its end.
+     */
+    private static BlockingQueue<FilePartToSnapshot> filePartsToSnapshot(List<BlobStoreIndexShardSnapshot.FileInfo> filesToSnapshot) {
+        final BlockingQueue<FilePartToSnapshot> partsToSnapshot = new LinkedBlockingQueue<>();
+        filesToSnapshot.stream()
+            .sorted(Comparator.comparingLong(BlobStoreIndexShardSnapshot.FileInfo::length).reversed())
+            .forEach(fileInfo -> {
+                final int numberOfParts = Math.toIntExact(fileInfo.numberOfParts());
+                final AtomicInteger remainingParts = new AtomicInteger(numberOfParts);
+                final long[] partChecksums = new long[numberOfParts];
+                final byte[] footerChecksum = new byte[Long.BYTES];
+                for (int part = 0; part < numberOfParts; part++) {
+                    partsToSnapshot.add(new FilePartToSnapshot(fileInfo, part, remainingParts, partChecksums, footerChecksum));
+                }
+            });
+        return partsToSnapshot;
+    }
+
     private void executeOneFileSnapshot(Store store, SnapshotId snapshotId, IndexId indexId, IndexShardSnapshotStatus snapshotStatus,
-                                        BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> filesToSnapshot, Executor executor,
+                                        BlockingQueue<FilePartToSnapshot> partsToSnapshot, Executor executor,
                                         ActionListener<Void> listener) throws InterruptedException {
         final ShardId shardId = store.shardId();
-        final BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo = filesToSnapshot.poll(0L, TimeUnit.MILLISECONDS);
-        if (snapshotFileInfo == null) {
+        final FilePartToSnapshot filePart = partsToSnapshot.poll(0L, TimeUnit.MILLISECONDS);
+        if (filePart == null) {
             listener.onResponse(null);
         } else {
             executor.execute(ActionRunnable.wrap(listener, l -> {
                 try (Releasable ignored = incrementStoreRef(store, snapshotStatus, shardId)) {
-                    snapshotFile(snapshotFileInfo, indexId, shardId, snapshotId, snapshotStatus, store);
-                    executeOneFileSnapshot(store, snapshotId, indexId, snapshotStatus, filesToSnapshot, executor, l);
+                    if (filePart.fileInfo.numberOfParts() == 1L) {
+                        snapshotFile(filePart.fileInfo, indexId, shardId, snapshotId, snapshotStatus, store);
+                    } else {
+                        snapshotFilePart(filePart, indexId, shardId, snapshotId, snapshotStatus, store);
+                    }
+                    executeOneFileSnapshot(store, snapshotId, indexId, snapshotStatus, partsToSnapshot, executor, l);
                 }
             }));
         }
@@ -2003,16 +2059,15 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     if (filesToRecover.isEmpty()) {
                         listener.onResponse(null);
                     } else {
+                        final BlockingQueue<FilePartToRestore> parts = filePartsToRestore(filesToRecover);
                         // Start as many workers as fit into the snapshot pool at once at the most
-                        final int workers =
-                            Math.min(threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(), snapshotFiles.indexFiles().size());
-                        final BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> files = new LinkedBlockingQueue<>(filesToRecover);
+                        final int workers = Math.min(threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(), parts.size());
                         final ActionListener<Void> allFilesListener =
-                            fileQueueListener(files, workers, ActionListener.map(listener, v -> null));
+                            fileQueueListener(parts, this::skipFilePart, workers, ActionListener.map(listener, v -> null));
                         // restore the files from the snapshot to the Lucene store
                         for (int i = 0; i < workers; ++i) {
                             try {
-                                executeOneFileRestore(files, allFilesListener);
+                                executeOneFileRestore(parts, allFilesListener);
                             } catch (Exception e) {
                                 allFilesListener.onFailure(e);
                             }
@@ -2020,28 +2075,30 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     }
                 }
 
-                private void executeOneFileRestore(BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> files,
+                private void executeOneFileRestore(BlockingQueue<FilePartToRestore> parts,
                                                    ActionListener<Void> allFilesListener) throws InterruptedException {
-                    final BlobStoreIndexShardSnapshot.FileInfo fileToRecover = files.poll(0L, TimeUnit.MILLISECONDS);
-                    if (fileToRecover == null) {
+                    final FilePartToRestore partToRecover = parts.poll(0L, TimeUnit.MILLISECONDS);
+                    if (partToRecover == null) {
                         allFilesListener.onResponse(null);
                     } else {
                         executor.execute(ActionRunnable.wrap(allFilesListener, filesListener -> {
                             store.incRef();
                             try {
-                                restoreFile(fileToRecover, store);
+                                if (partToRecover.multiPartFile == null) {
+                                    restoreFile(partToRecover.fileInfo, store);
+                                } else {
+                                    restoreFilePart(partToRecover, store);
+                                }
                             } finally {
                                 store.decRef();
                             }
-                            executeOneFileRestore(files, filesListener);
+                            executeOneFileRestore(parts, filesListener);
                         }));
                     }
                 }
 
                 private void restoreFile(BlobStoreIndexShardSnapshot.FileInfo fileInfo, Store store) throws IOException {
-                    boolean success = false;
-                    try (IndexOutput indexOutput =
-                             store.createVerifyingOutput(fileInfo.physicalName(), fileInfo.metadata(), IOContext.DEFAULT)) {
+                    writeVerifiedFile(fileInfo, store, indexOutput -> {
                         if (fileInfo.name().startsWith(VIRTUAL_DATA_BLOB_PREFIX)) {
                             final BytesRef hash = fileInfo.metadata().hash();
                             indexOutput.writeBytes(hash.bytes, hash.offset, hash.length);
@@ -2053,14 +2110,110 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                                     return container.readBlob(fileInfo.partName(slice));
                                 }
                             })) {
-                                final byte[] buffer = new byte[BUFFER_SIZE];
-                                int length;
-                                while ((length = stream.read(buffer)) > 0) {
-                                    indexOutput.writeBytes(buffer, 0, length);
-                                    recoveryState.getIndex().addRecoveredBytesToFile(fileInfo.physicalName(), length);
+                                copyToOutput(fileInfo, stream, indexOutput);
+                            }
+                        }
+                    });
+                }
+
+                /**
+                 * Downloads one part of a file that is split in several parts into a temporary file, and restores the file from the
+                 * temporary files of its parts once all of them are done.
+                 */
+                private void restoreFilePart(FilePartToRestore partToRecover, Store store) throws IOException {
+                    final MultiPartFileRestore multiPartFile = partToRecover.multiPartFile;
+                    final BlobStoreIndexShardSnapshot.FileInfo fileInfo = partToRecover.fileInfo;
+                    try {
+                        // no need to download the part if another part of the file failed to be restored
+                        if (multiPartFile.failed == false) {
+                            try (IndexOutput partOutput = store.directory()
+                                     .createTempOutput(fileInfo.physicalName(), "part" + partToRecover.part, IOContext.DEFAULT)) {
+                                multiPartFile.tempFiles.set(partToRecover.part, partOutput.getName());
+                                try (InputStream stream =
+                                         maybeRateLimitRestores(container.readBlob(fileInfo.partName(partToRecover.part)))) {
+                                    copyToOutput(fileInfo, stream, partOutput);
                                 }
                             }
                         }
+                    } catch (Exception e) {
+                        multiPartFile.failed = true;
+                        try {
+                            onFilePartDone(multiPartFile, fileInfo, store);
+                        } catch (Exception inner) {
+                            e.addSuppressed(inner);
+                        }
+                        throw e;
+                    }
+                    onFilePartDone(multiPartFile, fileInfo, store);
+                }
+
+                /**
+                 * Accounts for a part of a file that will not be restored because the restore of the shard failed.
+                 */
+                private void skipFilePart(FilePartToRestore partToRecover) {
+                    final MultiPartFileRestore multiPartFile = partToRecover.multiPartFile;
+                    if (multiPartFile != null) {
+                        multiPartFile.failed = true;
+                        if (multiPartFile.remainingParts.decrementAndGet() == 0) {
+                            deleteTempFiles(multiPartFile, store);
+                        }
+                    }
+                }
+
+                /**
+                 * Restores the file from the temporary files of its parts once all the parts are done, unless one of them failed, and
+                 * deletes the temporary files. The temporary files are only deleted once none of the parts is still being written to.
+                 * Each temporary file is deleted as soon as it is copied to the restored file, so that restoring a file in several parts
+                 * never takes more disk space than the size of the file plus the size of one of its parts.
+                 */
+                private void onFilePartDone(MultiPartFileRestore multiPartFile, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                            Store store) throws IOException {
+                    if (multiPartFile.remainingParts.decrementAndGet() != 0) {
+                        return;
+                    }
+                    try {
+                        if (multiPartFile.failed == false) {
+                            writeVerifiedFile(fileInfo, store, indexOutput -> {
+                                for (int part = 0; part < fileInfo.numberOfParts(); part++) {
+                                    final String tempFile = multiPartFile.tempFiles.get(part);
+                                    try (IndexInput partInput = store.directory().openInput(tempFile, IOContext.READONCE)) {
+                                        indexOutput.copyBytes(partInput, partInput.length());
+                                    }
+                                    multiPartFile.tempFiles.set(part, null);
+                                    store.deleteQuiet(tempFile);
+                                }
+                            });
+                        }
+                    } finally {
+                        deleteTempFiles(multiPartFile, store);
+                    }
+                }
+
+                private void deleteTempFiles(MultiPartFileRestore multiPartFile, Store store) {
+                    for (int part = 0; part < multiPartFile.tempFiles.length(); part++) {
+                        final String tempFile = multiPartFile.tempFiles.getAndSet(part, null);
+                        if (tempFile != null) {
+                            store.deleteQuiet(tempFile);
+                        }
+                    }
+                }
+
+                private void copyToOutput(BlobStoreIndexShardSnapshot.FileInfo fileInfo, InputStream stream,
+                                          IndexOutput indexOutput) throws IOException {
+                    final byte[] buffer = new byte[BUFFER_SIZE];
+                    int length;
+                    while ((length = stream.read(buffer)) > 0) {
+                        indexOutput.writeBytes(buffer, 0, length);
+                        recoveryState.getIndex().addRecoveredBytesToFile(fileInfo.physicalName(), length);
+                    }
+                }
+
+                private void writeVerifiedFile(BlobStoreIndexShardSnapshot.FileInfo fileInfo, Store store,
+                                               CheckedConsumer<IndexOutput, IOException> writer) throws IOException {
+                    boolean success = false;
+                    try (IndexOutput indexOutput =
+                             store.createVerifyingOutput(fileInfo.physicalName(), fileInfo.metadata(), IOContext.DEFAULT)) {
+                        writer.accept(indexOutput);
                         Store.verify(indexOutput);
                         indexOutput.close();
                         store.directory().sync(Collections.singleton(fileInfo.physicalName()));
@@ -2082,10 +2235,73 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }));
     }
 
-    private static ActionListener<Void> fileQueueListener(BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> files, int workers,
-                                                          ActionListener<Collection<Void>> listener) {
+    /**
+     * Splits the files to restore in units of work: files that are stored in a single blob are restored at once, whereas the parts of
+     * files that are split in several blobs are downloaded concurrently, the parts of the largest files first.
+     */
+    private static BlockingQueue<FilePartToRestore> filePartsToRestore(List<BlobStoreIndexShardSnapshot.FileInfo> filesToRecover) {
+        final BlockingQueue<FilePartToRestore> parts = new LinkedBlockingQueue<>();
+        filesToRecover.stream()
+            .sorted(Comparator.comparingLong(BlobStoreIndexShardSnapshot.FileInfo::length).reversed())
+            .forEach(fileInfo -> {
+                final int numberOfParts = Math.toIntExact(fileInfo.numberOfParts());
+                if (numberOfParts == 1 || fileInfo.name().startsWith(VIRTUAL_DATA_BLOB_PREFIX)) {
+                    parts.add(new FilePartToRestore(fileInfo, 0, null));
+                } else {
+                    final MultiPartFileRestore multiPartFile = new MultiPartFileRestore(numberOfParts);
+                    for (int part = 0; part < numberOfParts; part++) {
+                        parts.add(new FilePartToRestore(fileInfo, part, multiPartFile));
+                    }
+                }
+            });
+        return parts;
+    }
+
+    /**
+     * A part of a file to restore, or a whole file if it is not split in several parts.
+     */
+    private static final class FilePartToRestore {
+
+        private final BlobStoreIndexShardSnapshot.FileInfo fileInfo;
+
+        private final int part;
+
+        @Nullable // if the whole file is restored at once
+        private final MultiPartFileRestore multiPartFile;
+
+        FilePartToRestore(BlobStoreIndexShardSnapshot.FileInfo fileInfo, int part, @Nullable MultiPartFileRestore multiPartFile) {
+            this.fileInfo = fileInfo;
+            this.part = part;
+            this.multiPartFile = multiPartFile;
+        }
+    }
+
+    /**
+     * The state shared by the parts of a file that are restored concurrently.
+     */
+    private static final class MultiPartFileRestore {
+
+        // the names of the temporary files the parts are downloaded to
+        private final AtomicReferenceArray<String> tempFiles;
+
+        private final AtomicInteger remainingParts;
+
+        private volatile boolean failed;
+
+        MultiPartFileRestore(int numberOfParts) {
+            this.tempFiles = new AtomicReferenceArray<>(numberOfParts);
+            this.remainingParts = new AtomicInteger(numberOfParts);
+        }
+    }
+
+    private static <T> ActionListener<Void> fileQueueListener(BlockingQueue<T> files, Consumer<T> onSkipped, int workers,
+                                                              ActionListener<Collection<Void>> listener) {
         return ActionListener.delegateResponse(new GroupedActionListener<>(listener, workers), (l, e) -> {
-            files.clear(); // Stop uploading the remaining files if we run into any exception
+            // Stop uploading the remaining files if we run into any exception
+            T file;
+            while ((file = files.poll()) != null) {
+                onSkipped.accept(file);
+            }
             l.onFailure(e);
         });
     }
@@ -2225,6 +2441,18 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
     }
 
+    /**
+     * Loads the list of all snapshots of the given shard, the most recent snapshot first.
+     *
+     * @param shardGen shard generation as tracked in the {@link RepositoryData} or {@code null} if the shard generation is not tracked
+     */
+    public BlobStoreIndexShardSnapshots getBlobStoreIndexShardSnapshots(IndexId indexId, int shardId, @Nullable String shardGen)
+            throws IOException {
+        final BlobContainer shardContainer = shardContainer(indexId, shardId);
+        final Set<String> blobs = shardGen == null ? shardContainer.listBlobs().keySet() : Collections.emptySet();
+        return buildBlobStoreIndexShardSnapshots(blobs, shardContainer, shardGen).v1();
+    }
+
     /**
      * Loads all available snapshots in the repository using the given {@code generation} or falling back to trying to determine it from
      * the given list of blobs in the shard container.
@@ -2277,35 +2505,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         final String file = fileInfo.physicalName();
         try (IndexInput indexInput = store.openVerifyingInput(file, IOContext.READONCE, fileInfo.metadata())) {
             for (int i = 0; i < fileInfo.numberOfParts(); i++) {
-                final long partBytes = fileInfo.partBytes(i);
-
-                // Make reads abortable by mutating the snapshotStatus object
-                final InputStream inputStream = new FilterInputStream(maybeRateLimitSnapshots(
-                    new InputStreamIndexInput(indexInput, partBytes))) {
-                    @Override
-                    public int read() throws IOException {
-                        checkAborted();
-                        return super.read();
-                    }
-
-                    @Override
-                    public int read(byte[] b, int off, int len) throws IOException {
-                        checkAborted();
-                        return super.read(b, off, len);
-                    }
-
-                    private void checkAborted() {
-                        if (snapshotStatus.isAborted()) {
-                            logger.debug("[{}] [{}] Aborted on the file [{}], exiting", shardId,
-                                snapshotId, fileInfo.physicalName());
-                            throw new AbortedSnapshotException();
-                        }
-                    }
-                };
-                final String partName = fileInfo.partName(i);
-                logger.trace(() ->
-                        new ParameterizedMessage("[{}] Writing [{}] to [{}]", metadata.name(), partName, shardContainer.path()));
-                shardContainer.writeBlob(partName, inputStream, partBytes, true);
+                snapshotPart(shardContainer, fileInfo, i, new InputStreamIndexInput(indexInput, fileInfo.partBytes(i)), shardId,
+                    snapshotId, snapshotStatus);
             }
             Store.verify(indexInput);
             snapshotStatus.addProcessedFile(fileInfo.length());
@@ -2316,6 +2517,215 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
     }
 
+    /**
+     * Snapshot one part of a file that is split in several parts. The parts of a file are uploaded concurrently, so the file is not read
+     * sequentially through a verifying input; instead the checksum of each part is computed while it is uploaded, and the checksum of the
+     * file is verified by combining them once all of its parts are uploaded, without reading the file again.
+     * @param filePart file part to be snapshotted
+     */
+    private void snapshotFilePart(FilePartToSnapshot filePart, IndexId indexId, ShardId shardId, SnapshotId snapshotId,
+                                  IndexShardSnapshotStatus snapshotStatus, Store store) throws IOException {
+        final BlobStoreIndexShardSnapshot.FileInfo fileInfo = filePart.fileInfo;
+        final BlobContainer shardContainer = shardContainer(indexId, shardId);
+        try {
+            if (fileInfo.length() < CodecUtil.footerLength()) {
+                throw new CorruptIndexException("file is too short to have a checksum: " + fileInfo.length() + " bytes",
+                    fileInfo.physicalName());
+            }
+            final long partStart = filePart.part * fileInfo.partSize().getBytes();
+            final CRC32 partChecksum = new CRC32();
+            try (IndexInput indexInput = store.directory().openInput(fileInfo.physicalName(), IOContext.READONCE)) {
+                indexInput.seek(partStart);
+                final InputStream partInputStream = new ChecksummingPartInputStream(
+                    new InputStreamIndexInput(indexInput, fileInfo.partBytes(filePart.part)),
+                    fileInfo.length() - Long.BYTES - partStart, partChecksum, filePart.footerChecksum);
+                snapshotPart(shardContainer, fileInfo, filePart.part, partInputStream, shardId, snapshotId, snapshotStatus);
+            }
+            filePart.partChecksums[filePart.part] = partChecksum.getValue();
+            if (filePart.remainingParts.decrementAndGet() == 0) {
+                verifyChecksum(fileInfo, filePart.partChecksums, filePart.footerChecksum);
+                snapshotStatus.addProcessedFile(fileInfo.length());
+            }
+        } catch (Exception t) {
+            failStoreIfCorrupted(store, t);
+            // only account for the failed file once, even if several of its parts fail
+            if (filePart.remainingParts.getAndSet(-1) >= 0) {
+                snapshotStatus.addProcessedFile(0);
+            }
+            throw t;
+        }
+    }
+
+    /**
+     * Verifies the checksum of a file that was uploaded in several parts, like {@link Store#verify} does for a file uploaded at once: the
+     * checksums of the parts combine into the checksum of all the bytes of the file but its footer checksum, which must both match the
+     * checksum of the file metadata.
+     */
+    private static void verifyChecksum(BlobStoreIndexShardSnapshot.FileInfo fileInfo, long[] partChecksums, byte[] footerChecksum)
+        throws IOException {
+        final long checksummedLength = fileInfo.length() - Long.BYTES;
+        final long partSize = fileInfo.partSize().getBytes();
+        long checksum = 0L;
+        for (int part = 0; part < partChecksums.length; part++) {
+            final long partLength = Math.max(0L, Math.min(fileInfo.partBytes(part), checksummedLength - part * partSize));
+            checksum = Crc32.combine(checksum, partChecksums[part], partLength);
+        }
+        final String actualChecksum = Store.digestToString(checksum);
+        final String footerDigest = Store.digestToString(new ByteArrayIndexInput("checksum", footerChecksum).readLong());
+        final String expectedChecksum = fileInfo.metadata().checksum();
+        if (expectedChecksum.equals(actualChecksum) == false || expectedChecksum.equals(footerDigest) == false) {
+            throw new CorruptIndexException("verification failed (hardware problem?) : expected=" + expectedChecksum + " actual="
+                + actualChecksum + " footer=" + footerDigest + " (resource=" + fileInfo.metadata() + ")", fileInfo.physicalName());
+        }
+    }
+
+    private void snapshotPart(BlobContainer shardContainer, BlobStoreIndexShardSnapshot.FileInfo fileInfo, int part,
+                              InputStream partInputStream, ShardId shardId, SnapshotId snapshotId,
+                              IndexShardSnapshotStatus snapshotStatus) throws IOException {
+        final long partBytes = fileInfo.partBytes(part);
+
+        // Make reads abortable by mutating the snapshotStatus object
+        final InputStream inputStream = new FilterInputStream(maybeRateLimitSnapshots(partInputStream)) {
+            @Override
+            public int read() throws IOException {
+                checkAborted();
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                checkAborted();
+                return super.read(b, off, len);
+            }
+
+            private void checkAborted() {
+                if (snapshotStatus.isAborted()) {
+                    logger.debug("[{}] [{}] Aborted on the file [{}], exiting", shardId,
+                        snapshotId, fileInfo.physicalName());
+                    throw new AbortedSnapshotException();
+                }
+            }
+        };
+        final String partName = fileInfo.partName(part);
+        logger.trace(() ->
+                new ParameterizedMessage("[{}] Writing [{}] to [{}]", metadata.name(), partName, shardContainer.path()));
+        shardContainer.writeBlob(partName, inputStream, partBytes, true);
+    }
+
+    /**
+     * A part of a file to snapshot, along with the number of parts of the file that remain to be uploaded and the checksums of the parts.
+     */
+    private static final class FilePartToSnapshot {
+
+        private final BlobStoreIndexShardSnapshot.FileInfo fileInfo;
+
+        private final int part;
+
+        // shared by all the parts of the file, set to -1 once one of them failed
+        private final AtomicInteger remainingParts;
+
+        // shared by all the parts of the file, each part sets its own checksum before counting down the remaining parts
+        private final long[] partChecksums;
+
+        // shared by all the parts of the file, filled by the parts that hold the last bytes of the file
+        private final byte[] footerChecksum;
+
+        FilePartToSnapshot(BlobStoreIndexShardSnapshot.FileInfo fileInfo, int part, AtomicInteger remainingParts, long[] partChecksums,
+                           byte[] footerChecksum) {
+            this.fileInfo = fileInfo;
+            this.part = part;
+            this.remainingParts = remainingParts;
+            this.partChecksums = partChecksums;
+            this.footerChecksum = footerChecksum;
+        }
+    }
+
+    /**
+     * Computes the checksum of the bytes of a part of a file that precede the footer checksum of the file, and records the bytes of the
+     * footer checksum that the part holds. Bytes that are read again after a {@link #reset()} are only accounted for once.
+     */
+    private static final class ChecksummingPartInputStream extends FilterInputStream {
+
+        private final long footerChecksumOffset; // relative to the start of the part
+        private final CRC32 checksum;
+        private final byte[] footerChecksum;
+        private final byte[] singleByte = new byte[1];
+        private long position;
+        private long markedPosition;
+        private long checksummedPosition;
+
+        ChecksummingPartInputStream(InputStream in, long footerChecksumOffset, CRC32 checksum, byte[] footerChecksum) {
+            super(in);
+            this.footerChecksumOffset = footerChecksumOffset;
+            this.checksum = checksum;
+            this.footerChecksum = footerChecksum;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                singleByte[0] = (byte) b;
+                update(singleByte, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                update(b, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes must be accounted for in the checksum, so read them instead
+            final byte[] buffer = new byte[Math.toIntExact(Math.min(n, 8192L))];
+            long skipped = 0L;
+            while (skipped < n) {
+                final int read = read(buffer, 0, Math.toIntExact(Math.min(n - skipped, buffer.length)));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+            super.mark(readlimit);
+            markedPosition = position;
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            super.reset();
+            position = markedPosition;
+        }
+
+        private void update(byte[] b, int off, int len) {
+            final long end = position + len;
+            if (end > checksummedPosition) {
+                final long from = Math.max(position, checksummedPosition);
+                int offset = off + Math.toIntExact(from - position);
+                final long checksumEnd = Math.min(end, Math.max(from, footerChecksumOffset));
+                if (checksumEnd > from) {
+                    checksum.update(b, offset, Math.toIntExact(checksumEnd - from));
+                    offset += Math.toIntExact(checksumEnd - from);
+                }
+                for (long pos = checksumEnd; pos < end; pos++) {
+                    footerChecksum[Math.toIntExact(pos - footerChecksumOffset)] = b[offset++];
+                }
+                checksummedPosition = end;
+            }
+            position = end;
+        }
+    }
+
     private static void failStoreIfCorrupted(Store store, Exception e) {
         if (Lucene.isCorruptionException(e)) {
             try {
@@ -59,6 +59,7 @@ import org.elasticsearch.index.query.MatchNoneQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryRewriteContext;
 import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.index.query.Rewriteable;
 import org.elasticsearch.index.shard.IndexEventListener;
 import org.elasticsearch.index.shard.IndexShard;
@@ -1127,7 +1128,13 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 request::nowInMillis, request.getClusterAlias());
             Rewriteable.rewrite(request.getRewriteable(), context, false);
             FieldSortBuilder sortBuilder = FieldSortBuilder.getPrimaryFieldSortOrNull(request.source());
-            MinAndMax<?> minMax = sortBuilder != null ? FieldSortBuilder.getMinMaxOrNull(context, sortBuilder) : null;
+            // the min/max of a shard with a pending refresh does not include the documents indexed since the last refresh,
+            // so it must not be reported or the coordinating node could skip the shard as non-competitive
+            MinAndMax<?> minMax = sortBuilder != null && hasRefreshPending == false ?
+                FieldSortBuilder.getMinMaxOrNull(context, sortBuilder) : null;
+            // the number of documents is only reported if all live documents match the query
+            final long docCount = minMax != null && matchesAllDocsWithSortValue(request, sortBuilder) ?
+                FieldSortBuilder.getDocCountWithValueOrUnknown(context, sortBuilder) : -1;
             final boolean canMatch;
             if (canRewriteToMatchNone(request.source())) {
                 QueryBuilder queryBuilder = request.source().query();
@@ -1136,10 +1143,31 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 // null query means match_all
                 canMatch = aliasFilterCanMatch;
             }
-            return new CanMatchResponse(canMatch || hasRefreshPending, minMax);
+            return new CanMatchResponse(canMatch || hasRefreshPending, minMax, docCount);
         }
     }
 
+    /**
+     * Returns true if the rewritten query and alias filter of the provided request match all documents that have a value
+     * for the primary sort field.
+     */
+    static boolean matchesAllDocsWithSortValue(ShardSearchRequest request, FieldSortBuilder sortBuilder) {
+        QueryBuilder aliasFilter = request.getAliasFilter().getQueryBuilder();
+        if (aliasFilter != null && aliasFilter instanceof MatchAllQueryBuilder == false) {
+            return false;
+        }
+        QueryBuilder query = request.source().query();
+        if (query == null || query instanceof MatchAllQueryBuilder) {
+            return true;
+        }
+        // range queries that contain all the values of the shard are rewritten to an unbounded range
+        if (query instanceof RangeQueryBuilder) {
+            RangeQueryBuilder rangeQuery = (RangeQueryBuilder) query;
+            return rangeQuery.fieldName().equals(sortBuilder.getFieldName()) && rangeQuery.from() == null && rangeQuery.to() == null;
+        }
+        return false;
+    }
+
     public void canMatch(ShardSearchRequest request, ActionListener<CanMatchResponse> listener) {
         try {
             listener.onResponse(canMatch(request));
@@ -1214,6 +1242,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     public static final class CanMatchResponse extends SearchPhaseResult {
         private final boolean canMatch;
         private final MinAndMax<?> estimatedMinAndMax;
+        private final long docCount;
 
         public CanMatchResponse(StreamInput in) throws IOException {
             super(in);
@@ -1223,11 +1252,21 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             } else {
                 estimatedMinAndMax = null;
             }
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                docCount = in.readZLong();
+            } else {
+                docCount = -1;
+            }
         }
 
         public CanMatchResponse(boolean canMatch, MinAndMax<?> estimatedMinAndMax) {
+            this(canMatch, estimatedMinAndMax, -1);
+        }
+
+        public CanMatchResponse(boolean canMatch, MinAndMax<?> estimatedMinAndMax, long docCount) {
             this.canMatch = canMatch;
             this.estimatedMinAndMax = estimatedMinAndMax;
+            this.docCount = docCount;
         }
 
         @Override
@@ -1236,6 +1275,9 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             if (out.getVersion().onOrAfter(Version.V_7_6_0)) {
                 out.writeOptionalWriteable(estimatedMinAndMax);
             }
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeZLong(docCount);
+            }
         }
 
         public boolean canMatch() {
@@ -1245,6 +1287,14 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         public MinAndMax<?> estimatedMinAndMax() {
             return estimatedMinAndMax;
         }
+
+        /**
+         * Returns the number of documents in the shard that match the query and have a value within
+         * {@link #estimatedMinAndMax()} or <code>-1</code> if unknown.
+         */
+        public long docCount() {
+            return docCount;
+        }
     }
 
     /**
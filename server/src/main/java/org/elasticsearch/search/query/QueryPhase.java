@@ -45,6 +45,7 @@ import org.apache.lucene.search.TopFieldCollector;
 import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.Weight;
+import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.action.search.SearchShardTask;
 import org.elasticsearch.common.Booleans;
 import org.elasticsearch.common.CheckedConsumer;
@@ -58,6 +59,7 @@ import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.SearchSortValuesAndFormats;
 import org.elasticsearch.search.aggregations.AggregationPhase;
 import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.ScrollContext;
@@ -80,6 +82,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 
+import static org.elasticsearch.index.mapper.DateFieldMapper.Resolution.NANOSECONDS;
 import static org.elasticsearch.search.query.QueryCollectorContext.createEarlyTerminationCollectorContext;
 import static org.elasticsearch.search.query.QueryCollectorContext.createFilteredCollectorContext;
 import static org.elasticsearch.search.query.QueryCollectorContext.createMinScoreCollectorContext;
@@ -213,6 +216,14 @@ public class QueryPhase implements SearchPhase {
                 }
             }
 
+            if (searchContext.sort() != null && SYS_PROP_REWRITE_SORT) {
+                // skip documents that cannot compete with the search_after value or with the bottom sort value of other shards
+                Query boundedQuery = tryAddSortBoundsFilter(searchContext, query);
+                if (boundedQuery != null) {
+                    query = boundedQuery;
+                }
+            }
+
             final LinkedList<QueryCollectorContext> collectors = new LinkedList<>();
             // whether the chain contains a collector that filters documents
             boolean hasFilterCollector = false;
@@ -502,6 +513,107 @@ public class QueryPhase implements SearchPhase {
         return rewrittenQuery;
     }
 
+    /**
+     * Tries to add a filter on the points of the primary sort field that skips all documents that cannot compete
+     * with the provided <code>search_after</code> value or with the bottom sort value shared by the other shards.
+     * The filter is a superset of the competitive documents so it only changes the number of collected documents,
+     * hence it is only applied when total hits are not tracked and no aggregation needs to see all matches.
+     * @return the filtered query or <code>null</code> if the optimization cannot be applied
+     */
+    static Query tryAddSortBoundsFilter(SearchContext searchContext, Query query) {
+        if (searchContext.trackTotalHitsUpTo() != SearchContext.TRACK_TOTAL_HITS_DISABLED) return null;
+        if (searchContext.scrollContext() != null) return null;
+        if (searchContext.aggregations() != null) return null;
+        if (searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER) return null;
+        if (searchContext.mapperService() == null) return null; // mapperService can be null in tests
+
+        final SortField sortField = searchContext.sort().sort.getSort()[0];
+        // only plain numeric or min/max selected sorted numeric fields without nested context, see IndexNumericFieldData#sortField
+        if (SortField.Type.LONG.equals(IndexSortConfig.getSortFieldType(sortField)) == false) return null;
+        final String fieldName = sortField.getField();
+        if (fieldName == null) return null;
+        final MappedFieldType fieldType = searchContext.mapperService().fieldType(fieldName);
+        if (fieldType == null) return null;
+        if ((fieldType.typeName().equals("long") == false) && (fieldType instanceof DateFieldType == false)) return null;
+        if (fieldType.isSearchable() == false) return null;
+        if (sortField.getMissingValue() instanceof Long == false) return null;
+
+        final boolean reverse = sortField.getReverse();
+        long lowerValue = Long.MIN_VALUE;
+        long upperValue = Long.MAX_VALUE;
+        final FieldDoc searchAfter = searchContext.searchAfter();
+        if (searchAfter != null && searchAfter.fields.length > 0 && searchAfter.fields[0] instanceof Long) {
+            // documents that sort before the search_after value have already been returned
+            if (reverse) {
+                upperValue = (Long) searchAfter.fields[0];
+            } else {
+                lowerValue = (Long) searchAfter.fields[0];
+            }
+        }
+        final Long bottomValue = searchContext.request() == null ? null :
+            parseBottomSortValue(fieldType, searchContext.request().getBottomSortValues(), reverse);
+        if (bottomValue != null) {
+            // documents that sort after the bottom of the top docs of the other shards cannot be returned
+            if (reverse) {
+                lowerValue = Math.max(lowerValue, bottomValue);
+            } else {
+                upperValue = Math.min(upperValue, bottomValue);
+            }
+        }
+        if (lowerValue == Long.MIN_VALUE && upperValue == Long.MAX_VALUE) return null;
+
+        Query boundsQuery = LongPoint.newRangeQuery(fieldName, lowerValue, upperValue);
+        final long missingValue = (Long) sortField.getMissingValue();
+        if (missingValue >= lowerValue && missingValue <= upperValue) {
+            // documents without value are still competitive
+            Query missingQuery = new BooleanQuery.Builder()
+                .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                .add(new DocValuesFieldExistsQuery(fieldName), BooleanClause.Occur.MUST_NOT)
+                .build();
+            boundsQuery = new BooleanQuery.Builder()
+                .add(boundsQuery, BooleanClause.Occur.SHOULD)
+                .add(missingQuery, BooleanClause.Occur.SHOULD)
+                .build();
+        }
+        return new BooleanQuery.Builder()
+            .add(query, BooleanClause.Occur.MUST)
+            .add(boundsQuery, BooleanClause.Occur.FILTER)
+            .build();
+    }
+
+    /**
+     * Parses the primary bottom sort value sent by the coordinating node with the format of the local field,
+     * rounding it so that the resulting bound never excludes a competitive document.
+     */
+    private static Long parseBottomSortValue(MappedFieldType fieldType, SearchSortValuesAndFormats bottomSortValues, boolean reverse) {
+        if (bottomSortValues == null || bottomSortValues.getRawSortValues().length == 0) {
+            return null;
+        }
+        Object bottomSortValue = bottomSortValues.getFormattedSortValues()[0];
+        if (bottomSortValue instanceof Long || bottomSortValue instanceof Integer) {
+            return ((Number) bottomSortValue).longValue();
+        }
+        if (bottomSortValue instanceof String == false) {
+            return null;
+        }
+        DocValueFormat docValueFormat = bottomSortValues.getSortValueFormats()[0];
+        if (docValueFormat instanceof DocValueFormat.DateTime == false) {
+            return null;
+        }
+        if (fieldType instanceof DateFieldType && ((DateFieldType) fieldType).resolution() == NANOSECONDS) {
+            // the provided format can use a different resolution (date vs date_nanos)
+            docValueFormat = DocValueFormat.withNanosecondResolution(docValueFormat);
+        }
+        try {
+            return docValueFormat.parseLong((String) bottomSortValue, reverse == false, () -> {
+                throw new IllegalArgumentException("now() is not supported in bottom sort values");
+            });
+        } catch (ElasticsearchParseException | IllegalArgumentException exc) {
+            // can happen if the sort field is mapped differently in another search index
+            return null;
+        }
+    }
+
     /**
      * Creates a sorter of {@link LeafReaderContext} that orders leaves depending on the minimum
      * value and the sort order of the provided <code>sortField</code>.
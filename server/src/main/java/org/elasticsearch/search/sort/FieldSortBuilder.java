@@ -519,6 +519,25 @@ public class FieldSortBuilder extends SortBuilder<FieldSortBuilder> {
         return null;
     }
 
+    /**
+     * Return the number of live documents that have an indexed value for the primary sort field or <code>-1</code>
+     * if this number cannot be computed cheaply, which happens if some documents in the reader don't have a value
+     * for the field or if the field is not indexed with points.
+     */
+    public static long getDocCountWithValueOrUnknown(QueryShardContext context, FieldSortBuilder sortBuilder) throws IOException {
+        IndexReader reader = context.getIndexReader();
+        MappedFieldType fieldType = context.fieldMapper(sortBuilder.getFieldName());
+        if (reader == null || fieldType == null || fieldType.isSearchable() == false || sortBuilder.getNestedSort() != null) {
+            return -1;
+        }
+        // the doc count of the points includes deleted documents so we can only use the number of
+        // live documents if all documents have a value
+        if (reader.maxDoc() == 0 || PointValues.getDocCount(reader, fieldType.name()) != reader.maxDoc()) {
+            return -1;
+        }
+        return reader.numDocs();
+    }
+
     private static MinAndMax<?> extractNumericMinAndMax(IndexReader reader,
                                                         SortField sortField,
                                                         MappedFieldType fieldType,
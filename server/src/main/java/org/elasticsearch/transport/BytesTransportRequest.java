@@ -21,6 +21,7 @@ package org.elasticsearch.transport;
 
 import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
@@ -32,17 +33,17 @@ import java.io.IOException;
  */
 public class BytesTransportRequest extends TransportRequest {
 
-    BytesReference bytes;
-    Version version;
+    final ReleasableBytesReference bytes;
+    final Version version;
 
     public BytesTransportRequest(StreamInput in) throws IOException {
         super(in);
-        bytes = in.readBytesReference();
+        bytes = in.readReleasableBytesReference();
         version = in.getVersion();
     }
 
     public BytesTransportRequest(BytesReference bytes, Version version) {
-        this.bytes = bytes;
+        this.bytes = ReleasableBytesReference.wrap(bytes);
         this.version = version;
     }
 
@@ -68,4 +69,19 @@ public class BytesTransportRequest extends TransportRequest {
         super.writeTo(out);
         out.writeBytesReference(bytes);
     }
+
+    @Override
+    public void incRef() {
+        bytes.incRef();
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return bytes.tryIncRef();
+    }
+
+    @Override
+    public void decRef() {
+        bytes.decRef();
+    }
 }
@@ -22,8 +22,9 @@ package org.elasticsearch.transport;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.common.util.concurrent.RefCounted;
 
-public abstract class TransportMessage implements Writeable {
+public abstract class TransportMessage implements Writeable, RefCounted {
 
     private TransportAddress remoteAddress;
 
@@ -45,4 +46,26 @@ public abstract class TransportMessage implements Writeable {
      * currently a no-op
      */
     public TransportMessage(StreamInput in) {}
+
+    /**
+     * Messages that hold on to releasable resources, like bytes read off the network, override the reference counting methods to manage
+     * the life-cycle of these resources. The transport service holds a reference to a request while its handler runs, whether the request
+     * was read off the network or sent to the local node, so a handler that uses the request after returning needs to increment its
+     * reference count first. The reference that a request is created with belongs to whoever created it: the transport releases the
+     * requests it reads off the network, while a request sent to the local node is the instance of the sender.
+     */
+    @Override
+    public void incRef() {
+        // noop
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return true;
+    }
+
+    @Override
+    public void decRef() {
+        // noop
+    }
 }
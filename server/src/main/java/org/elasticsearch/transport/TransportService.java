@@ -730,9 +730,16 @@ public class TransportService extends AbstractLifecycleComponent implements Repo
                 throw new ActionNotFoundTransportException("Action [" + action + "] not found");
             }
             final String executor = reg.getExecutor();
+            // hold a reference to the request while its handler runs, as is done for the requests read off the network, so that the
+            // sender may release its own reference once the request is sent
+            request.incRef();
             if (ThreadPool.Names.SAME.equals(executor)) {
-                //noinspection unchecked
-                reg.processMessageReceived(request, channel);
+                try {
+                    //noinspection unchecked
+                    reg.processMessageReceived(request, channel);
+                } finally {
+                    request.decRef();
+                }
             } else {
                 threadPool.executor(executor).execute(new AbstractRunnable() {
                     @Override
@@ -741,6 +748,11 @@ public class TransportService extends AbstractLifecycleComponent implements Repo
                         reg.processMessageReceived(request, channel);
                     }
 
+                    @Override
+                    public void onAfter() {
+                        request.decRef();
+                    }
+
                     @Override
                     public boolean isForceExecution() {
                         return reg.isForceExecution();
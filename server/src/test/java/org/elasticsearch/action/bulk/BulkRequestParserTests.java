@@ -20,7 +20,10 @@
 package org.elasticsearch.action.bulk;
 
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.test.ESTestCase;
 import org.hamcrest.Matchers;
@@ -68,6 +71,41 @@ public class BulkRequestParserTests extends ESTestCase {
             req -> fail(), req -> fail());
     }
 
+    public void testParseChunkedRequest() throws IOException {
+        final BytesArray request = new BytesArray("{ \"index\":{ \"_id\": \"1\" } }\n{ \"field\": \"value1\" }\n"
+            + "{ \"update\":{ \"_id\": \"2\" } }\n{ \"doc\": { \"field\": \"value2\" } }\n"
+            + "{ \"create\":{ \"_id\": \"3\" } }\n{ \"field\": \"value3\" }\n");
+        // split the body into chunks like the network layer does, so that some lines span several chunks
+        final List<BytesReference> chunks = new ArrayList<>();
+        int from = 0;
+        while (from < request.length()) {
+            final int length = randomIntBetween(1, request.length() - from);
+            chunks.add(new BytesArray(request.array(), request.offset() + from, length));
+            from += length;
+        }
+        final BytesReference chunkedRequest = CompositeBytesReference.of(chunks.toArray(new BytesReference[0]));
+
+        final List<IndexRequest> indexRequests = new ArrayList<>();
+        final List<UpdateRequest> updateRequests = new ArrayList<>();
+        BulkRequestParser parser = new BulkRequestParser(randomBoolean());
+        parser.parse(chunkedRequest, "foo", null, null, null, null, false, XContentType.JSON,
+            (indexRequest, type) -> indexRequests.add(indexRequest), updateRequests::add, req -> fail());
+
+        assertThat(indexRequests.size(), Matchers.equalTo(2));
+        assertEquals("1", indexRequests.get(0).id());
+        assertEquals("{ \"field\": \"value1\" }", indexRequests.get(0).source().utf8ToString());
+        assertEquals("3", indexRequests.get(1).id());
+        assertEquals("{ \"field\": \"value3\" }", indexRequests.get(1).source().utf8ToString());
+        for (IndexRequest indexRequest : indexRequests) {
+            if (indexRequest.source().hasArray()) {
+                assertSame("sources are slices of the request", request.array(), indexRequest.source().array());
+            }
+        }
+        assertThat(updateRequests.size(), Matchers.equalTo(1));
+        assertEquals("2", updateRequests.get(0).id());
+        assertEquals("value2", updateRequests.get(0).doc().sourceAsMap().get("field"));
+    }
+
     public void testDeleteRequest() throws IOException {
         BytesArray request = new BytesArray("{ \"delete\":{ \"_id\": \"bar\" } }\n");
         BulkRequestParser parser = new BulkRequestParser(randomBoolean());
@@ -38,6 +38,7 @@ import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
@@ -50,6 +51,7 @@ import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.Mapping;
 import org.elasticsearch.index.mapper.MetadataFieldMapper;
 import org.elasticsearch.index.mapper.RootObjectMapper;
+import org.elasticsearch.index.mapper.SourceToParse;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
 import org.elasticsearch.index.shard.ShardId;
@@ -59,7 +61,9 @@ import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
@@ -294,6 +298,180 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         closeShards(shard);
     }
 
+    public void testExecuteBulkIndexRequestWithMergedMappingUpdates() throws Exception {
+        IndexShard shard = newStartedShard(true);
+
+        BulkItemRequest[] items = new BulkItemRequest[4];
+        items[0] = new BulkItemRequest(0, new IndexRequest("index").id("0").source(Requests.INDEX_CONTENT_TYPE, "foo", "bar"));
+        items[1] = new BulkItemRequest(1, new IndexRequest("index").id("1").source(Requests.INDEX_CONTENT_TYPE, "baz", 1));
+        // conflicts with the mapping update of the previous request, so it is left to request its own mapping update
+        items[2] = new BulkItemRequest(2, new IndexRequest("index").id("2").source(Requests.INDEX_CONTENT_TYPE, "baz", "text"));
+        items[3] = new BulkItemRequest(3, new IndexRequest("index").id("3").source(Requests.INDEX_CONTENT_TYPE, "qux", "quux"));
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(bulkShardRequest, shard);
+        List<Mapping> updates = new ArrayList<>();
+        assertFalse(TransportShardBulkAction.executeBulkItemRequest(context, null, threadPool::absoluteTimeInMillis,
+            (update, shardId, listener) -> {
+                updates.add(update);
+                listener.onResponse(null);
+            }, listener -> {}, ASSERTING_DONE_LISTENER));
+
+        assertThat(updates.size(), equalTo(1));
+        String update = updates.get(0).toString();
+        assertThat(update, containsString("\"foo\""));
+        assertThat(update, containsString("\"baz\":{\"type\":\"long\"}"));
+        assertThat(update, containsString("\"qux\""));
+        assertTrue(context.requiresWaitingForMappingUpdate());
+
+        closeShards(shard);
+    }
+
+    public void testMergedMappingUpdateRejectedByMaster() throws Exception {
+        IndexShard shard = newStartedShard(true);
+
+        BulkItemRequest[] items = new BulkItemRequest[2];
+        items[0] = new BulkItemRequest(0, new IndexRequest("index").id("0").source(Requests.INDEX_CONTENT_TYPE, "foo", "bar"));
+        items[1] = new BulkItemRequest(1, new IndexRequest("index").id("1").source(Requests.INDEX_CONTENT_TYPE, "baz", 1));
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(bulkShardRequest, shard);
+        List<Mapping> updates = new ArrayList<>();
+        assertFalse(TransportShardBulkAction.executeBulkItemRequest(context, null, threadPool::absoluteTimeInMillis,
+            (update, shardId, listener) -> {
+                updates.add(update);
+                if (updates.size() == 1) {
+                    listener.onFailure(new IllegalArgumentException("rejected"));
+                } else {
+                    listener.onResponse(null);
+                }
+            }, listener -> {}, ASSERTING_DONE_LISTENER));
+
+        // the current request falls back to its own mapping update rather than failing
+        assertThat(updates.size(), equalTo(2));
+        assertThat(updates.get(0).toString(), containsString("\"baz\""));
+        assertThat(updates.get(1).toString(), containsString("\"foo\""));
+        assertThat(updates.get(1).toString(), not(containsString("\"baz\"")));
+        assertTrue(context.requiresWaitingForMappingUpdate());
+        assertNull(items[0].getPrimaryResponse());
+
+        closeShards(shard);
+    }
+
+    public void testMergedMappingUpdateRejectedByPrimary() throws Exception {
+        // the mapping update of each request fits in the limit of fields, but not the merged one
+        IndexShard shard = newStartedShard(true,
+            Settings.builder().put(MapperService.INDEX_MAPPING_TOTAL_FIELDS_LIMIT_SETTING.getKey(), 1).build());
+
+        BulkItemRequest[] items = new BulkItemRequest[2];
+        items[0] = new BulkItemRequest(0, new IndexRequest("index").id("0").source(Requests.INDEX_CONTENT_TYPE, "foo", 1));
+        items[1] = new BulkItemRequest(1, new IndexRequest("index").id("1").source(Requests.INDEX_CONTENT_TYPE, "baz", 1));
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(bulkShardRequest, shard);
+        List<Mapping> updates = new ArrayList<>();
+        assertFalse(TransportShardBulkAction.executeBulkItemRequest(context, null, threadPool::absoluteTimeInMillis,
+            (update, shardId, listener) -> {
+                updates.add(update);
+                listener.onResponse(null);
+            }, listener -> {}, ASSERTING_DONE_LISTENER));
+
+        assertThat(updates.size(), equalTo(1));
+        assertThat(updates.get(0).toString(), containsString("\"foo\""));
+        assertThat(updates.get(0).toString(), not(containsString("\"baz\"")));
+        assertTrue(context.requiresWaitingForMappingUpdate());
+
+        closeShards(shard);
+    }
+
+    public void testMergePendingMappingUpdatesSkipsRequestsWithoutMappingUpdate() throws Exception {
+        IndexShard shard = newStartedShard(true);
+
+        BulkItemRequest[] items = new BulkItemRequest[3];
+        items[0] = new BulkItemRequest(0, new IndexRequest("index").id("0").source(Requests.INDEX_CONTENT_TYPE, "foo", "bar"));
+        // needs no mapping update, so it is skipped but the following requests are still looked at
+        items[1] = new BulkItemRequest(1, new IndexRequest("index").id("1").source(Requests.INDEX_CONTENT_TYPE));
+        items[2] = new BulkItemRequest(2, new IndexRequest("index").id("2").source(Requests.INDEX_CONTENT_TYPE, "baz", 1));
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(bulkShardRequest, shard);
+        Mapping mappingUpdate = shard.mapperService().documentMapperWithAutoCreate().getDocumentMapper()
+            .parse(new SourceToParse("index", "0", ((IndexRequest) items[0].request()).source(), Requests.INDEX_CONTENT_TYPE, null))
+            .dynamicMappingsUpdate();
+        assertNotNull(mappingUpdate);
+        Mapping merged = TransportShardBulkAction.mergePendingMappingUpdates(mappingUpdate, context);
+        assertThat(merged.toString(), containsString("\"foo\""));
+        assertThat(merged.toString(), containsString("\"baz\""));
+
+        closeShards(shard);
+    }
+
+    public void testInterleavedNewAndKnownFieldsRequireSingleMappingUpdate() throws Exception {
+        IndexShard shard = newStartedShard(true);
+
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(2, 10) * 2];
+        for (int i = 0; i < items.length; i++) {
+            IndexRequest request = new IndexRequest("index").id(Integer.toString(i));
+            if (i % 2 == 0) {
+                request.source(Requests.INDEX_CONTENT_TYPE, "field_" + i, i);
+            } else {
+                request.source(Requests.INDEX_CONTENT_TYPE);
+            }
+            items[i] = new BulkItemRequest(i, request);
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        final AtomicInteger updateCalled = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest, shard, null, threadPool::absoluteTimeInMillis,
+            (update, shardId, listener) -> {
+                updateCalled.incrementAndGet();
+                try {
+                    // acts as the master, which applies the update to the mapping of the shard
+                    shard.mapperService().merge(MapperService.SINGLE_MAPPING_NAME, new CompressedXContent(update.toString()),
+                        MapperService.MergeReason.MAPPING_UPDATE);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+                listener.onResponse(null);
+            },
+            listener -> listener.onResponse(null), ActionListener.runAfter(
+                ActionTestUtils.assertNoFailureListener(result -> {
+                    assertThat(result.finalResponseIfSuccessful.getResponses(), arrayWithSize(items.length));
+                    for (BulkItemResponse response : result.finalResponseIfSuccessful.getResponses()) {
+                        assertFalse(response.isFailed());
+                    }
+                }), latch::countDown), threadPool);
+        latch.await();
+
+        assertThat(updateCalled.get(), equalTo(1));
+        assertDocCount(shard, items.length);
+        closeShards(shard);
+    }
+
+    public void testMergePendingMappingUpdatesIsBounded() throws Exception {
+        IndexShard shard = newStartedShard(true);
+
+        final int lookAhead = TransportShardBulkAction.MAX_PENDING_MAPPING_UPDATES_LOOK_AHEAD;
+        BulkItemRequest[] items = new BulkItemRequest[lookAhead + 2];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new BulkItemRequest(i, new IndexRequest("index").id(Integer.toString(i))
+                .source(Requests.INDEX_CONTENT_TYPE, "field_" + i, i));
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(bulkShardRequest, shard);
+        Mapping mappingUpdate = shard.mapperService().documentMapperWithAutoCreate().getDocumentMapper()
+            .parse(new SourceToParse("index", "0", ((IndexRequest) items[0].request()).source(), Requests.INDEX_CONTENT_TYPE, null))
+            .dynamicMappingsUpdate();
+        Mapping merged = TransportShardBulkAction.mergePendingMappingUpdates(mappingUpdate, context);
+        assertThat(merged.toString(), containsString("\"field_" + lookAhead + "\""));
+        assertThat(merged.toString(), not(containsString("\"field_" + (lookAhead + 1) + "\"")));
+
+        closeShards(shard);
+    }
+
     public void testExecuteBulkIndexRequestWithErrorWhileUpdatingMapping() throws Exception {
         IndexShard shard = newStartedShard(true);
 
@@ -19,6 +19,7 @@
 package org.elasticsearch.action.search;
 
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.OriginalIndices;
@@ -354,6 +355,49 @@ public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
         }
     }
 
+    public void testSkipNonCompetitiveShards() {
+        MinAndMax<?>[] minAndMaxes = new MinAndMax<?>[] {
+            new MinAndMax<>(0L, 10L),
+            new MinAndMax<>(11L, 20L),
+            new MinAndMax<>(5L, 25L),
+            new MinAndMax<>(21L, 30L),
+            null,
+            new MinAndMax<>(31L, 40L)
+        };
+        long[] docCounts = new long[] { 5, 10, -1, 10, -1, 10 };
+        {
+            // the first two shards contain 15 documents, shards with a min greater than 20 cannot compete
+            FixedBitSet possibleMatches = new FixedBitSet(minAndMaxes.length);
+            possibleMatches.set(0, minAndMaxes.length);
+            CanMatchPreFilterSearchPhase.skipNonCompetitiveShards(possibleMatches, minAndMaxes, docCounts, SortOrder.ASC, 12);
+            assertTrue(possibleMatches.get(0));
+            assertTrue(possibleMatches.get(1));
+            assertTrue(possibleMatches.get(2));
+            assertFalse(possibleMatches.get(3));
+            assertTrue(possibleMatches.get(4));
+            assertFalse(possibleMatches.get(5));
+        }
+        {
+            // the last shard contains 10 documents, shards with a max lower than 31 cannot compete
+            FixedBitSet possibleMatches = new FixedBitSet(minAndMaxes.length);
+            possibleMatches.set(0, minAndMaxes.length);
+            CanMatchPreFilterSearchPhase.skipNonCompetitiveShards(possibleMatches, minAndMaxes, docCounts, SortOrder.DESC, 10);
+            assertFalse(possibleMatches.get(0));
+            assertFalse(possibleMatches.get(1));
+            assertFalse(possibleMatches.get(2));
+            assertFalse(possibleMatches.get(3));
+            assertTrue(possibleMatches.get(4));
+            assertTrue(possibleMatches.get(5));
+        }
+        {
+            // not enough documents to compute a bound
+            FixedBitSet possibleMatches = new FixedBitSet(minAndMaxes.length);
+            possibleMatches.set(0, minAndMaxes.length);
+            CanMatchPreFilterSearchPhase.skipNonCompetitiveShards(possibleMatches, minAndMaxes, docCounts, SortOrder.ASC, 100);
+            assertThat(possibleMatches.cardinality(), equalTo(minAndMaxes.length));
+        }
+    }
+
     public void testInvalidSortShards() throws InterruptedException {
         final TransportSearchAction.SearchTimeProvider timeProvider =
             new TransportSearchAction.SearchTimeProvider(0, System.nanoTime(), System::nanoTime);
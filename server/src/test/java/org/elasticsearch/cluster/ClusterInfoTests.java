@@ -31,7 +31,7 @@ public class ClusterInfoTests extends ESTestCase {
     public void testSerialization() throws Exception {
         ClusterInfo clusterInfo = new ClusterInfo(
                 randomDiskUsage(), randomDiskUsage(), randomShardSizes(), randomRoutingToDataPath(),
-                randomReservedSpace());
+                randomReservedSpace(), randomShardWriteLoads());
         BytesStreamOutput output = new BytesStreamOutput();
         clusterInfo.writeTo(output);
 
@@ -41,6 +41,7 @@ public class ClusterInfoTests extends ESTestCase {
         assertEquals(clusterInfo.shardSizes, result.shardSizes);
         assertEquals(clusterInfo.routingToDataPath, result.routingToDataPath);
         assertEquals(clusterInfo.reservedSpace, result.reservedSpace);
+        assertEquals(clusterInfo.shardWriteLoads, result.shardWriteLoads);
     }
 
     private static ImmutableOpenMap<String, DiskUsage> randomDiskUsage() {
@@ -68,6 +69,16 @@ public class ClusterInfoTests extends ESTestCase {
         return builder.build();
     }
 
+    private static ImmutableOpenMap<ShardId, Double> randomShardWriteLoads() {
+        int numEntries = randomIntBetween(0, 128);
+        ImmutableOpenMap.Builder<ShardId, Double> builder = ImmutableOpenMap.builder(numEntries);
+        for (int i = 0; i < numEntries; i++) {
+            ShardId shardId = new ShardId(randomAlphaOfLength(32), randomAlphaOfLength(32), randomIntBetween(0, Integer.MAX_VALUE));
+            builder.put(shardId, randomDoubleBetween(0.0d, 16.0d, true));
+        }
+        return builder.build();
+    }
+
     private static ImmutableOpenMap<ShardRouting, String> randomRoutingToDataPath() {
         int numEntries = randomIntBetween(0, 128);
         ImmutableOpenMap.Builder<ShardRouting, String> builder = ImmutableOpenMap.builder(numEntries);
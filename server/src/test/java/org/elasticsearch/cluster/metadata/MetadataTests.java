@@ -32,6 +32,7 @@ import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.set.Sets;
@@ -42,6 +43,7 @@ import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.plugins.MapperPlugin;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -62,7 +64,9 @@ import static org.elasticsearch.cluster.metadata.Metadata.Builder.validateDataSt
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 
 public class MetadataTests extends ESTestCase {
@@ -500,6 +504,44 @@ public class MetadataTests extends ESTestCase {
         assertThat(fromStreamMeta.clusterUUIDCommitted(), equalTo(originalMeta.clusterUUIDCommitted()));
     }
 
+    public void testIndicesShareIdenticalMappings() throws IOException {
+        final Metadata.Builder builder = Metadata.builder();
+        final int numIndices = randomIntBetween(2, 10);
+        for (int i = 0; i < numIndices; i++) {
+            builder.put(IndexMetadata.builder("index-" + i)
+                .settings(settings(Version.CURRENT))
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .putMapping(FIND_MAPPINGS_TEST_ITEM));
+        }
+        builder.put(IndexMetadata.builder("other")
+            .settings(settings(Version.CURRENT))
+            .numberOfShards(1)
+            .numberOfReplicas(0)
+            .putMapping("{\"_doc\":{\"properties\":{\"other\":{\"type\":\"keyword\"}}}}"));
+        final Metadata originalMeta = builder.build();
+        final MappingMetadata mapping = originalMeta.index("index-0").mapping();
+        for (int i = 1; i < numIndices; i++) {
+            assertThat(originalMeta.index("index-" + i).mapping(), sameInstance(mapping));
+        }
+        assertThat(originalMeta.index("other").mapping(), not(equalTo(mapping)));
+
+        final Version version = randomFrom(Version.CURRENT, VersionUtils.getPreviousVersion(Metadata.DEDUPLICATED_MAPPINGS_VERSION));
+        final BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(version);
+        originalMeta.writeTo(out);
+        final StreamInput in = new NamedWriteableAwareStreamInput(out.bytes().streamInput(),
+            new NamedWriteableRegistry(ClusterModule.getNamedWriteables()));
+        in.setVersion(version);
+        final Metadata fromStreamMeta = Metadata.readFrom(in);
+        final MappingMetadata readMapping = fromStreamMeta.index("index-0").mapping();
+        assertThat(readMapping, equalTo(mapping));
+        for (int i = 1; i < numIndices; i++) {
+            assertThat(fromStreamMeta.index("index-" + i).mapping(), sameInstance(readMapping));
+        }
+        assertThat(fromStreamMeta.index("other").mapping(), equalTo(originalMeta.index("other").mapping()));
+    }
+
     public void testMetadataGlobalStateChangesOnClusterUUIDChanges() {
         final Metadata metadata1 = Metadata.builder().clusterUUID(UUIDs.randomBase64UUID()).clusterUUIDCommitted(randomBoolean()).build();
         final Metadata metadata2 = Metadata.builder(metadata1).clusterUUID(UUIDs.randomBase64UUID()).build();
@@ -1022,6 +1064,39 @@ public class MetadataTests extends ESTestCase {
         assertThat(metadata.dataStreams().get(dataStreamName).getName(), equalTo(dataStreamName));
     }
 
+    public void testBuilderSharesIndicesLookupOfUnchangedIndices() {
+        final Metadata.Builder builder = Metadata.builder();
+        final int numIndices = randomIntBetween(1, 10);
+        for (int i = 0; i < numIndices; i++) {
+            builder.put(IndexMetadata.builder("index-" + i)
+                .settings(settings(Version.CURRENT))
+                .numberOfShards(1)
+                .numberOfReplicas(1)
+                .putAlias(AliasMetadata.builder("alias")));
+        }
+        final Metadata metadata = builder.build();
+
+        final Metadata unchanged = Metadata.builder(metadata)
+            .persistentSettings(Settings.builder().put("key", randomAlphaOfLength(10)).build())
+            .put(metadata.index("index-0"), false)
+            .build();
+        assertThat(unchanged.indices(), sameInstance(metadata.indices()));
+        assertThat(unchanged.getIndicesLookup(), sameInstance(metadata.getIndicesLookup()));
+        assertThat(unchanged.getConcreteAllIndices(), sameInstance(metadata.getConcreteAllIndices()));
+        assertThat(unchanged.getTotalNumberOfShards(), equalTo(metadata.getTotalNumberOfShards()));
+
+        final Metadata changed = Metadata.builder(metadata)
+            .put(IndexMetadata.builder("index-" + numIndices)
+                .settings(settings(Version.CURRENT))
+                .numberOfShards(1)
+                .numberOfReplicas(1)
+                .putAlias(AliasMetadata.builder("alias")))
+            .build();
+        assertThat(changed.getIndicesLookup(), not(sameInstance(metadata.getIndicesLookup())));
+        assertThat(changed.getIndicesLookup().get("alias").getIndices().size(), equalTo(numIndices + 1));
+        assertThat(metadata.getIndicesLookup().get("alias").getIndices().size(), equalTo(numIndices));
+    }
+
     public void testBuildIndicesLookupForDataStreams() {
         Metadata.Builder b = Metadata.builder();
         int numDataStreams = randomIntBetween(2, 8);
@@ -24,6 +24,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.ArrayUtil;
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterInfo;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ESAllocationTestCase;
 import org.elasticsearch.cluster.EmptyClusterInfoService;
@@ -38,12 +39,20 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.allocator.ShardsAllocator;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDecider;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.cluster.routing.allocation.decider.ClusterRebalanceAllocationDecider;
+import org.elasticsearch.cluster.routing.allocation.decider.Decision;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.gateway.TestGatewayAllocator;
 import org.hamcrest.Matchers;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static org.elasticsearch.cluster.routing.ShardRoutingState.STARTED;
@@ -264,13 +273,99 @@ public class BalanceConfigurationTests extends ESAllocationTestCase {
         settings = Settings.builder();
         settings.put(BalancedShardsAllocator.INDEX_BALANCE_FACTOR_SETTING.getKey(), 0.5);
         settings.put(BalancedShardsAllocator.SHARD_BALANCE_FACTOR_SETTING.getKey(), 0.1);
+        settings.put(BalancedShardsAllocator.WRITE_LOAD_BALANCE_FACTOR_SETTING.getKey(), 0.7);
         settings.put(BalancedShardsAllocator.THRESHOLD_SETTING.getKey(), 3.0);
         service.applySettings(settings.build());
         assertThat(allocator.getIndexBalance(), Matchers.equalTo(0.5f));
         assertThat(allocator.getShardBalance(), Matchers.equalTo(0.1f));
+        assertThat(allocator.getWriteLoadBalance(), Matchers.equalTo(0.7f));
         assertThat(allocator.getThreshold(), Matchers.equalTo(3.0f));
     }
 
+    public void testBalancedIndicesSkipAllocationDecisions() {
+        final AtomicInteger indexAllocationDecisions = new AtomicInteger();
+        final AllocationService strategy = new AllocationService(new AllocationDeciders(List.of(new AllocationDecider() {
+            @Override
+            public Decision canAllocate(IndexMetadata indexMetadata, RoutingNode node, RoutingAllocation allocation) {
+                indexAllocationDecisions.incrementAndGet();
+                return Decision.YES;
+            }
+        })), new TestGatewayAllocator(), new BalancedShardsAllocator(Settings.EMPTY), EmptyClusterInfoService.INSTANCE);
+
+        final Metadata metadata = Metadata.builder()
+            .put(IndexMetadata.builder("test").settings(settings(Version.CURRENT)).numberOfShards(2).numberOfReplicas(0))
+            .build();
+        ClusterState clusterState = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING
+            .getDefault(Settings.EMPTY))
+            .nodes(DiscoveryNodes.builder().add(newNode("node0")))
+            .metadata(metadata)
+            .routingTable(RoutingTable.builder().addAsNew(metadata.index("test")).build())
+            .build();
+        clusterState = strategy.reroute(clusterState, "reroute");
+        clusterState = startInitializingShardsAndReroute(strategy, clusterState);
+        assertThat(clusterState.getRoutingNodes().node("node0").size(), Matchers.equalTo(2));
+
+        logger.info("adding a node unbalances the index, whose shards are then relocated");
+        clusterState = ClusterState.builder(clusterState)
+            .nodes(DiscoveryNodes.builder(clusterState.nodes()).add(newNode("node1")))
+            .build();
+        indexAllocationDecisions.set(0);
+        clusterState = strategy.reroute(clusterState, "reroute");
+        assertThat(indexAllocationDecisions.get(), Matchers.greaterThan(0));
+        assertThat(clusterState.getRoutingNodes().shardsWithState(ShardRoutingState.RELOCATING).size(), Matchers.equalTo(1));
+
+        logger.info("once the index is balanced, rebalancing skips it");
+        clusterState = startInitializingShardsAndReroute(strategy, clusterState);
+        assertThat(clusterState.getRoutingNodes().node("node1").size(), Matchers.equalTo(1));
+        indexAllocationDecisions.set(0);
+        clusterState = strategy.reroute(clusterState, "reroute");
+        assertThat(indexAllocationDecisions.get(), Matchers.equalTo(0));
+        assertThat(clusterState.getRoutingNodes().shardsWithState(STARTED).size(), Matchers.equalTo(2));
+    }
+
+    public void testWriteLoadBalance() {
+        final AtomicReference<ClusterInfo> clusterInfo = new AtomicReference<>(ClusterInfo.EMPTY);
+        final Settings settings = Settings.builder()
+            .put(ClusterRebalanceAllocationDecider.CLUSTER_ROUTING_ALLOCATION_ALLOW_REBALANCE_SETTING.getKey(),
+                ClusterRebalanceAllocationDecider.ClusterRebalanceType.ALWAYS.toString())
+            .put(BalancedShardsAllocator.WRITE_LOAD_BALANCE_FACTOR_SETTING.getKey(), 2.0f)
+            .build();
+        final AllocationService strategy = createAllocationService(settings, clusterInfo::get);
+
+        final Metadata metadata = Metadata.builder()
+            .put(IndexMetadata.builder("test").settings(settings(Version.CURRENT)).numberOfShards(4).numberOfReplicas(0))
+            .build();
+        ClusterState clusterState = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING
+            .getDefault(Settings.EMPTY))
+            .nodes(DiscoveryNodes.builder().add(newNode("node0")).add(newNode("node1")))
+            .metadata(metadata)
+            .routingTable(RoutingTable.builder().addAsNew(metadata.index("test")).build())
+            .build();
+        clusterState = strategy.reroute(clusterState, "reroute");
+        clusterState = applyStartedShardsUntilNoChange(clusterState, strategy);
+        assertThat(clusterState.getRoutingNodes().node("node0").size(), Matchers.equalTo(2));
+        assertThat(clusterState.getRoutingNodes().node("node1").size(), Matchers.equalTo(2));
+
+        logger.info("the shards on node0 receive all the writes, so that one of them is swapped with a shard of node1");
+        final ImmutableOpenMap.Builder<ShardId, Double> shardWriteLoads = ImmutableOpenMap.builder();
+        for (ShardRouting shard : clusterState.getRoutingNodes().node("node0")) {
+            shardWriteLoads.put(shard.shardId(), 1.0d);
+        }
+        clusterInfo.set(new ClusterInfo(ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(),
+            ImmutableOpenMap.of(), shardWriteLoads.build()));
+        clusterState = strategy.reroute(clusterState, "reroute");
+        assertThat(clusterState.getRoutingNodes().shardsWithState(ShardRoutingState.RELOCATING).size(), Matchers.equalTo(2));
+        clusterState = applyStartedShardsUntilNoChange(clusterState, strategy);
+
+        for (RoutingNode node : clusterState.getRoutingNodes()) {
+            assertThat(node.size(), Matchers.equalTo(2));
+            assertThat(node.copyShards().stream().filter(shard -> clusterInfo.get().getShardWriteLoad(shard.shardId()) > 0.0d).count(),
+                Matchers.equalTo(1L));
+        }
+        clusterState = strategy.reroute(clusterState, "reroute");
+        assertThat(clusterState.getRoutingNodes().shardsWithState(ShardRoutingState.RELOCATING).size(), Matchers.equalTo(0));
+    }
+
     public void testNoRebalanceOnPrimaryOverload() {
         Settings.Builder settings = Settings.builder();
         AllocationService strategy = new AllocationService(randomAllocationDeciders(settings.build(),
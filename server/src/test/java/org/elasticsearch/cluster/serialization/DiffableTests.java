@@ -42,6 +42,7 @@ import static java.util.Collections.unmodifiableMap;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 
 public class DiffableTests extends ESTestCase {
 
@@ -189,6 +190,59 @@ public class DiffableTests extends ESTestCase {
         }.execute();
     }
 
+    public void testImmutableOpenMapBuilderViewsDoNotModifySharedEntries() {
+        final ImmutableOpenMap.Builder<String, String> builder = ImmutableOpenMap.builder();
+        final int numEntries = randomIntBetween(1, 100);
+        for (int i = 0; i < numEntries; i++) {
+            builder.put("key-" + i, "value-" + i);
+        }
+        final ImmutableOpenMap<String, String> before = builder.build();
+
+        final ImmutableOpenMap.Builder<String, String> keysBuilder = ImmutableOpenMap.builder(before);
+        keysBuilder.keys().removeAll("key-0");
+        final ImmutableOpenMap<String, String> withoutKey = keysBuilder.build();
+        assertThat(withoutKey.containsKey("key-0"), equalTo(false));
+        assertThat(withoutKey.size(), equalTo(numEntries - 1));
+
+        assertThat(before.size(), equalTo(numEntries));
+        assertThat(before.containsKey("key-0"), equalTo(true));
+    }
+
+    public void testImmutableOpenMapDiffOfSharedEntries() {
+        final ImmutableOpenMap.Builder<String, TestDiffable> builder = ImmutableOpenMap.builder();
+        final int numEntries = randomIntBetween(1, 100);
+        for (int i = 0; i < numEntries; i++) {
+            builder.put("key-" + i, new TestDiffable(randomAlphaOfLength(10)));
+        }
+        final ImmutableOpenMap<String, TestDiffable> before = builder.build();
+
+        final ImmutableOpenMap.Builder<String, TestDiffable> unchanged = ImmutableOpenMap.builder(before);
+        final String existingKey = "key-" + randomIntBetween(0, numEntries - 1);
+        unchanged.put(existingKey, before.get(existingKey));
+        unchanged.remove("missing");
+        assertThat(unchanged.build(), sameInstance(before));
+
+        final MapDiff<String, TestDiffable, ImmutableOpenMap<String, TestDiffable>> emptyDiff =
+            DiffableUtils.diff(before, before, DiffableUtils.getStringKeySerializer());
+        assertTrue(emptyDiff.getDeletes().isEmpty());
+        assertTrue(emptyDiff.getDiffs().isEmpty());
+        assertTrue(emptyDiff.getUpserts().isEmpty());
+        assertThat(emptyDiff.apply(before), sameInstance(before));
+
+        final ImmutableOpenMap.Builder<String, TestDiffable> changed = ImmutableOpenMap.builder(before);
+        changed.put(existingKey, new TestDiffable(randomAlphaOfLength(11)));
+        final ImmutableOpenMap<String, TestDiffable> after = changed.build();
+        assertThat(after, not(sameInstance(before)));
+        assertThat(before.get(existingKey), not(equalTo(after.get(existingKey))));
+
+        final MapDiff<String, TestDiffable, ImmutableOpenMap<String, TestDiffable>> diff =
+            DiffableUtils.diff(before, after, DiffableUtils.getStringKeySerializer());
+        assertTrue(diff.getDeletes().isEmpty());
+        assertThat(diff.getDiffs().keySet(), equalTo(Set.of(existingKey)));
+        assertTrue(diff.getUpserts().isEmpty());
+        assertThat(diff.apply(before), equalTo(after));
+    }
+
     /**
      * Class that abstracts over specific map implementation type and value kind (Diffable or not)
      * @param <T> map type
@@ -107,6 +107,21 @@ public class PagedBytesReferenceTests extends AbstractBytesReferenceTestCase {
         assertEquals(length <= PAGE_SIZE, getNumPages(pbr) == 1);
     }
 
+    public void testHasArrayWithinPage() throws IOException {
+        BytesReference pbr = newBytesReference(PAGE_SIZE * randomIntBetween(2, 5));
+        int pageOffset = PAGE_SIZE * randomIntBetween(0, pbr.length() / PAGE_SIZE - 2);
+
+        BytesReference withinPage = pbr.slice(pageOffset + randomIntBetween(0, 10), randomIntBetween(1, PAGE_SIZE - 10));
+        assertTrue(withinPage.hasArray());
+        assertSame(withinPage.array(), withinPage.array());
+
+        // crosses a page boundary, so its bytes have to be copied
+        BytesReference acrossPages = pbr.slice(pageOffset + PAGE_SIZE - randomIntBetween(1, 10), randomIntBetween(11, PAGE_SIZE));
+        assertFalse(acrossPages.hasArray());
+        assertEquals(0, acrossPages.arrayOffset());
+        assertArrayEquals(BytesReference.toBytes(acrossPages), acrossPages.array());
+    }
+
     public void testEquals() {
         int length = randomIntBetween(100, PAGE_SIZE * randomIntBetween(2, 5));
         ByteArray ba1 = bigarrays.newByteArray(length, false);
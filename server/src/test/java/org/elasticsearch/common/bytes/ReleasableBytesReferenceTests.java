@@ -21,6 +21,7 @@ package org.elasticsearch.common.bytes;
 
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.util.ByteArray;
 import org.hamcrest.Matchers;
 
@@ -84,6 +85,26 @@ public class ReleasableBytesReferenceTests extends AbstractBytesReferenceTestCas
         return ReleasableBytesReference.wrap(delegate);
     }
 
+    public void testReadReleasableBytesReference() throws IOException {
+        final BytesStreamOutput out = new BytesStreamOutput();
+        out.writeVInt(randomInt());
+        final BytesArray payload = new BytesArray(randomByteArrayOfLength(randomIntBetween(1, 1024)));
+        out.writeBytesReference(payload);
+        out.writeByte((byte) 42);
+        final ReleasableBytesReference reference = ReleasableBytesReference.wrap(out.bytes());
+        final StreamInput in = reference.streamInput();
+        in.readVInt();
+        try (ReleasableBytesReference slice = in.readReleasableBytesReference()) {
+            assertThat(slice, equalTo(payload));
+            // the slice shares the buffer of the reference it was read from
+            assertThat(reference.refCount(), equalTo(2));
+            assertThat(in.readByte(), equalTo((byte) 42));
+        }
+        assertThat(reference.refCount(), equalTo(1));
+        reference.close();
+        assertThat(reference.refCount(), equalTo(0));
+    }
+
     @Override
     public void testToBytesRefSharedPage() throws IOException {
         // CompositeBytesReference doesn't share pages
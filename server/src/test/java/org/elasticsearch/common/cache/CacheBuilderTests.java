@@ -47,4 +47,12 @@ public class CacheBuilderTests extends ESTestCase {
         Cache<Object, Object> cache = CacheBuilder.builder().setExpireAfterWrite(timeValue).build();
         assertEquals(timeValue.getNanos(), cache.getExpireAfterWriteNanos());
     }
+
+    public void testSettingFrequencyAdmission() {
+        IllegalArgumentException iae =
+            expectThrows(IllegalArgumentException.class, () -> CacheBuilder.builder().setFrequencyAdmission(0));
+        assertThat(iae.getMessage(), containsString("expectedSize <="));
+        iae = expectThrows(IllegalArgumentException.class, () -> CacheBuilder.builder().setFrequencyAdmission(-randomIntBetween(1, 100)));
+        assertThat(iae.getMessage(), containsString("expectedSize <="));
+    }
 }
@@ -159,6 +159,31 @@ public class CacheTests extends ESTestCase {
         }
     }
 
+    // cache a popular entry, then stream one-off entries through the cache; with frequency-based admission the
+    // popular entry survives although it becomes the least recently used entry, and the one-off entries are rejected
+    public void testFrequencyAdmission() {
+        int maximumWeight = randomIntBetween(2, 32);
+        int numberOfOneOffEntries = randomIntBetween(maximumWeight, 4 * maximumWeight);
+        List<Integer> evictedKeys = new ArrayList<>();
+        Cache<Integer, String> cache =
+                CacheBuilder.<Integer, String>builder()
+                        .setMaximumWeight(maximumWeight)
+                        .setFrequencyAdmission(256)
+                        .removalListener(notification -> evictedKeys.add(notification.getKey()))
+                        .build();
+        cache.put(0, "0");
+        for (int i = 0; i < 8; i++) {
+            assertEquals("0", cache.get(0));
+        }
+        for (int i = 1; i <= numberOfOneOffEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        assertEquals(maximumWeight, cache.count());
+        assertEquals(numberOfOneOffEntries + 1 - maximumWeight, evictedKeys.size());
+        assertFalse(evictedKeys.contains(0));
+        assertEquals("0", cache.get(0));
+    }
+
     // cache some entries and exceed the maximum weight, then check that the cache has the expected weight and the
     // expected evictions occurred
     public void testWeigher() {
@@ -411,6 +436,93 @@ public class CacheTests extends ESTestCase {
     }
 
 
+    // concurrent reads must all be applied to the LRU list, so that only the entries that were not read get evicted
+    public void testConcurrentPromotion() throws Exception {
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().setMaximumWeight(numberOfEntries).build();
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        Set<Integer> promotedKeys = new HashSet<>();
+        for (int i = 0; i < numberOfEntries; i++) {
+            if (randomBoolean()) {
+                promotedKeys.add(i);
+            }
+        }
+        readConcurrently(cache, promotedKeys);
+
+        // the keys that were read are the most recently used ones
+        List<Integer> keys = new ArrayList<>();
+        cache.keys().forEach(keys::add);
+        assertEquals(promotedKeys, new HashSet<>(keys.subList(0, promotedKeys.size())));
+
+        // make room for new entries, which evicts all the entries that were not read
+        for (int i = 0; i < numberOfEntries - promotedKeys.size(); i++) {
+            cache.put(numberOfEntries + i, Integer.toString(numberOfEntries + i));
+        }
+        for (int i = 0; i < numberOfEntries; i++) {
+            assertEquals(promotedKeys.contains(i), cache.get(i) != null);
+        }
+    }
+
+    // concurrent reads must keep the LRU list ordered by access time, so that pruning removes all the expired entries
+    public void testConcurrentExpirationAfterAccess() throws Exception {
+        AtomicLong now = new AtomicLong();
+        Cache<Integer, String> cache = new Cache<Integer, String>() {
+            @Override
+            protected long now() {
+                return now.get();
+            }
+        };
+        cache.setExpireAfterAccessNanos(10);
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        now.set(5);
+        Set<Integer> promotedKeys = new HashSet<>();
+        for (int i = 0; i < numberOfEntries; i++) {
+            if (rarely()) {
+                promotedKeys.add(i);
+            }
+        }
+        readConcurrently(cache, promotedKeys);
+
+        now.set(11);
+        cache.refresh();
+        assertEquals(promotedKeys.size(), cache.count());
+        for (int i = 0; i < numberOfEntries; i++) {
+            assertEquals(promotedKeys.contains(i), cache.get(i) != null);
+        }
+    }
+
+    private void readConcurrently(Cache<Integer, String> cache, Set<Integer> keys) throws Exception {
+        final List<Integer> keyList = new ArrayList<>(keys);
+        if (keyList.isEmpty()) {
+            return;
+        }
+        final int numberOfThreads = randomIntBetween(2, 8);
+        final CyclicBarrier barrier = new CyclicBarrier(numberOfThreads);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            final int offset = i;
+            final Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    // every thread reads the keys in a different order, some of them several times
+                    for (int j = 0; j < keyList.size() * 2; j++) {
+                        assertNotNull(cache.get(keyList.get((j + offset * 7) % keyList.size())));
+                    }
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
     // randomly invalidate some cached entries, then check that a lookup for each of those and only those keys is null
     public void testInvalidate() {
         Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().build();
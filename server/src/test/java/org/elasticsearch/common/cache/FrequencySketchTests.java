@@ -0,0 +1,67 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class FrequencySketchTests extends ESTestCase {
+
+    public void testInvalidMaximumSize() {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new FrequencySketch(0));
+        assertThat(e.getMessage(), equalTo("maximum size must be positive but was [0]"));
+    }
+
+    public void testIncrementNeverUnderEstimates() {
+        FrequencySketch sketch = new FrequencySketch(512);
+        int hash = randomInt();
+        int count = randomIntBetween(1, 15);
+        for (int i = 0; i < count; i++) {
+            sketch.increment(hash);
+        }
+        assertThat(sketch.frequency(hash), greaterThanOrEqualTo(count));
+    }
+
+    public void testFrequencySaturates() {
+        FrequencySketch sketch = new FrequencySketch(512);
+        int hash = randomInt();
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(hash);
+        }
+        assertThat(sketch.frequency(hash), equalTo(15));
+    }
+
+    public void testReset() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        int hash = randomInt();
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(hash);
+        }
+        assertThat(sketch.frequency(hash), greaterThanOrEqualTo(10));
+        // the sample size is ten times the maximum size, adding distinct keys eventually ages all counters
+        for (int i = 0; i < 10 * 64; i++) {
+            sketch.increment(hash + 1 + i);
+        }
+        assertThat(sketch.frequency(hash), lessThan(10));
+    }
+}
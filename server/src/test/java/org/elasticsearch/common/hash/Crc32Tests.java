@@ -0,0 +1,51 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.hash;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.zip.CRC32;
+
+public class Crc32Tests extends ESTestCase {
+
+    public void testCombine() {
+        final byte[] bytes = randomByteArrayOfLength(randomIntBetween(0, 1 << 16));
+        final int split = randomIntBetween(0, bytes.length);
+        assertEquals(crc32(bytes, 0, bytes.length), Crc32.combine(crc32(bytes, 0, split), crc32(bytes, split, bytes.length - split),
+            bytes.length - split));
+    }
+
+    public void testCombineSeveralParts() {
+        final byte[] bytes = randomByteArrayOfLength(randomIntBetween(1, 1 << 16));
+        final int partSize = randomIntBetween(1, bytes.length);
+        long crc = 0L;
+        for (int offset = 0; offset < bytes.length; offset += partSize) {
+            final int length = Math.min(partSize, bytes.length - offset);
+            crc = Crc32.combine(crc, crc32(bytes, offset, length), length);
+        }
+        assertEquals(crc32(bytes, 0, bytes.length), crc);
+    }
+
+    private static long crc32(byte[] bytes, int offset, int length) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(bytes, offset, length);
+        return crc32.getValue();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.query;
+
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.indices.IndicesQueryCache;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.List;
+
+public class FrequencyTrackingQueryCachingPolicyTests extends ESTestCase {
+
+    public void testCostlyQueries() {
+        FrequencyTrackingQueryCachingPolicy policy = new FrequencyTrackingQueryCachingPolicy(Settings.EMPTY);
+        Query query = LongPoint.newRangeQuery("field", 1, 10);
+        policy.onUse(query);
+        assertFalse(policy.shouldCache(query));
+        policy.onUse(query);
+        assertTrue(policy.shouldCache(query));
+        QueryCacheStats stats = policy.stats();
+        assertEquals(1, stats.getAdmittedCount());
+        assertEquals(1, stats.getRejectedCount());
+    }
+
+    public void testCheapQueries() {
+        FrequencyTrackingQueryCachingPolicy policy = new FrequencyTrackingQueryCachingPolicy(Settings.EMPTY);
+        Query query = new BooleanQuery.Builder()
+            .add(new TermQuery(new Term("foo", "bar")), Occur.FILTER)
+            .add(new TermQuery(new Term("foo", "baz")), Occur.FILTER)
+            .build();
+        for (int i = 0; i < 3; i++) {
+            policy.onUse(query);
+            assertFalse(policy.shouldCache(query));
+        }
+        policy.onUse(query);
+        assertTrue(policy.shouldCache(query));
+    }
+
+    public void testNeverCacheQueries() {
+        FrequencyTrackingQueryCachingPolicy policy = new FrequencyTrackingQueryCachingPolicy(Settings.EMPTY);
+        Query termQuery = new TermQuery(new Term("foo", "bar"));
+        for (int i = 0; i < 20; i++) {
+            policy.onUse(termQuery);
+            policy.onUse(new MatchAllDocsQuery());
+        }
+        assertFalse(policy.shouldCache(termQuery));
+        assertFalse(policy.shouldCache(new MatchAllDocsQuery()));
+        assertEquals(0, policy.stats().getRejectedCount());
+    }
+
+    public void testFrequentQueriesSurviveManyDistinctQueries() {
+        FrequencyTrackingQueryCachingPolicy policy = new FrequencyTrackingQueryCachingPolicy(Settings.EMPTY);
+        Query popular = LongPoint.newRangeQuery("timestamp", 0, 1000);
+        policy.onUse(popular);
+        // many more distinct filters than the 256 uses remembered by the usage tracking policy
+        for (int i = 0; i < 1000; i++) {
+            policy.onUse(LongPoint.newRangeQuery("user", i, i));
+        }
+        policy.onUse(popular);
+        assertTrue(policy.shouldCache(popular));
+    }
+
+    public void testSketchSizeFollowsQueryCacheCount() {
+        final Settings smallCache = Settings.builder().put(IndicesQueryCache.INDICES_CACHE_QUERY_COUNT_SETTING.getKey(), 256).build();
+        final FrequencyTrackingQueryCachingPolicy smallPolicy = new FrequencyTrackingQueryCachingPolicy(smallCache);
+        final FrequencyTrackingQueryCachingPolicy defaultPolicy = new FrequencyTrackingQueryCachingPolicy(Settings.EMPTY);
+        // a query that is not costly must be seen 5 times before being cached
+        final Query popular = new HashCodeQuery(-2);
+        for (FrequencyTrackingQueryCachingPolicy policy : List.of(smallPolicy, defaultPolicy)) {
+            for (int i = 0; i < 4; i++) {
+                policy.onUse(popular);
+            }
+            // more distinct queries than ten times the sketch size of the small cache, which halves its counters
+            for (int i = 0; i < 3072; i++) {
+                policy.onUse(new HashCodeQuery(i));
+            }
+            policy.onUse(popular);
+        }
+        assertFalse(smallPolicy.shouldCache(popular));
+        assertTrue(defaultPolicy.shouldCache(popular));
+    }
+
+    private static class HashCodeQuery extends Query {
+
+        private final int hashCode;
+
+        HashCodeQuery(int hashCode) {
+            this.hashCode = hashCode;
+        }
+
+        @Override
+        public String toString(String field) {
+            return "HashCodeQuery(" + hashCode + ")";
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof HashCodeQuery && ((HashCodeQuery) obj).hashCode == hashCode;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -21,6 +21,8 @@ package org.elasticsearch.index.mapper;
 
 import org.apache.lucene.analysis.TokenStream;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressedXContent;
@@ -53,9 +55,12 @@ import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class MapperServiceTests extends ESSingleNodeTestCase {
 
@@ -137,6 +142,40 @@ public class MapperServiceTests extends ESSingleNodeTestCase {
         assertThat(e.getMessage(), containsString("Limit of mapping depth [1] in index [test1] has been exceeded"));
     }
 
+    public void testIndicesWithIdenticalMappingsShareMappingSource() throws IOException {
+        final XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("properties")
+            .startObject("field").field("type", "keyword").endObject()
+            .endObject().endObject();
+        final MapperService first = createIndex("test1", Settings.EMPTY, mapping).mapperService();
+        final MapperService second = createIndex("test2", Settings.EMPTY, mapping).mapperService();
+
+        final Metadata metadata = getInstanceFromNode(ClusterService.class).state().metadata();
+        final CompressedXContent source = metadata.index("test1").mapping().source();
+        assertThat(metadata.index("test2").mapping().source(), sameInstance(source));
+        assertThat(first.documentMapper().mappingSource(), sameInstance(source));
+        assertThat(second.documentMapper().mappingSource(), sameInstance(source));
+    }
+
+    public void testMergeReusesIdenticalMappingSource() throws IOException {
+        final XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("properties")
+            .startObject("field").field("type", "keyword").endObject()
+            .endObject().endObject();
+        final MapperService mapperService = createIndex("test", Settings.EMPTY, mapping).mapperService();
+
+        final CompressedXContent identicalSource = new CompressedXContent(mapperService.documentMapper().mappingSource().string());
+        assertThat(mapperService.merge(MapperService.SINGLE_MAPPING_NAME, identicalSource, MergeReason.MAPPING_RECOVERY).mappingSource(),
+            sameInstance(identicalSource));
+
+        final CompressedXContent updatedSource = new CompressedXContent(Strings.toString(XContentFactory.jsonBuilder().startObject()
+            .startObject("properties").startObject("other_field").field("type", "long").endObject().endObject()
+            .endObject()));
+        final CompressedXContent mergedSource =
+            mapperService.merge(MapperService.SINGLE_MAPPING_NAME, updatedSource, MergeReason.MAPPING_UPDATE).mappingSource();
+        assertThat(mergedSource, not(equalTo(updatedSource)));
+        assertThat(mergedSource.string(), containsString("other_field"));
+        assertThat(mergedSource.string(), containsString("\"field\""));
+    }
+
     public void testUnmappedFieldType() {
         MapperService mapperService = createIndex("index").mapperService();
         assertThat(mapperService.unmappedFieldType("keyword"), instanceOf(KeywordFieldType.class));
@@ -274,6 +274,66 @@ public class IndicesRequestCacheTests extends ESTestCase {
         IOUtils.close(reader, secondReader, thirdReader, writer, dir, cache);
     }
 
+    public void testPopularRequestIsAdmittedAfterRefresh() throws Exception {
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+        writer.addDocument(newDoc(0, "foo"));
+        writer.addDocument(newDoc(1, "bar"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        TermQueryBuilder popularQuery = new TermQueryBuilder("id", "0");
+        BytesReference popularBytes = XContentHelper.toXContent(popularQuery, XContentType.JSON, false);
+        TermQueryBuilder otherQuery = new TermQueryBuilder("id", "1");
+        BytesReference otherBytes = XContentHelper.toXContent(otherQuery, XContentType.JSON, false);
+
+        final ByteSizeValue size;
+        {
+            IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+            ShardRequestCache requestCacheStats = new ShardRequestCache();
+            TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+            cache.getOrCompute(entity, new Loader(reader, 0), reader, popularBytes, () -> popularQuery.toString());
+            cache.getOrCompute(entity, new Loader(reader, 1), reader, otherBytes, () -> otherQuery.toString());
+            size = requestCacheStats.stats().getMemorySize();
+            IOUtils.close(cache);
+        }
+        // the cache can hold two entries of the same size
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.builder()
+            .put(IndicesRequestCache.INDICES_CACHE_QUERY_SIZE.getKey(), size.getBytes() + 1 + "b")
+            .build());
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+
+        // both requests are popular, the popular request was used least recently
+        final int hits = randomIntBetween(3, 10);
+        for (int i = 0; i <= hits; i++) {
+            cache.getOrCompute(entity, new Loader(reader, 0), reader, popularBytes, () -> popularQuery.toString());
+        }
+        for (int i = 0; i <= hits; i++) {
+            cache.getOrCompute(entity, new Loader(reader, 1), reader, otherBytes, () -> otherQuery.toString());
+        }
+        assertEquals(2, cache.count());
+        assertEquals(0, requestCacheStats.stats().getEvictions());
+
+        // after a refresh, the popular request is admitted in place of its stale entry
+        writer.updateDocument(new Term("id", "0"), newDoc(0, "baz"));
+        DirectoryReader secondReader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        BytesReference value = cache.getOrCompute(entity, new Loader(secondReader, 0), secondReader, popularBytes,
+            () -> popularQuery.toString());
+        assertEquals("baz", value.streamInput().readString());
+        assertEquals(2, cache.count());
+        assertEquals(1, requestCacheStats.stats().getEvictions());
+
+        Loader loader = new Loader(secondReader, 0);
+        value = cache.getOrCompute(entity, loader, secondReader, popularBytes, () -> popularQuery.toString());
+        assertEquals("baz", value.streamInput().readString());
+        assertTrue(loader.loadedFromCache);
+        loader = new Loader(reader, 1);
+        cache.getOrCompute(entity, loader, reader, otherBytes, () -> otherQuery.toString());
+        assertTrue(loader.loadedFromCache);
+
+        IOUtils.close(reader, secondReader, writer, dir, cache);
+    }
+
     public void testClearAllEntityIdentity() throws Exception {
         IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
         AtomicBoolean indexShard =  new AtomicBoolean(true);
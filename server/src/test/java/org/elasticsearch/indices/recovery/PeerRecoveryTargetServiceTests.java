@@ -19,6 +19,8 @@
 
 package org.elasticsearch.indices.recovery;
 
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.elasticsearch.Version;
@@ -27,39 +29,59 @@ import org.elasticsearch.action.admin.indices.flush.FlushRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.RepositoryMetadata;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.ShardRoutingHelper;
+import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.env.TestEnvironment;
+import org.elasticsearch.index.Index;
 import org.elasticsearch.index.engine.NoOpEngine;
 import org.elasticsearch.index.mapper.SourceToParse;
 import org.elasticsearch.index.seqno.SeqNoStats;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.repositories.blobstore.BlobStoreTestUtil;
+import org.elasticsearch.repositories.fs.FsRepository;
+import org.elasticsearch.snapshots.Snapshot;
+import org.elasticsearch.snapshots.SnapshotId;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.sameInstance;
 
 public class PeerRecoveryTargetServiceTests extends IndexShardTestCase {
@@ -140,6 +162,134 @@ public class PeerRecoveryTargetServiceTests extends IndexShardTestCase {
         closeShards(sourceShard, targetShard);
     }
 
+    public void testRestoreFileFromSnapshot() throws Exception {
+        final IndexShard sourceShard = newStartedShard(true);
+        final int numDocs = between(20, 100);
+        for (int i = 0; i < numDocs; i++) {
+            indexDoc(sourceShard, "_doc", Integer.toString(i));
+        }
+        sourceShard.flush(new FlushRequest());
+        final Store.MetadataSnapshot sourceSnapshot = sourceShard.store().getMetadata(null);
+        final BlobStoreRepository repository = createRepository();
+        final String shardGen = snapshotShard(sourceShard,
+            new Snapshot(repository.getMetadata().name(), new SnapshotId(randomAlphaOfLength(10), UUIDs.randomBase64UUID())), repository);
+        final Index index = sourceShard.shardId().getIndex();
+        final IndexId indexId = new IndexId(index.getName(), index.getUUID());
+        final List<FileInfo> snapshotFiles =
+            repository.getBlobStoreIndexShardSnapshots(indexId, sourceShard.shardId().id(), shardGen).snapshots().get(0).indexFiles();
+
+        final IndexShard targetShard = newShard(false);
+        final DiscoveryNode pNode = getFakeDiscoNode(sourceShard.routingEntry().currentNodeId());
+        final DiscoveryNode rNode = getFakeDiscoNode(targetShard.routingEntry().currentNodeId());
+        targetShard.markAsRecovering("test-peer-recovery", new RecoveryState(targetShard.routingEntry(), rNode, pNode));
+        final RecoveryTarget recoveryTarget = new RecoveryTarget(targetShard, null, null);
+        final PlainActionFuture<Void> receiveFileInfoFuture = new PlainActionFuture<>();
+        recoveryTarget.receiveFileInfo(
+            snapshotFiles.stream().map(FileInfo::physicalName).collect(Collectors.toList()),
+            snapshotFiles.stream().map(FileInfo::length).collect(Collectors.toList()),
+            Collections.emptyList(), Collections.emptyList(), 0, receiveFileInfoFuture
+        );
+        receiveFileInfoFuture.actionGet();
+        for (FileInfo fileInfo : snapshotFiles) {
+            final StoreFileMetadata md = fileInfo.metadata();
+            if (md.hashEqualsContents()) {
+                // the content of these files is held by their metadata and is not stored as a blob
+                final PlainActionFuture<Void> future = new PlainActionFuture<>();
+                recoveryTarget.writeFileChunk(md, 0L, new BytesArray(md.hash()), true, 0, future);
+                future.actionGet();
+                continue;
+            }
+            if (randomBoolean()) {
+                // all the bytes are written before the checksum turns out to be wrong
+                final FileInfo corruptedFileInfo = new FileInfo(fileInfo.name(),
+                    new StoreFileMetadata(md.name(), md.length(), "_corrupted", md.writtenBy()), fileInfo.partSize());
+                final PlainActionFuture<Void> future = new PlainActionFuture<>();
+                recoveryTarget.restoreFileFromSnapshot(repository, indexId, corruptedFileInfo, 0, future);
+                final ExecutionException e = expectThrows(ExecutionException.class, future::get);
+                assertThat(e.getCause(), instanceOf(CorruptIndexException.class));
+                assertThat(Arrays.asList(targetShard.store().directory().listAll()),
+                    not(hasItem(recoveryTarget.getTempNameForFile(md.name()))));
+                assertThat(targetShard.recoveryState().getIndex().getFileDetails(md.name()).recovered(), equalTo(0L));
+            }
+            final PlainActionFuture<Void> future = new PlainActionFuture<>();
+            recoveryTarget.restoreFileFromSnapshot(repository, indexId, fileInfo, 0, future);
+            future.actionGet();
+            assertThat(targetShard.recoveryState().getIndex().getFileDetails(md.name()).recovered(), equalTo(md.length()));
+        }
+        final PlainActionFuture<Void> cleanFilesFuture = new PlainActionFuture<>();
+        recoveryTarget.cleanFiles(0, Long.parseLong(sourceSnapshot.getCommitUserData().get(SequenceNumbers.MAX_SEQ_NO)),
+            sourceSnapshot, cleanFilesFuture);
+        cleanFilesFuture.actionGet();
+        recoveryTarget.decRef();
+        final Store.MetadataSnapshot targetSnapshot = targetShard.snapshotStoreMetadata();
+        final Store.RecoveryDiff diff = sourceSnapshot.recoveryDiff(targetSnapshot);
+        assertThat(diff.different, empty());
+        assertThat(diff.missing, empty());
+        closeShards(sourceShard, targetShard);
+    }
+
+    public void testDiscardFile() throws Exception {
+        final IndexShard sourceShard = newStartedShard(true);
+        final int numDocs = between(20, 100);
+        for (int i = 0; i < numDocs; i++) {
+            indexDoc(sourceShard, "_doc", Integer.toString(i));
+        }
+        sourceShard.flush(new FlushRequest());
+        final StoreFileMetadata md = randomFrom(StreamSupport.stream(sourceShard.store().getMetadata(null).spliterator(), false)
+            .filter(file -> file.length() > 1L).collect(Collectors.toList()));
+        final byte[] content = new byte[Math.toIntExact(md.length())];
+        try (IndexInput in = sourceShard.store().directory().openInput(md.name(), IOContext.READONCE)) {
+            in.readBytes(content, 0, content.length);
+        }
+
+        final IndexShard targetShard = newShard(false);
+        final RecoveryState.Index indexState = new RecoveryState.Index();
+        indexState.addFileDetail(md.name(), md.length(), false);
+        final MultiFileWriter multiFileWriter = new MultiFileWriter(targetShard.store(), indexState, "recovery.test.", logger, () -> {});
+        final String tempFileName = multiFileWriter.getTempNameForFile(md.name());
+        final int firstChunkLength = between(1, content.length - 1);
+        multiFileWriter.writeFileChunk(md, 0L, new BytesArray(content, 0, firstChunkLength), false);
+        assertThat(Arrays.asList(targetShard.store().directory().listAll()), hasItem(tempFileName));
+        assertThat(indexState.getFileDetails(md.name()).recovered(), equalTo((long) firstChunkLength));
+
+        multiFileWriter.discardFile(md.name());
+        assertThat(Arrays.asList(targetShard.store().directory().listAll()), not(hasItem(tempFileName)));
+        assertThat(indexState.getFileDetails(md.name()).recovered(), equalTo(0L));
+        assertNull(multiFileWriter.getOpenIndexOutput(md.name()));
+
+        // the file can be written again from its first chunk
+        multiFileWriter.writeFileChunk(md, 0L, new BytesArray(content), true);
+        assertThat(indexState.getFileDetails(md.name()).recovered(), equalTo(md.length()));
+        multiFileWriter.renameAllTempFiles();
+        try (IndexInput in = targetShard.store().directory().openInput(md.name(), IOContext.READONCE)) {
+            assertThat(Store.digestToString(CodecUtil.retrieveChecksum(in)), equalTo(md.checksum()));
+        }
+        multiFileWriter.close();
+        closeShards(sourceShard, targetShard);
+    }
+
+    private BlobStoreRepository createRepository() {
+        final Path home = createTempDir();
+        final Environment environment = TestEnvironment.newEnvironment(Settings.builder()
+            .put(Environment.PATH_HOME_SETTING.getKey(), home.toAbsolutePath())
+            .put(Environment.PATH_REPO_SETTING.getKey(), home.resolve("repo").toAbsolutePath())
+            .build());
+        final RepositoryMetadata repositoryMetadata = new RepositoryMetadata(randomAlphaOfLength(10), FsRepository.TYPE,
+            Settings.builder().put("location", randomAlphaOfLength(10)).build());
+        final ClusterService clusterService = BlobStoreTestUtil.mockClusterService(repositoryMetadata);
+        final FsRepository repository = new FsRepository(repositoryMetadata, environment, xContentRegistry(), clusterService,
+            new RecoverySettings(Settings.EMPTY, new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS))) {
+            @Override
+            protected void assertSnapshotOrGenericThread() {
+                // the repository is accessed from the test thread
+            }
+        };
+        clusterService.addStateApplier(event -> repository.updateState(event.state()));
+        repository.updateState(clusterService.state());
+        repository.start();
+        return repository;
+    }
+
     private SeqNoStats populateRandomData(IndexShard shard) throws IOException {
         List<Long> seqNos = LongStream.range(0, 100).boxed().collect(Collectors.toList());
         Randomness.shuffle(seqNos);
@@ -0,0 +1,75 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class RecoveryRestoreFileFromSnapshotRequestTests extends ESTestCase {
+
+    public void testSerialization() throws Exception {
+        final StoreFileMetadata metadata = new StoreFileMetadata("_" + randomIntBetween(0, 100) + ".cfs", randomLongBetween(1L, 1L << 30),
+            randomAlphaOfLength(10), Version.CURRENT.luceneVersion, new BytesRef(randomAlphaOfLength(randomIntBetween(0, 10))));
+        final ByteSizeValue partSize = randomBoolean() ? null : new ByteSizeValue(randomIntBetween(1, 1024), ByteSizeUnit.MB);
+        final RecoveryRestoreFileFromSnapshotRequest outRequest = new RecoveryRestoreFileFromSnapshotRequest(
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            new ShardId(randomAlphaOfLength(10), UUIDs.randomBase64UUID(), randomIntBetween(0, 10)),
+            randomAlphaOfLength(10),
+            new IndexId(randomAlphaOfLength(10), UUIDs.randomBase64UUID()),
+            new FileInfo(UUIDs.randomBase64UUID(), metadata, partSize),
+            randomIntBetween(0, 1000));
+
+        final BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(RecoverySourceHandler.RESTORE_FILES_FROM_SNAPSHOT_VERSION);
+        outRequest.writeTo(out);
+        final StreamInput in = out.bytes().streamInput();
+        in.setVersion(RecoverySourceHandler.RESTORE_FILES_FROM_SNAPSHOT_VERSION);
+        final RecoveryRestoreFileFromSnapshotRequest inRequest = new RecoveryRestoreFileFromSnapshotRequest(in);
+
+        assertThat(inRequest.recoveryId(), equalTo(outRequest.recoveryId()));
+        assertThat(inRequest.requestSeqNo(), equalTo(outRequest.requestSeqNo()));
+        assertThat(inRequest.shardId(), equalTo(outRequest.shardId()));
+        assertThat(inRequest.repository(), equalTo(outRequest.repository()));
+        assertThat(inRequest.indexId(), equalTo(outRequest.indexId()));
+        assertThat(inRequest.totalTranslogOps(), equalTo(outRequest.totalTranslogOps()));
+        assertThat(inRequest.fileInfo().name(), equalTo(outRequest.fileInfo().name()));
+        assertThat(inRequest.fileInfo().partSize(), equalTo(outRequest.fileInfo().partSize()));
+        assertTrue(inRequest.fileInfo().isSame(outRequest.fileInfo()));
+        final StoreFileMetadata inMetadata = inRequest.fileInfo().metadata();
+        assertThat(inMetadata.name(), equalTo(metadata.name()));
+        assertThat(inMetadata.length(), equalTo(metadata.length()));
+        assertThat(inMetadata.checksum(), equalTo(metadata.checksum()));
+        assertThat(inMetadata.writtenBy(), equalTo(metadata.writtenBy()));
+        assertThat(inMetadata.hash(), equalTo(metadata.hash()));
+    }
+}
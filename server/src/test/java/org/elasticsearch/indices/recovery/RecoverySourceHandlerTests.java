@@ -75,9 +75,11 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardRelocatedException;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.test.CorruptionUtils;
 import org.elasticsearch.test.DummyShardLock;
 import org.elasticsearch.test.ESTestCase;
@@ -204,6 +206,73 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         IOUtils.close(reader, store, multiFileWriter, targetStore);
     }
 
+    public void testRestoreFilesFromSnapshot() throws Exception {
+        final List<StoreFileMetadata> files = new ArrayList<>();
+        final int numFiles = randomFrom(randomIntBetween(1, 20), randomIntBetween(1000, 5000));
+        for (int i = 0; i < numFiles; i++) {
+            files.add(new StoreFileMetadata("_" + i + ".cfs", randomLongBetween(1L, 1L << 20), randomAlphaOfLength(10),
+                Version.CURRENT.luceneVersion));
+        }
+        final IndexId indexId = new IndexId("index", UUIDs.randomBase64UUID());
+        final List<BlobStoreIndexShardSnapshot.FileInfo> mostRecentSnapshotFiles = new ArrayList<>();
+        final List<BlobStoreIndexShardSnapshot.FileInfo> oldestSnapshotFiles = new ArrayList<>();
+        final Set<String> filesInMostRecentSnapshot = new HashSet<>();
+        for (StoreFileMetadata md : files) {
+            if (randomBoolean()) {
+                mostRecentSnapshotFiles.add(new BlobStoreIndexShardSnapshot.FileInfo(UUIDs.randomBase64UUID(), md, null));
+                filesInMostRecentSnapshot.add(md.name());
+            } else {
+                // same file name but different content
+                mostRecentSnapshotFiles.add(new BlobStoreIndexShardSnapshot.FileInfo(UUIDs.randomBase64UUID(),
+                    new StoreFileMetadata(md.name(), md.length(), "_different", md.writtenBy()), null));
+            }
+        }
+        if (filesInMostRecentSnapshot.isEmpty() == false) {
+            // an older snapshot which has less in common with the files to recover
+            final StoreFileMetadata md = files.stream().filter(f -> filesInMostRecentSnapshot.contains(f.name())).findAny().get();
+            oldestSnapshotFiles.add(new BlobStoreIndexShardSnapshot.FileInfo(UUIDs.randomBase64UUID(), md, null));
+        }
+        final ShardSnapshotsService shardSnapshotsService = new ShardSnapshotsService(null, threadPool) {
+            @Override
+            public void fetchShardSnapshots(ShardId shardId, ActionListener<List<ShardSnapshot>> listener) {
+                listener.onResponse(List.of(new ShardSnapshot("repo", indexId, "most-recent", mostRecentSnapshotFiles),
+                    new ShardSnapshot("repo", indexId, "oldest", oldestSnapshotFiles)));
+            }
+        };
+        final Set<String> restoredFiles = ConcurrentCollections.newConcurrentSet();
+        final Set<String> failedFiles = ConcurrentCollections.newConcurrentSet();
+        final RecoveryTargetHandler target = new TestRecoveryTargetHandler() {
+            @Override
+            public void restoreFileFromSnapshot(String repository, IndexId snapshotIndexId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                                int totalTranslogOps, ActionListener<Void> listener) {
+                assertThat(repository, equalTo("repo"));
+                assertThat(snapshotIndexId, equalTo(indexId));
+                assertTrue(mostRecentSnapshotFiles.contains(fileInfo));
+                if (rarely()) {
+                    failedFiles.add(fileInfo.physicalName());
+                    listener.onFailure(new IOException("simulated"));
+                } else {
+                    restoredFiles.add(fileInfo.physicalName());
+                    listener.onResponse(null);
+                }
+            }
+        };
+        // the target may also complete on the calling thread, in which case the files must not be restored recursively
+        final RecoveryTargetHandler recoveryTarget = randomBoolean() ? new AsyncRecoveryTarget(target, recoveryExecutor) : target;
+        final RecoverySourceHandler handler = new RecoverySourceHandler(null, recoveryTarget,
+            threadPool, getStartRecoveryRequest(), between(1, 16), between(1, 5), between(1, 5), shardSnapshotsService);
+        final PlainActionFuture<List<StoreFileMetadata>> future = new PlainActionFuture<>();
+        handler.restoreFilesFromSnapshot(files, () -> 0, future);
+        final Set<String> filesToSend = future.actionGet().stream().map(StoreFileMetadata::name).collect(Collectors.toSet());
+
+        final Set<String> expectedRestoredFiles = new HashSet<>(filesInMostRecentSnapshot);
+        expectedRestoredFiles.removeAll(failedFiles);
+        assertThat(restoredFiles, equalTo(expectedRestoredFiles));
+        final Set<String> expectedFilesToSend = files.stream().map(StoreFileMetadata::name).collect(Collectors.toSet());
+        expectedFilesToSend.removeAll(restoredFiles);
+        assertThat(filesToSend, equalTo(expectedFilesToSend));
+    }
+
     public StartRecoveryRequest getStartRecoveryRequest() throws IOException {
         Store.MetadataSnapshot metadataSnapshot = randomBoolean() ? Store.MetadataSnapshot.EMPTY :
             new Store.MetadataSnapshot(Collections.emptyMap(),
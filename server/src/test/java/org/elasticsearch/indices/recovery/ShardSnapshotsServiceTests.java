@@ -0,0 +1,104 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.repositories.fs.FsRepository;
+import org.elasticsearch.snapshots.SnapshotState;
+import org.elasticsearch.test.ESIntegTestCase;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class ShardSnapshotsServiceTests extends ESSingleNodeTestCase {
+
+    public void testFetchShardSnapshots() throws Exception {
+        createRepository("repo", true);
+        createRepository("other-repo", false);
+        final String indexName = "test-idx";
+        ShardId shardId = new ShardId(createIndex(indexName).index(), 0);
+        final ShardSnapshotsService shardSnapshotsService = new ShardSnapshotsService(getInstanceFromNode(RepositoriesService.class),
+            getInstanceFromNode(ThreadPool.class));
+        assertThat(fetchShardSnapshots(shardSnapshotsService, shardId), empty());
+
+        indexDocsAndFlush(indexName);
+        createSnapshot("repo", "snap-1", indexName);
+        createSnapshot("other-repo", "snap-2", indexName);
+        List<ShardSnapshotsService.ShardSnapshot> shardSnapshots = fetchShardSnapshots(shardSnapshotsService, shardId);
+        assertThat(shardSnapshots.size(), equalTo(1));
+        final ShardSnapshotsService.ShardSnapshot shardSnapshot = shardSnapshots.get(0);
+        assertThat(shardSnapshot.getRepository(), equalTo("repo"));
+        assertThat(shardSnapshot.getSnapshot(), equalTo("snap-1"));
+        assertThat(shardSnapshot.getIndexId().getName(), equalTo(indexName));
+        assertThat(shardSnapshot.getFiles(), not(empty()));
+
+        // the snapshots of a deleted index are not used to recover an index that was re-created with the same name
+        assertAcked(client().admin().indices().prepareDelete(indexName));
+        shardId = new ShardId(createIndex(indexName).index(), 0);
+        indexDocsAndFlush(indexName);
+        assertThat(fetchShardSnapshots(shardSnapshotsService, shardId), empty());
+
+        createSnapshot("repo", "snap-3", indexName);
+        shardSnapshots = fetchShardSnapshots(shardSnapshotsService, shardId);
+        assertThat(shardSnapshots.stream().map(ShardSnapshotsService.ShardSnapshot::getSnapshot).collect(Collectors.toList()),
+            equalTo(List.of("snap-3")));
+    }
+
+    private void createRepository(String name, boolean useForPeerRecovery) {
+        assertAcked(client().admin().cluster().preparePutRepository(name)
+            .setType(FsRepository.TYPE)
+            .setSettings(Settings.builder()
+                .put("location", ESIntegTestCase.randomRepoPath(node().settings()))
+                .put(BlobStoreRepository.USE_FOR_PEER_RECOVERY_SETTING.getKey(), useForPeerRecovery)));
+    }
+
+    private void indexDocsAndFlush(String indexName) {
+        final int numDocs = randomIntBetween(1, 20);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex(indexName).setId(Integer.toString(i)).setSource("field", randomAlphaOfLength(10)).get();
+        }
+        client().admin().indices().prepareFlush(indexName).get();
+    }
+
+    private void createSnapshot(String repository, String snapshot, String indexName) {
+        assertThat(client().admin().cluster().prepareCreateSnapshot(repository, snapshot)
+            .setWaitForCompletion(true)
+            .setIndices(indexName)
+            .get().getSnapshotInfo().state(), equalTo(SnapshotState.SUCCESS));
+    }
+
+    private static List<ShardSnapshotsService.ShardSnapshot> fetchShardSnapshots(ShardSnapshotsService shardSnapshotsService,
+                                                                                  ShardId shardId) {
+        final PlainActionFuture<List<ShardSnapshotsService.ShardSnapshot>> future = new PlainActionFuture<>();
+        shardSnapshotsService.fetchShardSnapshots(shardId, future);
+        return future.actionGet();
+    }
+}
@@ -20,15 +20,19 @@
 package org.elasticsearch.ingest;
 
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.CheckedFunction;
+import org.elasticsearch.common.TriConsumer;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Before;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
@@ -364,6 +368,91 @@ public class CompoundProcessorTests extends ESTestCase {
         assertThat(ingestProcessorException.getHeader("pipeline_origin"), equalTo(List.of("2", "1")));
     }
 
+    public void testExecuteBatch() {
+        List<Integer> batchSizes = new ArrayList<>();
+        Processor first = new BatchProcessor("first", batchSizes, ingestDocument -> {
+            int id = ingestDocument.getFieldValue("id", Integer.class);
+            if (id == 1) {
+                throw new RuntimeException("error");
+            }
+            if (id == 2) {
+                return null;
+            }
+            ingestDocument.setFieldValue("first", true);
+            return ingestDocument;
+        });
+        Processor second = new BatchProcessor("second", batchSizes, ingestDocument -> {
+            ingestDocument.setFieldValue("second", true);
+            return ingestDocument;
+        });
+        TestProcessor onFailureProcessor = new TestProcessor(ingestDocument -> ingestDocument.setFieldValue("failed", true));
+        LongSupplier relativeTimeProvider = mock(LongSupplier.class);
+        when(relativeTimeProvider.getAsLong()).thenReturn(0L);
+        CompoundProcessor compoundProcessor = new CompoundProcessor(false, Arrays.asList(first, second),
+            Collections.singletonList(onFailureProcessor), relativeTimeProvider);
+        assertThat(compoundProcessor.supportsBatchExecution(), is(true));
+
+        List<IngestDocument> ingestDocuments = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ingestDocuments.add(new IngestDocument(new HashMap<>(Map.of("id", i)), new HashMap<>()));
+        }
+        IngestDocument[] results = new IngestDocument[ingestDocuments.size()];
+        int[] invocations = new int[ingestDocuments.size()];
+        compoundProcessor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            assertThat(e, nullValue());
+            results[slot] = result;
+            invocations[slot]++;
+        });
+
+        assertThat(batchSizes, equalTo(List.of(4, 2)));
+        assertThat(invocations, equalTo(new int[] {1, 1, 1, 1}));
+        assertThat(results[0].getFieldValue("second", Boolean.class), is(true));
+        assertThat(results[1].getFieldValue("failed", Boolean.class), is(true));
+        assertThat(results[1].hasField("second"), is(false));
+        assertThat(results[2], nullValue());
+        assertThat(results[3].getFieldValue("second", Boolean.class), is(true));
+        assertThat(onFailureProcessor.getInvokedCounter(), equalTo(1));
+        assertStats(0, compoundProcessor, 0, 4, 1, 0);
+        assertStats(1, compoundProcessor, 0, 2, 0, 0);
+    }
+
+    public void testExecuteBatchMetrics() {
+        AtomicLong relativeTime = new AtomicLong();
+        List<Integer> batchSizes = new ArrayList<>();
+        // executes the documents of the batch one after the other, each taking 10 milliseconds
+        Processor processor = new BatchProcessor("processor", batchSizes, ingestDocument -> {
+            relativeTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            return ingestDocument;
+        });
+        CompoundProcessor innerProcessor = new CompoundProcessor(false, List.of(processor), List.of(), relativeTime::get);
+        CompoundProcessor outerProcessor = new CompoundProcessor(false, List.of(innerProcessor), List.of(), relativeTime::get);
+        Pipeline pipeline = new Pipeline("_id", null, null, outerProcessor, relativeTime::get);
+
+        int numDocuments = randomIntBetween(2, 8);
+        List<IngestDocument> ingestDocuments = new ArrayList<>();
+        for (int i = 0; i < numDocuments; i++) {
+            ingestDocuments.add(new IngestDocument(new HashMap<>(Map.of("id", i)), new HashMap<>()));
+        }
+        int[] invocations = new int[numDocuments];
+        pipeline.executeBatch(ingestDocuments, (slot, result, e) -> {
+            assertThat(e, nullValue());
+            invocations[slot]++;
+        });
+
+        assertThat(batchSizes, equalTo(List.of(numDocuments)));
+        for (int i = 0; i < numDocuments; i++) {
+            assertThat(invocations[i], equalTo(1));
+        }
+        // the time of the batch is counted once at every level, however many documents it holds
+        long batchTimeInMillis = 10L * numDocuments;
+        assertStats(0, innerProcessor, 0, numDocuments, 0, batchTimeInMillis);
+        assertStats(0, outerProcessor, 0, numDocuments, 0, batchTimeInMillis);
+        IngestStats.Stats pipelineStats = pipeline.getMetrics().createStats();
+        assertThat(pipelineStats.getIngestCurrent(), equalTo(0L));
+        assertThat(pipelineStats.getIngestCount(), equalTo((long) numDocuments));
+        assertThat(pipelineStats.getIngestTimeInMillis(), equalTo(batchTimeInMillis));
+    }
+
     private void assertStats(CompoundProcessor compoundProcessor, long count,  long failed, long time) {
         assertStats(0, compoundProcessor, 0L, count, failed, time);
     }
@@ -375,4 +464,37 @@ public class CompoundProcessorTests extends ESTestCase {
         assertThat(stats.getIngestFailedCount(), equalTo(failed));
         assertThat(stats.getIngestTimeInMillis(), equalTo(time));
     }
+
+    private static class BatchProcessor extends AbstractProcessor {
+
+        private final List<Integer> batchSizes;
+        private final CheckedFunction<IngestDocument, IngestDocument, Exception> function;
+
+        BatchProcessor(String tag, List<Integer> batchSizes, CheckedFunction<IngestDocument, IngestDocument, Exception> function) {
+            super(tag, null);
+            this.batchSizes = batchSizes;
+            this.function = function;
+        }
+
+        @Override
+        public void executeBatch(List<IngestDocument> ingestDocuments, TriConsumer<Integer, IngestDocument, Exception> handler) {
+            batchSizes.add(ingestDocuments.size());
+            super.executeBatch(ingestDocuments, handler);
+        }
+
+        @Override
+        public boolean supportsBatchExecution() {
+            return true;
+        }
+
+        @Override
+        public IngestDocument execute(IngestDocument ingestDocument) throws Exception {
+            return function.apply(ingestDocument);
+        }
+
+        @Override
+        public String getType() {
+            return "batch";
+        }
+    }
 }
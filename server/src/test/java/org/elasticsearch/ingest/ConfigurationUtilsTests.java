@@ -233,6 +233,8 @@ public class ConfigurationUtilsTests extends ESTestCase {
         result = ConfigurationUtils.compileTemplate(randomAlphaOfLength(10), randomAlphaOfLength(10), randomAlphaOfLength(10),
             propertyValue, scriptService);
         assertThat(result.newInstance(null).execute(), equalTo(propertyValue));
+        assertThat(result, instanceOf(ConfigurationUtils.ConstantTemplateScriptFactory.class));
+        assertThat(result.newInstance(null), sameInstance(result.newInstance(null)));
         verify(scriptService, times(0)).compile(any(), any());
     }
 
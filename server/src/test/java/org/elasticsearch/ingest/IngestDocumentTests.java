@@ -19,6 +19,7 @@
 
 package org.elasticsearch.ingest;
 
+import org.elasticsearch.script.TemplateScript;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Before;
 
@@ -1018,4 +1019,16 @@ public class IngestDocumentTests extends ESTestCase {
         }
     }
 
+    public void testSetFieldValueWithConstantTemplates() {
+        TemplateScript.Factory fieldPath = new ConfigurationUtils.ConstantTemplateScriptFactory("_source.constant");
+        ingestDocument.setFieldValue(fieldPath, ValueSource.wrap("value", TestTemplateService.instance()));
+        ingestDocument.appendFieldValue(fieldPath, ValueSource.wrap(List.of(1, 2), TestTemplateService.instance()));
+        assertThat(ingestDocument.getFieldValue("constant", List.class), equalTo(List.of("value", 1, 2)));
+        assertThat(ingestDocument.renderTemplate(fieldPath), equalTo("_source.constant"));
+
+        fieldPath = new ConfigurationUtils.ConstantTemplateScriptFactory("_ingest.constant");
+        ingestDocument.setFieldValue(fieldPath, ValueSource.wrap("value", TestTemplateService.instance()), true);
+        assertThat(ingestDocument.getFieldValue("_ingest.constant", String.class), equalTo("value"));
+    }
+
 }
@@ -45,8 +45,10 @@ import org.elasticsearch.cluster.metadata.IndexTemplateMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.TriConsumer;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -69,6 +71,7 @@ import org.mockito.ArgumentMatcher;
 import org.mockito.invocation.InvocationOnMock;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -127,7 +130,7 @@ public class IngestServiceTests extends ESTestCase {
     }
     public void testIngestPlugin() {
         Client client = mock(Client.class);
-        IngestService ingestService = new IngestService(mock(ClusterService.class), threadPool, null, null,
+        IngestService ingestService = new IngestService(mockClusterService(), threadPool, null, null,
             null, Collections.singletonList(DUMMY_PLUGIN), client);
         Map<String, Processor.Factory> factories = ingestService.getProcessorFactories();
         assertTrue(factories.containsKey("foo"));
@@ -137,14 +140,14 @@ public class IngestServiceTests extends ESTestCase {
     public void testIngestPluginDuplicate() {
         Client client = mock(Client.class);
         IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () ->
-            new IngestService(mock(ClusterService.class), threadPool, null, null,
+            new IngestService(mockClusterService(), threadPool, null, null,
             null, Arrays.asList(DUMMY_PLUGIN, DUMMY_PLUGIN), client));
         assertTrue(e.getMessage(), e.getMessage().contains("already registered"));
     }
 
     public void testExecuteIndexPipelineDoesNotExist() {
         Client client = mock(Client.class);
-        IngestService ingestService = new IngestService(mock(ClusterService.class), threadPool, null, null,
+        IngestService ingestService = new IngestService(mockClusterService(), threadPool, null, null,
             null, Collections.singletonList(DUMMY_PLUGIN), client);
         final IndexRequest indexRequest =
             new IndexRequest("_index").id("_id").source(emptyMap()).setPipeline("_id").setFinalPipeline("_none");
@@ -1000,6 +1003,167 @@ public class IngestServiceTests extends ESTestCase {
         }
     }
 
+    public void testBulkRequestExecutionInBatches() {
+        BulkRequest bulkRequest = new BulkRequest();
+        int numRequest = scaledRandomIntBetween(8, 64);
+        for (int i = 0; i < numRequest; i++) {
+            IndexRequest indexRequest = new IndexRequest("_index").id("_id").setPipeline("_id").setFinalPipeline("_none");
+            indexRequest.source(Requests.INDEX_CONTENT_TYPE, "field1", i == numRequest - 1 ? "fail" : "value1");
+            bulkRequest.add(indexRequest);
+        }
+
+        final List<Integer> batchSizes = new ArrayList<>();
+        final Processor processor = new AbstractProcessor(null, null) {
+            @Override
+            public void executeBatch(List<IngestDocument> ingestDocuments, TriConsumer<Integer, IngestDocument, Exception> handler) {
+                batchSizes.add(ingestDocuments.size());
+                super.executeBatch(ingestDocuments, handler);
+            }
+
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+
+            @Override
+            public IngestDocument execute(IngestDocument ingestDocument) {
+                if ("fail".equals(ingestDocument.getFieldValue("field1", String.class))) {
+                    throw new IllegalArgumentException("failed");
+                }
+                ingestDocument.setFieldValue("field2", "value2");
+                return ingestDocument;
+            }
+
+            @Override
+            public String getType() {
+                return "batch";
+            }
+        };
+        IngestService ingestService = createWithProcessors(Collections.singletonMap(
+            "batch", (factories, tag, description, config) -> processor));
+        PutPipelineRequest putRequest = new PutPipelineRequest("_id",
+            new BytesArray("{\"processors\": [{\"batch\": {}}]}"), XContentType.JSON);
+        ClusterState clusterState = ClusterState.builder(new ClusterName("_name")).build();
+        ClusterState previousClusterState = clusterState;
+        clusterState = IngestService.innerPut(putRequest, clusterState);
+        ingestService.applyClusterState(new ClusterChangedEvent("", clusterState, previousClusterState));
+
+        @SuppressWarnings("unchecked")
+        BiConsumer<Integer, Exception> requestItemErrorHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        ingestService.executeBulkRequest(numRequest, bulkRequest.requests(), requestItemErrorHandler, completionHandler, indexReq -> {});
+
+        assertThat(batchSizes, equalTo(List.of(numRequest)));
+        verify(requestItemErrorHandler, times(1)).accept(eq(numRequest - 1), any());
+        verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
+        for (int i = 0; i < numRequest - 1; i++) {
+            IndexRequest indexRequest = TransportBulkAction.getIndexWriteRequest(bulkRequest.requests().get(i));
+            assertThat(indexRequest.sourceAsMap().get("field2"), equalTo("value2"));
+        }
+    }
+
+    public void testBulkRequestExecutionInParallel() {
+        Client client = mock(Client.class);
+        IngestService ingestService = new IngestService(mockClusterService(), threadPool, null, null, null, List.of(new IngestPlugin() {
+            @Override
+            public Map<String, Processor.Factory> getProcessors(Processor.Parameters parameters) {
+                return Map.of("set", (factories, tag, description, config) ->
+                    new FakeProcessor("set", tag, description, ingestDocument -> ingestDocument.setFieldValue("field2", "value2")));
+            }
+        }), client);
+        ingestService.setBulkParallelism(4);
+        PutPipelineRequest putRequest = new PutPipelineRequest("_id",
+            new BytesArray("{\"processors\": [{\"set\": {}}]}"), XContentType.JSON);
+        ClusterState clusterState = ClusterState.builder(new ClusterName("_name")).build();
+        ClusterState previousClusterState = clusterState;
+        clusterState = IngestService.innerPut(putRequest, clusterState);
+        ingestService.applyClusterState(new ClusterChangedEvent("", clusterState, previousClusterState));
+
+        BulkRequest bulkRequest = new BulkRequest();
+        int numRequest = 4 * IngestService.MIN_DOCUMENTS_PER_PARTITION;
+        for (int i = 0; i < numRequest; i++) {
+            IndexRequest indexRequest = new IndexRequest("_index").id("_id").setPipeline("_id").setFinalPipeline("_none");
+            indexRequest.source(Requests.INDEX_CONTENT_TYPE, "field1", "value1");
+            bulkRequest.add(indexRequest);
+        }
+        @SuppressWarnings("unchecked")
+        BiConsumer<Integer, Exception> requestItemErrorHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        ingestService.executeBulkRequest(numRequest, bulkRequest.requests(), requestItemErrorHandler, completionHandler, indexReq -> {});
+
+        // the bulk request is forked once to the write thread pool, and three of its four partitions once more
+        verify(threadPool, times(4)).executor(ThreadPool.Names.WRITE);
+        verify(requestItemErrorHandler, never()).accept(any(), any());
+        verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
+        for (DocWriteRequest<?> docWriteRequest : bulkRequest.requests()) {
+            IndexRequest indexRequest = TransportBulkAction.getIndexWriteRequest(docWriteRequest);
+            assertThat(indexRequest.sourceAsMap().get("field2"), equalTo("value2"));
+        }
+    }
+
+    public void testBulkRequestExecutionInParallelWithFailingPartition() {
+        final int partitions = 4;
+        final int numRequest = partitions * IngestService.MIN_DOCUMENTS_PER_PARTITION;
+        // the partition that runs on the current thread is the last one to return
+        final int failingSlot = randomIntBetween(0, IngestService.MIN_DOCUMENTS_PER_PARTITION - 1);
+        BulkRequest bulkRequest = new BulkRequest();
+        for (int i = 0; i < numRequest; i++) {
+            IndexRequest indexRequest = new IndexRequest("_index").id("_id").setPipeline("_id").setFinalPipeline("_none");
+            indexRequest.source(Requests.INDEX_CONTENT_TYPE, "field1", i == failingSlot ? "fail" : "value1");
+            bulkRequest.add(indexRequest);
+        }
+
+        final Processor processor = new AbstractProcessor(null, null) {
+            @Override
+            public void executeBatch(List<IngestDocument> ingestDocuments, TriConsumer<Integer, IngestDocument, Exception> handler) {
+                // completes all the documents of the batch before failing
+                super.executeBatch(ingestDocuments, handler);
+                for (IngestDocument ingestDocument : ingestDocuments) {
+                    if ("fail".equals(ingestDocument.getFieldValue("field1", String.class))) {
+                        throw new IllegalStateException("failed");
+                    }
+                }
+            }
+
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+
+            @Override
+            public IngestDocument execute(IngestDocument ingestDocument) {
+                ingestDocument.setFieldValue("field2", "value2");
+                return ingestDocument;
+            }
+
+            @Override
+            public String getType() {
+                return "batch";
+            }
+        };
+        IngestService ingestService = createWithProcessors(Collections.singletonMap(
+            "batch", (factories, tag, description, config) -> processor));
+        ingestService.setBulkParallelism(partitions);
+        PutPipelineRequest putRequest = new PutPipelineRequest("_id",
+            new BytesArray("{\"processors\": [{\"batch\": {}}]}"), XContentType.JSON);
+        ClusterState clusterState = ClusterState.builder(new ClusterName("_name")).build();
+        ClusterState previousClusterState = clusterState;
+        clusterState = IngestService.innerPut(putRequest, clusterState);
+        ingestService.applyClusterState(new ClusterChangedEvent("", clusterState, previousClusterState));
+
+        @SuppressWarnings("unchecked")
+        BiConsumer<Integer, Exception> requestItemErrorHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        ingestService.executeBulkRequest(numRequest, bulkRequest.requests(), requestItemErrorHandler, completionHandler, indexReq -> {});
+
+        verify(requestItemErrorHandler, never()).accept(any(), any());
+        verify(completionHandler, times(1)).accept(any(), any());
+        verify(completionHandler).accept(eq(Thread.currentThread()), any(IllegalStateException.class));
+    }
+
     public void testStats() throws Exception {
         final Processor processor = mock(Processor.class);
         final Processor processorFailure = mock(Processor.class);
@@ -1212,7 +1376,7 @@ public class IngestServiceTests extends ESTestCase {
         // Create ingest service:
         Client client = mock(Client.class);
         IngestService ingestService =
-            new IngestService(mock(ClusterService.class), threadPool, null, null, null, List.of(testPlugin), client);
+            new IngestService(mockClusterService(), threadPool, null, null, null, List.of(testPlugin), client);
         ingestService.addIngestClusterStateListener(ingestClusterStateListener);
 
         // Create pipeline and apply the resulting cluster state, which should update the counter in the right order:
@@ -1408,7 +1572,7 @@ public class IngestServiceTests extends ESTestCase {
         ExecutorService executorService = EsExecutors.newDirectExecutorService();
         when(threadPool.generic()).thenReturn(executorService);
         when(threadPool.executor(anyString())).thenReturn(executorService);
-        return new IngestService(mock(ClusterService.class), threadPool, null, null,
+        return new IngestService(mockClusterService(), threadPool, null, null,
             null, Collections.singletonList(new IngestPlugin() {
             @Override
             public Map<String, Processor.Factory> getProcessors(final Processor.Parameters parameters) {
@@ -1417,6 +1581,14 @@ public class IngestServiceTests extends ESTestCase {
         }), client);
     }
 
+    private static ClusterService mockClusterService() {
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(Settings.EMPTY);
+        ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        when(clusterService.getClusterSettings()).thenReturn(clusterSettings);
+        return clusterService;
+    }
+
     private CompoundProcessor mockCompoundProcessor() {
         CompoundProcessor processor = mock(CompoundProcessor.class);
         doAnswer(args -> {
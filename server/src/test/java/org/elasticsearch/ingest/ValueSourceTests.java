@@ -96,4 +96,17 @@ public class ValueSourceTests extends ESTestCase {
         assertThat(result.copyAndResolve(Collections.emptyMap()), equalTo(compiledValue));
         verify(scriptService, times(1)).compile(any(), any());
     }
+
+    public void testIsTemplated() {
+        ScriptService scriptService = mock(ScriptService.class);
+        when(scriptService.isLangSupported(anyString())).thenReturn(true);
+        when(scriptService.compile(any(), any())).thenReturn(new TestTemplateService.MockTemplateScript.Factory("value"));
+
+        assertFalse(ValueSource.wrap(randomAlphaOfLength(10), scriptService).isTemplated());
+        assertFalse(ValueSource.wrap(randomInt(), scriptService).isTemplated());
+        assertFalse(ValueSource.wrap(Map.of("key", List.of("value", 1)), scriptService).isTemplated());
+        assertTrue(ValueSource.wrap("{{field}}", scriptService).isTemplated());
+        assertTrue(ValueSource.wrap(List.of("value", "{{field}}"), scriptService).isTemplated());
+        assertTrue(ValueSource.wrap(Map.of("key", Map.of("{{field}}", "value")), scriptService).isTemplated());
+    }
 }
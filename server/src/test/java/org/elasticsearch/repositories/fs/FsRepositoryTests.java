@@ -51,6 +51,7 @@ import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.IndexShardRestoreFailedException;
 import org.elasticsearch.index.snapshots.IndexShardSnapshotStatus;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.indices.recovery.RecoverySettings;
@@ -66,6 +67,7 @@ import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
@@ -73,6 +75,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
@@ -89,6 +92,7 @@ public class FsRepositoryTests extends ESTestCase {
                 .putList(Environment.PATH_DATA_SETTING.getKey(), tmpPaths())
                 .put("location", repo)
                 .put("compress", randomBoolean())
+                .put("max_concurrent_snapshot_uploads", randomIntBetween(0, 5))
                 .put("chunk_size", randomIntBetween(100, 1000), ByteSizeUnit.BYTES).build();
 
             int numDocs = indexDocs(directory);
@@ -113,6 +117,9 @@ public class FsRepositoryTests extends ESTestCase {
                 future1.actionGet();
                 IndexShardSnapshotStatus.Copy copy = snapshotStatus.asCopy();
                 assertEquals(copy.getTotalFileCount(), copy.getIncrementalFileCount());
+                // files are split in chunks that are uploaded concurrently, but each file is only accounted for once
+                assertEquals(copy.getIncrementalFileCount(), copy.getProcessedFileCount());
+                assertEquals(copy.getIncrementalSize(), copy.getProcessedSize());
             });
             final String shardGeneration = future1.actionGet();
             Lucene.cleanLuceneIndex(directory);
@@ -130,6 +137,10 @@ public class FsRepositoryTests extends ESTestCase {
             assertEquals(0, state.getIndex().reusedFileCount());
             assertEquals(indexCommit.getFileNames().size(), state.getIndex().recoveredFileCount());
             assertEquals(numDocs, Lucene.readSegmentInfos(directory).totalMaxDoc());
+            for (String file : directory.listAll()) {
+                // file chunks are downloaded concurrently into temporary files which are deleted once the file is restored
+                assertFalse("temporary file [" + file + "] was not deleted", file.endsWith(".tmp"));
+            }
             deleteRandomDoc(store.directory());
             SnapshotId incSnapshotId = new SnapshotId("test1", "test1");
             IndexCommit incIndexCommit = Lucene.getIndexCommit(Lucene.readSegmentInfos(store.directory()), store.directory());
@@ -164,6 +175,25 @@ public class FsRepositoryTests extends ESTestCase {
             Collections.sort(recoveredFiles, Comparator.comparing(RecoveryState.File::name));
             assertTrue(recoveredFiles.get(0).name(), recoveredFiles.get(0).name().endsWith(".liv"));
             assertTrue(recoveredFiles.get(1).name(), recoveredFiles.get(1).name().endsWith("segments_" + incIndexCommit.getGeneration()));
+
+            // a restore that fails to download a part of a file does not leave temporary files behind
+            final List<Path> secondParts;
+            final Path shardPath = repo.resolve("indices").resolve(indexId.getId()).resolve(Integer.toString(shardId.id()));
+            try (Stream<Path> blobs = Files.list(shardPath)) {
+                secondParts = blobs.filter(blob -> blob.getFileName().toString().endsWith(".part1")).collect(Collectors.toList());
+            }
+            assertFalse("expected files in several parts", secondParts.isEmpty());
+            for (Path secondPart : secondParts) {
+                Files.delete(secondPart);
+            }
+            Lucene.cleanLuceneIndex(directory);
+            RecoveryState failedState = new RecoveryState(routing, localNode, null);
+            final PlainActionFuture<Void> futureD = PlainActionFuture.newFuture();
+            runGeneric(threadPool, () -> repository.restoreShard(store, snapshotId, indexId, shardId, failedState, futureD));
+            expectThrows(IndexShardRestoreFailedException.class, futureD::actionGet);
+            for (String file : directory.listAll()) {
+                assertFalse("temporary file [" + file + "] was not deleted", file.endsWith(".tmp"));
+            }
         } finally {
             terminate(threadPool);
         }
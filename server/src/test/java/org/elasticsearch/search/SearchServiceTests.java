@@ -25,6 +25,7 @@ import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.action.index.IndexResponse;
@@ -55,6 +56,7 @@ import org.elasticsearch.index.query.MatchNoneQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryRewriteContext;
 import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.index.query.TermQueryBuilder;
 import org.elasticsearch.index.search.stats.SearchStats;
 import org.elasticsearch.index.shard.IndexShard;
@@ -82,8 +84,11 @@ import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.SearchContextId;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.MinAndMax;
 import org.elasticsearch.search.suggest.SuggestBuilder;
 import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.elasticsearch.test.VersionUtils;
 import org.junit.Before;
 
 import java.io.IOException;
@@ -111,6 +116,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.startsWith;
 
 public class SearchServiceTests extends ESSingleNodeTestCase {
@@ -759,6 +765,118 @@ public class SearchServiceTests extends ESSingleNodeTestCase {
         latch.await();
     }
 
+    public void testCanMatchDocCount() throws IOException {
+        createIndex("index", Settings.builder().put("index.refresh_interval", -1).build(), "_doc", "value", "type=long");
+        final int numDocs = randomIntBetween(1, 10);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("index").setId(Integer.toString(i)).setSource("value", i).get();
+        }
+        client().admin().indices().prepareRefresh("index").get();
+        final SearchService service = getInstanceFromNode(SearchService.class);
+        final IndexShard indexShard = getInstanceFromNode(IndicesService.class).indexServiceSafe(resolveIndex("index")).getShard(0);
+
+        SearchRequest searchRequest = new SearchRequest().allowPartialSearchResults(true);
+        searchRequest.source(new SearchSourceBuilder().sort("value"));
+        SearchService.CanMatchResponse response = service.canMatch(new ShardSearchRequest(OriginalIndices.NONE, searchRequest,
+            indexShard.shardId(), 1, new AliasFilter(null, Strings.EMPTY_ARRAY), 1f, -1, null, null));
+        assertTrue(response.canMatch());
+        assertThat(response.estimatedMinAndMax().getMin(), equalTo(0L));
+        assertThat(response.estimatedMinAndMax().getMax(), equalTo((long) numDocs - 1));
+        assertThat(response.docCount(), equalTo((long) numDocs));
+
+        // a range that contains all the values of the shard is rewritten to an unbounded range
+        searchRequest.source(new SearchSourceBuilder().query(new RangeQueryBuilder("value").gte(-1).lte(numDocs)).sort("value"));
+        response = service.canMatch(new ShardSearchRequest(OriginalIndices.NONE, searchRequest,
+            indexShard.shardId(), 1, new AliasFilter(null, Strings.EMPTY_ARRAY), 1f, -1, null, null));
+        assertThat(response.docCount(), equalTo((long) numDocs));
+
+        searchRequest.source(new SearchSourceBuilder().query(new RangeQueryBuilder("value").gte(1)).sort("value"));
+        response = service.canMatch(new ShardSearchRequest(OriginalIndices.NONE, searchRequest,
+            indexShard.shardId(), 1, new AliasFilter(null, Strings.EMPTY_ARRAY), 1f, -1, null, null));
+        assertThat(response.estimatedMinAndMax(), notNullValue());
+        assertThat(response.docCount(), equalTo(-1L));
+
+        searchRequest.source(new SearchSourceBuilder().query(new TermQueryBuilder("value", 0)).sort("value"));
+        response = service.canMatch(new ShardSearchRequest(OriginalIndices.NONE, searchRequest,
+            indexShard.shardId(), 1, new AliasFilter(null, Strings.EMPTY_ARRAY), 1f, -1, null, null));
+        assertThat(response.docCount(), equalTo(-1L));
+
+        searchRequest.source(new SearchSourceBuilder().sort("value"));
+        response = service.canMatch(new ShardSearchRequest(OriginalIndices.NONE, searchRequest,
+            indexShard.shardId(), 1, new AliasFilter(new TermQueryBuilder("value", 0), "alias"), 1f, -1, null, null));
+        assertThat(response.docCount(), equalTo(-1L));
+    }
+
+    public void testMatchesAllDocsWithSortValue() {
+        SearchRequest searchRequest = new SearchRequest().allowPartialSearchResults(true);
+        FieldSortBuilder sortBuilder = new FieldSortBuilder("value");
+        ShardId shardId = new ShardId("index", "_na_", 0);
+        AliasFilter noAliasFilter = new AliasFilter(null, Strings.EMPTY_ARRAY);
+
+        searchRequest.source(new SearchSourceBuilder().sort(sortBuilder));
+        assertTrue(SearchService.matchesAllDocsWithSortValue(
+            new ShardSearchRequest(OriginalIndices.NONE, searchRequest, shardId, 1, noAliasFilter, 1f, -1, null, null), sortBuilder));
+        searchRequest.source(new SearchSourceBuilder().query(new MatchAllQueryBuilder()).sort(sortBuilder));
+        assertTrue(SearchService.matchesAllDocsWithSortValue(
+            new ShardSearchRequest(OriginalIndices.NONE, searchRequest, shardId, 1, noAliasFilter, 1f, -1, null, null), sortBuilder));
+        assertTrue(SearchService.matchesAllDocsWithSortValue(new ShardSearchRequest(OriginalIndices.NONE, searchRequest, shardId, 1,
+            new AliasFilter(new MatchAllQueryBuilder(), "alias"), 1f, -1, null, null), sortBuilder));
+        assertFalse(SearchService.matchesAllDocsWithSortValue(new ShardSearchRequest(OriginalIndices.NONE, searchRequest, shardId, 1,
+            new AliasFilter(new TermQueryBuilder("foo", "bar"), "alias"), 1f, -1, null, null), sortBuilder));
+
+        searchRequest.source(new SearchSourceBuilder().query(new RangeQueryBuilder("value")).sort(sortBuilder));
+        assertTrue(SearchService.matchesAllDocsWithSortValue(
+            new ShardSearchRequest(OriginalIndices.NONE, searchRequest, shardId, 1, noAliasFilter, 1f, -1, null, null), sortBuilder));
+        searchRequest.source(new SearchSourceBuilder().query(new RangeQueryBuilder("other")).sort(sortBuilder));
+        assertFalse(SearchService.matchesAllDocsWithSortValue(
+            new ShardSearchRequest(OriginalIndices.NONE, searchRequest, shardId, 1, noAliasFilter, 1f, -1, null, null), sortBuilder));
+        searchRequest.source(new SearchSourceBuilder().query(new RangeQueryBuilder("value").gte(10)).sort(sortBuilder));
+        assertFalse(SearchService.matchesAllDocsWithSortValue(
+            new ShardSearchRequest(OriginalIndices.NONE, searchRequest, shardId, 1, noAliasFilter, 1f, -1, null, null), sortBuilder));
+        searchRequest.source(new SearchSourceBuilder().query(new TermQueryBuilder("value", 10)).sort(sortBuilder));
+        assertFalse(SearchService.matchesAllDocsWithSortValue(
+            new ShardSearchRequest(OriginalIndices.NONE, searchRequest, shardId, 1, noAliasFilter, 1f, -1, null, null), sortBuilder));
+    }
+
+    public void testCanMatchWithRefreshPending() throws IOException {
+        createIndex("index", Settings.builder().put(IndexSettings.INDEX_SEARCH_IDLE_AFTER.getKey(), TimeValue.ZERO).build(),
+            "_doc", "value", "type=long");
+        client().prepareIndex("index").setId("0").setSource("value", 0).setRefreshPolicy(IMMEDIATE).get();
+        final SearchService service = getInstanceFromNode(SearchService.class);
+        final IndexShard indexShard = getInstanceFromNode(IndicesService.class).indexServiceSafe(resolveIndex("index")).getShard(0);
+        // the new document is not visible until the next refresh, which the search idle shard skips
+        client().prepareIndex("index").setId("1").setSource("value", 100).get();
+        assertFalse(indexShard.scheduledRefresh());
+        assertTrue(indexShard.hasRefreshPending());
+
+        SearchRequest searchRequest = new SearchRequest().allowPartialSearchResults(true);
+        searchRequest.source(new SearchSourceBuilder().query(new TermQueryBuilder("value", 100)).sort("value"));
+        SearchService.CanMatchResponse response = service.canMatch(new ShardSearchRequest(OriginalIndices.NONE, searchRequest,
+            indexShard.shardId(), 1, new AliasFilter(null, Strings.EMPTY_ARRAY), 1f, -1, null, null));
+        assertTrue(response.canMatch());
+        // the min/max of the stale searcher must not be used to skip the shard
+        assertThat(response.estimatedMinAndMax(), nullValue());
+        assertThat(response.docCount(), equalTo(-1L));
+    }
+
+    public void testCanMatchResponseSerialization() throws IOException {
+        SearchService.CanMatchResponse response = new SearchService.CanMatchResponse(randomBoolean(),
+            new MinAndMax<>(randomLongBetween(0, 10), randomLongBetween(11, 20)), randomLongBetween(-1, 100));
+        SearchService.CanMatchResponse copy = copyWriteable(response, writableRegistry(), SearchService.CanMatchResponse::new,
+            VersionUtils.randomVersionBetween(random(), Version.V_8_0_0, Version.CURRENT));
+        assertThat(copy.canMatch(), equalTo(response.canMatch()));
+        assertThat(copy.estimatedMinAndMax().getMin(), equalTo(response.estimatedMinAndMax().getMin()));
+        assertThat(copy.estimatedMinAndMax().getMax(), equalTo(response.estimatedMinAndMax().getMax()));
+        assertThat(copy.docCount(), equalTo(response.docCount()));
+
+        // older nodes do not know the number of documents
+        copy = copyWriteable(response, writableRegistry(), SearchService.CanMatchResponse::new,
+            VersionUtils.randomVersionBetween(random(), Version.V_7_6_0, VersionUtils.getPreviousVersion(Version.V_8_0_0)));
+        assertThat(copy.canMatch(), equalTo(response.canMatch()));
+        assertThat(copy.estimatedMinAndMax().getMin(), equalTo(response.estimatedMinAndMax().getMin()));
+        assertThat(copy.docCount(), equalTo(-1L));
+    }
+
     public void testCanRewriteToMatchNone() {
         assertFalse(SearchService.canRewriteToMatchNone(new SearchSourceBuilder().query(new MatchNoneQueryBuilder())
             .aggregation(new GlobalAggregationBuilder("test"))));
@@ -87,9 +87,11 @@ import org.elasticsearch.index.search.ESToParentBlockJoinQuery;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
 import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchSortValuesAndFormats;
 import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.sort.SortAndFormats;
 import org.elasticsearch.tasks.TaskCancelledException;
 import org.elasticsearch.test.TestSearchContext;
@@ -768,6 +770,86 @@ public class QueryPhaseTests extends IndexShardTestCase {
         dir.close();
     }
 
+    public void testSearchAfterSortBoundsFilter() throws Exception {
+        final String fieldNameLong = "long-field";
+        MappedFieldType fieldTypeLong = new NumberFieldMapper.NumberFieldType(fieldNameLong, NumberFieldMapper.NumberType.LONG);
+        MapperService mapperService = mock(MapperService.class);
+        when(mapperService.fieldType(fieldNameLong)).thenReturn(fieldTypeLong);
+        final int numDocs = scaledRandomIntBetween(500, 2000);
+        final int numDocsWithoutValue = randomIntBetween(1, 10);
+        Directory dir = newDirectory();
+        RandomIndexWriter writer = new RandomIndexWriter(random(), dir, newIndexWriterConfig());
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < numDocs; ++i) {
+            values.add(2L * i);
+        }
+        Collections.shuffle(values, random());
+        for (long value : values) {
+            Document doc = new Document();
+            doc.add(new LongPoint(fieldNameLong, value));
+            doc.add(new NumericDocValuesField(fieldNameLong, value));
+            writer.addDocument(doc);
+        }
+        for (int i = 0; i < numDocsWithoutValue; i++) {
+            writer.addDocument(new Document());
+        }
+        writer.close();
+        final IndexReader reader = DirectoryReader.open(dir);
+
+        TestSearchContext searchContext = spy(new TestSearchContext(null, indexShard, newContextSearcher(reader)));
+        when(searchContext.mapperService()).thenReturn(mapperService);
+        final SortField sortFieldLong = new SortField(fieldNameLong, SortField.Type.LONG);
+        sortFieldLong.setMissingValue(Long.MAX_VALUE);
+        searchContext.sort(new SortAndFormats(new Sort(sortFieldLong), new DocValueFormat[]{DocValueFormat.RAW}));
+        searchContext.parsedQuery(new ParsedQuery(new MatchAllDocsQuery()));
+        searchContext.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+        searchContext.setSize(10);
+
+        // 1. the filter is not applied without search_after or bottom sort values
+        searchContext.trackTotalHitsUpTo(SearchContext.TRACK_TOTAL_HITS_DISABLED);
+        assertNull(QueryPhase.tryAddSortBoundsFilter(searchContext, searchContext.query()));
+
+        // 2. the filter is not applied when total hits are tracked
+        final int afterIndex = randomIntBetween(0, numDocs - 1);
+        final long afterValue = 2L * afterIndex + 1;
+        when(searchContext.searchAfter()).thenReturn(new FieldDoc(Integer.MAX_VALUE, Float.NaN, new Object[] { afterValue }));
+        searchContext.trackTotalHitsUpTo(SearchContext.DEFAULT_TRACK_TOTAL_HITS_UP_TO);
+        assertNull(QueryPhase.tryAddSortBoundsFilter(searchContext, searchContext.query()));
+
+        // 3. the filtered query returns the same top docs, documents without value included
+        searchContext.trackTotalHitsUpTo(SearchContext.TRACK_TOTAL_HITS_DISABLED);
+        assertNotNull(QueryPhase.tryAddSortBoundsFilter(searchContext, searchContext.query()));
+        QueryPhase.executeInternal(searchContext);
+        TopDocs topDocs = searchContext.queryResult().topDocs().topDocs;
+        final int expectedWithValue = Math.min(10, numDocs - afterIndex - 1);
+        final int expectedHits = Math.min(10, expectedWithValue + numDocsWithoutValue);
+        assertThat(topDocs.scoreDocs.length, equalTo(expectedHits));
+        for (int i = 0; i < expectedHits; i++) {
+            long expected = i < expectedWithValue ? 2L * (afterIndex + 1 + i) : Long.MAX_VALUE;
+            assertThat(((FieldDoc) topDocs.scoreDocs[i]).fields[0], equalTo(expected));
+        }
+
+        // 4. the bottom sort value of the other shards excludes the documents that sort after it, documents without value included
+        final int bottomIndex = randomIntBetween(0, numDocs - 1);
+        final ShardSearchRequest request = mock(ShardSearchRequest.class);
+        when(request.getBottomSortValues()).thenReturn(
+            new SearchSortValuesAndFormats(new Object[] { 2L * bottomIndex }, new DocValueFormat[] { DocValueFormat.RAW }));
+        when(searchContext.request()).thenReturn(request);
+        when(searchContext.searchAfter()).thenReturn(null);
+        final Query boundedQuery = QueryPhase.tryAddSortBoundsFilter(searchContext, searchContext.query());
+        assertNotNull(boundedQuery);
+        assertThat(new IndexSearcher(reader).count(boundedQuery), equalTo(bottomIndex + 1));
+        QueryPhase.executeInternal(searchContext);
+        topDocs = searchContext.queryResult().topDocs().topDocs;
+        assertThat(topDocs.scoreDocs.length, equalTo(Math.min(10, bottomIndex + 1)));
+        for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+            assertThat(((FieldDoc) topDocs.scoreDocs[i]).fields[0], equalTo(2L * i));
+        }
+
+        reader.close();
+        dir.close();
+    }
+
     public void testIndexHasDuplicateData() throws IOException {
         int docsCount = 5000;
         int maxPointsInLeafNode = 40;
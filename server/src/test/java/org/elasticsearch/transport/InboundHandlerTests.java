@@ -33,9 +33,13 @@ import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.InputStreamStreamInput;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
 import org.elasticsearch.tasks.TaskManager;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.MockLogAppender;
@@ -49,6 +53,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -71,14 +77,18 @@ public class InboundHandlerTests extends ESTestCase {
         super.setUp();
         taskManager = new TaskManager(Settings.EMPTY, threadPool, Collections.emptySet());
         channel = new FakeTcpChannel(randomBoolean(), buildNewFakeTransportAddress().address(), buildNewFakeTransportAddress().address());
+        requestHandlers = new Transport.RequestHandlers();
+        responseHandlers = new Transport.ResponseHandlers();
+        handler = newInboundHandler(threadPool);
+    }
+
+    private InboundHandler newInboundHandler(ThreadPool threadPool) {
         NamedWriteableRegistry namedWriteableRegistry = new NamedWriteableRegistry(Collections.emptyList());
         TransportHandshaker handshaker = new TransportHandshaker(version, threadPool, (n, c, r, v) -> {});
         OutboundHandler outboundHandler = new OutboundHandler("node", version, new StatsTracker(), threadPool,
                 BigArrays.NON_RECYCLING_INSTANCE);
         TransportKeepAlive keepAlive = new TransportKeepAlive(threadPool, outboundHandler::sendBytes);
-        requestHandlers = new Transport.RequestHandlers();
-        responseHandlers = new Transport.ResponseHandlers();
-        handler = new InboundHandler(threadPool, outboundHandler, namedWriteableRegistry, handshaker, keepAlive, requestHandlers,
+        return new InboundHandler(threadPool, outboundHandler, namedWriteableRegistry, handshaker, keepAlive, requestHandlers,
             responseHandlers);
     }
 
@@ -240,6 +250,100 @@ public class InboundHandlerTests extends ESTestCase {
         }
     }
 
+    public void testReleasesRequestOnceHandled() throws Exception {
+        final String action = "test-request";
+        final AtomicBoolean released = new AtomicBoolean();
+        final AtomicBoolean releasedWhileHandling = new AtomicBoolean(true);
+        final CountDownLatch handled = new CountDownLatch(1);
+        final RequestHandlerRegistry<BytesTransportRequest> registry = new RequestHandlerRegistry<>(action, BytesTransportRequest::new,
+            taskManager, (request, channel, task) -> {
+                releasedWhileHandling.set(released.get());
+                handled.countDown();
+            }, randomFrom(ThreadPool.Names.SAME, ThreadPool.Names.GENERIC), false, true);
+        requestHandlers.registerHandler(registry);
+
+        try (InboundMessage requestMessage = inboundRequest(action, new BytesTransportRequest(new BytesArray(randomByteArrayOfLength(10)),
+            version), () -> assertTrue(released.compareAndSet(false, true)))) {
+            handler.inboundMessage(channel, requestMessage);
+        }
+        handled.await();
+        assertFalse(releasedWhileHandling.get());
+        assertBusy(() -> assertTrue(released.get()));
+    }
+
+    public void testReleasesRequestNotFullyRead() throws Exception {
+        final String action = "test-request";
+        final AtomicBoolean released = new AtomicBoolean();
+        final RequestHandlerRegistry<BytesTransportRequest> registry = new RequestHandlerRegistry<>(action, BytesTransportRequest::new,
+            taskManager, (request, channel, task) -> fail("request should not be handled"), ThreadPool.Names.SAME, false, true);
+        requestHandlers.registerHandler(registry);
+
+        final BytesTransportRequest request = new BytesTransportRequest(new BytesArray(randomByteArrayOfLength(10)), version) {
+            @Override
+            public void writeTo(StreamOutput out) throws IOException {
+                super.writeTo(out);
+                out.writeString("not read");
+            }
+        };
+        try (InboundMessage requestMessage = inboundRequest(action, request, () -> assertTrue(released.compareAndSet(false, true)))) {
+            handler.inboundMessage(channel, requestMessage);
+        }
+        assertTrue(released.get());
+        assertErrorResponseSent();
+    }
+
+    public void testReleasesRequestOnRejection() throws Exception {
+        final String action = "test-request";
+        final AtomicBoolean released = new AtomicBoolean();
+        final RequestHandlerRegistry<BytesTransportRequest> registry = new RequestHandlerRegistry<>(action, BytesTransportRequest::new,
+            taskManager, (request, channel, task) -> fail("request should not be handled"), ThreadPool.Names.GENERIC, false, true);
+        requestHandlers.registerHandler(registry);
+
+        final EsThreadPoolExecutor rejectingExecutor = EsExecutors.newFixed("rejecting", 1, 0,
+            EsExecutors.daemonThreadFactory("rejecting"), threadPool.getThreadContext(), false);
+        rejectingExecutor.shutdown();
+        final ThreadPool rejectingThreadPool = new TestThreadPool(getTestName()) {
+            @Override
+            public ExecutorService executor(String name) {
+                return ThreadPool.Names.GENERIC.equals(name) ? rejectingExecutor : super.executor(name);
+            }
+        };
+        try {
+            final InboundHandler rejectingHandler = newInboundHandler(rejectingThreadPool);
+            try (InboundMessage requestMessage = inboundRequest(action,
+                new BytesTransportRequest(new BytesArray(randomByteArrayOfLength(10)), version),
+                () -> assertTrue(released.compareAndSet(false, true)))) {
+                rejectingHandler.inboundMessage(channel, requestMessage);
+            }
+            assertTrue(released.get());
+            assertErrorResponseSent();
+        } finally {
+            ThreadPool.terminate(rejectingThreadPool, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    private InboundMessage inboundRequest(String action, TransportRequest transportRequest, Releasable onRelease) throws IOException {
+        final long requestId = randomNonNegativeLong();
+        final OutboundMessage.Request request = new OutboundMessage.Request(threadPool.getThreadContext(), transportRequest, version,
+            action, requestId, false, false);
+        final BytesReference fullRequestBytes = request.serialize(new BytesStreamOutput());
+        final int headerSize = TcpHeader.headerSize(version);
+        final BytesReference requestContent = fullRequestBytes.slice(headerSize, fullRequestBytes.length() - headerSize);
+        final Header requestHeader = new Header(fullRequestBytes.length() - 6, requestId, TransportStatus.setRequest((byte) 0), version);
+        final InboundMessage requestMessage = new InboundMessage(requestHeader, new ReleasableBytesReference(requestContent, onRelease),
+            () -> {});
+        requestHeader.finishParsingHeader(requestMessage.openOrGetStreamInput());
+        return requestMessage;
+    }
+
+    private void assertErrorResponseSent() throws IOException {
+        final BytesReference responseBytesReference = channel.getMessageCaptor().get();
+        assertNotNull(responseBytesReference);
+        final Header responseHeader = InboundDecoder.readHeader(version, responseBytesReference.length(), responseBytesReference);
+        assertTrue(responseHeader.isResponse());
+        assertTrue(responseHeader.isError());
+    }
+
     private static InboundMessage unreadableInboundHandshake(Version remoteVersion, Header requestHeader) {
         return new InboundMessage(requestHeader, ReleasableBytesReference.wrap(BytesArray.EMPTY), () -> { }) {
             @Override
@@ -459,6 +459,27 @@ public abstract class AbstractBytesReferenceTestCase extends ESTestCase {
         }
     }
 
+    public void testSliceHasArray() throws IOException {
+        int length = randomIntBetween(1, PAGE_SIZE * randomIntBetween(2, 5));
+        BytesReference pbr = newBytesReference(length);
+        int sliceOffset = randomIntBetween(0, pbr.length() - 1);
+        int sliceLength = randomIntBetween(1, pbr.length() - sliceOffset);
+        for (BytesReference reference : new BytesReference[] { pbr, pbr.slice(sliceOffset, sliceLength) }) {
+            final byte[] array = reference.array();
+            final int arrayOffset = reference.arrayOffset();
+            for (int i = 0; i < reference.length(); i++) {
+                assertEquals(reference.get(i), array[arrayOffset + i]);
+            }
+            if (reference.hasArray()) {
+                // the backing array is shared rather than copied
+                assertSame(array, reference.array());
+            } else {
+                assertEquals(0, arrayOffset);
+                assertEquals(reference.length(), array.length);
+            }
+        }
+    }
+
     public void testToUtf8() throws IOException {
         // test empty
         BytesReference pbr = newBytesReference(0);
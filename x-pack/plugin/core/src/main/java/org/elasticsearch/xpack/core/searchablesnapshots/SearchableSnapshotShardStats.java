@@ -5,6 +5,7 @@
  */
 package org.elasticsearch.xpack.core.searchablesnapshots;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -137,13 +138,16 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
         private final TimedCounter cachedBytesWritten;
         private final TimedCounter directBytesRead;
         private final TimedCounter optimizedBytesRead;
+        private final Counter readAheadBytes;
+        private final Counter readAheadHits;
 
         public CacheIndexInputStats(String fileName, long fileLength, long openCount, long closeCount,
                                     Counter forwardSmallSeeks, Counter backwardSmallSeeks,
                                     Counter forwardLargeSeeks, Counter backwardLargeSeeks,
                                     Counter contiguousReads, Counter nonContiguousReads,
                                     Counter cachedBytesRead, TimedCounter cachedBytesWritten,
-                                    TimedCounter directBytesRead, TimedCounter optimizedBytesRead) {
+                                    TimedCounter directBytesRead, TimedCounter optimizedBytesRead,
+                                    Counter readAheadBytes, Counter readAheadHits) {
             this.fileName = fileName;
             this.fileLength = fileLength;
             this.openCount = openCount;
@@ -158,6 +162,8 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             this.cachedBytesWritten = cachedBytesWritten;
             this.directBytesRead = directBytesRead;
             this.optimizedBytesRead = optimizedBytesRead;
+            this.readAheadBytes = readAheadBytes;
+            this.readAheadHits = readAheadHits;
         }
 
         CacheIndexInputStats(final StreamInput in) throws IOException {
@@ -175,6 +181,13 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             this.cachedBytesWritten = new TimedCounter(in);
             this.directBytesRead = new TimedCounter(in);
             this.optimizedBytesRead = new TimedCounter(in);
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                this.readAheadBytes = new Counter(in);
+                this.readAheadHits = new Counter(in);
+            } else {
+                this.readAheadBytes = new Counter(0L, 0L, 0L, 0L);
+                this.readAheadHits = new Counter(0L, 0L, 0L, 0L);
+            }
         }
 
         @Override
@@ -194,6 +207,10 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             cachedBytesWritten.writeTo(out);
             directBytesRead.writeTo(out);
             optimizedBytesRead.writeTo(out);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                readAheadBytes.writeTo(out);
+                readAheadHits.writeTo(out);
+            }
         }
 
         public String getFileName() {
@@ -252,6 +269,14 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             return optimizedBytesRead;
         }
 
+        public Counter getReadAheadBytes() {
+            return readAheadBytes;
+        }
+
+        public Counter getReadAheadHits() {
+            return readAheadHits;
+        }
+
         @Override
         public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
             builder.startObject();
@@ -266,6 +291,8 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                 builder.field("cached_bytes_written", getCachedBytesWritten());
                 builder.field("direct_bytes_read", getDirectBytesRead());
                 builder.field("optimized_bytes_read", getOptimizedBytesRead());
+                builder.field("read_ahead_bytes", getReadAheadBytes());
+                builder.field("read_ahead_hits", getReadAheadHits());
                 {
                     builder.startObject("forward_seeks");
                     builder.field("small", getForwardSmallSeeks());
@@ -304,7 +331,9 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                 && Objects.equals(cachedBytesRead, stats.cachedBytesRead)
                 && Objects.equals(cachedBytesWritten, stats.cachedBytesWritten)
                 && Objects.equals(directBytesRead, stats.directBytesRead)
-                && Objects.equals(optimizedBytesRead, stats.optimizedBytesRead);
+                && Objects.equals(optimizedBytesRead, stats.optimizedBytesRead)
+                && Objects.equals(readAheadBytes, stats.readAheadBytes)
+                && Objects.equals(readAheadHits, stats.readAheadHits);
         }
 
         @Override
@@ -314,7 +343,8 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                 forwardLargeSeeks, backwardLargeSeeks,
                 contiguousReads, nonContiguousReads,
                 cachedBytesRead, cachedBytesWritten,
-                directBytesRead, optimizedBytesRead);
+                directBytesRead, optimizedBytesRead,
+                readAheadBytes, readAheadHits);
         }
     }
 
@@ -10,6 +10,7 @@ import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.routing.Preference;
+import org.elasticsearch.common.TriConsumer;
 import org.elasticsearch.index.query.ConstantScoreQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.ingest.AbstractProcessor;
@@ -17,10 +18,12 @@ import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.script.TemplateScript;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.lookup.SourceLookup;
 import org.elasticsearch.xpack.core.enrich.EnrichPolicy;
 import org.elasticsearch.xpack.enrich.action.EnrichCoordinatorProxyAction;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
@@ -87,6 +90,14 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
 
     public abstract QueryBuilder getQueryBuilder(Object fieldValue);
 
+    /**
+     * Returns the enrich documents for the given value without searching the enrich index, or {@code null} if they need to be searched.
+     * The returned search hits may be shared between lookups.
+     */
+    protected SearchHit[] lookupLocally(Object fieldValue) {
+        return null;
+    }
+
     @Override
     public void execute(IngestDocument ingestDocument, BiConsumer<IngestDocument, Exception> handler) {
         try {
@@ -98,55 +109,146 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
                 return;
             }
 
-            QueryBuilder queryBuilder = getQueryBuilder(value);
-            ConstantScoreQueryBuilder constantScore = new ConstantScoreQueryBuilder(queryBuilder);
-            SearchSourceBuilder searchBuilder = new SearchSourceBuilder();
-            searchBuilder.from(0);
-            searchBuilder.size(maxMatches);
-            searchBuilder.trackScores(false);
-            searchBuilder.fetchSource(true);
-            searchBuilder.query(constantScore);
-            SearchRequest req = new SearchRequest();
-            req.indices(EnrichPolicy.getBaseName(getPolicyName()));
-            req.preference(Preference.LOCAL.type());
-            req.source(searchBuilder);
-
-            searchRunner.accept(req, (searchResponse, e) -> {
+            SearchHit[] localHits = lookupLocally(value);
+            if (localHits != null) {
+                enrich(ingestDocument, localHits, true);
+                handler.accept(ingestDocument, null);
+                return;
+            }
+
+            searchRunner.accept(createSearchRequest(value), (searchResponse, e) -> {
                 if (e != null) {
                     handler.accept(null, e);
                     return;
                 }
+                enrich(ingestDocument, searchResponse.getHits().getHits(), false);
+                handler.accept(ingestDocument, null);
+            });
+        } catch (Exception e) {
+            handler.accept(null, e);
+        }
+    }
 
-                // If the index is empty, return the unchanged document
-                // If the enrich key does not exist in the index, throw an error
-                // If no documents match the key, return the unchanged document
-                SearchHit[] searchHits = searchResponse.getHits().getHits();
-                if (searchHits.length < 1) {
-                    handler.accept(ingestDocument, null);
-                    return;
-                }
+    /**
+     * Documents of the batch that have the same enrich key share a single search, instead of each searching the enrich index.
+     */
+    @Override
+    public void executeBatch(List<IngestDocument> ingestDocuments, TriConsumer<Integer, IngestDocument, Exception> handler) {
+        final Map<Object, List<Integer>> slotsByValue = new HashMap<>();
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            final IngestDocument ingestDocument = ingestDocuments.get(i);
+            final Object value;
+            try {
+                String field = ingestDocument.renderTemplate(this.field);
+                value = ingestDocument.getFieldValue(field, Object.class, ignoreMissing);
+            } catch (Exception e) {
+                handler.apply(i, null, e);
+                continue;
+            }
+            if (value == null) {
+                handler.apply(i, ingestDocument, null);
+            } else {
+                slotsByValue.computeIfAbsent(value, k -> new ArrayList<>()).add(i);
+            }
+        }
 
-                String targetField = ingestDocument.renderTemplate(this.targetField);
-                if (overrideEnabled || ingestDocument.hasField(targetField) == false) {
-                    if (maxMatches == 1) {
-                        Map<String, Object> firstDocument = searchHits[0].getSourceAsMap();
-                        ingestDocument.setFieldValue(targetField, firstDocument);
-                    } else {
-                        List<Map<String, Object>> enrichDocuments = new ArrayList<>(searchHits.length);
-                        for (SearchHit searchHit : searchHits) {
-                            Map<String, Object> enrichDocument = searchHit.getSourceAsMap();
-                            enrichDocuments.add(enrichDocument);
-                        }
-                        ingestDocument.setFieldValue(targetField, enrichDocuments);
+        for (Map.Entry<Object, List<Integer>> entry : slotsByValue.entrySet()) {
+            final List<Integer> slots = entry.getValue();
+            final SearchHit[] localHits;
+            final SearchRequest searchRequest;
+            try {
+                localHits = lookupLocally(entry.getKey());
+                searchRequest = localHits == null ? createSearchRequest(entry.getKey()) : null;
+            } catch (Exception e) {
+                slots.forEach(slot -> handler.apply(slot, null, e));
+                continue;
+            }
+            if (localHits != null) {
+                for (int slot : slots) {
+                    final IngestDocument ingestDocument = ingestDocuments.get(slot);
+                    try {
+                        enrich(ingestDocument, localHits, true);
+                    } catch (Exception e) {
+                        handler.apply(slot, null, e);
+                        continue;
                     }
+                    handler.apply(slot, ingestDocument, null);
+                }
+                continue;
+            }
+            searchRunner.accept(searchRequest, (searchResponse, e) -> {
+                for (int i = 0; i < slots.size(); i++) {
+                    final int slot = slots.get(i);
+                    if (e != null) {
+                        handler.apply(slot, null, e);
+                        continue;
+                    }
+                    final IngestDocument ingestDocument = ingestDocuments.get(slot);
+                    try {
+                        // all but the first document parse their own copy of the enrich documents, as they may get modified later on
+                        enrich(ingestDocument, searchResponse.getHits().getHits(), i > 0);
+                    } catch (Exception ex) {
+                        handler.apply(slot, null, ex);
+                        continue;
+                    }
+                    handler.apply(slot, ingestDocument, null);
                 }
-                handler.accept(ingestDocument, null);
             });
-        } catch (Exception e) {
-            handler.accept(null, e);
         }
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
+    private SearchRequest createSearchRequest(Object value) {
+        QueryBuilder queryBuilder = getQueryBuilder(value);
+        ConstantScoreQueryBuilder constantScore = new ConstantScoreQueryBuilder(queryBuilder);
+        SearchSourceBuilder searchBuilder = new SearchSourceBuilder();
+        searchBuilder.from(0);
+        searchBuilder.size(maxMatches);
+        searchBuilder.trackScores(false);
+        searchBuilder.fetchSource(true);
+        searchBuilder.query(constantScore);
+        SearchRequest req = new SearchRequest();
+        req.indices(EnrichPolicy.getBaseName(getPolicyName()));
+        req.preference(Preference.LOCAL.type());
+        req.source(searchBuilder);
+        return req;
+    }
+
+    private void enrich(IngestDocument ingestDocument, SearchHit[] searchHits, boolean copy) {
+        // If the index is empty, return the unchanged document
+        // If the enrich key does not exist in the index, throw an error
+        // If no documents match the key, return the unchanged document
+        if (searchHits.length < 1) {
+            return;
+        }
+
+        String targetField = ingestDocument.renderTemplate(this.targetField);
+        if (overrideEnabled || ingestDocument.hasField(targetField) == false) {
+            if (maxMatches == 1) {
+                Map<String, Object> firstDocument = getSourceAsMap(searchHits[0], copy);
+                ingestDocument.setFieldValue(targetField, firstDocument);
+            } else {
+                List<Map<String, Object>> enrichDocuments = new ArrayList<>(searchHits.length);
+                for (SearchHit searchHit : searchHits) {
+                    Map<String, Object> enrichDocument = getSourceAsMap(searchHit, copy);
+                    enrichDocuments.add(enrichDocument);
+                }
+                ingestDocument.setFieldValue(targetField, enrichDocuments);
+            }
+        }
+    }
+
+    private static Map<String, Object> getSourceAsMap(SearchHit searchHit, boolean copy) {
+        if (copy && searchHit.getSourceRef() != null) {
+            return SourceLookup.sourceAsMap(searchHit.getSourceRef());
+        }
+        return searchHit.getSourceAsMap();
+    }
+
     @Override
     public IngestDocument execute(IngestDocument ingestDocument) throws Exception {
         throw new UnsupportedOperationException("this method should not get executed");
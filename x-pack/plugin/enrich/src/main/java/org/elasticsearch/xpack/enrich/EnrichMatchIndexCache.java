@@ -0,0 +1,187 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.enrich;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.OriginSettingClient;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexAbstraction;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.routing.Preference;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.lookup.SourceLookup;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.xpack.core.enrich.EnrichPolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.elasticsearch.xpack.core.ClientHelper.ENRICH_ORIGIN;
+
+/**
+ * Holds the documents of small enrich indices of match policies in memory, keyed by the values of their match field, so that match
+ * processors can look up enrich documents on the ingest node without searching the enrich index.
+ *
+ * An enrich index is loaded by the first lookup after the policy has been executed, while that and any other lookup until the index is
+ * loaded return {@code null} and fall back to a search. Enrich indices with more documents than the configured maximum are never loaded.
+ * An enrich index is dropped from memory as soon as the alias of its policy no longer points to it.
+ */
+final class EnrichMatchIndexCache implements Consumer<ClusterState> {
+
+    private static final Logger logger = LogManager.getLogger(EnrichMatchIndexCache.class);
+
+    // placeholder for enrich indices that are being loaded or that are too large to be loaded
+    private static final MatchIndex UNAVAILABLE = new MatchIndex(new SearchHit[0], Map.of());
+
+    private final BiConsumer<SearchRequest, ActionListener<SearchResponse>> searchFunction;
+    private final int maxDocs;
+    private final Map<String, MatchIndex> matchIndices = ConcurrentCollections.newConcurrentMap();
+
+    private volatile Metadata metadata;
+
+    EnrichMatchIndexCache(Client client, int maxDocs) {
+        this(new OriginSettingClient(client, ENRICH_ORIGIN)::search, maxDocs);
+    }
+
+    EnrichMatchIndexCache(BiConsumer<SearchRequest, ActionListener<SearchResponse>> searchFunction, int maxDocs) {
+        this.searchFunction = searchFunction;
+        this.maxDocs = maxDocs;
+    }
+
+    /**
+     * Returns the enrich documents of the given policy whose match field has any of the given values, in the order a search of the enrich
+     * index would return them, or {@code null} if the enrich index of the policy is not held in memory.
+     */
+    SearchHit[] lookup(String policyName, String matchField, Object value, int maxMatches) {
+        final Metadata metadata = this.metadata;
+        if (maxDocs == 0 || metadata == null) {
+            return null;
+        }
+        IndexAbstraction indexAbstraction = metadata.getIndicesLookup().get(EnrichPolicy.getBaseName(policyName));
+        if (indexAbstraction == null || indexAbstraction.getIndices().size() != 1) {
+            return null;
+        }
+        String index = indexAbstraction.getIndices().get(0).getIndex().getName();
+        MatchIndex matchIndex = matchIndices.get(index);
+        if (matchIndex == null) {
+            load(index, matchField);
+            return null;
+        }
+        return matchIndex == UNAVAILABLE ? null : matchIndex.lookup(value, maxMatches);
+    }
+
+    private void load(String index, String matchField) {
+        if (matchIndices.putIfAbsent(index, UNAVAILABLE) != null) {
+            return;
+        }
+        SearchSourceBuilder searchSource = new SearchSourceBuilder().size(maxDocs)
+            .sort(SortBuilders.fieldSort("_doc"))
+            .trackTotalHits(true)
+            .fetchSource(true);
+        SearchRequest searchRequest = new SearchRequest(index).source(searchSource).preference(Preference.LOCAL.type());
+        searchFunction.accept(searchRequest, ActionListener.wrap(response -> {
+            SearchHits searchHits = response.getHits();
+            if (searchHits.getTotalHits() != null && searchHits.getTotalHits().value > searchHits.getHits().length) {
+                logger.debug("enrich index [{}] has more than [{}] documents and is not held in memory", index, maxDocs);
+                return;
+            }
+            // only replace the placeholder, as the enrich index is no longer needed if the placeholder was removed meanwhile
+            matchIndices.replace(index, UNAVAILABLE, MatchIndex.build(searchHits.getHits(), matchField));
+        }, e -> {
+            logger.debug(new ParameterizedMessage("failed to load enrich index [{}] into memory", index), e);
+            // the next lookup tries again
+            matchIndices.remove(index, UNAVAILABLE);
+        }));
+    }
+
+    @Override
+    public void accept(ClusterState state) {
+        final Metadata metadata = state.getMetadata();
+        this.metadata = metadata;
+        // the enrich index of a policy loses its alias once the policy has been executed again
+        matchIndices.keySet().removeIf(index -> {
+            IndexMetadata indexMetadata = metadata.index(index);
+            return indexMetadata == null || indexMetadata.getAliases().isEmpty();
+        });
+    }
+
+    // visible for testing
+    Set<String> getIndices() {
+        return matchIndices.keySet();
+    }
+
+    private static final class MatchIndex {
+
+        // the enrich documents, in the order a search of the enrich index returns them
+        private final SearchHit[] hits;
+        // the positions of the enrich documents in hits by the values of their match field
+        private final Map<String, int[]> positions;
+
+        private MatchIndex(SearchHit[] hits, Map<String, int[]> positions) {
+            this.hits = hits;
+            this.positions = positions;
+        }
+
+        static MatchIndex build(SearchHit[] hits, String matchField) {
+            Map<String, List<Integer>> positions = new HashMap<>();
+            for (int i = 0; i < hits.length; i++) {
+                if (hits[i].getSourceRef() == null) {
+                    continue;
+                }
+                // parse a copy of the source, as the search hit would otherwise hold on to the parsed source
+                Map<String, Object> source = SourceLookup.sourceAsMap(hits[i].getSourceRef());
+                Set<String> keys = new HashSet<>();
+                for (Object value : XContentMapValues.extractRawValues(matchField, source)) {
+                    if (value != null && keys.add(value.toString())) {
+                        positions.computeIfAbsent(value.toString(), k -> new ArrayList<>()).add(i);
+                    }
+                }
+            }
+            Map<String, int[]> compactPositions = new HashMap<>(positions.size());
+            for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+                compactPositions.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+            return new MatchIndex(hits, compactPositions);
+        }
+
+        SearchHit[] lookup(Object value, int maxMatches) {
+            if (value instanceof List == false) {
+                int[] matches = positions.getOrDefault(value.toString(), new int[0]);
+                SearchHit[] result = new SearchHit[Math.min(matches.length, maxMatches)];
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = hits[matches[i]];
+                }
+                return result;
+            }
+            TreeSet<Integer> matches = new TreeSet<>();
+            for (Object item : (List<?>) value) {
+                if (item != null) {
+                    Arrays.stream(positions.getOrDefault(item.toString(), new int[0])).forEach(matches::add);
+                }
+            }
+            return matches.stream().limit(maxMatches).map(position -> hits[position]).toArray(SearchHit[]::new);
+        }
+    }
+}
@@ -27,12 +27,14 @@ final class EnrichProcessorFactory implements Processor.Factory, Consumer<Cluste
     static final String TYPE = "enrich";
     private final Client client;
     private final ScriptService scriptService;
+    private final EnrichMatchIndexCache matchIndexCache;
 
     volatile Metadata metadata;
 
-    EnrichProcessorFactory(Client client, ScriptService scriptService) {
+    EnrichProcessorFactory(Client client, ScriptService scriptService, EnrichMatchIndexCache matchIndexCache) {
         this.client = client;
         this.scriptService = scriptService;
+        this.matchIndexCache = matchIndexCache;
     }
 
     @Override
@@ -73,6 +75,7 @@ final class EnrichProcessorFactory implements Processor.Factory, Consumer<Cluste
                     tag,
                     description,
                     client,
+                    matchIndexCache,
                     policyName,
                     field,
                     targetField,
@@ -12,16 +12,20 @@ import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.TermQueryBuilder;
 import org.elasticsearch.index.query.TermsQueryBuilder;
 import org.elasticsearch.script.TemplateScript;
+import org.elasticsearch.search.SearchHit;
 
 import java.util.List;
 import java.util.function.BiConsumer;
 
 public final class MatchProcessor extends AbstractEnrichProcessor {
 
+    private final EnrichMatchIndexCache matchIndexCache;
+
     MatchProcessor(
         String tag,
         String description,
         Client client,
+        EnrichMatchIndexCache matchIndexCache,
         String policyName,
         TemplateScript.Factory field,
         TemplateScript.Factory targetField,
@@ -31,6 +35,7 @@ public final class MatchProcessor extends AbstractEnrichProcessor {
         int maxMatches
     ) {
         super(tag, description, client, policyName, field, targetField, ignoreMissing, overrideEnabled, matchField, maxMatches);
+        this.matchIndexCache = matchIndexCache;
     }
 
     /** used in tests **/
@@ -47,6 +52,7 @@ public final class MatchProcessor extends AbstractEnrichProcessor {
         int maxMatches
     ) {
         super(tag, description, searchRunner, policyName, field, targetField, ignoreMissing, overrideEnabled, matchField, maxMatches);
+        this.matchIndexCache = null;
     }
 
     @Override
@@ -57,4 +63,9 @@ public final class MatchProcessor extends AbstractEnrichProcessor {
             return new TermQueryBuilder(matchField, fieldValue);
         }
     }
+
+    @Override
+    protected SearchHit[] lookupLocally(Object fieldValue) {
+        return matchIndexCache != null ? matchIndexCache.lookup(getPolicyName(), matchField, fieldValue, maxMatches) : null;
+    }
 }
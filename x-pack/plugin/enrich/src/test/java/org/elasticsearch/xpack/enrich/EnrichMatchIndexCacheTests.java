@@ -0,0 +1,124 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.enrich;
+
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchResponseSections;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.suggest.Suggest;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.core.enrich.EnrichPolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class EnrichMatchIndexCacheTests extends ESTestCase {
+
+    public void testLookup() throws Exception {
+        List<SearchRequest> searchRequests = new ArrayList<>();
+        SearchResponse searchResponse = searchResponse(
+            3,
+            "{\"domain\": \"elastic.co\", \"rank\": 1}",
+            "{\"domain\": [\"elastic.co\", \"elastic.com\"], \"rank\": 2}",
+            "{\"domain\": \"kibana.org\", \"rank\": 3}"
+        );
+        EnrichMatchIndexCache cache = new EnrichMatchIndexCache((request, listener) -> {
+            searchRequests.add(request);
+            listener.onResponse(searchResponse);
+        }, 10);
+        assertThat(cache.lookup("majestic", "domain", "elastic.co", 1), nullValue());
+
+        EnrichPolicy policy = new EnrichPolicy(EnrichPolicy.MATCH_TYPE, null, List.of("source_index"), "domain", List.of("rank"));
+        cache.accept(clusterState(EnrichProcessorFactoryTests.createMetadata("majestic", policy)));
+        // the first lookup loads the enrich index
+        assertThat(cache.lookup("majestic", "domain", "elastic.co", 1), nullValue());
+        assertThat(searchRequests.size(), equalTo(1));
+        assertThat(searchRequests.get(0).indices(), equalTo(new String[] { EnrichPolicy.getBaseName("majestic") + "-1" }));
+
+        assertThat(ranks(cache.lookup("majestic", "domain", "elastic.co", 1)), contains(1));
+        assertThat(ranks(cache.lookup("majestic", "domain", "elastic.co", 8)), contains(1, 2));
+        assertThat(ranks(cache.lookup("majestic", "domain", List.of("kibana.org", "elastic.com"), 8)), contains(2, 3));
+        assertThat(cache.lookup("majestic", "domain", "elastic.org", 8), arrayWithSize(0));
+        assertThat(searchRequests.size(), equalTo(1));
+
+        // the enrich index is dropped once the policy alias no longer points to it
+        cache.accept(clusterState(Metadata.EMPTY_METADATA));
+        assertThat(cache.getIndices(), empty());
+        assertThat(cache.lookup("majestic", "domain", "elastic.co", 1), nullValue());
+    }
+
+    public void testEnrichIndexWithTooManyDocuments() throws Exception {
+        SearchResponse searchResponse = searchResponse(2, "{\"domain\": \"elastic.co\"}");
+        EnrichMatchIndexCache cache = new EnrichMatchIndexCache((request, listener) -> listener.onResponse(searchResponse), 1);
+        EnrichPolicy policy = new EnrichPolicy(EnrichPolicy.MATCH_TYPE, null, List.of("source_index"), "domain", List.of("rank"));
+        cache.accept(clusterState(EnrichProcessorFactoryTests.createMetadata("majestic", policy)));
+        assertThat(cache.lookup("majestic", "domain", "elastic.co", 1), nullValue());
+        assertThat(cache.lookup("majestic", "domain", "elastic.co", 1), nullValue());
+    }
+
+    public void testDisabled() throws Exception {
+        EnrichMatchIndexCache cache = new EnrichMatchIndexCache(
+            (request, listener) -> listener.onFailure(new AssertionError("no enrich index should be loaded")),
+            0
+        );
+        EnrichPolicy policy = new EnrichPolicy(EnrichPolicy.MATCH_TYPE, null, List.of("source_index"), "domain", List.of("rank"));
+        cache.accept(clusterState(EnrichProcessorFactoryTests.createMetadata("majestic", policy)));
+        assertThat(cache.lookup("majestic", "domain", "elastic.co", 1), nullValue());
+        assertThat(cache.getIndices(), empty());
+    }
+
+    private static List<Integer> ranks(SearchHit[] hits) {
+        return Arrays.stream(hits).map(hit -> (Integer) hit.getSourceAsMap().get("rank")).collect(Collectors.toList());
+    }
+
+    private static ClusterState clusterState(Metadata metadata) {
+        return ClusterState.builder(new ClusterName("_name")).metadata(metadata).build();
+    }
+
+    private static SearchResponse searchResponse(long totalHits, String... sources) {
+        SearchHit[] searchHits = new SearchHit[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            searchHits[i] = new SearchHit(i, Integer.toString(i), Collections.emptyMap(), Collections.emptyMap());
+            searchHits[i].sourceRef(new BytesArray(sources[i]));
+        }
+        return new SearchResponse(
+            new SearchResponseSections(
+                new SearchHits(searchHits, new TotalHits(totalHits, TotalHits.Relation.EQUAL_TO), 1.0f),
+                new Aggregations(Collections.emptyList()),
+                new Suggest(Collections.emptyList()),
+                false,
+                false,
+                null,
+                1
+            ),
+            null,
+            1,
+            1,
+            0,
+            1,
+            ShardSearchFailure.EMPTY_ARRAY,
+            new SearchResponse.Clusters(1, 1, 0)
+        );
+    }
+}
@@ -41,8 +41,10 @@ import java.util.function.BiConsumer;
 import static org.hamcrest.Matchers.emptyArray;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class MatchProcessorTests extends ESTestCase {
 
@@ -148,6 +150,44 @@ public class MatchProcessorTests extends ESTestCase {
         assertThat(ingestDocument.getSourceAndMetadata().size(), equalTo(numProperties));
     }
 
+    public void testExecuteBatch() {
+        MockSearchFunction mockSearch = mockedSearchFunction(Map.of("elastic.co", Map.of("globalRank", 451, "tldRank", 23, "tld", "co")));
+        MatchProcessor processor = new MatchProcessor(
+            "_tag",
+            null,
+            mockSearch,
+            "_name",
+            str("domain"),
+            str("entry"),
+            true,
+            false,
+            "domain",
+            1
+        );
+        assertThat(processor.supportsBatchExecution(), equalTo(true));
+        List<IngestDocument> ingestDocuments = List.of(
+            new IngestDocument("_index", "_id1", "_routing", 1L, VersionType.INTERNAL, Map.of("domain", "elastic.co")),
+            new IngestDocument("_index", "_id2", "_routing", 1L, VersionType.INTERNAL, Map.of("domain", "elastic.co")),
+            new IngestDocument("_index", "_id3", "_routing", 1L, VersionType.INTERNAL, Map.of())
+        );
+        // Run
+        IngestDocument[] holder = new IngestDocument[ingestDocuments.size()];
+        processor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            assertThat(e, nullValue());
+            holder[slot] = result;
+        });
+        // Check that the documents that share the enrich key were enriched with a single search
+        SearchRequest request = mockSearch.getCapturedRequest();
+        TermQueryBuilder termQueryBuilder = (TermQueryBuilder) ((ConstantScoreQueryBuilder) request.source().query()).innerQuery();
+        assertThat(termQueryBuilder.value(), equalTo("elastic.co"));
+        Map<?, ?> first = holder[0].getFieldValue("entry", Map.class);
+        Map<?, ?> second = holder[1].getFieldValue("entry", Map.class);
+        assertThat(first.get("globalRank"), equalTo(451));
+        assertThat(second, equalTo(first));
+        assertThat(second, not(sameInstance(first)));
+        assertThat(holder[2].hasField("entry"), equalTo(false));
+    }
+
     public void testSearchFailure() throws Exception {
         String indexName = ".enrich-_name";
         MockSearchFunction mockSearch = mockedSearchFunction(new IndexNotFoundException(indexName));
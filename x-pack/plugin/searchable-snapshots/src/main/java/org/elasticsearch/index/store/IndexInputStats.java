@@ -45,6 +45,9 @@ public class IndexInputStats {
     private final Counter cachedBytesRead = new Counter();
     private final TimedCounter cachedBytesWritten = new TimedCounter();
 
+    private final Counter readAheadBytes = new Counter();
+    private final Counter readAheadHits = new Counter();
+
     public IndexInputStats(long fileLength, LongSupplier currentTimeNanos) {
         this(fileLength, SEEKING_THRESHOLD.getBytes(), currentTimeNanos);
     }
@@ -78,6 +81,14 @@ public class IndexInputStats {
         cachedBytesWritten.add(bytesWritten, nanoseconds);
     }
 
+    public void addReadAheadBytes(long bytes) {
+        readAheadBytes.add(bytes);
+    }
+
+    public void addReadAheadHit(int bytesRead) {
+        readAheadHits.add(bytesRead);
+    }
+
     public void addDirectBytesRead(int bytesRead, long nanoseconds) {
         directBytesRead.add(bytesRead, nanoseconds);
     }
@@ -164,6 +175,14 @@ public class IndexInputStats {
         return cachedBytesWritten;
     }
 
+    public Counter getReadAheadBytes() {
+        return readAheadBytes;
+    }
+
+    public Counter getReadAheadHits() {
+        return readAheadHits;
+    }
+
     @SuppressForbidden(reason = "Handles Long.MIN_VALUE before using Math.abs()")
     public boolean isLargeSeek(long delta) {
         return delta != Long.MIN_VALUE && Math.abs(delta) > seekingThreshold;
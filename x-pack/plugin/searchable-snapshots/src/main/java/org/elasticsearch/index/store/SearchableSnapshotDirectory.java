@@ -39,6 +39,7 @@ import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.cache.CacheFile;
 import org.elasticsearch.index.store.cache.CacheKey;
 import org.elasticsearch.index.store.cache.CachedBlobContainerIndexInput;
+import org.elasticsearch.index.store.cache.FrozenIndexInput;
 import org.elasticsearch.index.store.checksum.ChecksumBlobContainerIndexInput;
 import org.elasticsearch.index.store.direct.DirectBlobContainerIndexInput;
 import org.elasticsearch.repositories.IndexId;
@@ -49,15 +50,16 @@ import org.elasticsearch.snapshots.SnapshotId;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshotsConstants;
 import org.elasticsearch.xpack.searchablesnapshots.cache.CacheService;
+import org.elasticsearch.xpack.searchablesnapshots.cache.FrozenCacheService;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -70,6 +72,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.apache.lucene.store.BufferedIndexInput.bufferSize;
 import static org.elasticsearch.index.IndexModule.INDEX_STORE_TYPE_SETTING;
@@ -77,6 +80,7 @@ import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SN
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_INDEX_ID_SETTING;
+import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_PARTIAL_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_REPOSITORY_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_SNAPSHOT_ID_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_SNAPSHOT_NAME_SETTING;
@@ -99,6 +103,12 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
 
     private static final Logger logger = LogManager.getLogger(SearchableSnapshotDirectory.class);
 
+    /**
+     * The types of files that are small and read by most searches (terms index, points index, doc values and norms metadata), which are
+     * warmed in cache before the other files.
+     */
+    private static final Set<String> HOT_FILE_TYPES = Set.of("tip", "tmd", "kdi", "kdm", "dvm", "nvm");
+
     private final Supplier<BlobContainer> blobContainerSupplier;
     private final Supplier<BlobStoreIndexShardSnapshot> snapshotSupplier;
     private final SnapshotId snapshotId;
@@ -108,12 +118,15 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
     private final Map<String, IndexInputStats> stats;
     private final ThreadPool threadPool;
     private final CacheService cacheService;
+    private final FrozenCacheService frozenCacheService;
     private final boolean useCache;
+    private final boolean useFrozenCache;
     private final boolean prewarmCache;
     private final Set<String> excludedFileTypes;
     private final long uncachedChunkSize; // if negative use BlobContainer#readBlobPreferredLength, see #getUncachedChunkSize()
     private final Path cacheDir;
     private final AtomicBoolean closed;
+    private volatile boolean persistCacheOnClose;
 
     // volatile fields are updated once under `this` lock, all together, iff loaded is not true.
     private volatile BlobStoreIndexShardSnapshot snapshot;
@@ -129,6 +142,7 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         Settings indexSettings,
         LongSupplier currentTimeNanosSupplier,
         CacheService cacheService,
+        FrozenCacheService frozenCacheService,
         Path cacheDir,
         ThreadPool threadPool
     ) {
@@ -141,10 +155,14 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         this.stats = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
         this.statsCurrentTimeNanosSupplier = Objects.requireNonNull(currentTimeNanosSupplier);
         this.cacheService = Objects.requireNonNull(cacheService);
+        this.frozenCacheService = Objects.requireNonNull(frozenCacheService);
         this.cacheDir = Objects.requireNonNull(cacheDir);
         this.closed = new AtomicBoolean(false);
         this.useCache = SNAPSHOT_CACHE_ENABLED_SETTING.get(indexSettings);
-        this.prewarmCache = useCache ? SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING.get(indexSettings) : false;
+        // partial indices fall back to the per-file cache if the node has no shared cache
+        this.useFrozenCache = useCache && SNAPSHOT_PARTIAL_SETTING.get(indexSettings) && frozenCacheService.isEnabled();
+        // the shared cache only holds the regions that are read, prewarming would evict them
+        this.prewarmCache = useCache && useFrozenCache == false ? SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING.get(indexSettings) : false;
         this.excludedFileTypes = new HashSet<>(SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING.get(indexSettings));
         this.uncachedChunkSize = SNAPSHOT_UNCACHED_CHUNK_SIZE_SETTING.get(indexSettings).getBytes();
         this.threadPool = threadPool;
@@ -299,13 +317,30 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         if (closed.compareAndSet(false, true)) {
             isOpen = false;
             // Ideally we could let the cache evict/remove cached files by itself after the
-            // directory has been closed.
-            clearCache();
+            // directory has been closed. The cached files are only kept on disk if the shard
+            // copy stays on this node, otherwise they are evicted without being synced. The
+            // cached files of all shards are persisted when the node is stopped.
+            if (persistCacheOnClose) {
+                cacheService.persistAndRemoveFromCache(cacheDir, cacheKey -> cacheKey.belongsTo(snapshotId, indexId, shardId));
+            } else {
+                cacheService.removeFromCache(cacheKey -> cacheKey.belongsTo(snapshotId, indexId, shardId));
+            }
+            frozenCacheService.removeFromCache(cacheKey -> cacheKey.belongsTo(snapshotId, indexId, shardId));
         }
     }
 
+    /**
+     * Marks the cached files of this directory to be persisted on disk when the directory is closed, so that they can be reused if the
+     * shard is opened again on this node. This should only be called if the shard copy stays on this node, as persisting cache files
+     * requires to sync them.
+     */
+    public void persistCacheOnClose() {
+        persistCacheOnClose = true;
+    }
+
     public void clearCache() {
         cacheService.removeFromCache(cacheKey -> cacheKey.belongsTo(snapshotId, indexId, shardId));
+        frozenCacheService.removeFromCache(cacheKey -> cacheKey.belongsTo(snapshotId, indexId, shardId));
     }
 
     protected IndexInputStats createIndexInputStats(final long fileLength) {
@@ -342,8 +377,17 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         }
 
         final IndexInputStats inputStats = stats.computeIfAbsent(name, n -> createIndexInputStats(fileInfo.length()));
-        if (useCache && isExcludedFromCache(name) == false) {
-            return new CachedBlobContainerIndexInput(this, fileInfo, context, inputStats, cacheService.getRangeSize());
+        if (useFrozenCache && isExcludedFromCache(name) == false) {
+            return new FrozenIndexInput(this, frozenCacheService, fileInfo, context, inputStats);
+        } else if (useCache && isExcludedFromCache(name) == false) {
+            return new CachedBlobContainerIndexInput(
+                this,
+                fileInfo,
+                context,
+                inputStats,
+                cacheService.getRangeSize(),
+                cacheService.getReadAheadRanges()
+            );
         } else {
             return new DirectBlobContainerIndexInput(
                 blobContainer(),
@@ -369,6 +413,11 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         return ext != null && excludedFileTypes.contains(ext);
     }
 
+    private static boolean isHotFile(String name) {
+        final String ext = IndexFileNames.getExtension(name);
+        return ext != null && HOT_FILE_TYPES.contains(ext);
+    }
+
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + "@snapshotId=" + snapshotId + " lockFactory=" + lockFactory;
@@ -379,7 +428,16 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
             final BlockingQueue<Tuple<ActionListener<Void>, CheckedRunnable<Exception>>> queue = new LinkedBlockingQueue<>();
             final Executor executor = prewarmExecutor();
 
-            for (BlobStoreIndexShardSnapshot.FileInfo file : snapshot().indexFiles()) {
+            // warm the hot files first, smallest first, so that the first searches do not wait for larger files to be warmed
+            final List<BlobStoreIndexShardSnapshot.FileInfo> files = snapshot().indexFiles()
+                .stream()
+                .sorted(
+                    Comparator.comparing((BlobStoreIndexShardSnapshot.FileInfo file) -> isHotFile(file.physicalName()) == false)
+                        .thenComparingLong(file -> isHotFile(file.physicalName()) ? file.length() : 0L)
+                )
+                .collect(Collectors.toList());
+
+            for (BlobStoreIndexShardSnapshot.FileInfo file : files) {
                 if (file.metadata().hashEqualsContents() || isExcludedFromCache(file.physicalName())) {
                     continue;
                 }
@@ -445,6 +503,7 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
     public static Directory create(
         RepositoriesService repositories,
         CacheService cache,
+        FrozenCacheService frozenCache,
         IndexSettings indexSettings,
         ShardPath shardPath,
         LongSupplier currentTimeNanosSupplier,
@@ -500,7 +559,7 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
 
         final Path cacheDir = CacheService.getShardCachePath(shardPath).resolve(snapshotId.getUUID());
         Files.createDirectories(cacheDir);
-        assert assertCacheIsEmpty(cacheDir);
+        cache.loadCacheFiles(cacheDir, fileName -> new CacheKey(snapshotId, indexId, shardPath.getShardId(), fileName));
 
         return new InMemoryNoOpCommitDirectory(
             new SearchableSnapshotDirectory(
@@ -512,23 +571,13 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
                 indexSettings.getSettings(),
                 currentTimeNanosSupplier,
                 cache,
+                frozenCache,
                 cacheDir,
                 threadPool
             )
         );
     }
 
-    private static boolean assertCacheIsEmpty(Path cacheDir) {
-        try (DirectoryStream<Path> cacheDirStream = Files.newDirectoryStream(cacheDir)) {
-            final Set<Path> cacheFiles = new HashSet<>();
-            cacheDirStream.forEach(cacheFiles::add);
-            assert cacheFiles.isEmpty() : "should start with empty cache, but found " + cacheFiles;
-        } catch (IOException e) {
-            assert false : e;
-        }
-        return true;
-    }
-
     public static SearchableSnapshotDirectory unwrapDirectory(Directory dir) {
         while (dir != null) {
             if (dir instanceof SearchableSnapshotDirectory) {
@@ -58,12 +58,18 @@ public class CacheFile {
 
     private volatile Set<EvictionListener> listeners;
     private volatile boolean evicted;
+    // if true the file is kept on disk once evicted, so that it can be reused after a restart
+    private volatile boolean persisted;
 
     @Nullable // if evicted, or there are no listeners
     private volatile FileChannel channel;
 
     public CacheFile(String description, long length, Path file) {
-        this.tracker = new SparseFileTracker(file.toString(), length);
+        this(description, length, file, Collections.emptyList());
+    }
+
+    public CacheFile(String description, long length, Path file, List<Tuple<Long, Long>> completedRanges) {
+        this.tracker = new SparseFileTracker(file.toString(), length, completedRanges);
         this.description = Objects.requireNonNull(description);
         this.file = Objects.requireNonNull(file);
         this.listeners = new HashSet<>();
@@ -84,6 +90,21 @@ public class CacheFile {
         return file;
     }
 
+    /**
+     * @return the ranges of the file that are fully written in cache
+     */
+    public List<Tuple<Long, Long>> getCompletedRanges() {
+        return tracker.getCompletedRanges();
+    }
+
+    /**
+     * Marks the file as persisted: the file is not deleted from disk when it is evicted, and it is up to the caller to delete it later if
+     * it is not reused.
+     */
+    public void markAsPersisted() {
+        persisted = true;
+    }
+
     Releasable fileLock() {
         boolean success = false;
         readLock.lock();
@@ -168,6 +189,9 @@ public class CacheFile {
         assert evictionLock.isHeldByCurrentThread();
         assert listeners.isEmpty();
         assert channel == null;
+        if (persisted) {
+            return;
+        }
         try {
             Files.deleteIfExists(file);
         } catch (IOException e) {
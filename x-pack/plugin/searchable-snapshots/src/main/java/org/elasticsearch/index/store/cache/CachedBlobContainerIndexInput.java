@@ -47,21 +47,34 @@ public class CachedBlobContainerIndexInput extends BaseSearchableSnapshotIndexIn
     private static final Logger logger = LogManager.getLogger(CachedBlobContainerIndexInput.class);
     private static final int COPY_BUFFER_SIZE = 8192;
 
+    /**
+     * The number of consecutive contiguous reads after which the access pattern is considered sequential and the next ranges are
+     * fetched ahead of the reads.
+     */
+    private static final int READ_AHEAD_THRESHOLD = 2;
+
     private final SearchableSnapshotDirectory directory;
     private final CacheFileReference cacheFileReference;
     private final int defaultRangeSize;
+    private final int readAheadRanges;
 
     // last read position is kept around in order to detect (non)contiguous reads for stats
     private long lastReadPosition;
     // last seek position is kept around in order to detect forward/backward seeks for stats
     private long lastSeekPosition;
+    // number of consecutive contiguous reads, used to detect sequential access
+    private int sequentialReads;
+    // range of bytes that were fetched ahead of sequential reads, kept around in order to detect read-ahead hits for stats
+    private long readAheadStart;
+    private long readAheadEnd;
 
     public CachedBlobContainerIndexInput(
         SearchableSnapshotDirectory directory,
         FileInfo fileInfo,
         IOContext context,
         IndexInputStats stats,
-        int rangeSize
+        int rangeSize,
+        int readAheadRanges
     ) {
         this(
             "CachedBlobContainerIndexInput(" + fileInfo.physicalName() + ")",
@@ -72,7 +85,8 @@ public class CachedBlobContainerIndexInput extends BaseSearchableSnapshotIndexIn
             0L,
             fileInfo.length(),
             new CacheFileReference(directory, fileInfo.physicalName(), fileInfo.length()),
-            rangeSize
+            rangeSize,
+            readAheadRanges
         );
         stats.incrementOpenCount();
     }
@@ -86,7 +100,8 @@ public class CachedBlobContainerIndexInput extends BaseSearchableSnapshotIndexIn
         long offset,
         long length,
         CacheFileReference cacheFileReference,
-        int rangeSize
+        int rangeSize,
+        int readAheadRanges
     ) {
         super(resourceDesc, directory.blobContainer(), fileInfo, context, stats, offset, length);
         this.directory = directory;
@@ -94,6 +109,7 @@ public class CachedBlobContainerIndexInput extends BaseSearchableSnapshotIndexIn
         this.lastReadPosition = this.offset;
         this.lastSeekPosition = this.offset;
         this.defaultRangeSize = rangeSize;
+        this.readAheadRanges = readAheadRanges;
     }
 
     @Override
@@ -136,6 +152,7 @@ public class CachedBlobContainerIndexInput extends BaseSearchableSnapshotIndexIn
         final long position = getFilePointer() + this.offset;
         final int length = b.remaining();
 
+        boolean readFromCache = true;
         int totalBytesRead = 0;
         while (totalBytesRead < length) {
             final long pos = position + totalBytesRead;
@@ -165,6 +182,7 @@ public class CachedBlobContainerIndexInput extends BaseSearchableSnapshotIndexIn
                 if (e instanceof AlreadyClosedException || (e.getCause() != null && e.getCause() instanceof AlreadyClosedException)) {
                     try {
                         // cache file was evicted during the range fetching, read bytes directly from source
+                        readFromCache = false;
                         bytesRead = readDirectly(pos, pos + len, b);
                         continue;
                     } catch (Exception inner) {
@@ -179,8 +197,71 @@ public class CachedBlobContainerIndexInput extends BaseSearchableSnapshotIndexIn
         }
         assert totalBytesRead == length : "partial read operation, read [" + totalBytesRead + "] bytes of [" + length + "]";
         stats.incrementBytesRead(lastReadPosition, position, totalBytesRead);
+        if (readAheadStart <= position && position < readAheadEnd) {
+            stats.addReadAheadHit(totalBytesRead);
+        }
+        sequentialReads = (lastReadPosition == position) ? sequentialReads + 1 : 0;
         lastReadPosition = position + totalBytesRead;
         lastSeekPosition = lastReadPosition;
+        if (readFromCache && sequentialReads >= READ_AHEAD_THRESHOLD) {
+            readAhead(lastReadPosition);
+        }
+    }
+
+    /**
+     * Fetches the {@link #readAheadRanges} ranges that follow the given position in cache, without waiting for them to be written, so
+     * that sequential reads do not block on a blob store request every time they cross a range boundary. This is best effort: the
+     * ranges that are already available or pending in cache are not fetched again and failures are ignored.
+     */
+    private void readAhead(final long position) {
+        if (readAheadRanges <= 0 || position >= fileInfo.length()) {
+            return;
+        }
+        final long nextRangeStart = computeRange(position).v2();
+        if (nextRangeStart >= fileInfo.length()) {
+            return;
+        }
+        try {
+            final CacheFile cacheFile = getCacheFileSafe();
+            try (Releasable ignored = cacheFile.fileLock()) {
+                final long rangeSize = getDefaultRangeSize();
+                if (position < readAheadStart) {
+                    // the reads went backward, forget about the previous read-ahead
+                    readAheadStart = readAheadEnd = 0L;
+                }
+                final long start = Math.max(nextRangeStart, readAheadEnd);
+                final long end = Math.min(nextRangeStart + readAheadRanges * rangeSize, fileInfo.length());
+                for (long rangeStart = start; rangeStart < end; rangeStart += rangeSize) {
+                    final Tuple<Long, Long> range = computeRange(rangeStart);
+                    if (cacheFile.getAbsentRangeWithin(range.v1(), range.v2()) == null) {
+                        continue;
+                    }
+                    logger.trace("reading ahead range [{}-{}] of cache file [{}]", range.v1(), range.v2(), cacheFileReference);
+                    final int rangeLength = Math.toIntExact(range.v2() - range.v1());
+                    cacheFile.fetchAsync(range, range, channel -> rangeLength, this::writeCacheFile, directory.cacheFetchAsyncExecutor())
+                        .whenComplete((read, e) -> {
+                            if (e != null) {
+                                logger.trace(
+                                    () -> new ParameterizedMessage(
+                                        "failed to read ahead range [{}-{}] of cache file [{}]",
+                                        range.v1(),
+                                        range.v2(),
+                                        cacheFileReference
+                                    ),
+                                    e
+                                );
+                            }
+                        });
+                    stats.addReadAheadBytes(rangeLength);
+                    if (readAheadEnd != range.v1()) {
+                        readAheadStart = range.v1();
+                    }
+                    readAheadEnd = range.v2();
+                }
+            }
+        } catch (Exception e) {
+            logger.trace(() -> new ParameterizedMessage("failed to read ahead of position [{}] in [{}]", position, cacheFileReference), e);
+        }
     }
 
     /**
@@ -412,7 +493,8 @@ public class CachedBlobContainerIndexInput extends BaseSearchableSnapshotIndexIn
             this.offset + offset,
             length,
             cacheFileReference,
-            defaultRangeSize
+            defaultRangeSize,
+            readAheadRanges
         );
         slice.isClone = true;
         return slice;
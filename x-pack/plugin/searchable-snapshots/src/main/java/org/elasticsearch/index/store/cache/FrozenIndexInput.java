@@ -0,0 +1,298 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.index.store.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.store.BaseSearchableSnapshotIndexInput;
+import org.elasticsearch.index.store.IndexInputStats;
+import org.elasticsearch.index.store.SearchableSnapshotDirectory;
+import org.elasticsearch.xpack.searchablesnapshots.cache.FrozenCacheService;
+import org.elasticsearch.xpack.searchablesnapshots.cache.SharedBytes;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * An {@link IndexInput} that reads the file by region from the node-wide shared cache of the {@link FrozenCacheService}. The region that
+ * contains the bytes to read is fully fetched from the blob store on the cache fetch thread pool the first time it is read, and the bytes
+ * are read directly from the blob store when no region of the shared cache can be freed.
+ */
+public class FrozenIndexInput extends BaseSearchableSnapshotIndexInput {
+
+    private static final Logger logger = LogManager.getLogger(FrozenIndexInput.class);
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final SearchableSnapshotDirectory directory;
+    private final FrozenCacheService frozenCacheService;
+    private final CacheKey cacheKey;
+
+    // last read position is kept around in order to detect (non)contiguous reads for stats
+    private long lastReadPosition;
+    // last seek position is kept around in order to detect forward/backward seeks for stats
+    private long lastSeekPosition;
+
+    public FrozenIndexInput(
+        SearchableSnapshotDirectory directory,
+        FrozenCacheService frozenCacheService,
+        FileInfo fileInfo,
+        IOContext context,
+        IndexInputStats stats
+    ) {
+        this(
+            "FrozenIndexInput(" + fileInfo.physicalName() + ")",
+            directory,
+            frozenCacheService,
+            fileInfo,
+            context,
+            stats,
+            0L,
+            fileInfo.length(),
+            directory.createCacheKey(fileInfo.physicalName())
+        );
+        stats.incrementOpenCount();
+    }
+
+    private FrozenIndexInput(
+        String resourceDesc,
+        SearchableSnapshotDirectory directory,
+        FrozenCacheService frozenCacheService,
+        FileInfo fileInfo,
+        IOContext context,
+        IndexInputStats stats,
+        long offset,
+        long length,
+        CacheKey cacheKey
+    ) {
+        super(resourceDesc, directory.blobContainer(), fileInfo, context, stats, offset, length);
+        this.directory = directory;
+        this.frozenCacheService = frozenCacheService;
+        this.cacheKey = cacheKey;
+        this.lastReadPosition = this.offset;
+        this.lastSeekPosition = this.offset;
+    }
+
+    @Override
+    public void innerClose() {}
+
+    @Override
+    protected void readInternal(ByteBuffer b) throws IOException {
+        ensureOpen();
+        final long position = getFilePointer() + this.offset;
+        final int length = b.remaining();
+
+        int totalBytesRead = 0;
+        while (totalBytesRead < length) {
+            final long pos = position + totalBytesRead;
+            final int region = frozenCacheService.getRegion(pos);
+            final long regionStart = frozenCacheService.getRegionStart(region);
+            final long regionEnd = regionStart + frozenCacheService.getRegionLength(fileInfo.length(), region);
+            final int len = Math.toIntExact(Math.min(length - totalBytesRead, regionEnd - pos));
+            final int bytesRead = readRegion(region, pos, len, b);
+            assert bytesRead == len : "partial read of region [" + region + "], read [" + bytesRead + "] bytes of [" + len + "]";
+            totalBytesRead += bytesRead;
+        }
+        assert totalBytesRead == length : "partial read operation, read [" + totalBytesRead + "] bytes of [" + length + "]";
+        stats.incrementBytesRead(lastReadPosition, position, totalBytesRead);
+        lastReadPosition = position + totalBytesRead;
+        lastSeekPosition = lastReadPosition;
+    }
+
+    private int readRegion(final int region, final long pos, final int len, final ByteBuffer b) throws IOException {
+        final FrozenCacheService.CacheFileRegion cacheFileRegion = frozenCacheService.get(cacheKey, fileInfo.length(), region);
+        if (cacheFileRegion == null) {
+            // all the regions of the shared cache are being read or written, read bytes directly from source
+            return readDirectly(pos, pos + len, b);
+        }
+        try {
+            final long regionStart = frozenCacheService.getRegionStart(region);
+            final long relativePos = pos - regionStart;
+            return cacheFileRegion.populateAndRead(
+                Tuple.tuple(0L, cacheFileRegion.getLength()),
+                Tuple.tuple(relativePos, relativePos + len),
+                (sharedBytes, sharedRegion) -> readCacheRegion(sharedBytes, sharedRegion, relativePos, len, b),
+                (sharedBytes, sharedRegion, start, end, progressUpdater) -> writeCacheRegion(
+                    sharedBytes,
+                    sharedRegion,
+                    regionStart,
+                    start,
+                    end,
+                    progressUpdater
+                ),
+                directory.cacheFetchAsyncExecutor()
+            );
+        } catch (final Exception e) {
+            throw new IOException("Failed to read data from shared cache", e);
+        } finally {
+            cacheFileRegion.decRef();
+        }
+    }
+
+    private int readCacheRegion(SharedBytes sharedBytes, int sharedRegion, long relativePos, int len, ByteBuffer b) throws IOException {
+        final ByteBuffer duplicate = b.duplicate();
+        duplicate.limit(duplicate.position() + len);
+        final int bytesRead = sharedBytes.read(sharedRegion, relativePos, duplicate);
+        if (bytesRead < len) {
+            throw new EOFException(
+                String.format(
+                    Locale.ROOT,
+                    "unexpected EOF reading [%d-%d] from shared region [%d] for %s",
+                    relativePos,
+                    relativePos + len,
+                    sharedRegion,
+                    this
+                )
+            );
+        }
+        b.position(duplicate.position());
+        stats.addCachedBytesRead(bytesRead);
+        return bytesRead;
+    }
+
+    private void writeCacheRegion(
+        final SharedBytes sharedBytes,
+        final int sharedRegion,
+        final long regionStart,
+        final long start,
+        final long end,
+        final Consumer<Long> progressUpdater
+    ) throws IOException {
+        final long length = end - start;
+        final byte[] copyBuffer = new byte[Math.toIntExact(Math.min(COPY_BUFFER_SIZE, length))];
+        logger.trace(
+            () -> new ParameterizedMessage("writing range [{}-{}] of {} to shared region [{}]", start, end, cacheKey, sharedRegion)
+        );
+
+        long bytesCopied = 0L;
+        long remaining = length;
+        final long startTimeNanos = stats.currentTimeNanos();
+        try (InputStream input = openInputStream(regionStart + start, length)) {
+            while (remaining > 0L) {
+                final int bytesRead = readSafe(input, copyBuffer, regionStart + start, regionStart + end, remaining);
+                sharedBytes.write(sharedRegion, start + bytesCopied, ByteBuffer.wrap(copyBuffer, 0, bytesRead));
+                bytesCopied += bytesRead;
+                remaining -= bytesRead;
+                progressUpdater.accept(start + bytesCopied);
+            }
+            final long endTimeNanos = stats.currentTimeNanos();
+            stats.addCachedBytesWritten(bytesCopied, endTimeNanos - startTimeNanos);
+        }
+    }
+
+    private int readDirectly(long start, long end, ByteBuffer b) throws IOException {
+        final long length = end - start;
+        final byte[] copyBuffer = new byte[Math.toIntExact(Math.min(COPY_BUFFER_SIZE, length))];
+        logger.trace(() -> new ParameterizedMessage("direct reading of range [{}-{}] for {}", start, end, cacheKey));
+
+        int bytesCopied = 0;
+        final long startTimeNanos = stats.currentTimeNanos();
+        try (InputStream input = openInputStream(start, length)) {
+            long remaining = length;
+            while (remaining > 0L) {
+                final int bytesRead = readSafe(input, copyBuffer, start, end, remaining);
+                b.put(copyBuffer, 0, bytesRead);
+                bytesCopied += bytesRead;
+                remaining -= bytesRead;
+            }
+            final long endTimeNanos = stats.currentTimeNanos();
+            stats.addDirectBytesRead(bytesCopied, endTimeNanos - startTimeNanos);
+        }
+        return bytesCopied;
+    }
+
+    private int readSafe(InputStream inputStream, byte[] copyBuffer, long rangeStart, long rangeEnd, long remaining) throws IOException {
+        final int len = (remaining < copyBuffer.length) ? Math.toIntExact(remaining) : copyBuffer.length;
+        final int bytesRead = inputStream.read(copyBuffer, 0, len);
+        if (bytesRead == -1) {
+            throw new EOFException(
+                String.format(
+                    Locale.ROOT,
+                    "unexpected EOF reading [%d-%d] ([%d] bytes remaining) from %s",
+                    rangeStart,
+                    rangeEnd,
+                    remaining,
+                    cacheKey
+                )
+            );
+        }
+        assert bytesRead > 0 : bytesRead;
+        return bytesRead;
+    }
+
+    @Override
+    protected void seekInternal(long pos) throws IOException {
+        if (pos > length()) {
+            throw new EOFException("Reading past end of file [position=" + pos + ", length=" + length() + "] for " + toString());
+        } else if (pos < 0L) {
+            throw new IOException("Seeking to negative position [" + pos + "] for " + toString());
+        }
+        final long position = pos + this.offset;
+        stats.incrementSeeks(lastSeekPosition, position);
+        lastSeekPosition = position;
+    }
+
+    @Override
+    public FrozenIndexInput clone() {
+        return (FrozenIndexInput) super.clone();
+    }
+
+    @Override
+    public IndexInput slice(String sliceDescription, long offset, long length) {
+        if (offset < 0 || length < 0 || offset + length > length()) {
+            throw new IllegalArgumentException(
+                "slice() "
+                    + sliceDescription
+                    + " out of bounds: offset="
+                    + offset
+                    + ",length="
+                    + length
+                    + ",fileLength="
+                    + length()
+                    + ": "
+                    + this
+            );
+        }
+        final FrozenIndexInput slice = new FrozenIndexInput(
+            getFullSliceDescription(sliceDescription),
+            directory,
+            frozenCacheService,
+            fileInfo,
+            context,
+            stats,
+            this.offset + offset,
+            length,
+            cacheKey
+        );
+        slice.isClone = true;
+        return slice;
+    }
+
+    @Override
+    public String toString() {
+        return "FrozenIndexInput{"
+            + "cacheKey="
+            + cacheKey
+            + ", offset="
+            + offset
+            + ", length="
+            + length()
+            + ", position="
+            + getFilePointer()
+            + ", regionSize="
+            + frozenCacheService.getRegionSize()
+            + '}';
+    }
+}
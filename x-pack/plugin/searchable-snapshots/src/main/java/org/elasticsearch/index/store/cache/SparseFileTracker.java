@@ -37,17 +37,57 @@ public class SparseFileTracker {
     private final long length;
 
     public SparseFileTracker(String description, long length) {
+        this(description, length, Collections.emptyList());
+    }
+
+    /**
+     * Creates a tracker for a file whose given ranges are already present, for instance because they were written to disk before a node
+     * restart.
+     *
+     * @param completedRanges the ranges of the file that are present, in order and disjoint
+     */
+    public SparseFileTracker(String description, long length, List<Tuple<Long, Long>> completedRanges) {
         this.description = description;
         this.length = length;
         if (length < 0) {
             throw new IllegalArgumentException("Length [" + length + "] must be equal to or greater than 0 for [" + description + "]");
         }
+        Range previousRange = null;
+        for (Tuple<Long, Long> completedRange : completedRanges) {
+            final long start = completedRange.v1();
+            final long end = completedRange.v2();
+            if (start < 0L || end > length || start >= end || (previousRange != null && previousRange.end > start)) {
+                throw new IllegalArgumentException(
+                    "Invalid range [" + start + "-" + end + "] for [" + description + "] of length [" + length + "]"
+                );
+            }
+            if (previousRange != null && previousRange.end == start) {
+                // contiguous ranges are merged together
+                previousRange.end = end;
+            } else {
+                previousRange = new Range(start, end, null);
+                ranges.add(previousRange);
+            }
+        }
+        assert invariant();
     }
 
     public long getLength() {
         return length;
     }
 
+    /**
+     * @return the ranges of the file that are present (i.e. not pending), in order
+     */
+    public List<Tuple<Long, Long>> getCompletedRanges() {
+        synchronized (mutex) {
+            return ranges.stream()
+                .filter(range -> range.isPending() == false)
+                .map(range -> Tuple.tuple(range.start, range.end))
+                .collect(Collectors.toList());
+        }
+    }
+
     /**
      * @return the sum of the length of the ranges
      */
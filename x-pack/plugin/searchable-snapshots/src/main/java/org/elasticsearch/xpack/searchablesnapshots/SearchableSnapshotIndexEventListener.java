@@ -6,7 +6,9 @@
 package org.elasticsearch.xpack.searchablesnapshots;
 
 import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
 import org.elasticsearch.cluster.routing.RecoverySource;
+import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexEventListener;
@@ -15,6 +17,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.SearchableSnapshotDirectory;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogException;
+import org.elasticsearch.indices.cluster.IndicesClusterStateService.AllocatedIndices.IndexRemovalReason;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.nio.file.Path;
@@ -30,6 +33,28 @@ public class SearchableSnapshotIndexEventListener implements IndexEventListener
         associateNewEmptyTranslogWithIndex(indexShard);
     }
 
+    @Override
+    public void beforeIndexRemoved(IndexService indexService, IndexRemovalReason reason) {
+        // The cached files of shards that are deleted or relocated are evicted without being synced, but the cached files of shards
+        // whose copy stays on this node are persisted so that they can be reused once the shards are opened again. Cached files are
+        // persisted by the cache service itself when the node is stopped.
+        switch (reason) {
+            case CLOSED:
+            case REOPENED:
+            case FAILURE:
+                for (IndexShard indexShard : indexService) {
+                    final Directory storeDirectory = indexShard.store().directory();
+                    final SearchableSnapshotDirectory directory = SearchableSnapshotDirectory.unwrapDirectory(storeDirectory);
+                    if (directory != null) {
+                        directory.persistCacheOnClose();
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
     private static void ensureSnapshotIsLoaded(IndexShard indexShard) {
         final SearchableSnapshotDirectory directory = SearchableSnapshotDirectory.unwrapDirectory(indexShard.store().directory());
         assert directory != null;
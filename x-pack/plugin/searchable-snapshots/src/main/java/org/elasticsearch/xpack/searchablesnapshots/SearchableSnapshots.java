@@ -57,6 +57,7 @@ import org.elasticsearch.xpack.searchablesnapshots.action.TransportMountSearchab
 import org.elasticsearch.xpack.searchablesnapshots.action.TransportRepositoryStatsAction;
 import org.elasticsearch.xpack.searchablesnapshots.action.TransportSearchableSnapshotsStatsAction;
 import org.elasticsearch.xpack.searchablesnapshots.cache.CacheService;
+import org.elasticsearch.xpack.searchablesnapshots.cache.FrozenCacheService;
 import org.elasticsearch.xpack.searchablesnapshots.cache.NodeEnvironmentCacheCleaner;
 import org.elasticsearch.xpack.searchablesnapshots.rest.RestClearSearchableSnapshotsCacheAction;
 import org.elasticsearch.xpack.searchablesnapshots.rest.RestMountSearchableSnapshotAction;
@@ -113,6 +114,13 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
         Setting.Property.IndexScope,
         Setting.Property.NotCopyableOnResize
     );
+    // Partial indices read their files by region from the shared cache of the node, see FrozenCacheService
+    public static final Setting<Boolean> SNAPSHOT_PARTIAL_SETTING = Setting.boolSetting(
+        "index.store.snapshot.partial",
+        false,
+        Setting.Property.IndexScope,
+        Setting.Property.NotCopyableOnResize
+    );
     public static final Setting<Boolean> SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING = Setting.boolSetting(
         "index.store.snapshot.cache.prewarm.enabled",
         true,
@@ -138,6 +146,7 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
 
     private volatile Supplier<RepositoriesService> repositoriesServiceSupplier;
     private final SetOnce<CacheService> cacheService = new SetOnce<>();
+    private final SetOnce<FrozenCacheService> frozenCacheService = new SetOnce<>();
     private final SetOnce<ThreadPool> threadPool = new SetOnce<>();
     private final Settings settings;
 
@@ -160,11 +169,16 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
                 SNAPSHOT_SNAPSHOT_ID_SETTING,
                 SNAPSHOT_INDEX_ID_SETTING,
                 SNAPSHOT_CACHE_ENABLED_SETTING,
+                SNAPSHOT_PARTIAL_SETTING,
                 SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING,
                 SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING,
                 SNAPSHOT_UNCACHED_CHUNK_SIZE_SETTING,
                 CacheService.SNAPSHOT_CACHE_SIZE_SETTING,
-                CacheService.SNAPSHOT_CACHE_RANGE_SIZE_SETTING
+                CacheService.SNAPSHOT_CACHE_RANGE_SIZE_SETTING,
+                CacheService.SNAPSHOT_CACHE_READ_AHEAD_RANGES_SETTING,
+                FrozenCacheService.SNAPSHOT_CACHE_SIZE_SETTING,
+                FrozenCacheService.SNAPSHOT_CACHE_REGION_SIZE_SETTING,
+                FrozenCacheService.SNAPSHOT_CACHE_MAX_FREQUENCY_SETTING
             );
         } else {
             return List.of();
@@ -188,9 +202,11 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
         if (SEARCHABLE_SNAPSHOTS_FEATURE_ENABLED) {
             final CacheService cacheService = new CacheService(new NodeEnvironmentCacheCleaner(nodeEnvironment), settings);
             this.cacheService.set(cacheService);
+            final FrozenCacheService frozenCacheService = new FrozenCacheService(nodeEnvironment.nodeDataPaths()[0], settings);
+            this.frozenCacheService.set(frozenCacheService);
             this.repositoriesServiceSupplier = repositoriesServiceSupplier;
             this.threadPool.set(threadPool);
-            return List.of(cacheService);
+            return List.of(cacheService, frozenCacheService);
         } else {
             this.repositoriesServiceSupplier = () -> {
                 assert false : "searchable snapshots are disabled";
@@ -215,9 +231,19 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
                 assert repositories != null;
                 final CacheService cache = cacheService.get();
                 assert cache != null;
+                final FrozenCacheService frozenCache = frozenCacheService.get();
+                assert frozenCache != null;
                 final ThreadPool threadPool = this.threadPool.get();
                 assert threadPool != null;
-                return SearchableSnapshotDirectory.create(repositories, cache, indexSettings, shardPath, System::nanoTime, threadPool);
+                return SearchableSnapshotDirectory.create(
+                    repositories,
+                    cache,
+                    frozenCache,
+                    indexSettings,
+                    shardPath,
+                    System::nanoTime,
+                    threadPool
+                );
             });
         } else {
             return Map.of();
@@ -0,0 +1,148 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.searchablesnapshots.cache;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.elasticsearch.common.collect.Tuple;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reads and writes the metadata of the cache files of a cache directory, so that the ranges of the cache files that were fully written to
+ * disk can be reused after the cache files have been released, typically after a node restart. The metadata are written in a single file
+ * per cache directory, which is written atomically and checksummed: if the metadata file is missing or corrupted, the cache files of the
+ * directory must be discarded.
+ */
+public final class CacheFilesMetadata {
+
+    public static final String METADATA_FILE_NAME = "cache.metadata";
+
+    private static final String TEMP_METADATA_FILE_NAME = METADATA_FILE_NAME + ".tmp";
+    private static final String CODEC_NAME = "snapshot_cache_metadata";
+    private static final int VERSION_START = 0;
+    private static final int VERSION_CURRENT = VERSION_START;
+
+    private CacheFilesMetadata() {}
+
+    /**
+     * The metadata of a single cache file.
+     */
+    static final class Entry {
+
+        private final String fileName;
+        private final String cacheFileName;
+        private final long length;
+        private final List<Tuple<Long, Long>> completedRanges;
+
+        Entry(String fileName, String cacheFileName, long length, List<Tuple<Long, Long>> completedRanges) {
+            this.fileName = Objects.requireNonNull(fileName);
+            this.cacheFileName = Objects.requireNonNull(cacheFileName);
+            this.length = length;
+            this.completedRanges = Collections.unmodifiableList(Objects.requireNonNull(completedRanges));
+        }
+
+        /**
+         * @return the name of the Lucene file that is cached
+         */
+        String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * @return the name of the cache file on disk, relative to the cache directory
+         */
+        String getCacheFileName() {
+            return cacheFileName;
+        }
+
+        long getLength() {
+            return length;
+        }
+
+        List<Tuple<Long, Long>> getCompletedRanges() {
+            return completedRanges;
+        }
+    }
+
+    static boolean exists(Path cacheDir) {
+        return Files.exists(cacheDir.resolve(METADATA_FILE_NAME));
+    }
+
+    /**
+     * Atomically writes the metadata of the given cache files in the cache directory, replacing any existing metadata. The cache files
+     * must have been synced to disk before.
+     */
+    static void write(Path cacheDir, List<Entry> entries) throws IOException {
+        Files.deleteIfExists(cacheDir.resolve(TEMP_METADATA_FILE_NAME));
+        try (Directory directory = new NIOFSDirectory(cacheDir)) {
+            try (IndexOutput output = directory.createOutput(TEMP_METADATA_FILE_NAME, IOContext.DEFAULT)) {
+                CodecUtil.writeHeader(output, CODEC_NAME, VERSION_CURRENT);
+                output.writeVInt(entries.size());
+                for (Entry entry : entries) {
+                    output.writeString(entry.fileName);
+                    output.writeString(entry.cacheFileName);
+                    output.writeVLong(entry.length);
+                    output.writeVInt(entry.completedRanges.size());
+                    for (Tuple<Long, Long> range : entry.completedRanges) {
+                        output.writeVLong(range.v1());
+                        output.writeVLong(range.v2());
+                    }
+                }
+                CodecUtil.writeFooter(output);
+            }
+            directory.sync(Collections.singleton(TEMP_METADATA_FILE_NAME));
+            directory.rename(TEMP_METADATA_FILE_NAME, METADATA_FILE_NAME);
+            directory.syncMetaData();
+        }
+    }
+
+    /**
+     * Reads the metadata of the cache files of the cache directory.
+     *
+     * @throws IOException if the metadata file does not exist or is corrupted
+     */
+    static List<Entry> read(Path cacheDir) throws IOException {
+        try (
+            Directory directory = new NIOFSDirectory(cacheDir);
+            ChecksumIndexInput input = directory.openChecksumInput(METADATA_FILE_NAME, IOContext.READONCE)
+        ) {
+            CodecUtil.checkHeader(input, CODEC_NAME, VERSION_START, VERSION_CURRENT);
+            final int numberOfEntries = input.readVInt();
+            final List<Entry> entries = new ArrayList<>(numberOfEntries);
+            for (int i = 0; i < numberOfEntries; i++) {
+                final String fileName = input.readString();
+                final String cacheFileName = input.readString();
+                final long length = input.readVLong();
+                final int numberOfRanges = input.readVInt();
+                final List<Tuple<Long, Long>> completedRanges = new ArrayList<>(numberOfRanges);
+                for (int j = 0; j < numberOfRanges; j++) {
+                    completedRanges.add(Tuple.tuple(input.readVLong(), input.readVLong()));
+                }
+                entries.add(new Entry(fileName, cacheFileName, length, completedRanges));
+            }
+            CodecUtil.checkFooter(input);
+            return entries;
+        }
+    }
+
+    /**
+     * Deletes the metadata file of the cache directory, if any.
+     */
+    static void delete(Path cacheDir) throws IOException {
+        Files.deleteIfExists(cacheDir.resolve(METADATA_FILE_NAME));
+    }
+}
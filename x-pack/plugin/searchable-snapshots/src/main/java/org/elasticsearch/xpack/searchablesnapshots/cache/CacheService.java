@@ -5,9 +5,13 @@
  */
 package org.elasticsearch.xpack.searchablesnapshots.cache;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.component.Lifecycle;
 import org.elasticsearch.common.settings.Setting;
@@ -19,17 +23,32 @@ import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.store.cache.CacheFile;
 import org.elasticsearch.index.store.cache.CacheKey;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 /**
  * {@link CacheService} maintains a cache entry for all files read from searchable snapshot directories (
  * see {@link org.elasticsearch.index.store.SearchableSnapshotDirectory})
+ *
+ * When the cache files of a directory are released, because the directory is closed or the node is stopped, the ranges of the cache files
+ * that were fully written are persisted in the cache directory along with the cache files, so that the cache files can be loaded back and
+ * reused when the directory is opened again, for instance after a node restart.
  */
 public class CacheService extends AbstractLifecycleComponent {
 
+    private static final Logger logger = LogManager.getLogger(CacheService.class);
+
     private static final String SETTINGS_PREFIX = "xpack.searchable.snapshot.cache.";
 
     public static final Setting<ByteSizeValue> SNAPSHOT_CACHE_SIZE_SETTING = Setting.byteSizeSetting(
@@ -48,20 +67,47 @@ public class CacheService extends AbstractLifecycleComponent {
         Setting.Property.NodeScope
     );
 
+    /**
+     * The number of ranges that are fetched ahead of sequential reads, or 0 to disable read-ahead.
+     */
+    public static final Setting<Integer> SNAPSHOT_CACHE_READ_AHEAD_RANGES_SETTING = Setting.intSetting(
+        SETTINGS_PREFIX + "read_ahead_ranges",
+        1,                                                      // default
+        0,                                                      // min
+        Setting.Property.NodeScope
+    );
+
     private final Cache<CacheKey, CacheFile> cache;
     private final ByteSizeValue cacheSize;
     private final Runnable cacheCleaner;
     private final ByteSizeValue rangeSize;
+    private final int readAheadRanges;
 
     public CacheService(final Runnable cacheCleaner, final Settings settings) {
-        this(cacheCleaner, SNAPSHOT_CACHE_SIZE_SETTING.get(settings), SNAPSHOT_CACHE_RANGE_SIZE_SETTING.get(settings));
+        this(
+            cacheCleaner,
+            SNAPSHOT_CACHE_SIZE_SETTING.get(settings),
+            SNAPSHOT_CACHE_RANGE_SIZE_SETTING.get(settings),
+            SNAPSHOT_CACHE_READ_AHEAD_RANGES_SETTING.get(settings)
+        );
     }
 
     // exposed for tests
     public CacheService(final Runnable cacheCleaner, final ByteSizeValue cacheSize, final ByteSizeValue rangeSize) {
+        this(cacheCleaner, cacheSize, rangeSize, SNAPSHOT_CACHE_READ_AHEAD_RANGES_SETTING.getDefault(Settings.EMPTY));
+    }
+
+    // exposed for tests
+    public CacheService(
+        final Runnable cacheCleaner,
+        final ByteSizeValue cacheSize,
+        final ByteSizeValue rangeSize,
+        final int readAheadRanges
+    ) {
         this.cacheSize = Objects.requireNonNull(cacheSize);
         this.cacheCleaner = Objects.requireNonNull(cacheCleaner);
         this.rangeSize = Objects.requireNonNull(rangeSize);
+        this.readAheadRanges = readAheadRanges;
         this.cache = CacheBuilder.<CacheKey, CacheFile>builder()
             .setMaximumWeight(cacheSize.getBytes())
             .weigher((key, entry) -> entry.getLength())
@@ -82,6 +128,15 @@ public class CacheService extends AbstractLifecycleComponent {
 
     @Override
     protected void doStop() {
+        // the cache service is stopped before the indices service, so this persists the cached files of all the shards still opened
+        final Map<Path, Map<CacheKey, CacheFile>> cacheFilesByDirectory = new HashMap<>();
+        for (CacheKey cacheKey : cache.keys()) {
+            final CacheFile cacheFile = cache.get(cacheKey);
+            if (cacheFile != null) {
+                cacheFilesByDirectory.computeIfAbsent(cacheFile.getFile().getParent(), dir -> new HashMap<>()).put(cacheKey, cacheFile);
+            }
+        }
+        cacheFilesByDirectory.forEach(this::persistCacheFiles);
         cache.invalidateAll();
     }
 
@@ -110,6 +165,13 @@ public class CacheService extends AbstractLifecycleComponent {
         return Math.toIntExact(rangeSize.getBytes());
     }
 
+    /**
+     * @return the number of ranges to fetch ahead of sequential reads
+     */
+    public int getReadAheadRanges() {
+        return readAheadRanges;
+    }
+
     public CacheFile get(final CacheKey cacheKey, final long fileLength, final Path cacheDir) throws Exception {
         ensureLifecycleStarted();
         return cache.computeIfAbsent(cacheKey, key -> {
@@ -124,6 +186,106 @@ public class CacheService extends AbstractLifecycleComponent {
         });
     }
 
+    /**
+     * Persists the cache files of the given cache directory whose keys match the given predicate and removes them from the cache without
+     * deleting them from disk, so that they can be reused by {@link #loadCacheFiles(Path, Function)} later.
+     *
+     * @param cacheDir  the cache directory
+     * @param predicate the predicate to evaluate
+     */
+    public void persistAndRemoveFromCache(final Path cacheDir, final Predicate<CacheKey> predicate) {
+        final Map<CacheKey, CacheFile> cacheFiles = new HashMap<>();
+        for (CacheKey cacheKey : cache.keys()) {
+            if (predicate.test(cacheKey)) {
+                final CacheFile cacheFile = cache.get(cacheKey);
+                if (cacheFile != null && cacheDir.equals(cacheFile.getFile().getParent())) {
+                    cacheFiles.put(cacheKey, cacheFile);
+                }
+            }
+        }
+        if (cacheFiles.isEmpty() == false) {
+            persistCacheFiles(cacheDir, cacheFiles);
+        }
+        removeFromCache(predicate);
+    }
+
+    private void persistCacheFiles(final Path cacheDir, final Map<CacheKey, CacheFile> cacheFiles) {
+        try {
+            final List<CacheFilesMetadata.Entry> entries = new ArrayList<>();
+            final List<CacheFile> persistedCacheFiles = new ArrayList<>();
+            for (Map.Entry<CacheKey, CacheFile> cacheFile : cacheFiles.entrySet()) {
+                final Path file = cacheFile.getValue().getFile();
+                final List<Tuple<Long, Long>> completedRanges = cacheFile.getValue().getCompletedRanges();
+                if (completedRanges.isEmpty() || Files.exists(file) == false) {
+                    continue;
+                }
+                // the completed ranges must be durably written before they are referenced by the metadata
+                IOUtils.fsync(file, false);
+                entries.add(
+                    new CacheFilesMetadata.Entry(
+                        cacheFile.getKey().getFileName(),
+                        file.getFileName().toString(),
+                        cacheFile.getValue().getLength(),
+                        completedRanges
+                    )
+                );
+                persistedCacheFiles.add(cacheFile.getValue());
+            }
+            CacheFilesMetadata.write(cacheDir, entries);
+            persistedCacheFiles.forEach(CacheFile::markAsPersisted);
+            logger.debug("persisted [{}] cache files in [{}]", entries.size(), cacheDir);
+        } catch (Exception e) {
+            logger.warn(() -> new ParameterizedMessage("failed to persist cache files in [{}], cache files will be deleted", cacheDir), e);
+            try {
+                CacheFilesMetadata.delete(cacheDir);
+            } catch (IOException inner) {
+                e.addSuppressed(inner);
+            }
+        }
+    }
+
+    /**
+     * Loads the cache files that were persisted in the given cache directory, if any, so that the ranges they contain are served from
+     * disk without being fetched again. The cache files that cannot be reused are deleted.
+     *
+     * @param cacheDir           the cache directory
+     * @param cacheKeyFunction   a function that returns the cache key of a file
+     */
+    public void loadCacheFiles(final Path cacheDir, final Function<String, CacheKey> cacheKeyFunction) throws IOException {
+        ensureLifecycleStarted();
+        final Set<Path> usedCacheFiles = new HashSet<>();
+        for (CacheFile cacheFile : cache.values()) {
+            usedCacheFiles.add(cacheFile.getFile());
+        }
+        if (CacheFilesMetadata.exists(cacheDir)) {
+            try {
+                for (CacheFilesMetadata.Entry entry : CacheFilesMetadata.read(cacheDir)) {
+                    final Path file = cacheDir.resolve(entry.getCacheFileName());
+                    if (usedCacheFiles.contains(file) || Files.isRegularFile(file) == false || Files.size(file) > entry.getLength()) {
+                        continue;
+                    }
+                    final CacheFile cacheFile = cache.computeIfAbsent(
+                        cacheKeyFunction.apply(entry.getFileName()),
+                        key -> new CacheFile(key.toString(), entry.getLength(), file, entry.getCompletedRanges())
+                    );
+                    usedCacheFiles.add(cacheFile.getFile());
+                }
+            } catch (Exception e) {
+                logger.warn(() -> new ParameterizedMessage("failed to load persisted cache files from [{}]", cacheDir), e);
+            } finally {
+                // the metadata describe the cache files as they were persisted and must not be reused once the cache files are modified
+                CacheFilesMetadata.delete(cacheDir);
+            }
+        }
+        try (DirectoryStream<Path> cacheFiles = Files.newDirectoryStream(cacheDir)) {
+            for (Path cacheFile : cacheFiles) {
+                if (usedCacheFiles.contains(cacheFile) == false) {
+                    IOUtils.rm(cacheFile);
+                }
+            }
+        }
+    }
+
     /**
      * Invalidate cache entries with keys matching the given predicate
      *
@@ -0,0 +1,531 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.searchablesnapshots.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.store.cache.CacheKey;
+import org.elasticsearch.index.store.cache.SparseFileTracker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * {@link FrozenCacheService} maintains a node-wide cache of fixed size for the files of searchable snapshot directories that are mounted
+ * as partial indices (see {@link org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots#SNAPSHOT_PARTIAL_SETTING}).
+ *
+ * The cached bytes are stored in a single {@link SharedBytes} file that is split in regions of the same size, and every file is cached by
+ * region: each region of a file is mapped to a free region of the shared file the first time it is read. When there is no free region
+ * left, the least frequently used region that is not being read or written is evicted. Regions are kept in one list per frequency, from
+ * the least to the most recently used, so that the region to evict is usually found at the head of the lowest non-empty list. Region
+ * frequencies are capped and halved every time the number of accesses reaches ten times the number of regions, so that regions that
+ * were popular in the past do not stay in cache forever. Halving the frequencies merges the lists two by two and the frequency of each
+ * region is only updated the next time it is accessed, so that neither accesses nor decays need to visit every region.
+ *
+ * Because the cache size does not depend on the size of the mounted files, a node can mount much more data than its local disk can hold.
+ */
+public class FrozenCacheService extends AbstractLifecycleComponent {
+
+    private static final Logger logger = LogManager.getLogger(FrozenCacheService.class);
+
+    private static final String SETTINGS_PREFIX = "xpack.searchable.snapshot.shared_cache.";
+
+    /**
+     * The name of the shared cache file, which is created in the first data path of the node.
+     */
+    public static final String SHARED_CACHE_FILE_NAME = "shared_snapshot_cache";
+
+    public static final Setting<ByteSizeValue> SNAPSHOT_CACHE_SIZE_SETTING = Setting.byteSizeSetting(
+        SETTINGS_PREFIX + "size",
+        new ByteSizeValue(0, ByteSizeUnit.BYTES),               // default, disabled
+        new ByteSizeValue(0, ByteSizeUnit.BYTES),               // min
+        new ByteSizeValue(Long.MAX_VALUE, ByteSizeUnit.BYTES),  // max
+        Setting.Property.NodeScope
+    );
+
+    public static final Setting<ByteSizeValue> SNAPSHOT_CACHE_REGION_SIZE_SETTING = Setting.byteSizeSetting(
+        SETTINGS_PREFIX + "region_size",
+        new ByteSizeValue(16, ByteSizeUnit.MB),                 // default
+        new ByteSizeValue(4, ByteSizeUnit.KB),                  // min
+        new ByteSizeValue(Integer.MAX_VALUE, ByteSizeUnit.BYTES), // max
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * The maximum frequency of a region, which bounds the number of decays needed before a region that is not used anymore can be evicted.
+     * The cache keeps a list of regions per frequency, hence the upper bound.
+     */
+    public static final Setting<Integer> SNAPSHOT_CACHE_MAX_FREQUENCY_SETTING = Setting.intSetting(
+        SETTINGS_PREFIX + "max_frequency",
+        100,                                                    // default
+        1,                                                      // min
+        1000,                                                   // max
+        Setting.Property.NodeScope
+    );
+
+    private final long regionSize;
+    private final int maxFrequency;
+    @Nullable // if the shared cache is disabled
+    private final SharedBytes sharedBytes;
+    private final ConcurrentMap<RegionKey, CacheFileRegion> keyMapping;
+    private final Queue<Integer> freeRegions;
+    private final AtomicLong epoch;
+    // regions that are mapped to a file region, indexed by frequency, guarded by this
+    private final FrequencyList[] frequencyLists;
+    // number of times the frequencies have been halved, guarded by this
+    private long decays;
+
+    public FrozenCacheService(final Path sharedCacheDir, final Settings settings) {
+        this(
+            sharedCacheDir,
+            SNAPSHOT_CACHE_SIZE_SETTING.get(settings),
+            SNAPSHOT_CACHE_REGION_SIZE_SETTING.get(settings),
+            SNAPSHOT_CACHE_MAX_FREQUENCY_SETTING.get(settings)
+        );
+    }
+
+    // exposed for tests
+    public FrozenCacheService(
+        final Path sharedCacheDir,
+        final ByteSizeValue cacheSize,
+        final ByteSizeValue regionSize,
+        final int maxFrequency
+    ) {
+        this.regionSize = regionSize.getBytes();
+        this.maxFrequency = maxFrequency;
+        this.keyMapping = ConcurrentCollections.newConcurrentMap();
+        this.freeRegions = new ConcurrentLinkedQueue<>();
+        this.epoch = new AtomicLong();
+        this.frequencyLists = new FrequencyList[maxFrequency + 1];
+        for (int frequency = 0; frequency <= maxFrequency; frequency++) {
+            frequencyLists[frequency] = new FrequencyList();
+        }
+        final long numRegions = cacheSize.getBytes() / this.regionSize;
+        if (numRegions > 0L) {
+            try {
+                this.sharedBytes = new SharedBytes(
+                    Math.toIntExact(numRegions),
+                    this.regionSize,
+                    sharedCacheDir.resolve(SHARED_CACHE_FILE_NAME)
+                );
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to create shared cache file in [" + sharedCacheDir + "]", e);
+            }
+            for (int region = 0; region < numRegions; region++) {
+                freeRegions.add(region);
+            }
+        } else {
+            this.sharedBytes = null;
+        }
+    }
+
+    @Override
+    protected void doStart() {}
+
+    @Override
+    protected void doStop() {}
+
+    @Override
+    protected void doClose() {
+        if (sharedBytes != null) {
+            removeFromCache(cacheKey -> true);
+            // the shared cache file is deleted once the regions that are still being read or written are released
+            sharedBytes.decRef();
+        }
+    }
+
+    /**
+     * @return true if the shared cache has at least one region
+     */
+    public boolean isEnabled() {
+        return sharedBytes != null;
+    }
+
+    /**
+     * @return the size of the regions (in bytes)
+     */
+    public long getRegionSize() {
+        return regionSize;
+    }
+
+    /**
+     * @return the number of regions that are not mapped to any file region
+     */
+    public int getFreeRegionCount() {
+        return freeRegions.size();
+    }
+
+    /**
+     * @return the region of a file that contains the given position
+     */
+    public int getRegion(final long position) {
+        return Math.toIntExact(position / regionSize);
+    }
+
+    /**
+     * @return the position of the first byte of the given region of a file
+     */
+    public long getRegionStart(final int region) {
+        return region * regionSize;
+    }
+
+    /**
+     * @return the length of the given region of a file of the given length, which is shorter than the region size for the last region
+     */
+    public long getRegionLength(final long fileLength, final int region) {
+        final long regionStart = getRegionStart(region);
+        assert regionStart < fileLength : "region [" + region + "] starts after the end of the file [" + fileLength + ']';
+        return Math.min(regionSize, fileLength - regionStart);
+    }
+
+    /**
+     * Returns the cached region of a file, mapping it to a free region of the shared cache if needed. The returned region must be released
+     * with {@link CacheFileRegion#decRef()} once the caller is done with it.
+     *
+     * @return the cached region or {@code null} if all regions of the shared cache are in use and none can be evicted
+     */
+    @Nullable
+    public CacheFileRegion get(final CacheKey cacheKey, final long fileLength, final int region) {
+        assert isEnabled() : "shared cache is disabled";
+        ensureOpen();
+        final RegionKey regionKey = new RegionKey(cacheKey, region);
+        final long currentEpoch = epoch.incrementAndGet();
+        if (currentEpoch % (10L * sharedBytes.getNumRegions()) == 0L) {
+            decay();
+        }
+        while (true) {
+            CacheFileRegion entry = keyMapping.get(regionKey);
+            if (entry == null) {
+                synchronized (this) {
+                    entry = keyMapping.get(regionKey);
+                    if (entry == null) {
+                        final Integer sharedRegion = allocateRegion();
+                        if (sharedRegion == null) {
+                            return null;
+                        }
+                        entry = new CacheFileRegion(regionKey, sharedRegion, getRegionLength(fileLength, region));
+                        keyMapping.put(regionKey, entry);
+                        frequencyLists[0].add(entry);
+                    }
+                }
+            }
+            if (entry.tryIncRef()) {
+                touch(entry);
+                return entry;
+            }
+            // the region was evicted and removed from the mapping in the meantime, try again
+        }
+    }
+
+    private void ensureOpen() {
+        if (lifecycle.closed()) {
+            throw new IllegalStateException("Failed to read data from shared cache: shared cache service is closed");
+        }
+    }
+
+    /**
+     * Polls a free region of the shared cache, evicting the least frequently used region if there is none.
+     */
+    @Nullable
+    private Integer allocateRegion() {
+        assert Thread.holdsLock(this);
+        final Integer freeRegion = freeRegions.poll();
+        if (freeRegion != null) {
+            return freeRegion;
+        }
+        for (int frequency = 0; frequency <= maxFrequency; frequency++) {
+            for (CacheFileRegion entry = frequencyLists[frequency].head; entry != null; entry = entry.next) {
+                // regions that are being read or written hold more than the reference of the cache
+                if (entry.refCount() == 1) {
+                    logger.trace("evicting {} with frequency [{}]", entry, frequency);
+                    evict(entry);
+                    // the evicted region is only freed if it was not acquired concurrently
+                    return freeRegions.poll();
+                }
+            }
+        }
+        return null;
+    }
+
+    private void evict(final CacheFileRegion entry) {
+        assert Thread.holdsLock(this);
+        if (keyMapping.remove(entry.regionKey, entry)) {
+            frequencyLists[entry.frequency()].remove(entry);
+            entry.decRef();
+        }
+    }
+
+    /**
+     * Increments the frequency of the given region, up to the maximum frequency, and moves it to the tail of the list of its new frequency.
+     */
+    private synchronized void touch(final CacheFileRegion entry) {
+        if (entry.linked == false) {
+            return; // evicted concurrently
+        }
+        final int frequency = entry.frequency();
+        frequencyLists[frequency].remove(entry);
+        entry.frequency = Math.min(frequency + 1, maxFrequency);
+        entry.decaysAtLastAccess = decays;
+        frequencyLists[entry.frequency].add(entry);
+    }
+
+    /**
+     * Halves the frequency of every region, so that the frequencies reflect the recent accesses. The regions of frequency {@code f} are
+     * moved to the list of frequency {@code f / 2}, after the regions that are already there.
+     */
+    private synchronized void decay() {
+        for (int frequency = 1; frequency <= maxFrequency; frequency++) {
+            frequencyLists[frequency >>> 1].addAll(frequencyLists[frequency]);
+        }
+        decays += 1L;
+    }
+
+    /**
+     * Evicts the cached regions of the files whose keys match the given predicate. The regions that are being read or written are freed
+     * once the reads and writes are completed.
+     *
+     * @param predicate the predicate to evaluate
+     */
+    public void removeFromCache(final Predicate<CacheKey> predicate) {
+        if (isEnabled() == false) {
+            return;
+        }
+        synchronized (this) {
+            for (CacheFileRegion entry : keyMapping.values()) {
+                if (predicate.test(entry.regionKey.cacheKey)) {
+                    evict(entry);
+                }
+            }
+        }
+    }
+
+    private static class RegionKey {
+
+        private final CacheKey cacheKey;
+        private final int region;
+
+        private RegionKey(CacheKey cacheKey, int region) {
+            this.cacheKey = Objects.requireNonNull(cacheKey);
+            this.region = region;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final RegionKey regionKey = (RegionKey) o;
+            return region == regionKey.region && cacheKey.equals(regionKey.cacheKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * cacheKey.hashCode() + region;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + cacheKey + ", region=" + region + ']';
+        }
+    }
+
+    /**
+     * A doubly linked list of the regions of the same frequency, from the least to the most recently used.
+     */
+    private static class FrequencyList {
+
+        private CacheFileRegion head;
+        private CacheFileRegion tail;
+
+        private void add(final CacheFileRegion entry) {
+            assert entry.linked == false : entry + " is already linked";
+            entry.prev = tail;
+            entry.next = null;
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+            entry.linked = true;
+        }
+
+        private void remove(final CacheFileRegion entry) {
+            assert entry.linked : entry + " is not linked";
+            if (entry.prev == null) {
+                head = entry.next;
+            } else {
+                entry.prev.next = entry.next;
+            }
+            if (entry.next == null) {
+                tail = entry.prev;
+            } else {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.linked = false;
+        }
+
+        /**
+         * Moves all the regions of the given list at the end of this list.
+         */
+        private void addAll(final FrequencyList other) {
+            if (other.head == null) {
+                return;
+            }
+            if (tail == null) {
+                head = other.head;
+            } else {
+                tail.next = other.head;
+                other.head.prev = tail;
+            }
+            tail = other.tail;
+            other.head = null;
+            other.tail = null;
+        }
+    }
+
+    /**
+     * A region of a file that is mapped to a region of the shared cache. The cache holds a reference to it until it is evicted, and the
+     * region of the shared cache is freed once every reader and writer released its reference.
+     */
+    public class CacheFileRegion extends AbstractRefCounted {
+
+        private final RegionKey regionKey;
+        private final int sharedRegion;
+        private final SparseFileTracker tracker;
+
+        // all guarded by FrozenCacheService.this
+        private int frequency;
+        private long decaysAtLastAccess;
+        private boolean linked;
+        private CacheFileRegion prev;
+        private CacheFileRegion next;
+
+        private CacheFileRegion(RegionKey regionKey, int sharedRegion, long length) {
+            super("cache-file-region");
+            this.regionKey = regionKey;
+            this.sharedRegion = sharedRegion;
+            this.tracker = new SparseFileTracker(regionKey.toString(), length);
+            this.decaysAtLastAccess = decays;
+            sharedBytes.incRef();
+        }
+
+        /**
+         * @return the frequency of this region, taking into account the decays since it was last accessed
+         */
+        private int frequency() {
+            assert Thread.holdsLock(FrozenCacheService.this);
+            final long shift = decays - decaysAtLastAccess;
+            return shift < Integer.SIZE ? frequency >>> shift : 0;
+        }
+
+        public long getLength() {
+            return tracker.getLength();
+        }
+
+        /**
+         * Ensures that the given range of this region is available in the shared cache, filling the missing bytes with the given writer
+         * on the given executor, then reads the bytes with the given reader. Ranges are relative to the start of the region.
+         *
+         * @param rangeToWrite the range to make available in cache
+         * @param rangeToRead  the range to read, which must be within {@code rangeToWrite}
+         * @param reader       the reader of the bytes once they are available
+         * @param writer       the writer of the bytes that are missing
+         * @param executor     the executor to fill the missing bytes on
+         * @return the number of bytes read
+         */
+        public int populateAndRead(
+            final Tuple<Long, Long> rangeToWrite,
+            final Tuple<Long, Long> rangeToRead,
+            final RangeAvailableHandler reader,
+            final RangeMissingHandler writer,
+            final Executor executor
+        ) throws Exception {
+            assert refCount() > 1 : "region must be acquired before being read";
+            final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+            final List<SparseFileTracker.Gap> gaps = tracker.waitForRange(rangeToWrite, rangeToRead, future);
+            if (gaps.isEmpty() == false) {
+                // the writes hold their own reference as the reader may give up on the first failed gap while others are being written
+                incRef();
+                executor.execute(new AbstractRunnable() {
+
+                    @Override
+                    protected void doRun() {
+                        for (SparseFileTracker.Gap gap : gaps) {
+                            try {
+                                writer.fillCacheRange(sharedBytes, sharedRegion, gap.start(), gap.end(), gap::onProgress);
+                                gap.onCompletion();
+                            } catch (Exception e) {
+                                gap.onFailure(e);
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        gaps.forEach(gap -> gap.onFailure(e));
+                    }
+
+                    @Override
+                    public void onAfter() {
+                        decRef();
+                    }
+                });
+            }
+            future.get();
+            return reader.onRangeAvailable(sharedBytes, sharedRegion);
+        }
+
+        @Override
+        protected void closeInternal() {
+            logger.trace("freeing shared region [{}] of {}", sharedRegion, regionKey);
+            freeRegions.add(sharedRegion);
+            sharedBytes.decRef();
+        }
+
+        @Override
+        public String toString() {
+            return "CacheFileRegion{key=" + regionKey + ", sharedRegion=" + sharedRegion + ", length=" + getLength() + '}';
+        }
+    }
+
+    @FunctionalInterface
+    public interface RangeAvailableHandler {
+        int onRangeAvailable(SharedBytes sharedBytes, int sharedRegion) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface RangeMissingHandler {
+        void fillCacheRange(SharedBytes sharedBytes, int sharedRegion, long start, long end, Consumer<Long> progressUpdater)
+            throws IOException;
+    }
+}
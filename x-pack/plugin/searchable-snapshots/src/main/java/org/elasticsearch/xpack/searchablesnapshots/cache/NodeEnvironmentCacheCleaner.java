@@ -14,11 +14,14 @@ import org.elasticsearch.index.shard.ShardPath;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
- * Cleans any leftover searchable snapshot caches when a node is starting up.
+ * Cleans any leftover searchable snapshot caches when a node is starting up. The cache directories whose cache files were persisted when
+ * they were released are kept, so that their cache files can be reused once the shards are opened again (see
+ * {@link CacheService#loadCacheFiles}).
  */
 public class NodeEnvironmentCacheCleaner implements Runnable {
 
@@ -38,7 +41,13 @@ public class NodeEnvironmentCacheCleaner implements Runnable {
                         final ShardPath shardPath = new ShardPath(false, shardDataPath, shardDataPath, shardId);
                         final Path shardCachePath = CacheService.getShardCachePath(shardPath);
                         if (Files.isDirectory(shardCachePath)) {
-                            IOUtils.rm(shardCachePath);
+                            try (DirectoryStream<Path> cacheDirs = Files.newDirectoryStream(shardCachePath)) {
+                                for (Path cacheDir : cacheDirs) {
+                                    if (Files.isDirectory(cacheDir) == false || CacheFilesMetadata.exists(cacheDir) == false) {
+                                        IOUtils.rm(cacheDir);
+                                    }
+                                }
+                            }
                         }
                     }
                 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.searchablesnapshots.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.common.SuppressForbidden;
+import org.elasticsearch.common.io.Channels;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A single file on disk that is split in a fixed number of regions of the same size. The file is created with its final size when the
+ * node starts and is deleted once it is closed and no more reads or writes are in flight.
+ */
+public class SharedBytes extends AbstractRefCounted {
+
+    private static final Logger logger = LogManager.getLogger(SharedBytes.class);
+
+    private final int numRegions;
+    private final long regionSize;
+    private final Path path;
+    private final FileChannel fileChannel;
+
+    SharedBytes(final int numRegions, final long regionSize, final Path path) throws IOException {
+        super("shared-bytes");
+        if (numRegions <= 0) {
+            throw new IllegalArgumentException("number of regions must be positive but was [" + numRegions + "]");
+        }
+        if (regionSize <= 0L) {
+            throw new IllegalArgumentException("region size must be positive but was [" + regionSize + "]");
+        }
+        this.numRegions = numRegions;
+        this.regionSize = regionSize;
+        this.path = path;
+        // a previous shared cache file cannot be reused since the regions it contains are not tracked across restarts
+        Files.deleteIfExists(path);
+        this.fileChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean success = false;
+        try {
+            final long fileSize = numRegions * regionSize;
+            positionalWrite(fileChannel, fileSize - 1L, ByteBuffer.allocate(1));
+            logger.debug("created shared cache file [{}] of [{}] regions of [{}] bytes", path, numRegions, regionSize);
+            success = true;
+        } finally {
+            if (success == false) {
+                fileChannel.close();
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    public int getNumRegions() {
+        return numRegions;
+    }
+
+    public long getRegionSize() {
+        return regionSize;
+    }
+
+    /**
+     * @return the position of the first byte of the given region within the shared file
+     */
+    public long getPhysicalOffset(final int region) {
+        assert region >= 0 && region < numRegions : "invalid region [" + region + "] for [" + numRegions + "] regions";
+        return region * regionSize;
+    }
+
+    /**
+     * Reads bytes of the given region into the buffer, starting at the given position relative to the start of the region.
+     *
+     * @return the number of bytes read
+     */
+    public int read(final int region, final long position, final ByteBuffer buffer) throws IOException {
+        assert assertWithinRegion(position, buffer.remaining());
+        return Channels.readFromFileChannel(fileChannel, getPhysicalOffset(region) + position, buffer);
+    }
+
+    /**
+     * Writes the bytes of the buffer in the given region, starting at the given position relative to the start of the region.
+     *
+     * @return the number of bytes written
+     */
+    public int write(final int region, final long position, final ByteBuffer buffer) throws IOException {
+        assert assertWithinRegion(position, buffer.remaining());
+        return positionalWrite(fileChannel, getPhysicalOffset(region) + position, buffer);
+    }
+
+    private boolean assertWithinRegion(final long position, final int length) {
+        assert position >= 0L && position + length <= regionSize : "range ["
+            + position
+            + "-"
+            + (position + length)
+            + "] exceeds region size ["
+            + regionSize
+            + ']';
+        return true;
+    }
+
+    @SuppressForbidden(reason = "Use positional writes on purpose")
+    private static int positionalWrite(final FileChannel fc, final long start, final ByteBuffer byteBuffer) throws IOException {
+        int written = 0;
+        while (byteBuffer.hasRemaining()) {
+            written += fc.write(byteBuffer, start + written);
+        }
+        return written;
+    }
+
+    @Override
+    protected void closeInternal() {
+        try {
+            fileChannel.close();
+        } catch (IOException e) {
+            logger.warn(() -> new ParameterizedMessage("failed to close shared cache file [{}]", path), e);
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn(() -> new ParameterizedMessage("failed to delete shared cache file [{}]", path), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SharedBytes{path=" + path + ", numRegions=" + numRegions + ", regionSize=" + regionSize + '}';
+    }
+}
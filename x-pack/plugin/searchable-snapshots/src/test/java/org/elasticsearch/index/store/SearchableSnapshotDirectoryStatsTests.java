@@ -26,6 +26,7 @@ import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots;
 import org.elasticsearch.xpack.searchablesnapshots.cache.CacheService;
+import org.elasticsearch.xpack.searchablesnapshots.cache.FrozenCacheService;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -44,6 +45,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
@@ -154,6 +156,57 @@ public class SearchableSnapshotDirectoryStatsTests extends ESIndexInputTestCase
         });
     }
 
+    public void testReadAheadBytes() {
+        // a cache service with a low range size but enough space to not evict the cache file
+        final ByteSizeValue rangeSize = new ByteSizeValue(randomIntBetween(512, 2048), ByteSizeUnit.BYTES);
+        final ByteSizeValue cacheSize = new ByteSizeValue(1, ByteSizeUnit.GB);
+        final int readAheadRanges = randomIntBetween(1, 3);
+
+        executeTestCase(
+            new CacheService(TestUtils::noOpCacheCleaner, cacheSize, rangeSize, readAheadRanges),
+            Settings.builder()
+                .put(SNAPSHOT_CACHE_ENABLED_SETTING.getKey(), true)
+                .put(SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING.getKey(), false) // disable prewarming as it impacts the stats
+                .build(),
+            (fileName, fileContent, directory) -> {
+                final IOContext ioContext = IOContext.DEFAULT;
+                try (IndexInput input = directory.openInput(fileName, ioContext)) {
+                    final long length = input.length();
+                    final IndexInputStats inputStats = directory.getStats(fileName);
+                    assertThat(inputStats, notNullValue());
+
+                    // read the input sequentially with reads that are larger than the internal buffer so that they are not buffered
+                    final int readSize = BufferedIndexInput.bufferSize(ioContext) + 1;
+                    final byte[] result = new byte[Math.toIntExact(length)];
+                    for (int bytesRead = 0; bytesRead < length;) {
+                        final int size = Math.min(readSize, Math.toIntExact(length - bytesRead));
+                        input.readBytes(result, bytesRead, size);
+                        bytesRead += size;
+                    }
+                    assertArrayEquals(fileContent, result);
+
+                    // ranges are never fetched twice, whether they are read ahead or not
+                    final long cachedBytesWriteCount = TestUtils.numberOfRanges(length, rangeSize.getBytes());
+                    assertBusy(() -> {
+                        assertThat(inputStats.getCachedBytesWritten().total(), equalTo(length));
+                        assertThat(inputStats.getCachedBytesWritten().count(), equalTo(cachedBytesWriteCount));
+                    });
+
+                    // after the second read the access is sequential and the next ranges are read ahead
+                    if (2L * readSize + rangeSize.getBytes() < length) {
+                        assertThat(inputStats.getReadAheadBytes().count(), greaterThan(0L));
+                        assertThat(inputStats.getReadAheadBytes().max(), lessThanOrEqualTo(rangeSize.getBytes()));
+                    }
+                    assertThat(inputStats.getReadAheadBytes().count(), lessThan(cachedBytesWriteCount));
+                    assertThat(inputStats.getReadAheadHits().total(), lessThanOrEqualTo(length));
+                    assertCounter(inputStats.getDirectBytesRead(), 0L, 0L, 0L, 0L);
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            }
+        );
+    }
+
     public void testCachedBytesReadsAndWritesNoCache() {
         final ByteSizeValue uncachedChunkSize = new ByteSizeValue(randomIntBetween(512, MAX_FILE_LENGTH), ByteSizeUnit.BYTES);
         executeTestCaseWithoutCache(uncachedChunkSize, (fileName, fileContent, directory) -> {
@@ -609,6 +662,7 @@ public class SearchableSnapshotDirectoryStatsTests extends ESIndexInputTestCase
                 indexSettings,
                 statsCurrentTimeNanos,
                 cacheService,
+                new FrozenCacheService(createTempDir(), Settings.EMPTY),
                 createTempDir(),
                 threadPool
             ) {
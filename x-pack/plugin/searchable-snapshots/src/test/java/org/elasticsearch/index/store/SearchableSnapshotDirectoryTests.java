@@ -79,7 +79,9 @@ import org.elasticsearch.test.IndexSettingsModule;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots;
+import org.elasticsearch.xpack.searchablesnapshots.cache.CacheFilesMetadata;
 import org.elasticsearch.xpack.searchablesnapshots.cache.CacheService;
+import org.elasticsearch.xpack.searchablesnapshots.cache.FrozenCacheService;
 import org.hamcrest.Matcher;
 
 import java.io.Closeable;
@@ -566,6 +568,7 @@ public class SearchableSnapshotDirectoryTests extends ESTestCase {
                             .build(),
                         () -> 0L,
                         cacheService,
+                        new FrozenCacheService(createTempDir(), Settings.EMPTY),
                         cacheDir,
                         threadPool
                     )
@@ -654,6 +657,7 @@ public class SearchableSnapshotDirectoryTests extends ESTestCase {
                         .build(),
                     () -> 0L,
                     cacheService,
+                    new FrozenCacheService(createTempDir(), Settings.EMPTY),
                     cacheDir,
                     threadPool
                 )
@@ -691,6 +695,75 @@ public class SearchableSnapshotDirectoryTests extends ESTestCase {
         }
     }
 
+    public void testPersistCacheOnClose() throws Exception {
+        try (CacheService cacheService = TestUtils.createDefaultCacheService()) {
+            cacheService.start();
+
+            final String fileName = "file_" + randomAlphaOfLength(10);
+            final byte[] fileContent = randomUnicodeOfLength(randomIntBetween(1, 100_000)).getBytes(StandardCharsets.UTF_8);
+            final String blobName = randomAlphaOfLength(15);
+            final Path shardSnapshotDir = createTempDir();
+            Files.write(shardSnapshotDir.resolve(blobName), fileContent, StandardOpenOption.CREATE_NEW);
+            final BlobStoreIndexShardSnapshot.FileInfo fileInfo = new BlobStoreIndexShardSnapshot.FileInfo(
+                blobName,
+                new StoreFileMetadata(fileName, fileContent.length, "_check", Version.CURRENT.luceneVersion),
+                new ByteSizeValue(fileContent.length)
+            );
+            final BlobStoreIndexShardSnapshot snapshot = new BlobStoreIndexShardSnapshot("_snapshot", 0L, List.of(fileInfo), 0L, 0L, 0, 0L);
+            final BlobContainer blobContainer = new FsBlobContainer(
+                new FsBlobStore(Settings.EMPTY, shardSnapshotDir, true),
+                BlobPath.cleanPath(),
+                shardSnapshotDir
+            );
+
+            final Path cacheDir = createTempDir();
+            final boolean persistCacheOnClose = randomBoolean();
+            final ThreadPool threadPool = new TestThreadPool(getTestName(), SearchableSnapshots.executorBuilders());
+            try {
+                try (
+                    SearchableSnapshotDirectory directory = new SearchableSnapshotDirectory(
+                        () -> blobContainer,
+                        () -> snapshot,
+                        new SnapshotId("_name", "_uuid"),
+                        new IndexId("_id", "_uuid"),
+                        new ShardId(new Index("_name", "_id"), 0),
+                        Settings.builder()
+                            .put(SNAPSHOT_CACHE_ENABLED_SETTING.getKey(), true)
+                            .put(SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING.getKey(), false)
+                            .build(),
+                        () -> 0L,
+                        cacheService,
+                        new FrozenCacheService(createTempDir(), Settings.EMPTY),
+                        cacheDir,
+                        threadPool
+                    )
+                ) {
+                    assertThat("Failed to load snapshot", directory.loadSnapshot(), is(true));
+                    try (IndexInput input = directory.openInput(fileName, newIOContext(random()))) {
+                        final byte[] buffer = new byte[fileContent.length];
+                        input.readBytes(buffer, 0, buffer.length);
+                        assertArrayEquals(fileContent, buffer);
+                    }
+                    assertListOfFiles(cacheDir, equalTo(1), equalTo((long) fileContent.length));
+                    if (persistCacheOnClose) {
+                        directory.persistCacheOnClose();
+                    }
+                }
+
+                final Path metadataFile = cacheDir.resolve(CacheFilesMetadata.METADATA_FILE_NAME);
+                if (persistCacheOnClose) {
+                    assertThat("cache files are persisted", Files.isRegularFile(metadataFile), is(true));
+                    assertListOfFiles(cacheDir, equalTo(2), greaterThan((long) fileContent.length));
+                } else {
+                    assertThat("cache files are evicted without being persisted", Files.exists(metadataFile), is(false));
+                    assertBusy(() -> assertListOfFiles(cacheDir, equalTo(0), equalTo(0L)));
+                }
+            } finally {
+                terminate(threadPool);
+            }
+        }
+    }
+
     public void testRequiresAdditionalSettings() {
         final List<Setting<String>> requiredSettings = List.of(
             SNAPSHOT_REPOSITORY_SETTING,
@@ -712,7 +785,7 @@ public class SearchableSnapshotDirectoryTests extends ESTestCase {
             final IndexSettings indexSettings = new IndexSettings(IndexMetadata.builder("test").settings(settings).build(), Settings.EMPTY);
             expectThrows(
                 IllegalArgumentException.class,
-                () -> SearchableSnapshotDirectory.create(null, null, indexSettings, null, null, null)
+                () -> SearchableSnapshotDirectory.create(null, null, null, indexSettings, null, null, null)
             );
         }
     }
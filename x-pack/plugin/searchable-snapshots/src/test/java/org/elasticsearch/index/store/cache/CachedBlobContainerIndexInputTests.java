@@ -22,6 +22,7 @@ import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots;
 import org.elasticsearch.xpack.searchablesnapshots.cache.CacheService;
+import org.elasticsearch.xpack.searchablesnapshots.cache.FrozenCacheService;
 
 import java.io.EOFException;
 import java.io.FilterInputStream;
@@ -97,6 +98,7 @@ public class CachedBlobContainerIndexInputTests extends ESIndexInputTestCase {
                             .build(),
                         () -> 0L,
                         cacheService,
+                        new FrozenCacheService(createTempDir(), Settings.EMPTY),
                         cacheDir,
                         threadPool
                     )
@@ -169,6 +171,7 @@ public class CachedBlobContainerIndexInputTests extends ESIndexInputTestCase {
                     Settings.EMPTY,
                     () -> 0L,
                     cacheService,
+                    new FrozenCacheService(createTempDir(), Settings.EMPTY),
                     cacheDir,
                     threadPool
                 )
@@ -0,0 +1,122 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.index.store.cache;
+
+import org.apache.lucene.store.IndexInput;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.lucene.store.ESIndexInputTestCase;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.store.SearchableSnapshotDirectory;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots;
+import org.elasticsearch.xpack.searchablesnapshots.cache.CacheService;
+import org.elasticsearch.xpack.searchablesnapshots.cache.FrozenCacheService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.index.store.cache.TestUtils.createCacheService;
+import static org.elasticsearch.index.store.cache.TestUtils.singleSplitBlobContainer;
+import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_ENABLED_SETTING;
+import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_PARTIAL_SETTING;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class FrozenIndexInputTests extends ESIndexInputTestCase {
+
+    public void testRandomReads() throws Exception {
+        final ThreadPool threadPool = new TestThreadPool(getTestName(), SearchableSnapshots.executorBuilders());
+        final long regionSize = ByteSizeUnit.KB.toBytes(randomLongBetween(4L, 16L));
+        final int numRegions = randomIntBetween(1, 20);
+        try (
+            CacheService cacheService = createCacheService(random());
+            FrozenCacheService frozenCacheService = new FrozenCacheService(
+                createTempDir(),
+                new ByteSizeValue(numRegions * regionSize, ByteSizeUnit.BYTES),
+                new ByteSizeValue(regionSize, ByteSizeUnit.BYTES),
+                FrozenCacheService.SNAPSHOT_CACHE_MAX_FREQUENCY_SETTING.getDefault(Settings.EMPTY)
+            )
+        ) {
+            cacheService.start();
+            frozenCacheService.start();
+
+            final SnapshotId snapshotId = new SnapshotId("_name", "_uuid");
+            final IndexId indexId = new IndexId("_name", "_uuid");
+            final ShardId shardId = new ShardId("_name", "_uuid", 0);
+
+            for (int i = 0; i < 5; i++) {
+                final String fileName = randomAlphaOfLength(10);
+                final byte[] input = randomUnicodeOfLength(randomIntBetween(1, 100_000)).getBytes(StandardCharsets.UTF_8);
+
+                final String blobName = randomUnicodeOfLength(10);
+                final StoreFileMetadata metadata = new StoreFileMetadata(fileName, input.length, "_na", Version.CURRENT.luceneVersion);
+                final int partSize = randomBoolean() ? input.length : randomIntBetween(1, input.length);
+
+                final BlobStoreIndexShardSnapshot snapshot = new BlobStoreIndexShardSnapshot(
+                    snapshotId.getName(),
+                    0L,
+                    List.of(new BlobStoreIndexShardSnapshot.FileInfo(blobName, metadata, new ByteSizeValue(partSize))),
+                    0L,
+                    0L,
+                    0,
+                    0L
+                );
+                final BlobContainer blobContainer = singleSplitBlobContainer(blobName, input, partSize);
+
+                try (
+                    SearchableSnapshotDirectory directory = new SearchableSnapshotDirectory(
+                        () -> blobContainer,
+                        () -> snapshot,
+                        snapshotId,
+                        indexId,
+                        shardId,
+                        Settings.builder()
+                            .put(SNAPSHOT_CACHE_ENABLED_SETTING.getKey(), true)
+                            .put(SNAPSHOT_PARTIAL_SETTING.getKey(), true)
+                            .build(),
+                        () -> 0L,
+                        cacheService,
+                        frozenCacheService,
+                        createTempDir(),
+                        threadPool
+                    )
+                ) {
+                    final boolean loaded = directory.loadSnapshot();
+                    assertThat("Failed to load snapshot", loaded, is(true));
+
+                    try (IndexInput indexInput = directory.openInput(fileName, newIOContext(random()))) {
+                        assertThat(indexInput, instanceOf(FrozenIndexInput.class));
+                        assertEquals(input.length, indexInput.length());
+                        assertEquals(0, indexInput.getFilePointer());
+                        final byte[] output = randomReadAndSlice(indexInput, input.length);
+                        assertArrayEquals(input, output);
+                    }
+                }
+                // the last write may release its region on the fetch thread pool after the read completed
+                assertBusy(
+                    () -> assertThat(
+                        "regions are freed when the directory is closed",
+                        frozenCacheService.getFreeRegionCount(),
+                        equalTo(numRegions)
+                    )
+                );
+            }
+        } finally {
+            ThreadPool.terminate(threadPool, 30, TimeUnit.SECONDS);
+        }
+    }
+}
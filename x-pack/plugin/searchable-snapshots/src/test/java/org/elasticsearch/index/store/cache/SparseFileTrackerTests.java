@@ -27,6 +27,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
 
 public class SparseFileTrackerTests extends ESTestCase {
 
@@ -123,6 +124,37 @@ public class SparseFileTrackerTests extends ESTestCase {
         }
     }
 
+    public void testCompletedRanges() {
+        final long length = randomLongBetween(10L, 1000L);
+        final long middle = randomLongBetween(1L, length - 1L);
+        final List<Tuple<Long, Long>> completedRanges = List.of(Tuple.tuple(0L, middle), Tuple.tuple(middle, length));
+
+        final SparseFileTracker sparseFileTracker = new SparseFileTracker("test", length, completedRanges);
+        assertThat("contiguous ranges are merged", sparseFileTracker.getCompletedRanges(), equalTo(List.of(Tuple.tuple(0L, length))));
+        assertThat(sparseFileTracker.getAbsentRangeWithin(0L, length), nullValue());
+
+        final AtomicBoolean invoked = new AtomicBoolean(false);
+        final List<SparseFileTracker.Gap> gaps = sparseFileTracker.waitForRange(
+            Tuple.tuple(0L, length),
+            Tuple.tuple(0L, length),
+            ActionListener.wrap(() -> invoked.set(true))
+        );
+        assertThat(gaps, empty());
+        assertThat(invoked.get(), is(true));
+
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> new SparseFileTracker("test", length, List.of(Tuple.tuple(0L, length + 1L)))
+        );
+        assertThat(e.getMessage(), containsString("Invalid range"));
+
+        e = expectThrows(
+            IllegalArgumentException.class,
+            () -> new SparseFileTracker("test", length, List.of(Tuple.tuple(middle, length), Tuple.tuple(0L, middle)))
+        );
+        assertThat("ranges must be in order", e.getMessage(), containsString("Invalid range"));
+    }
+
     public void testCallsListenerWhenWholeRangeIsAvailable() {
         final byte[] fileContents = new byte[between(0, 1000)];
         final SparseFileTracker sparseFileTracker = new SparseFileTracker("test", fileContents.length);
@@ -25,6 +25,7 @@ import org.elasticsearch.snapshots.SnapshotInfo;
 import org.elasticsearch.test.InternalTestCluster;
 import org.elasticsearch.xpack.core.searchablesnapshots.MountSearchableSnapshotAction;
 import org.elasticsearch.xpack.core.searchablesnapshots.MountSearchableSnapshotRequest;
+import org.elasticsearch.xpack.searchablesnapshots.cache.CacheFilesMetadata;
 import org.elasticsearch.xpack.searchablesnapshots.cache.CacheService;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -97,7 +98,7 @@ public class SearchableSnapshotsCacheClearingIntegTests extends BaseSearchableSn
             .build();
     }
 
-    public void testCacheDirectoriesRemovedOnStartup() throws Exception {
+    public void testCacheFilesReusedAfterRestart() throws Exception {
         final String fsRepoName = randomAlphaOfLength(10);
         final String indexName = randomAlphaOfLength(10).toLowerCase(Locale.ROOT);
         final String restoredIndexName = randomBoolean() ? indexName : randomAlphaOfLength(10).toLowerCase(Locale.ROOT);
@@ -152,8 +153,10 @@ public class SearchableSnapshotsCacheClearingIntegTests extends BaseSearchableSn
         final Path shardCachePath = CacheService.getShardCachePath(indexService.getShard(0).shardPath());
         assertTrue(Files.isDirectory(shardCachePath));
         final Set<Path> cacheFiles = new HashSet<>();
+        final Set<Path> snapshotCachePaths = new HashSet<>();
         try (DirectoryStream<Path> snapshotCacheStream = Files.newDirectoryStream(shardCachePath)) {
             for (final Path snapshotCachePath : snapshotCacheStream) {
+                snapshotCachePaths.add(snapshotCachePath);
                 assertTrue(snapshotCachePath + " should be a directory", Files.isDirectory(snapshotCachePath));
                 try (DirectoryStream<Path> cacheFileStream = Files.newDirectoryStream(snapshotCachePath)) {
                     for (final Path cacheFilePath : cacheFileStream) {
@@ -171,7 +174,13 @@ public class SearchableSnapshotsCacheClearingIntegTests extends BaseSearchableSn
             public Settings onNodeStopped(String nodeName) {
                 assertTrue(Files.isDirectory(shardCachePath));
                 for (Path cacheFile : cacheFiles) {
-                    assertTrue(cacheFile + " should not have been cleaned up yet", Files.isRegularFile(cacheFile));
+                    assertTrue(cacheFile + " should have been kept on disk", Files.isRegularFile(cacheFile));
+                }
+                for (Path snapshotCachePath : snapshotCachePaths) {
+                    assertTrue(
+                        "cache files metadata should have been persisted in " + snapshotCachePath,
+                        Files.isRegularFile(snapshotCachePath.resolve(CacheFilesMetadata.METADATA_FILE_NAME))
+                    );
                 }
                 stopBlockingDeletes();
                 return Settings.EMPTY;
@@ -181,7 +190,13 @@ public class SearchableSnapshotsCacheClearingIntegTests extends BaseSearchableSn
         ensureGreen(restoredIndexName);
 
         for (Path cacheFile : cacheFiles) {
-            assertFalse(cacheFile + " should have been cleaned up", Files.exists(cacheFile));
+            assertTrue(cacheFile + " should have been reused", Files.isRegularFile(cacheFile));
+        }
+        for (Path snapshotCachePath : snapshotCachePaths) {
+            assertFalse(
+                "cache files metadata should have been deleted once loaded from " + snapshotCachePath,
+                Files.exists(snapshotCachePath.resolve(CacheFilesMetadata.METADATA_FILE_NAME))
+            );
         }
 
         assertAcked(client().admin().indices().prepareDelete(restoredIndexName));
@@ -0,0 +1,103 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.searchablesnapshots.cache;
+
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.cache.CacheFile;
+import org.elasticsearch.index.store.cache.CacheKey;
+import org.elasticsearch.index.store.cache.TestUtils;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class CacheServiceTests extends ESTestCase {
+
+    private static final SnapshotId SNAPSHOT_ID = new SnapshotId("_name", "_uuid");
+    private static final IndexId INDEX_ID = new IndexId("_name", "_uuid");
+    private static final ShardId SHARD_ID = new ShardId("_name", "_uuid", 0);
+
+    public void testPersistAndLoadCacheFiles() throws Exception {
+        final Path cacheDir = createTempDir();
+        final long length = randomLongBetween(10L, 1000L);
+        final long middle = randomLongBetween(1L, length - 1L);
+        final List<Tuple<Long, Long>> completedRanges = List.of(Tuple.tuple(0L, middle));
+
+        // a cache file whose first bytes were written before the cache files were persisted
+        final Path file = cacheDir.resolve("_cache_file");
+        Files.write(file, new byte[Math.toIntExact(middle)]);
+        // a cache file that is not referenced by the metadata
+        final Path unknownFile = cacheDir.resolve("_unknown");
+        Files.write(unknownFile, new byte[0]);
+        CacheFilesMetadata.write(cacheDir, List.of(new CacheFilesMetadata.Entry("_file", "_cache_file", length, completedRanges)));
+
+        try (CacheService cacheService = createCacheService()) {
+            cacheService.start();
+            cacheService.loadCacheFiles(cacheDir, this::cacheKey);
+
+            assertThat("metadata are deleted once loaded", CacheFilesMetadata.exists(cacheDir), is(false));
+            assertThat("unknown cache files are deleted", Files.exists(unknownFile), is(false));
+
+            final CacheFile cacheFile = cacheService.get(cacheKey("_file"), length, cacheDir);
+            assertThat(cacheFile.getFile(), equalTo(file));
+            assertThat(cacheFile.getCompletedRanges(), equalTo(completedRanges));
+
+            final CacheFile otherCacheFile = cacheService.get(cacheKey("_other"), length, cacheDir);
+            assertThat(otherCacheFile.getFile(), not(equalTo(file)));
+
+            cacheService.persistAndRemoveFromCache(cacheDir, cacheKey -> true);
+            assertThat("persisted cache files are kept on disk", Files.exists(file), is(true));
+
+            final List<CacheFilesMetadata.Entry> entries = CacheFilesMetadata.read(cacheDir);
+            assertThat("cache files without completed ranges are not persisted", entries, hasSize(1));
+            assertThat(entries.get(0).getFileName(), equalTo("_file"));
+            assertThat(entries.get(0).getCacheFileName(), equalTo("_cache_file"));
+            assertThat(entries.get(0).getLength(), equalTo(length));
+            assertThat(entries.get(0).getCompletedRanges(), equalTo(completedRanges));
+        }
+    }
+
+    public void testLoadCorruptedMetadata() throws Exception {
+        final Path cacheDir = createTempDir();
+        final Path file = cacheDir.resolve("_cache_file");
+        Files.write(file, new byte[10]);
+        final List<Tuple<Long, Long>> completedRanges = List.of(Tuple.tuple(0L, 10L));
+        CacheFilesMetadata.write(cacheDir, List.of(new CacheFilesMetadata.Entry("_file", "_cache_file", 10L, completedRanges)));
+
+        // truncate the metadata file
+        final Path metadataFile = cacheDir.resolve(CacheFilesMetadata.METADATA_FILE_NAME);
+        final byte[] metadata = Files.readAllBytes(metadataFile);
+        Files.write(metadataFile, Arrays.copyOf(metadata, randomIntBetween(0, metadata.length - 1)));
+
+        try (CacheService cacheService = createCacheService()) {
+            cacheService.start();
+            cacheService.loadCacheFiles(cacheDir, this::cacheKey);
+
+            assertThat(CacheFilesMetadata.exists(cacheDir), is(false));
+            assertThat("cache files are discarded if the metadata cannot be read", Files.exists(file), is(false));
+        }
+    }
+
+    private CacheKey cacheKey(String fileName) {
+        return new CacheKey(SNAPSHOT_ID, INDEX_ID, SHARD_ID, fileName);
+    }
+
+    private static CacheService createCacheService() {
+        return new CacheService(TestUtils::noOpCacheCleaner, new ByteSizeValue(1, ByteSizeUnit.GB), new ByteSizeValue(1, ByteSizeUnit.KB));
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.searchablesnapshots.cache;
+
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.cache.CacheKey;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshotsConstants.CACHE_FETCH_ASYNC_THREAD_POOL_NAME;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class FrozenCacheServiceTests extends ESTestCase {
+
+    private static final SnapshotId SNAPSHOT_ID = new SnapshotId("_name", "_uuid");
+    private static final IndexId INDEX_ID = new IndexId("_name", "_uuid");
+    private static final ShardId SHARD_ID = new ShardId("_name", "_uuid", 0);
+    private static final long REGION_SIZE = ByteSizeUnit.KB.toBytes(4L);
+
+    public void testDisabledByDefault() {
+        final Path sharedCacheDir = createTempDir();
+        try (FrozenCacheService frozenCacheService = new FrozenCacheService(sharedCacheDir, Settings.EMPTY)) {
+            assertThat(frozenCacheService.isEnabled(), is(false));
+            assertThat(Files.exists(sharedCacheDir.resolve(FrozenCacheService.SHARED_CACHE_FILE_NAME)), is(false));
+        }
+    }
+
+    public void testSharedCacheFileIsDeletedOnClose() {
+        final Path sharedCacheDir = createTempDir();
+        final Path sharedCacheFile = sharedCacheDir.resolve(FrozenCacheService.SHARED_CACHE_FILE_NAME);
+        try (FrozenCacheService frozenCacheService = createFrozenCacheService(sharedCacheDir, 4)) {
+            assertThat(frozenCacheService.isEnabled(), is(true));
+            assertThat(frozenCacheService.getFreeRegionCount(), equalTo(4));
+            assertThat(Files.exists(sharedCacheFile), is(true));
+        }
+        assertThat(Files.exists(sharedCacheFile), is(false));
+    }
+
+    public void testPopulateAndRead() throws Exception {
+        final ThreadPool threadPool = new TestThreadPool(getTestName(), SearchableSnapshots.executorBuilders());
+        try (FrozenCacheService frozenCacheService = createFrozenCacheService(createTempDir(), 2)) {
+            final long fileLength = randomLongBetween(REGION_SIZE + 1L, 2L * REGION_SIZE);
+            final int region = 1;
+            final long regionLength = frozenCacheService.getRegionLength(fileLength, region);
+            assertThat(regionLength, equalTo(fileLength - REGION_SIZE));
+
+            final byte value = randomByte();
+            final AtomicInteger writes = new AtomicInteger();
+            for (int i = 0; i < 3; i++) {
+                final FrozenCacheService.CacheFileRegion cacheFileRegion = frozenCacheService.get(cacheKey("_file"), fileLength, region);
+                assertThat(cacheFileRegion, notNullValue());
+                try {
+                    final long start = randomLongBetween(0L, regionLength - 1L);
+                    final long end = randomLongBetween(start + 1L, regionLength);
+                    final ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(end - start));
+                    final int read = cacheFileRegion.populateAndRead(
+                        Tuple.tuple(0L, regionLength),
+                        Tuple.tuple(start, end),
+                        (sharedBytes, sharedRegion) -> sharedBytes.read(sharedRegion, start, buffer),
+                        (sharedBytes, sharedRegion, rangeStart, rangeEnd, progressUpdater) -> {
+                            assertThat(Thread.currentThread().getName(), containsString('[' + CACHE_FETCH_ASYNC_THREAD_POOL_NAME + ']'));
+                            writes.incrementAndGet();
+                            final byte[] bytes = new byte[Math.toIntExact(rangeEnd - rangeStart)];
+                            Arrays.fill(bytes, value);
+                            sharedBytes.write(sharedRegion, rangeStart, ByteBuffer.wrap(bytes));
+                            progressUpdater.accept(rangeEnd);
+                        },
+                        threadPool.executor(CACHE_FETCH_ASYNC_THREAD_POOL_NAME)
+                    );
+                    assertThat(read, equalTo(Math.toIntExact(end - start)));
+                    for (int j = 0; j < read; j++) {
+                        assertThat(buffer.get(j), equalTo(value));
+                    }
+                } finally {
+                    cacheFileRegion.decRef();
+                }
+            }
+            assertThat("region is only written once", writes.get(), equalTo(1));
+            assertThat(frozenCacheService.getFreeRegionCount(), equalTo(1));
+        } finally {
+            ThreadPool.terminate(threadPool, 30, TimeUnit.SECONDS);
+        }
+    }
+
+    public void testEvictsLeastFrequentlyUsedRegion() {
+        try (FrozenCacheService frozenCacheService = createFrozenCacheService(createTempDir(), 2)) {
+            final long fileLength = REGION_SIZE;
+            // the hot file is accessed more often than the cold one
+            final FrozenCacheService.CacheFileRegion hotRegion = frozenCacheService.get(cacheKey("_hot"), fileLength, 0);
+            hotRegion.decRef();
+            final int hotAccesses = randomIntBetween(1, 5);
+            for (int i = 0; i < hotAccesses; i++) {
+                frozenCacheService.get(cacheKey("_hot"), fileLength, 0).decRef();
+            }
+            final FrozenCacheService.CacheFileRegion coldRegion = frozenCacheService.get(cacheKey("_cold"), fileLength, 0);
+            coldRegion.decRef();
+            assertThat(frozenCacheService.getFreeRegionCount(), equalTo(0));
+
+            final FrozenCacheService.CacheFileRegion newRegion = frozenCacheService.get(cacheKey("_new"), fileLength, 0);
+            assertThat(newRegion, notNullValue());
+            newRegion.decRef();
+
+            assertThat("cold region is evicted", coldRegion.refCount(), equalTo(0));
+            assertThat("hot region is still cached", hotRegion.refCount(), equalTo(1));
+            final FrozenCacheService.CacheFileRegion cachedRegion = frozenCacheService.get(cacheKey("_hot"), fileLength, 0);
+            assertThat(cachedRegion, sameInstance(hotRegion));
+            cachedRegion.decRef();
+        }
+    }
+
+    public void testSkipsRegionsInUseWhenEvicting() {
+        try (FrozenCacheService frozenCacheService = createFrozenCacheService(createTempDir(), 2)) {
+            final long fileLength = REGION_SIZE;
+            final FrozenCacheService.CacheFileRegion inUseRegion = frozenCacheService.get(cacheKey("_in_use"), fileLength, 0);
+            final FrozenCacheService.CacheFileRegion hotRegion = frozenCacheService.get(cacheKey("_hot"), fileLength, 0);
+            hotRegion.decRef();
+            final int hotAccesses = randomIntBetween(1, 5);
+            for (int i = 0; i < hotAccesses; i++) {
+                frozenCacheService.get(cacheKey("_hot"), fileLength, 0).decRef();
+            }
+            try {
+                final FrozenCacheService.CacheFileRegion newRegion = frozenCacheService.get(cacheKey("_new"), fileLength, 0);
+                assertThat(newRegion, notNullValue());
+                newRegion.decRef();
+                assertThat("least frequently used region is in use", inUseRegion.refCount(), equalTo(2));
+                assertThat("hot region is evicted instead", hotRegion.refCount(), equalTo(0));
+            } finally {
+                inUseRegion.decRef();
+            }
+        }
+    }
+
+    public void testEvictsRegionWhoseFrequencyDecayed() {
+        try (FrozenCacheService frozenCacheService = createFrozenCacheService(createTempDir(), 2)) {
+            final long fileLength = REGION_SIZE;
+            // frequencies are halved every 20 accesses with 2 regions, so 50 old accesses weigh less than 30 recent ones
+            final FrozenCacheService.CacheFileRegion oldRegion = frozenCacheService.get(cacheKey("_old"), fileLength, 0);
+            oldRegion.decRef();
+            for (int i = 1; i < 50; i++) {
+                frozenCacheService.get(cacheKey("_old"), fileLength, 0).decRef();
+            }
+            final FrozenCacheService.CacheFileRegion recentRegion = frozenCacheService.get(cacheKey("_recent"), fileLength, 0);
+            recentRegion.decRef();
+            for (int i = 1; i < 30; i++) {
+                frozenCacheService.get(cacheKey("_recent"), fileLength, 0).decRef();
+            }
+
+            final FrozenCacheService.CacheFileRegion newRegion = frozenCacheService.get(cacheKey("_new"), fileLength, 0);
+            assertThat(newRegion, notNullValue());
+            newRegion.decRef();
+            assertThat("old region is evicted", oldRegion.refCount(), equalTo(0));
+            assertThat("recent region is still cached", recentRegion.refCount(), equalTo(1));
+        }
+    }
+
+    public void testNoRegionWhenAllRegionsAreInUse() {
+        try (FrozenCacheService frozenCacheService = createFrozenCacheService(createTempDir(), 1)) {
+            final FrozenCacheService.CacheFileRegion inUse = frozenCacheService.get(cacheKey("_file"), REGION_SIZE, 0);
+            assertThat(inUse, notNullValue());
+            try {
+                assertThat(frozenCacheService.get(cacheKey("_other"), REGION_SIZE, 0), nullValue());
+            } finally {
+                inUse.decRef();
+            }
+            final FrozenCacheService.CacheFileRegion other = frozenCacheService.get(cacheKey("_other"), REGION_SIZE, 0);
+            assertThat(other, notNullValue());
+            other.decRef();
+        }
+    }
+
+    public void testRemoveFromCache() {
+        try (FrozenCacheService frozenCacheService = createFrozenCacheService(createTempDir(), 3)) {
+            frozenCacheService.get(cacheKey("_file"), 2L * REGION_SIZE, 0).decRef();
+            frozenCacheService.get(cacheKey("_file"), 2L * REGION_SIZE, 1).decRef();
+            frozenCacheService.get(cacheKey("_other"), REGION_SIZE, 0).decRef();
+            assertThat(frozenCacheService.getFreeRegionCount(), equalTo(0));
+
+            frozenCacheService.removeFromCache(cacheKey -> cacheKey.getFileName().equals("_file"));
+            assertThat(frozenCacheService.getFreeRegionCount(), equalTo(2));
+        }
+    }
+
+    private static FrozenCacheService createFrozenCacheService(Path sharedCacheDir, int numRegions) {
+        return new FrozenCacheService(
+            sharedCacheDir,
+            new ByteSizeValue(numRegions * REGION_SIZE, ByteSizeUnit.BYTES),
+            new ByteSizeValue(REGION_SIZE, ByteSizeUnit.BYTES),
+            FrozenCacheService.SNAPSHOT_CACHE_MAX_FREQUENCY_SETTING.getDefault(Settings.EMPTY)
+        );
+    }
+
+    private static CacheKey cacheKey(String fileName) {
+        return new CacheKey(SNAPSHOT_ID, INDEX_ID, SHARD_ID, fileName);
+    }
+}
@@ -12,6 +12,8 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.support.DestructiveOperations;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.CheckedConsumer;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
@@ -206,7 +208,7 @@ public class SecurityServerTransportInterceptor implements TransportInterceptor
             this.forceExecution = forceExecution;
         }
 
-        AbstractRunnable getReceiveRunnable(T request, TransportChannel channel, Task task) {
+        AbstractRunnable getReceiveRunnable(T request, TransportChannel channel, Task task, Releasable releaseRequest) {
             return new AbstractRunnable() {
                 @Override
                 public boolean isForceExecution() {
@@ -227,6 +229,11 @@ public class SecurityServerTransportInterceptor implements TransportInterceptor
                 protected void doRun() throws Exception {
                     handler.messageReceived(request, channel, task);
                 }
+
+                @Override
+                public void onAfter() {
+                    releaseRequest.close();
+                }
             };
         }
 
@@ -241,7 +248,6 @@ public class SecurityServerTransportInterceptor implements TransportInterceptor
 
         @Override
         public void messageReceived(T request, TransportChannel channel, Task task) throws Exception {
-            final AbstractRunnable receiveMessage = getReceiveRunnable(request, channel, task);
             try (ThreadContext.StoredContext ctx = threadContext.newStoredContext(true)) {
                 if (licenseState.isSecurityEnabled()) {
                     String profile = channel.getProfileName();
@@ -257,6 +263,11 @@ public class SecurityServerTransportInterceptor implements TransportInterceptor
                         }
                     }
                     assert filter != null;
+                    // the request may be handled after this method returns, so it is retained until it has been handled or failed. Both
+                    // the receiving runnable and the failure paths below release it, which must only happen once.
+                    request.incRef();
+                    final Releasable releaseRequest = Releasables.releaseOnce(request::decRef);
+                    final AbstractRunnable receiveMessage = getReceiveRunnable(request, channel, task, releaseRequest);
                     final Thread executingThread = Thread.currentThread();
 
                     CheckedConsumer<Void, Exception> consumer = (x) -> {
@@ -276,14 +287,30 @@ public class SecurityServerTransportInterceptor implements TransportInterceptor
                         try {
                             executor.execute(receiveMessage);
                         } catch (Exception e) {
-                            receiveMessage.onFailure(e);
+                            try {
+                                receiveMessage.onFailure(e);
+                            } finally {
+                                releaseRequest.close();
+                            }
                         }
 
                     };
-                    ActionListener<Void> filterListener = ActionListener.wrap(consumer, receiveMessage::onFailure);
-                    filter.inbound(action, request, channel, filterListener);
+                    // notified once, so that a filter that throws after notifying the listener does not also fail the request
+                    ActionListener<Void> filterListener = ActionListener.notifyOnce(ActionListener.wrap(consumer, e -> {
+                        try {
+                            receiveMessage.onFailure(e);
+                        } finally {
+                            releaseRequest.close();
+                        }
+                    }));
+                    try {
+                        filter.inbound(action, request, channel, filterListener);
+                    } catch (Exception e) {
+                        filterListener.onFailure(e);
+                    }
                 } else {
-                    receiveMessage.run();
+                    request.incRef();
+                    getReceiveRunnable(request, channel, task, Releasables.releaseOnce(request::decRef)).run();
                 }
             }
         }
@@ -5,12 +5,17 @@
  */
 package org.elasticsearch.xpack.security.transport;
 
+import org.elasticsearch.ElasticsearchSecurityException;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.main.MainAction;
 import org.elasticsearch.action.support.DestructiveOperations;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.block.ClusterBlocks;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
@@ -21,8 +26,10 @@ import org.elasticsearch.test.ClusterServiceUtils;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.BytesTransportRequest;
 import org.elasticsearch.transport.Transport;
 import org.elasticsearch.transport.Transport.Connection;
+import org.elasticsearch.transport.TransportChannel;
 import org.elasticsearch.transport.TransportException;
 import org.elasticsearch.transport.TransportInterceptor.AsyncSender;
 import org.elasticsearch.transport.TransportRequest;
@@ -31,6 +38,7 @@ import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportResponse.Empty;
 import org.elasticsearch.transport.TransportResponseHandler;
 import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.transport.TransportSettings;
 import org.elasticsearch.xpack.core.security.SecurityContext;
 import org.elasticsearch.xpack.core.security.authc.Authentication;
 import org.elasticsearch.xpack.core.security.authc.Authentication.RealmRef;
@@ -41,7 +49,9 @@ import org.elasticsearch.xpack.security.authc.AuthenticationService;
 import org.elasticsearch.xpack.security.authz.AuthorizationService;
 import org.junit.After;
 
+import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -50,6 +60,8 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -445,6 +457,87 @@ public class SecurityServerTransportInterceptorTests extends ESTestCase {
         assertEquals("value", threadContext.getHeader("key"));
     }
 
+    public void testProfileSecuredRequestHandlerReleasesRequest() throws Exception {
+        final AuthenticationService authcService = mock(AuthenticationService.class);
+        final AuthorizationService authzService = mock(AuthorizationService.class);
+        final Authentication authentication = mock(Authentication.class);
+        when(authentication.getVersion()).thenReturn(Version.CURRENT);
+        when(authentication.getUser()).thenReturn(SystemUser.INSTANCE);
+        final boolean authenticates = randomBoolean();
+        final boolean completesOnOtherThread = randomBoolean();
+        if (authenticates == false && randomBoolean()) {
+            doThrow(new IllegalStateException("simulated")).when(authcService)
+                .authenticate(eq("_action"), any(TransportRequest.class), eq(true), any(ActionListener.class));
+        } else {
+            doAnswer(i -> {
+                final ActionListener listener = (ActionListener) i.getArguments()[3];
+                final Runnable completion = authenticates
+                    ? () -> listener.onResponse(authentication)
+                    : () -> listener.onFailure(new ElasticsearchSecurityException("simulated"));
+                if (completesOnOtherThread) {
+                    threadPool.generic().execute(completion);
+                } else {
+                    completion.run();
+                }
+                return null;
+            }).when(authcService).authenticate(eq("_action"), any(TransportRequest.class), eq(true), any(ActionListener.class));
+        }
+        doAnswer(i -> {
+            ((ActionListener) i.getArguments()[3]).onResponse(null);
+            return null;
+        }).when(authzService).authorize(eq(authentication), eq("_action"), any(TransportRequest.class), any(ActionListener.class));
+        final ServerTransportFilter filter = new ServerTransportFilter(authcService, authzService, threadContext, false,
+            new DestructiveOperations(Settings.EMPTY, new ClusterSettings(Settings.EMPTY,
+                Collections.singleton(DestructiveOperations.REQUIRES_NAME_SETTING))), securityContext, xPackLicenseState);
+
+        final AtomicBoolean released = new AtomicBoolean();
+        final AtomicBoolean releasedWhileHandling = new AtomicBoolean(true);
+        final CountDownLatch done = new CountDownLatch(1);
+        final boolean handlerFails = randomBoolean();
+        final boolean sendingFailureFails = randomBoolean();
+        final SecurityServerTransportInterceptor.ProfileSecuredRequestHandler<BytesTransportRequest> requestHandler =
+            new SecurityServerTransportInterceptor.ProfileSecuredRequestHandler<>(logger, "_action", randomBoolean(),
+                randomFrom(ThreadPool.Names.SAME, ThreadPool.Names.GENERIC), (request, channel, task) -> {
+                    releasedWhileHandling.set(released.get());
+                    done.countDown();
+                    if (handlerFails) {
+                        throw new IllegalStateException("simulated");
+                    }
+                }, Collections.singletonMap(TransportSettings.DEFAULT_PROFILE, filter), xPackLicenseState, threadPool);
+        final TransportChannel channel = mock(TransportChannel.class);
+        when(channel.getProfileName()).thenReturn(TransportSettings.DEFAULT_PROFILE);
+        when(channel.getVersion()).thenReturn(Version.CURRENT);
+        doAnswer(i -> {
+            done.countDown();
+            if (sendingFailureFails) {
+                throw new IOException("simulated");
+            }
+            return null;
+        }).when(channel).sendResponse(any(Exception.class));
+
+        // the request holds a slice of the buffer it was read from, like the requests that are read off the network
+        final BytesStreamOutput out = new BytesStreamOutput();
+        new BytesTransportRequest(new BytesArray(randomByteArrayOfLength(10)), Version.CURRENT).writeTo(out);
+        final BytesTransportRequest request;
+        try (ReleasableBytesReference buffer = new ReleasableBytesReference(out.bytes(),
+            () -> assertTrue(released.compareAndSet(false, true)))) {
+            request = new BytesTransportRequest(buffer.streamInput());
+        }
+        try {
+            requestHandler.messageReceived(request, channel, null);
+        } finally {
+            // the inbound handler releases the request once the wrapped handler returns
+            request.decRef();
+        }
+        done.await();
+        if (authenticates) {
+            assertFalse(releasedWhileHandling.get());
+        } else {
+            verify(channel).sendResponse(any(Exception.class));
+        }
+        assertBusy(() -> assertTrue(released.get()));
+    }
+
     private String[] randomRoles() {
         return generateRandomStringArray(3, 10, false, true);
     }